@@ -35,6 +35,7 @@ import android.util.Log;
 import com.funzio.pure2D.animators.Animator;
 import com.funzio.pure2D.animators.Manipulator;
 import com.funzio.pure2D.containers.Container;
+import com.funzio.pure2D.containers.SpatialGrid;
 import com.funzio.pure2D.exceptions.Pure2DException;
 import com.funzio.pure2D.gl.GLColor;
 import com.funzio.pure2D.gl.gl10.BlendFunc;
@@ -135,9 +136,18 @@ public abstract class BaseDisplayObject implements DisplayObject {
     protected int mInvalidateFlags = 0;
     protected Matrix mMatrix;
     protected boolean mAutoUpdateBounds = false;
+    // world matrix caching: a new version every time mMatrix is recomposed
+    private static int sMatrixVersion = 0;
+    protected int mMatrixVersion = 0;
+    private int mParentMatrixVersion = -1;
+    private Matrix mLocalMatrix;
+    private boolean mLocalMatrixInvalidated = true;
+    private final float[] mLocalMatrixInputs = new float[14];
     // global bounds
     protected RectF mBounds = new RectF(-mOrigin.x, -mOrigin.y, -mOrigin.x + mSize.x - 1, -mOrigin.y + mSize.y - 1);
     protected boolean mBypassCameraClipping = false;
+    // the parent's spatial index, if any
+    private SpatialGrid.Entry mSpatialEntry;
 
     // perspective projection
     protected boolean mPerspectiveEnabled = false;
@@ -342,6 +352,7 @@ public abstract class BaseDisplayObject implements DisplayObject {
                 // get values
                 Pure2DUtils.getMatrix3DValues(mTransformMatrix, mTransformMatrixValues);
             }
+            mLocalMatrixInvalidated = true;
         }
 
         // update bounds for the children to calculate their bounds correctly
@@ -383,6 +394,11 @@ public abstract class BaseDisplayObject implements DisplayObject {
     public void invalidate(final int flags) {
         mInvalidateFlags |= flags;
 
+        // re-index me in the parent's grid
+        if (mSpatialEntry != null && (flags & BOUNDS) != 0) {
+            mSpatialEntry.invalidate();
+        }
+
         final Parentable parent = getParent();
         if (parent != null) {
             parent.invalidate(CHILDREN);
@@ -1039,14 +1055,42 @@ public abstract class BaseDisplayObject implements DisplayObject {
      * Find the global bounds of this object that takes position, scale, rotation, skew... into account. Used mainly for Camera clipping and bounds hit-testing.
      */
     public RectF updateBounds() {
+        final Matrix parentMatrix = getParentMatrix();
+        final int parentVersion = getParentMatrixVersion();
+        final boolean localChanged = updateLocalMatrixInputs();
+
+        // nothing changed since the last time?
+        if (!localChanged && mMatrix != null && parentVersion == mParentMatrixVersion) {
+            return mBounds;
+        }
+        mParentMatrixVersion = parentVersion;
+        mMatrixVersion = ++sMatrixVersion;
+
+        // only the parent changed, reuse the local matrix
+        if (!localChanged && mMatrix != null) {
+            mMatrix.set(mLocalMatrix);
+            mBounds.left = 0;
+            mBounds.top = 0;
+            mBounds.right = mSize.x - 1;
+            mBounds.bottom = mSize.y - 1;
+
+            onPreConcatParentMatrix();
+            if (parentMatrix != null) {
+                mMatrix.postConcat(parentMatrix);
+            }
+            mMatrix.mapRect(mBounds);
+
+            return mBounds;
+        }
+
         boolean changed = false;
 
         // init
         if (mMatrix == null) {
             mMatrix = new Matrix();
+            mLocalMatrix = new Matrix();
             changed = true;
         }
-        final Matrix parentMatrix = getParentMatrix();
 
         if (mHasTransformValues) {
             mMatrix.setTranslate(-mOrigin.x - mPivot.x, -mOrigin.y - mPivot.y);
@@ -1088,6 +1132,7 @@ public abstract class BaseDisplayObject implements DisplayObject {
                 changed = true;
 
                 if (parentMatrix == null) {
+                    mLocalMatrix.set(mMatrix);
                     onPreConcatParentMatrix();
                     // easy case: only translation needs to be applied. No need to use matrix!
                     mBounds.left = mPosition.x - mOrigin.x;
@@ -1111,6 +1156,7 @@ public abstract class BaseDisplayObject implements DisplayObject {
         mBounds.right = mSize.x - 1;
         mBounds.bottom = mSize.y - 1;
 
+        mLocalMatrix.set(mMatrix);
         onPreConcatParentMatrix();
         // find the bounds
         if (changed || parentMatrix != null) {
@@ -1127,6 +1173,39 @@ public abstract class BaseDisplayObject implements DisplayObject {
         return mBounds;
     }
 
+    /**
+     * Compare the local transform with the one used for the last local matrix. The fields can be set directly by the subclasses, so the invalidate flags are not enough.
+     *
+     * @return true if the local matrix needs to be rebuilt
+     */
+    private boolean updateLocalMatrixInputs() {
+        final float[] inputs = mLocalMatrixInputs;
+        boolean changed = mLocalMatrixInvalidated;
+        changed |= inputs[0] != mPosition.x || inputs[1] != mPosition.y || inputs[2] != mOrigin.x || inputs[3] != mOrigin.y || inputs[4] != mPivot.x || inputs[5] != mPivot.y;
+        changed |= inputs[6] != mScale.x || inputs[7] != mScale.y || inputs[8] != mSize.x || inputs[9] != mSize.y;
+        changed |= inputs[10] != mRotation || inputs[11] != mRotationVectorX || inputs[12] != mRotationVectorY || inputs[13] != mRotationVectorZ;
+
+        if (changed) {
+            inputs[0] = mPosition.x;
+            inputs[1] = mPosition.y;
+            inputs[2] = mOrigin.x;
+            inputs[3] = mOrigin.y;
+            inputs[4] = mPivot.x;
+            inputs[5] = mPivot.y;
+            inputs[6] = mScale.x;
+            inputs[7] = mScale.y;
+            inputs[8] = mSize.x;
+            inputs[9] = mSize.y;
+            inputs[10] = mRotation;
+            inputs[11] = mRotationVectorX;
+            inputs[12] = mRotationVectorY;
+            inputs[13] = mRotationVectorZ;
+            mLocalMatrixInvalidated = false;
+        }
+
+        return changed;
+    }
+
     protected void onPreConcatParentMatrix() {
         // TODO override
     }
@@ -1135,11 +1214,30 @@ public abstract class BaseDisplayObject implements DisplayObject {
         return mMatrix;
     }
 
+    /**
+     * @return the local part of {@link #getMatrix()}, without the parent's matrix. Null if {@link #updateBounds()} has never been called
+     */
+    protected Matrix getLocalMatrix() {
+        return mLocalMatrix;
+    }
+
+    /**
+     * @return the version of the global matrix, changed every time the matrix is recomposed by {@link #updateBounds()}
+     */
+    final public int getMatrixVersion() {
+        return mMatrixVersion;
+    }
+
     protected Matrix getParentMatrix() {
         final Parentable parent = getParent();
         return parent != null ? parent.getMatrix() : null;
     }
 
+    protected int getParentMatrixVersion() {
+        final Parentable parent = getParent();
+        return parent != null ? parent.getMatrixVersion() : 0;
+    }
+
     /**
      * Get the Global Bounds of this object that takes translation, rotation and scale factors into account.
      *
@@ -1155,6 +1253,26 @@ public abstract class BaseDisplayObject implements DisplayObject {
 
     public void setBypassCameraClipping(final boolean ignoreCameraClipping) {
         mBypassCameraClipping = ignoreCameraClipping;
+
+        if (mSpatialEntry != null) {
+            mSpatialEntry.invalidate();
+        }
+    }
+
+    /**
+     * @hide
+     */
+    public SpatialGrid.Entry getSpatialEntry() {
+        return mSpatialEntry;
+    }
+
+    /**
+     * Set by the parent's {@link SpatialGrid}, to report the bounds changes
+     *
+     * @hide
+     */
+    public void setSpatialEntry(final SpatialGrid.Entry entry) {
+        mSpatialEntry = entry;
     }
 
     /**
@@ -1190,6 +1308,7 @@ public abstract class BaseDisplayObject implements DisplayObject {
     public void dispose() {
         mTransformMatrix = null;
         mTransformMatrixValues = null;
+        mLocalMatrixInvalidated = true;
         mGlobalPosition = null;
     }
 
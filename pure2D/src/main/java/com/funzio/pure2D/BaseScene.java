@@ -37,12 +37,18 @@ import android.util.Log;
 import android.view.MotionEvent;
 
 import com.funzio.pure2D.containers.Container;
+import com.funzio.pure2D.containers.SpatialGrid;
 import com.funzio.pure2D.exceptions.Pure2DException;
 import com.funzio.pure2D.gl.GLColor;
 import com.funzio.pure2D.gl.gl10.BlendFunc;
 import com.funzio.pure2D.gl.gl10.BlendModes;
 import com.funzio.pure2D.gl.gl10.GLState;
+import com.funzio.pure2D.gl.gl10.RenderQueue;
+import com.funzio.pure2D.gl.gl10.SpriteBatch;
 import com.funzio.pure2D.gl.gl10.textures.TextureManager;
+import com.funzio.pure2D.profiler.Profiler;
+import com.funzio.pure2D.schedulers.FrameScheduler;
+import com.funzio.pure2D.schedulers.VariableFrameScheduler;
 import com.funzio.pure2D.ui.UITextureManager;
 
 import java.nio.IntBuffer;
@@ -81,14 +87,8 @@ public class BaseScene implements Scene {
     private int mInvalidated = 0;
     private boolean mRenderContinueously = false;
 
-    // frame rate
-    private int mFrameCount = 0;
-    private float mFrameCountDuration = 0;
-    private volatile int mCurrentFps = 0; // thread independent
-    private int mTargetFps = 0; // 0 = unlimited
-    private int mTargetDuration = 1000 / (mTargetFps > 0 ? mTargetFps : DEFAULT_FPS);
-    private int mTargetDurationJitter = (int) (mTargetDuration * 0.15f);
-    private int mDownTime = 0;
+    // frame rate and timing
+    private FrameScheduler mFrameScheduler = new VariableFrameScheduler();
 
     // extra
     private GLColor mColor = new GLColor(0f, 0f, 0f, 1f);
@@ -101,11 +101,21 @@ public class BaseScene implements Scene {
     // UI
     private final Object mUILock = new Object();
     private boolean mUIEnabled = false;
-    private ArrayList<Touchable> mVisibleTouchables;
+    private final HitTestIndex mHitTestIndex = new HitTestIndex();
     private ArrayList<PointF> mTouchedPoints = new ArrayList<PointF>();
     private int mPointerCount = 0;
     private long mDeltaTime;
 
+    // batching
+    private SpriteBatch mSpriteBatch;
+    private boolean mBatchEnabled = false;
+    // order-independent children
+    private RenderQueue mRenderQueue;
+    private boolean mReorderable = false;
+
+    // camera culling
+    private SpatialGrid mSpatialGrid;
+
     public BaseScene() {
     }
 
@@ -208,7 +218,7 @@ public class BaseScene implements Scene {
     }
 
     final public int getCurrentFps() {
-        return mCurrentFps;
+        return mFrameScheduler.getCurrentFps();
     }
 
     /**
@@ -216,7 +226,7 @@ public class BaseScene implements Scene {
      */
     @Deprecated
     final public int getTargetFps() {
-        return mTargetFps;
+        return mFrameScheduler.getTargetFps();
     }
 
     /**
@@ -224,10 +234,30 @@ public class BaseScene implements Scene {
      */
     @Deprecated
     public void setTargetFps(final int fps) {
-        mTargetFps = fps;
+        mFrameScheduler.setTargetFps(fps);
+    }
 
-        mTargetDuration = 1000 / (mTargetFps > 0 ? mTargetFps : DEFAULT_FPS);
-        mTargetDurationJitter = (int) (mTargetDuration * 0.15f);
+    public FrameScheduler getFrameScheduler() {
+        return mFrameScheduler;
+    }
+
+    /**
+     * Change how the time is stepped, such as a {@link com.funzio.pure2D.schedulers.FixedFrameScheduler} for fixed updates. The target fps is carried over.
+     * 
+     * @param scheduler
+     */
+    public void setFrameScheduler(final FrameScheduler scheduler) {
+        scheduler.setTargetFps(mFrameScheduler.getTargetFps());
+        scheduler.reset();
+        mFrameScheduler = scheduler;
+    }
+
+    /**
+     * @return how far the time is between the last update and the next one, from 0 to 1. This is always 1 unless the updates are fixed.
+     * @see FrameScheduler#getInterpolation()
+     */
+    public float getInterpolation() {
+        return mFrameScheduler.getInterpolation();
     }
 
     public void setListener(final Listener listener) {
@@ -325,10 +355,7 @@ public class BaseScene implements Scene {
             mGLState.setTextureManager(mTextureManager);
 
             mStartTime = SystemClock.elapsedRealtime();
-            mDownTime = 0;
-            mFrameCount = 0;
-            mCurrentFps = 0;
-            mFrameCountDuration = 0;
+            mFrameScheduler.reset();
             firstTime = true;
         } else {
             // reload with new gl
@@ -397,75 +424,53 @@ public class BaseScene implements Scene {
 
         // pause check
         if (!mPaused) {
-            // delta time
-            final long now = SystemClock.elapsedRealtime();
-            // final float delta = ((now - mStartTime) / 1000000f);
-            mDeltaTime = now - mStartTime;
-
-            if (mDeltaTime == 0) {
+            // delta time, paced by the scheduler
+            final boolean frameStarted = mFrameScheduler.beginFrame();
+            // after the pacing, which can sleep
+            Profiler.beginUpdate();
+            if (!frameStarted) {
                 // NOTE: delta can be 0 (when nothing draws) on some devices such as S2, S3...
                 // We need to force invalidate!
+                mDeltaTime = 0;
                 invalidate();
             } else {
-                mStartTime = now;
-
-                int sleepTime = 0;
-                // compensate the framerate around the target fps
-                if (mTargetFps > 0) {
-                    float targetDelta = (mTargetDuration - mDeltaTime);
-                    if (targetDelta > 0) { // too fast?
-                        if (mDownTime > targetDelta) {
-                            mDownTime -= targetDelta;
-                        } else {
-                            sleepTime = (int) targetDelta - mDownTime;
-                            mDownTime = 0;
-                            if (sleepTime > mTargetDurationJitter) {
-                                try {
-                                    Thread.sleep(sleepTime);
-                                } catch (Exception e) {
-                                    // TODO: nothing
-                                }
-                            } else {
-                                sleepTime = 0;
-                            }
-                        }
-                    } else if (targetDelta < 0) { // too slow?
-                        mDownTime -= targetDelta;
+                mDeltaTime = mFrameScheduler.getFrameDelta();
+                mStartTime = SystemClock.elapsedRealtime();
+
+                // one or more updates
+                int delta;
+                while ((delta = mFrameScheduler.nextUpdate()) >= 0) {
+                    // camera update
+                    if (mCamera != null) {
+                        // update the camera
+                        mCamera.update(delta);
                     }
-                }
-
-                // calculate frame rate
-                mFrameCountDuration += mDeltaTime + sleepTime;
-                if (mFrameCountDuration <= 1000) {
-                    mFrameCount++;
-                } else {
-                    mCurrentFps = mFrameCount;
-                    mFrameCount = 0;
-                    mFrameCountDuration = 0;
-                }
 
-                // camera update
-                if (mCamera != null) {
-                    // update the camera
-                    mCamera.update((int) mDeltaTime);
+                    // update children
+                    for (int i = 0; i < mNumChildren; i++) {
+                        child = mChildren.get(i);
+                        if (child.isAlive()) {
+                            // heart beat
+                            child.update(delta);
+                        }
+                    }
                 }
 
-                // update children
-                for (int i = 0; i < mNumChildren; i++) {
-                    child = mChildren.get(i);
-                    if (child.isAlive()) {
-                        // heart beat
-                        child.update((int) mDeltaTime);
-                    }
+                // re-index the children that moved
+                if (mSpatialGrid != null) {
+                    mSpatialGrid.sync(mChildren);
                 }
             }
 
             // update texture manager
             mTextureManager.update((int) mDeltaTime);
         }
+        Profiler.endUpdate();
 
         // draw children if needed
         if (mInvalidated > 0 || mRenderContinueously) {
+            Profiler.beginDraw();
+
             // camera
             if (mCamera != null) {
                 // validate the camera
@@ -477,43 +482,61 @@ public class BaseScene implements Scene {
                 gl.glClear(GL10.GL_COLOR_BUFFER_BIT | GL10.GL_DEPTH_BUFFER_BIT);
             }
 
+            if (mBatchEnabled && mSpriteBatch == null) {
+                mSpriteBatch = new SpriteBatch();
+            }
+            if (mReorderable && mRenderQueue == null) {
+                mRenderQueue = new RenderQueue();
+            }
+
+            // only visit the children around the camera
+            final RectF cameraRect = getCameraRect();
+            final boolean indexed = mSpatialGrid != null && cameraRect != null;
+            if (indexed) {
+                mSpatialGrid.query(cameraRect, mChildren);
+            }
+
+            // collect the visible touchables, no locking needed
             if (mUIEnabled) {
-                // lock the array
-                synchronized (mUILock) {
-                    if (mVisibleTouchables == null) {
-                        mVisibleTouchables = new ArrayList<Touchable>();
+                mHitTestIndex.begin();
+            }
+
+            for (int i = indexed ? mSpatialGrid.nextVisible(0) : 0; i >= 0 && i < mNumChildren; i = indexed ? mSpatialGrid.nextVisible(i + 1) : i + 1) {
+                child = mChildren.get(i);
+                if (child.shouldDraw(cameraRect)) {
+                    // draw frame, check alpha for optimization
+                    if (mReorderable) {
+                        // drawn later, sorted
+                        mRenderQueue.add(child);
+                    } else if (mBatchEnabled) {
+                        mSpriteBatch.draw(mGLState, child);
                     } else {
-                        mVisibleTouchables.clear();
+                        child.draw(mGLState);
                     }
 
-                    for (int i = 0; i < mNumChildren; i++) {
-                        child = mChildren.get(i);
-                        if (child.shouldDraw(getCameraRect())) {
-                            // draw frame, check alpha for optimization
-                            child.draw(mGLState);
-
-                            // stack the visible child
-                            if (child instanceof Touchable && ((Touchable) child).isTouchable()) {
-                                float childZ = child.getZ();
-                                int j = mVisibleTouchables.size();
-                                while (j > 0 && ((DisplayObject) mVisibleTouchables.get(j - 1)).getZ() > childZ) {
-                                    j--;
-                                }
-                                mVisibleTouchables.add(j, (Touchable) child);
-                            }
-                        }
-                    }
-                }
-            } else {
-                for (int i = 0; i < mNumChildren; i++) {
-                    child = mChildren.get(i);
-                    if (child.shouldDraw(getCameraRect())) {
-                        // draw frame
-                        child.draw(mGLState);
+                    // stack the visible child
+                    if (mUIEnabled && child instanceof Touchable && ((Touchable) child).isTouchable()) {
+                        mHitTestIndex.add((Touchable) child);
                     }
+                } else {
+                    Profiler.count(Profiler.CULLED_OBJECTS);
                 }
             }
 
+            if (mUIEnabled) {
+                mHitTestIndex.end();
+            }
+
+            // draw the queued children
+            if (mReorderable) {
+                mRenderQueue.flush(mGLState, mBatchEnabled ? mSpriteBatch : null);
+            }
+
+            // flush the remaining batch
+            if (mBatchEnabled) {
+                mSpriteBatch.flush(mGLState);
+            }
+
             // camera
             if (mCamera != null) {
                 // validate the camera
@@ -525,7 +548,11 @@ public class BaseScene implements Scene {
 
             // validate scene
             mInvalidated--;
+            Profiler.endDraw();
         }
+
+        mFrameScheduler.endFrame();
+        Profiler.endFrame();
     }
 
     public void pause() {
@@ -543,6 +570,7 @@ public class BaseScene implements Scene {
 
         mPaused = false;
         mStartTime = SystemClock.elapsedRealtime();
+        mFrameScheduler.reset();
     }
 
     public boolean isPaused() {
@@ -656,6 +684,7 @@ public class BaseScene implements Scene {
 
             child.onAdded(this);
             invalidate();
+            invalidateSpatialIndex();
 
             return true;
         }
@@ -678,6 +707,7 @@ public class BaseScene implements Scene {
             // child callback
             child.onAdded(this);
             invalidate();
+            invalidateSpatialIndex();
 
             return true;
         }
@@ -691,6 +721,7 @@ public class BaseScene implements Scene {
 
             child.onRemoved();
             invalidate();
+            invalidateSpatialIndex();
 
             return true;
         }
@@ -709,6 +740,7 @@ public class BaseScene implements Scene {
         mChildren.clear();
         mNumChildren = 0;
         invalidate();
+        invalidateSpatialIndex();
     }
 
     public DisplayObject getChildAt(final int index) {
@@ -761,6 +793,7 @@ public class BaseScene implements Scene {
 
         mChildren.set(index1, child2);
         mChildren.set(index2, child1);
+        invalidateSpatialIndex();
 
         return true;
     }
@@ -786,6 +819,7 @@ public class BaseScene implements Scene {
 
         mChildren.set(index1, child2);
         mChildren.set(index2, child1);
+        invalidateSpatialIndex();
 
         return true;
     }
@@ -1059,6 +1093,10 @@ public class BaseScene implements Scene {
         return null;
     }
 
+    final public int getMatrixVersion() {
+        return 0;
+    }
+
     final public int getBuffersToInvalidate() {
         return mBuffersToInvalidate;
     }
@@ -1077,7 +1115,7 @@ public class BaseScene implements Scene {
             // mChildren = null;
 
             if (mTextureManager != null) {
-                mTextureManager.removeAllTextures();
+                mTextureManager.dispose();
                 // mTextureManager = null;
             }
 
@@ -1085,6 +1123,104 @@ public class BaseScene implements Scene {
             // mSize = null;
             // mGLState = null;
         }
+
+        if (mSpriteBatch != null) {
+            mSpriteBatch.dispose();
+            mSpriteBatch = null;
+        }
+    }
+
+    public boolean isSpatialIndexEnabled() {
+        return mSpatialGrid != null;
+    }
+
+    /**
+     * Enable/disable the spatial index for camera culling of the top-level children. Use this for big worlds that are only partially seen by the Camera.
+     *
+     * @param enabled
+     * @param cellSize the size of a grid cell, in global coordinates
+     * @see SpatialGrid
+     */
+    public void setSpatialIndexEnabled(final boolean enabled, final float cellSize) {
+        if (mSpatialGrid != null && (!enabled || mSpatialGrid.getCellSize() != cellSize)) {
+            // detach the children
+            mSpatialGrid.clear();
+            mSpatialGrid = null;
+        }
+
+        if (enabled && mSpatialGrid == null) {
+            mSpatialGrid = new SpatialGrid(cellSize);
+        }
+
+        invalidate();
+    }
+
+    public void setSpatialIndexEnabled(final boolean enabled) {
+        setSpatialIndexEnabled(enabled, SpatialGrid.DEFAULT_CELL_SIZE);
+    }
+
+    private void invalidateSpatialIndex() {
+        if (mSpatialGrid != null) {
+            mSpatialGrid.invalidateChildren();
+        }
+    }
+
+    public boolean isBatchEnabled() {
+        return mBatchEnabled;
+    }
+
+    /**
+     * Enable/disable batching of the top-level children. Consecutive Batchable children sharing the same Texture, BlendFunc and Mask get drawn with a single draw
+     * call.
+     *
+     * @param enabled
+     * @see Batchable
+     */
+    public void setBatchEnabled(final boolean enabled) {
+        mBatchEnabled = enabled;
+
+        if (!enabled && mSpriteBatch != null) {
+            mSpriteBatch.dispose();
+            mSpriteBatch = null;
+        }
+
+        invalidate();
+    }
+
+    /**
+     * @return the SpriteBatch, for stats
+     */
+    public SpriteBatch getSpriteBatch() {
+        return mSpriteBatch;
+    }
+
+    public boolean isReorderable() {
+        return mReorderable;
+    }
+
+    /**
+     * Allow the top-level children to be drawn in any order, sorted by z, Mask, Texture and BlendFunc to minimize the state changes. Only use this when they don't overlap, or
+     * when their order doesn't matter.
+     *
+     * @param reorderable
+     * @see RenderQueue
+     */
+    public void setReorderable(final boolean reorderable) {
+        mReorderable = reorderable;
+
+        if (!reorderable && mRenderQueue != null) {
+            mRenderQueue.clear();
+            mRenderQueue = null;
+        }
+
+        invalidate();
+    }
+
+    /**
+     * @return the RenderQueue, for stats
+     */
+    public RenderQueue getRenderQueue() {
+        return mRenderQueue;
     }
 
     public final boolean isUIEnabled() {
@@ -1131,24 +1267,20 @@ public class BaseScene implements Scene {
     public boolean onTouchEvent(final MotionEvent event) {
         if (mUIEnabled) {
             // NOTE: event is NOT safe to queue because it's recycled by Android. So we do this approach...
-            // lock the array
+            // lock the touched points
             synchronized (mUILock) {
-                mTouchedPoints.clear();
                 mPointerCount = event.getPointerCount();
                 for (int i = 0; i < mPointerCount; i++) {
-                    // FIXME optimize this with pool
-                    final PointF p = new PointF();
-                    screenToGlobal(event.getX(i), event.getY(i), p);
-                    mTouchedPoints.add(p);
+                    // reuse the points
+                    if (i == mTouchedPoints.size()) {
+                        mTouchedPoints.add(new PointF());
+                    }
+                    screenToGlobal(event.getX(i), event.getY(i), mTouchedPoints.get(i));
                 }
 
-                if (mVisibleTouchables != null) {
-                    // start from front to back
-                    for (int i = mVisibleTouchables.size() - 1; i >= 0; i--) {
-                        if (mVisibleTouchables.get(i).onTouchEvent(event)) {
-                            return true;
-                        }
-                    }
+                // start from front to back, this doesn't block the GL-Thread
+                if (mHitTestIndex.dispatch(event, this)) {
+                    return true;
                 }
             }
         }
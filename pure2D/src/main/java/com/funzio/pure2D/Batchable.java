@@ -0,0 +1,54 @@
+/*******************************************************************************
+ * Copyright (C) 2012-2014 GREE, Inc.
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ ******************************************************************************/
+/**
+ * 
+ */
+package com.funzio.pure2D;
+
+import com.funzio.pure2D.gl.gl10.BlendFunc;
+import com.funzio.pure2D.gl.gl10.GLState;
+import com.funzio.pure2D.gl.gl10.SpriteBatch;
+import com.funzio.pure2D.gl.gl10.textures.Texture;
+
+/**
+ * Batchable objects can be merged into a {@link SpriteBatch} instead of being drawn one by one
+ * 
+ * @author long
+ */
+public interface Batchable extends DisplayObject {
+
+    /**
+     * @return true if this object can be batched at the moment, otherwise it gets drawn normally
+     */
+    public boolean isBatchable();
+
+    public Texture getTexture();
+
+    public BlendFunc getInheritedBlendFunc();
+
+    public Maskable getMask();
+
+    /**
+     * @hide For internal use
+     */
+    public boolean batch(final GLState glState, final SpriteBatch batch);
+}
@@ -78,6 +78,10 @@ public interface Displayable extends Manipulatable, InvalidateFlags {
 
     public boolean shouldDraw(final RectF globalViewRect);
 
+    public boolean isBypassCameraClipping();
+
+    public void setBypassCameraClipping(final boolean ignoreCameraClipping);
+
     public GLColor getColor();
 
     public void setColor(final GLColor color);
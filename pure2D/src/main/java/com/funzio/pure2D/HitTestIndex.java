@@ -0,0 +1,272 @@
+/**
+ * Copyright (C) 2012-2014 GREE, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+/**
+ *
+ */
+package com.funzio.pure2D;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import android.graphics.PointF;
+import android.graphics.RectF;
+import android.view.MotionEvent;
+
+/**
+ * A z-ordered list of the visible Touchables, used for hit-testing. The GL-Thread collects the Touchables while drawing, the list only gets sorted and published when something has
+ * changed (visibility, z, bounds). The UI-Thread reads the latest published list without locking, and for down events only the Touchables under the pointer are checked.
+ * Nothing gets allocated per frame once the buffers are big enough.
+ *
+ * @author long
+ */
+public class HitTestIndex {
+    private static final int FRESH = 0x4;
+    private static final int INDEX_MASK = 0x3;
+
+    // collected on GL-Thread, in drawing order
+    private Touchable[] mItems = new Touchable[8];
+    private float[] mZs = new float[8];
+    private float[] mRects = new float[8 * 4];
+    private boolean[] mBounded = new boolean[8];
+    private int mSize = 0;
+    private int mLastSize = 0;
+    private boolean mChanged = false;
+
+    // sorting
+    private int[] mOrder = new int[8];
+    private int[] mTemp = new int[8];
+
+    // triple buffers: back is owned by GL-Thread, front is owned by UI-Thread, the middle one is swapped between them
+    private final Snapshot[] mSnapshots = {
+            new Snapshot(), new Snapshot(), new Snapshot()
+    };
+    private int mBackIndex = 0;
+    private int mFrontIndex = 1;
+    private final AtomicInteger mMiddle = new AtomicInteger(2);
+
+    /**
+     * Start collecting. Called from GL-Thread.
+     */
+    public void begin() {
+        mSize = 0;
+        mChanged = false;
+    }
+
+    /**
+     * Collect a visible Touchable. Called from GL-Thread, in drawing order.
+     *
+     * @param touchable
+     */
+    public void add(final Touchable touchable) {
+        final Displayable object = (Displayable) touchable;
+        final float z = object.getZ();
+        final RectF bounds = object.getBounds();
+        // containers and modals can take touches outside their bounds
+        final boolean bounded = !(touchable instanceof Parentable) && !touchable.isModal();
+
+        if (mSize == mItems.length) {
+            grow(mSize * 2);
+        }
+
+        final int i = mSize++;
+        final int r = i * 4;
+        if (i >= mLastSize || mItems[i] != touchable || mZs[i] != z || mBounded[i] != bounded //
+                || mRects[r] != bounds.left || mRects[r + 1] != bounds.top || mRects[r + 2] != bounds.right || mRects[r + 3] != bounds.bottom) {
+            mItems[i] = touchable;
+            mZs[i] = z;
+            mBounded[i] = bounded;
+            mRects[r] = bounds.left;
+            mRects[r + 1] = bounds.top;
+            mRects[r + 2] = bounds.right;
+            mRects[r + 3] = bounds.bottom;
+            mChanged = true;
+        }
+    }
+
+    /**
+     * Stop collecting and publish the new list if it's changed. Called from GL-Thread.
+     */
+    public void end() {
+        if (mSize != mLastSize) {
+            // release the removed ones
+            for (int i = mSize; i < mLastSize; i++) {
+                mItems[i] = null;
+            }
+            mChanged = true;
+        }
+        mLastSize = mSize;
+
+        if (!mChanged) {
+            return;
+        }
+
+        sort();
+
+        // fill the back buffer
+        final Snapshot back = mSnapshots[mBackIndex];
+        back.ensureCapacity(mSize);
+        for (int i = 0; i < mSize; i++) {
+            final int index = mOrder[i];
+            back.mItems[i] = mItems[index];
+            back.mBounded[i] = mBounded[index];
+            System.arraycopy(mRects, index * 4, back.mRects, i * 4, 4);
+        }
+        for (int i = mSize; i < back.mSize; i++) {
+            back.mItems[i] = null;
+        }
+        back.mSize = mSize;
+
+        // publish it
+        mBackIndex = mMiddle.getAndSet(mBackIndex | FRESH) & INDEX_MASK;
+    }
+
+    /**
+     * Remove everything. Called from GL-Thread.
+     */
+    public void clear() {
+        begin();
+        end();
+    }
+
+    /**
+     * Dispatch a touch event to the Touchables, from front to back. Called from UI-Thread.
+     *
+     * @param event
+     * @param scene used for the touched points, can be null
+     * @return true if one of the Touchables took the event
+     */
+    public boolean dispatch(final MotionEvent event, final Scene scene) {
+        // pick up the latest list
+        if ((mMiddle.get() & FRESH) != 0) {
+            mFrontIndex = mMiddle.getAndSet(mFrontIndex) & INDEX_MASK;
+        }
+        final Snapshot front = mSnapshots[mFrontIndex];
+
+        // only down events can be filtered by the pointer, the others need to go to whoever has the focus
+        final int action = event.getActionMasked();
+        PointF point = null;
+        if (scene != null && (action == MotionEvent.ACTION_DOWN || action == MotionEvent.ACTION_POINTER_DOWN)) {
+            final int pointerIndex = (event.getAction() & MotionEvent.ACTION_POINTER_INDEX_MASK) >> MotionEvent.ACTION_POINTER_INDEX_SHIFT;
+            if (pointerIndex < scene.getPointerCount()) {
+                point = scene.getTouchedPoint(pointerIndex);
+            }
+        }
+
+        // start from front to back
+        for (int i = front.mSize - 1; i >= 0; i--) {
+            if (point != null && front.mBounded[i] && !front.contains(i, point.x, point.y)) {
+                continue;
+            }
+
+            if (front.mItems[i].onTouchEvent(event)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private void sort() {
+        if (mOrder.length < mSize) {
+            mOrder = new int[mItems.length];
+            mTemp = new int[mItems.length];
+        }
+
+        boolean sorted = true;
+        for (int i = 0; i < mSize; i++) {
+            mOrder[i] = i;
+            if (i > 0 && mZs[i - 1] > mZs[i]) {
+                sorted = false;
+            }
+        }
+        if (sorted) {
+            return;
+        }
+
+        // stable merge sort by z, so the drawing order is kept for the same z
+        int[] src = mOrder;
+        int[] dst = mTemp;
+        for (int width = 1; width < mSize; width *= 2) {
+            for (int left = 0; left < mSize; left += width * 2) {
+                final int mid = Math.min(left + width, mSize);
+                final int right = Math.min(left + width * 2, mSize);
+                int a = left, b = mid, k = left;
+                while (a < mid && b < right) {
+                    dst[k++] = mZs[src[b]] < mZs[src[a]] ? src[b++] : src[a++];
+                }
+                while (a < mid) {
+                    dst[k++] = src[a++];
+                }
+                while (b < right) {
+                    dst[k++] = src[b++];
+                }
+            }
+            final int[] swap = src;
+            src = dst;
+            dst = swap;
+        }
+
+        if (src != mOrder) {
+            mTemp = mOrder;
+            mOrder = src;
+        }
+    }
+
+    private void grow(final int capacity) {
+        final Touchable[] items = new Touchable[capacity];
+        System.arraycopy(mItems, 0, items, 0, mSize);
+        mItems = items;
+
+        final float[] zs = new float[capacity];
+        System.arraycopy(mZs, 0, zs, 0, mSize);
+        mZs = zs;
+
+        final float[] rects = new float[capacity * 4];
+        System.arraycopy(mRects, 0, rects, 0, mSize * 4);
+        mRects = rects;
+
+        final boolean[] bounded = new boolean[capacity];
+        System.arraycopy(mBounded, 0, bounded, 0, mSize);
+        mBounded = bounded;
+    }
+
+    private static class Snapshot {
+        private Touchable[] mItems = new Touchable[0];
+        private float[] mRects = new float[0];
+        private boolean[] mBounded = new boolean[0];
+        private int mSize = 0;
+
+        private void ensureCapacity(final int capacity) {
+            if (mItems.length < capacity) {
+                final Touchable[] items = new Touchable[capacity];
+                System.arraycopy(mItems, 0, items, 0, mSize);
+                mItems = items;
+                mRects = new float[capacity * 4];
+                mBounded = new boolean[capacity];
+            }
+        }
+
+        private boolean contains(final int index, final float x, final float y) {
+            final int r = index * 4;
+            return x >= mRects[r] && x < mRects[r + 2] && y >= mRects[r + 1] && y < mRects[r + 3];
+        }
+    }
+}
@@ -56,6 +56,11 @@ public interface Parentable {
 
     public Matrix getMatrix();
 
+    /**
+     * @return the version of {@link #getMatrix()}, which changes every time the matrix changes
+     */
+    public int getMatrixVersion();
+
     public Scene getScene();
 
     public boolean queueEvent(Runnable r);
@@ -39,6 +39,18 @@ public interface StackableObject extends Displayable {
 
     public int getNumStackedChildren();
 
+    /**
+     * @hide for internal use
+     * @return the first cell written by the last {@link #stack(GLState, int, VertexBuffer, ColorBuffer, TextureCoordBuffer)}, -1 if not stacked yet
+     */
+    public int getStackIndex();
+
+    /**
+     * @hide for internal use
+     * @return true if this object changed since its last stack, false if its cells in the parent's buffers are still valid
+     */
+    public boolean isStackInvalidated();
+
     /**
      * @hide for internal use
      */
@@ -0,0 +1,186 @@
+/*******************************************************************************
+ * Copyright (C) 2012-2014 GREE, Inc.
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ ******************************************************************************/
+package com.funzio.pure2D.animation.skeleton;
+
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.List;
+
+import com.funzio.pure2D.loaders.tasks.ReadBinaryFileTask;
+
+/**
+ * A compiled form of the .ani files. The float data is stored as it is in the XML, without the Base64 encoding, after the image names and the precomputed bounds of the frames. Everything is
+ * little-endian and the float data is 4-byte aligned, so a memory-mapped file can be used by {@link AniFile} without copying or decoding anything.
+ * 
+ * @author long
+ * @see AniFile#AniFile(ByteBuffer)
+ */
+public class AniBinary {
+    public static final int MAGIC = 0x42494E41; // ANIB
+    public static final int MAGIC_SIZE = 4;
+    public static final int FORMAT_VERSION = 1;
+
+    private static final String CHARSET = "UTF-8";
+
+    /**
+     * @param buffer
+     * @return true if the buffer has the binary format, from its current position
+     */
+    public static boolean isBinary(final ByteBuffer buffer) {
+        if (buffer.remaining() < MAGIC_SIZE) {
+            return false;
+        }
+
+        final int position = buffer.position();
+        return (buffer.get(position) & 0xFF) == (MAGIC & 0xFF) && (buffer.get(position + 1) & 0xFF) == ((MAGIC >> 8) & 0xFF) && (buffer.get(position + 2) & 0xFF) == ((MAGIC >> 16) & 0xFF)
+                && (buffer.get(position + 3) & 0xFF) == ((MAGIC >> 24) & 0xFF);
+    }
+
+    /**
+     * Compile a loaded file
+     * 
+     * @param file
+     * @return the bytes
+     * @throws IOException if the file has no data
+     */
+    public static byte[] compile(final AniFile file) throws IOException {
+        if (!file.hasData()) {
+            throw new IOException("No data to compile!");
+        }
+
+        final byte[][] imageIndex = getBytes(file.mImageIndex);
+        final byte[][] requiredImages = getBytes(file.mRequiredImages);
+        final ByteBuffer data = file.mData.duplicate();
+        data.clear();
+
+        // find the size
+        int size = 4 + 4 + getSize(imageIndex) + getSize(requiredImages);
+        size = align(size);
+        final int boundsOffset = size;
+        size += 4 + file.mFrameBounds.length * 4 + 4 + data.remaining();
+
+        final ByteBuffer buffer = ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(MAGIC);
+        buffer.putInt(FORMAT_VERSION);
+        putStrings(buffer, imageIndex);
+        putStrings(buffer, requiredImages);
+
+        // frame bounds
+        buffer.position(boundsOffset);
+        buffer.putInt(file.mNumFrames);
+        for (int i = 0; i < file.mFrameBounds.length; i++) {
+            buffer.putFloat(file.mFrameBounds[i]);
+        }
+
+        // and the float data, as is
+        buffer.putInt(data.remaining());
+        buffer.put(data);
+
+        return buffer.array();
+    }
+
+    /**
+     * Read a compiled file into an {@link AniFile}. The float data is not copied.
+     * 
+     * @param buffer the content, from the current position. It shouldn't be changed after this.
+     * @param file the output
+     * @throws IOException if the buffer doesn't have the binary format
+     */
+    public static void read(final ByteBuffer buffer, final AniFile file) throws IOException {
+        if (!isBinary(buffer)) {
+            throw new IOException("Not a binary Ani!");
+        }
+
+        final ByteBuffer input = buffer.slice().order(ByteOrder.LITTLE_ENDIAN);
+        final int version = input.getInt(4);
+        if (version > FORMAT_VERSION) {
+            throw new IOException("Unsupported binary Ani version: " + version);
+        }
+
+        input.position(8);
+        readStrings(input, file.mImageIndex);
+        readStrings(input, file.mRequiredImages);
+
+        // frame bounds
+        input.position(align(input.position()));
+        final float[] frameBounds = new float[input.getInt() * 4];
+        input.asFloatBuffer().get(frameBounds);
+        input.position(input.position() + frameBounds.length * 4);
+
+        // the float data
+        final int length = input.getInt();
+        input.limit(input.position() + length);
+        file.setData(input.slice(), frameBounds);
+    }
+
+    /**
+     * Memory-map a compiled file, for {@link AniFile#AniFile(ByteBuffer)}
+     * 
+     * @param filePath
+     * @return the buffer, or null if the file can't be read
+     */
+    public static ByteBuffer map(final String filePath) {
+        return ReadBinaryFileTask.map(filePath);
+    }
+
+    private static int align(final int position) {
+        return (position + 3) & ~3;
+    }
+
+    private static byte[][] getBytes(final List<String> strings) throws UnsupportedEncodingException {
+        final byte[][] bytes = new byte[strings.size()][];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = strings.get(i).getBytes(CHARSET);
+        }
+
+        return bytes;
+    }
+
+    private static int getSize(final byte[][] strings) {
+        int size = 4;
+        for (int i = 0; i < strings.length; i++) {
+            size += 4 + strings[i].length;
+        }
+
+        return size;
+    }
+
+    private static void putStrings(final ByteBuffer buffer, final byte[][] strings) {
+        buffer.putInt(strings.length);
+        for (int i = 0; i < strings.length; i++) {
+            buffer.putInt(strings[i].length);
+            buffer.put(strings[i]);
+        }
+    }
+
+    private static void readStrings(final ByteBuffer buffer, final List<String> strings) throws UnsupportedEncodingException {
+        final int count = buffer.getInt();
+        for (int i = 0; i < count; i++) {
+            final int length = buffer.getInt();
+            final byte[] bytes = new byte[length];
+            buffer.get(bytes);
+            strings.add(new String(bytes, CHARSET));
+        }
+    }
+}
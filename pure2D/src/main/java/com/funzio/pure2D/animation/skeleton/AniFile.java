@@ -20,12 +20,17 @@
  * THE SOFTWARE.
  ******************************************************************************/
 /**
- * AniFile can be use to load Funzio's .ani file. This can be used by the AniSkeleton to render.
+ * AniFile can be use to load Funzio's .ani file, or the same file compiled with {@link AniBinary}. This can be used by the AniSkeleton to render.
  * @see AniSkeleton
  */
 package com.funzio.pure2D.animation.skeleton;
 
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
@@ -63,6 +68,7 @@ public class AniFile {
     public static final int PART_COORDS_SIZE = PART_COORDS * FLOAT;
     public static final int PART_TOTAL_SIZE = PART_VERTICES_SIZE + PART_COORDS_SIZE;
 
+    // null when loaded from a binary buffer
     public byte[] mSkeletonData = null;
     public List<String> mImageIndex = new ArrayList<String>();
     public List<String> mRequiredImages = new ArrayList<String>();
@@ -75,6 +81,16 @@ public class AniFile {
     private float[] mVertexFloats;
     private float[] mCoordFloats;
 
+    // the float data, read in bulk instead of byte by byte
+    protected ByteBuffer mData;
+    protected FloatBuffer mFloats;
+    // in floats
+    protected int mVerticesOffset = 0;
+    protected int mPartStride = 0;
+    protected int mFrameStride = 0;
+    // left, top, right, bottom per frame
+    protected float[] mFrameBounds;
+
     private Map<String, Texture> mTextures;
 
     public AniFile() {
@@ -105,11 +121,42 @@ public class AniFile {
         }
     }
 
+    /**
+     * Load a compiled file, without copying the float data
+     * 
+     * @param buffer
+     * @see AniBinary#map(String)
+     */
+    public AniFile(final ByteBuffer buffer) {
+        try {
+            AniBinary.read(buffer, this);
+        } catch (Exception e) {
+            Log.e(TAG, e.getMessage());
+        }
+    }
+
     protected void parse(final InputStream stream) throws Exception {
+        // binary or xml?
+        final BufferedInputStream in = new BufferedInputStream(stream);
+        final byte[] magic = new byte[AniBinary.MAGIC_SIZE];
+        in.mark(magic.length);
+        final int count = in.read(magic);
+        in.reset();
+        if (count == magic.length && AniBinary.isBinary(ByteBuffer.wrap(magic))) {
+            final ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(in.available(), 1024));
+            final byte[] buffer = new byte[4096];
+            int length;
+            while ((length = in.read(buffer)) > 0) {
+                out.write(buffer, 0, length);
+            }
+            AniBinary.read(ByteBuffer.wrap(out.toByteArray()), this);
+            return;
+        }
+
         XmlPullParserFactory factory = XmlPullParserFactory.newInstance();
         factory.setValidating(false);
         XmlPullParser xml = factory.newPullParser();
-        xml.setInput(stream, null);
+        xml.setInput(in, null);
 
         parse(xml);
     }
@@ -126,16 +173,7 @@ public class AniFile {
                 if (name.equals("key")) {
                     key = xml.nextText();
                 } else if ((key != null) && name.equals("data") && key.equals("floatdata")) {
-                    mSkeletonData = Base64.decode(xml.nextText(), Base64.DEFAULT);
-
-                    // header
-                    final int versionBits = (mSkeletonData[3] << 24) | ((mSkeletonData[2] & 0xFF) << 16) | ((mSkeletonData[1] & 0xFF) << 8) | (mSkeletonData[0] & 0xFF);
-                    mVersion = Float.intBitsToFloat(versionBits);
-                    mNumFrames = mSkeletonData[4];
-                    mNumParts = mSkeletonData[8];
-                    mFrameSize = mNumParts * (mVersion == 1 ? PART_TOTAL_SIZE : PART_VERTICES_SIZE);
-                    mVertexFloats = new float[PART_VERTICES];
-                    mCoordFloats = new float[PART_COORDS];
+                    setSkeletonData(Base64.decode(xml.nextText(), Base64.DEFAULT));
                 } else if ((key != null) && name.equals("string") && key.equals("imageindex")) {
                     mImageIndex.add(xml.nextText());
                 } else if ((key != null) && name.equals("string") && key.equals("requiredimages")) {
@@ -150,27 +188,104 @@ public class AniFile {
         }
     }
 
+    /**
+     * Set the float data, with its header
+     * 
+     * @param data
+     * @param frameBounds the precomputed bounds, or null to compute them
+     */
+    protected void setData(final ByteBuffer data, final float[] frameBounds) {
+        mData = data.order(ByteOrder.LITTLE_ENDIAN);
+        mFloats = mData.asFloatBuffer();
+
+        // header
+        mVersion = mData.getFloat(0);
+        mNumFrames = mData.getInt(4);
+        mNumParts = mData.getInt(8);
+        mFrameSize = mNumParts * (mVersion == 1 ? PART_TOTAL_SIZE : PART_VERTICES_SIZE);
+        mVertexFloats = new float[PART_VERTICES];
+        mCoordFloats = new float[PART_COORDS];
+
+        if (mVersion == 2) {
+            // the coordinates are the same across the frames, so they are part of the Header
+            mVerticesOffset = HEADER / FLOAT + PART_COORDS * mNumParts;
+            mPartStride = PART_VERTICES;
+        } else {
+            mVerticesOffset = HEADER / FLOAT;
+            mPartStride = PART_VERTICES + PART_COORDS;
+        }
+        mFrameStride = mNumParts * mPartStride;
+
+        mFrameBounds = frameBounds != null ? frameBounds : computeFrameBounds();
+    }
+
+    private float[] computeFrameBounds() {
+        final float[] frameBounds = new float[mNumFrames * 4];
+        for (int frame = 0; frame < mNumFrames; frame++) {
+            float left = Float.POSITIVE_INFINITY, top = Float.POSITIVE_INFINITY, right = Float.NEGATIVE_INFINITY, bottom = Float.NEGATIVE_INFINITY;
+            int start = mVerticesOffset + frame * mFrameStride;
+            for (int i = 0; i < mNumParts; i++) {
+                for (int n = 0; n < PART_VERTICES; n += 3) {
+                    final float x = mFloats.get(start + n);
+                    final float y = mFloats.get(start + n + 1);
+                    if (left > x) {
+                        left = x;
+                    }
+                    if (right < x) {
+                        right = x;
+                    }
+                    if (top > y) {
+                        top = y;
+                    }
+                    if (bottom < y) {
+                        bottom = y;
+                    }
+                }
+
+                start += mPartStride;
+            }
+
+            frameBounds[frame * 4] = left;
+            frameBounds[frame * 4 + 1] = top;
+            frameBounds[frame * 4 + 2] = right;
+            frameBounds[frame * 4 + 3] = bottom;
+        }
+
+        return frameBounds;
+    }
+
     /**
      * Get the Vertex Buffers of all the parts in a specific frame
      * 
      * @param frame
      * @param buffers
+     * @param bounds this gets extended to the frame's bounds, without the flips
      * @return
      */
     public boolean getFrameVertexBuffers(final int frame, final int flips, final VertexBuffer[] buffers, final RectF bounds) {
-        int start = (frame * mFrameSize) + HEADER;
-        if (mVersion == 2) {
-            // the coordinates are the same across the frames
-            // so it's part of the Header
-            start += PART_COORDS_SIZE * mNumParts;
+        if (bounds != null) {
+            getFrameBounds(frame, bounds);
+        }
+
+        if (buffers == null) {
+            return true;
         }
 
+        int start = mVerticesOffset + frame * mFrameStride;
         for (int i = 0; i < mNumParts; i++) {
-            // find the vertices
-            readVertices(mSkeletonData, start, mVertexFloats, flips, bounds);
+            if (flips == 0) {
+                // straight into the buffer
+                if (buffers[i] == null) {
+                    buffers[i] = new VertexBuffer(GL10.GL_TRIANGLE_STRIP, PART_POINTS);
+                    buffers[i].setVertexPointerSize(3); // xyz
+                }
+                buffers[i].setValues(mFloats, start, PART_VERTICES);
+            } else {
+                // find the vertices
+                mFloats.position(start);
+                mFloats.get(mVertexFloats);
+                flipVertices(mVertexFloats, flips);
 
-            // get the buffers
-            if (buffers != null) {
                 // set into vertex buffers
                 if (buffers[i] == null) {
                     buffers[i] = new VertexBuffer(GL10.GL_TRIANGLE_STRIP, PART_POINTS, mVertexFloats);
@@ -180,12 +295,34 @@ public class AniFile {
                 }
             }
 
-            start += mVersion == 1 ? PART_TOTAL_SIZE : PART_VERTICES_SIZE;
+            start += mPartStride;
         }
 
         return true;
     }
 
+    /**
+     * Extend a rect to the bounds of a frame
+     * 
+     * @param frame
+     * @param bounds
+     */
+    public void getFrameBounds(final int frame, final RectF bounds) {
+        final int index = frame * 4;
+        if (bounds.left > mFrameBounds[index]) {
+            bounds.left = mFrameBounds[index];
+        }
+        if (bounds.top > mFrameBounds[index + 1]) {
+            bounds.top = mFrameBounds[index + 1];
+        }
+        if (bounds.right < mFrameBounds[index + 2]) {
+            bounds.right = mFrameBounds[index + 2];
+        }
+        if (bounds.bottom < mFrameBounds[index + 3]) {
+            bounds.bottom = mFrameBounds[index + 3];
+        }
+    }
+
     /**
      * Get the Texture Coordinate Buffers of all the parts in a specific frame
      * 
@@ -194,37 +331,25 @@ public class AniFile {
      * @return
      */
     public int getFrameCoordBuffers(final int frame, final TextureCoordBuffer[] buffers) {
+        if (mVersion != 1 && mVersion != 2) {
+            return mNumParts;
+        }
 
-        if (mVersion == 1) {
-            int start = (frame * mFrameSize) + HEADER + PART_VERTICES_SIZE;
-            for (int i = 0; i < mNumParts; i++) {
-                readFloats(mSkeletonData, start, mCoordFloats);
-                // set into vertex buffers
-                if (buffers[i] == null) {
-                    buffers[i] = new TextureCoordBuffer(mCoordFloats);
-                } else {
-                    buffers[i].setValues(mCoordFloats);
-                }
-
-                start += PART_TOTAL_SIZE;
+        // version 2 has the coordinates next to the Header, version 1 after the vertices of each part
+        int start = mVersion == 1 ? mVerticesOffset + frame * mFrameStride + PART_VERTICES : HEADER / FLOAT;
+        final int stride = mVersion == 1 ? mPartStride : PART_COORDS;
+        for (int i = 0; i < mNumParts; i++) {
+            mFloats.position(start);
+            mFloats.get(mCoordFloats);
+
+            // set into vertex buffers
+            if (buffers[i] == null) {
+                buffers[i] = new TextureCoordBuffer(mCoordFloats);
+            } else {
+                buffers[i].setValues(mCoordFloats);
             }
 
-        } else if (mVersion == 2) {
-            // the coordinates are the same across the frames
-            // so it's next to the Header
-            int start = HEADER;
-            for (int i = 0; i < mNumParts; i++) {
-                readFloats(mSkeletonData, start, mCoordFloats);
-
-                // set into vertex buffers
-                if (buffers[i] == null) {
-                    buffers[i] = new TextureCoordBuffer(mCoordFloats);
-                } else {
-                    buffers[i].setValues(mCoordFloats);
-                }
-
-                start += PART_COORDS_SIZE;
-            }
+            start += stride;
         }
 
         return mNumParts;
@@ -236,6 +361,22 @@ public class AniFile {
 
     public void setSkeletonData(final byte[] floatData) {
         mSkeletonData = floatData;
+        setData(ByteBuffer.wrap(floatData), null);
+    }
+
+    public int getNumFrames() {
+        return mNumFrames;
+    }
+
+    public int getNumParts() {
+        return mNumParts;
+    }
+
+    /**
+     * @return true if there is some float data
+     */
+    public boolean hasData() {
+        return mFloats != null;
     }
 
     public void setTextures(final Map<String, Texture> map) {
@@ -250,6 +391,17 @@ public class AniFile {
         return mTextures.get(mImageIndex.get(index));
     }
 
+    private static void flipVertices(final float[] vertices, final int flips) {
+        for (int i = 0; i < vertices.length; i += 3) {
+            if ((flips & DisplayObject.FLIP_X) > 0) {
+                vertices[i] *= -1;
+            }
+            if ((flips & DisplayObject.FLIP_Y) > 0) {
+                vertices[i + 1] *= -1;
+            }
+        }
+    }
+
     /**
      * Read the float values from a byte array into a float array
      * 
@@ -58,7 +58,7 @@ public class AniSkeleton extends PlayableObject {
         // Log.v("long", ">>" + file.mVersion + " " + mAniFile.mNumParts + " " + file.mNumFrames + " " + file.mFrameSize);
 
         mAniFile = file;
-        if (file != null && mAniFile.mSkeletonData.length > 0) {
+        if (file != null && file.hasData()) {
             mVertexBuffers = new VertexBuffer[file.mNumParts];
             mCoordBuffers = new TextureCoordBuffer[file.mNumParts];
             mBounds = new RectF[file.mNumParts];
@@ -29,9 +29,18 @@ import java.util.ArrayList;
 import com.funzio.pure2D.Manipulatable;
 
 /**
+ * A Timeline runs its Actions at their scheduled times. The Actions are kept in a heap ordered by their next event (a run or the end), so an update only touches the Actions that
+ * are due, no matter how many there are. Seeking with {@link #elapse(int)}, {@link #setElapsedTime(int)} or {@link #startElapse(int)} skips the runs in between, the ends are still
+ * reported.
+ * <p>
+ * The schedule of an Action is computed from its delays and duration when it's added, and when the timeline is reset, restarted or rewound.
+ * </p>
+ * 
  * @author long
  */
 public class Timeline implements Manipulator {
+    protected static final int NEVER = Integer.MAX_VALUE;
+
     protected Manipulatable mTarget;
 
     protected int mElapsedTime = 0;
@@ -44,6 +53,13 @@ public class Timeline implements Manipulator {
     protected int mLifespan = 0; // <=0 ~ unlimited
     protected Listener mListener;
 
+    // the scheduled actions, min-heap by next event time
+    private Action[] mQueue = new Action[16];
+    private int mQueueSize = 0;
+    private int mNumAddedActions = 0;
+    // changed by each reschedule, to detect the ones from the callbacks
+    private int mScheduleVersion = 0;
+
     public Timeline(final int lifespan, final Listener listener) {
         mLifespan = lifespan;
         mListener = listener;
@@ -64,12 +80,8 @@ public class Timeline implements Manipulator {
         if (mRunning) {
             mElapsedTime += deltaTime;
 
-            for (int i = 0; i < mNumActions; i++) {
-                final Action action = mActions.get(i);
-                if (!action.mEnded) {
-                    action.update(deltaTime);
-                }
-            }
+            // only the due actions
+            advance(mElapsedTime, true);
 
             // has duration? check it
             if (mLifespan > 0 && mElapsedTime >= mLifespan) {
@@ -94,12 +106,7 @@ public class Timeline implements Manipulator {
         }
 
         // also reset the actions
-        for (int i = 0; i < mNumActions; i++) {
-            final Action action = mActions.get(i);
-            action.reset();
-        }
-
-        mNumEndedActions = 0;
+        reschedule();
     }
 
     /**
@@ -110,7 +117,7 @@ public class Timeline implements Manipulator {
     }
 
     /**
-     * Start with a specific elapsed time
+     * Start with a specific elapsed time. The actions are rescheduled and the runs before that time are skipped.
      * 
      * @param elapsedTime
      */
@@ -119,7 +126,9 @@ public class Timeline implements Manipulator {
             stop();
         }
 
-        mElapsedTime = elapsedTime;
+        mElapsedTime = 0;
+        reschedule();
+        seek(elapsedTime);
         mRunning = true;
     }
 
@@ -131,21 +140,27 @@ public class Timeline implements Manipulator {
     }
 
     /**
-     * Jump to some elapsed time
+     * Jump to some elapsed time, the runs in between are skipped
      * 
      * @param elapsedTimeDelta
      */
     public void elapse(final int elapsedTimeDelta) {
-        mElapsedTime += elapsedTimeDelta;
+        setElapsedTime(mElapsedTime + elapsedTimeDelta);
     }
 
     /**
-     * Jump to some elapsed time
+     * Jump to some elapsed time, the runs in between are skipped
      * 
      * @param elapsedTimeAt
      */
     public void setElapsedTime(final int elapsedTimeAt) {
-        mElapsedTime = elapsedTimeAt;
+        if (elapsedTimeAt < mElapsedTime) {
+            // rewind
+            mElapsedTime = 0;
+            reschedule();
+        }
+
+        seek(elapsedTimeAt);
     }
 
     public int getElapsedTime() {
@@ -176,11 +191,20 @@ public class Timeline implements Manipulator {
         return mRunning;
     }
 
+    /**
+     * Add an action, scheduled from the current elapsed time
+     * 
+     * @param action
+     */
     public void addAction(final Action action) {
         if (mActions.add(action)) {
             // couple
             action.mTimeline = this;
+            action.mOrder = mNumAddedActions++;
+            action.mBaseTime = mElapsedTime;
             mNumActions++;
+
+            schedule(action);
         }
     }
 
@@ -189,14 +213,29 @@ public class Timeline implements Manipulator {
             // couple
             action.mTimeline = null;
             mNumActions--;
+
+            unqueue(action);
         }
     }
 
     public void clearActions() {
+        for (int i = 0; i < mQueueSize; i++) {
+            mQueue[i].mQueueIndex = -1;
+            mQueue[i] = null;
+        }
+        mQueueSize = 0;
+
         mActions.clear();
         mNumActions = 0;
     }
 
+    /**
+     * @return number of actions waiting for a run or the end
+     */
+    public int getNumScheduledActions() {
+        return mQueueSize;
+    }
+
     protected void onActionEnd(final Action action) {
         if (++mNumEndedActions == mNumActions && mLifespan <= 0) {
             // complete!
@@ -207,6 +246,141 @@ public class Timeline implements Manipulator {
         }
     }
 
+    /**
+     * Reset all the actions and schedule them again from their base times
+     */
+    protected void reschedule() {
+        mScheduleVersion++;
+
+        for (int i = 0; i < mQueueSize; i++) {
+            mQueue[i].mQueueIndex = -1;
+            mQueue[i] = null;
+        }
+        mQueueSize = 0;
+        mNumEndedActions = 0;
+
+        for (int i = 0; i < mNumActions; i++) {
+            schedule(mActions.get(i));
+        }
+    }
+
+    /**
+     * Move to a time, skipping the runs before it
+     * 
+     * @param time
+     */
+    protected void seek(final int time) {
+        final int version = mScheduleVersion;
+        if (time > mElapsedTime) {
+            advance(time - 1, false);
+        }
+
+        // a callback could have restarted the timeline
+        if (version == mScheduleVersion) {
+            mElapsedTime = time;
+        }
+    }
+
+    /**
+     * Process the actions that are due by a specific time
+     * 
+     * @param time
+     * @param running false to skip the runs
+     */
+    protected void advance(final int time, final boolean running) {
+        final int version = mScheduleVersion;
+        while (mQueueSize > 0 && mQueue[0].mNextTime <= time) {
+            final Action action = mQueue[0];
+            unqueue(action);
+
+            action.advance(time, running);
+
+            if (version != mScheduleVersion) {
+                // restarted or reset by a callback, the time is no longer valid
+                break;
+            }
+
+            // still scheduled? also check if it was removed or queued again by its own run
+            if (!action.mEnded && action.mNextTime != NEVER && action.mTimeline == this && action.mQueueIndex < 0) {
+                queue(action);
+            }
+        }
+    }
+
+    private void schedule(final Action action) {
+        action.reset();
+        unqueue(action);
+        if (action.mNextTime != NEVER) {
+            queue(action);
+        }
+    }
+
+    private void queue(final Action action) {
+        if (mQueueSize == mQueue.length) {
+            final Action[] queue = new Action[mQueueSize * 2];
+            System.arraycopy(mQueue, 0, queue, 0, mQueueSize);
+            mQueue = queue;
+        }
+
+        // sift up
+        int index = mQueueSize++;
+        while (index > 0) {
+            final int parent = (index - 1) >> 1;
+            if (!isBefore(action, mQueue[parent])) {
+                break;
+            }
+            mQueue[index] = mQueue[parent];
+            mQueue[index].mQueueIndex = index;
+            index = parent;
+        }
+        mQueue[index] = action;
+        action.mQueueIndex = index;
+    }
+
+    private void unqueue(final Action action) {
+        final int index = action.mQueueIndex;
+        if (index < 0 || index >= mQueueSize || mQueue[index] != action) {
+            return;
+        }
+
+        action.mQueueIndex = -1;
+        final Action last = mQueue[--mQueueSize];
+        mQueue[mQueueSize] = null;
+        if (last == action) {
+            return;
+        }
+
+        // move the last one into the hole, then restore the order
+        int i = index;
+        while (i > 0 && isBefore(last, mQueue[(i - 1) >> 1])) {
+            final int parent = (i - 1) >> 1;
+            mQueue[i] = mQueue[parent];
+            mQueue[i].mQueueIndex = i;
+            i = parent;
+        }
+        while (true) {
+            final int left = (i << 1) + 1;
+            if (left >= mQueueSize) {
+                break;
+            }
+            final int right = left + 1;
+            final int child = (right < mQueueSize && isBefore(mQueue[right], mQueue[left])) ? right : left;
+            if (!isBefore(mQueue[child], last)) {
+                break;
+            }
+            mQueue[i] = mQueue[child];
+            mQueue[i].mQueueIndex = i;
+            i = child;
+        }
+        mQueue[i] = last;
+        last.mQueueIndex = i;
+    }
+
+    private static boolean isBefore(final Action a, final Action b) {
+        // same time, keep the adding order
+        return a.mNextTime < b.mNextTime || (a.mNextTime == b.mNextTime && a.mOrder < b.mOrder);
+    }
+
     /**
      * Timeline Listener
      * 
@@ -217,7 +391,7 @@ public class Timeline implements Manipulator {
     }
 
     /**
-     * Timeline Action
+     * Timeline Action. It runs first after the start delay, then after every step delay if it's set, until the duration has passed if it's set.
      * 
      * @author long
      */
@@ -228,11 +402,17 @@ public class Timeline implements Manipulator {
 
         private boolean mStarted = false;
         private boolean mEnded = false;
-        private int mAccumulatedTime = 0;
-        private int mElapsedTime = 0;
+
+        // the schedule, in timeline time
+        private int mBaseTime = 0;
+        private int mNextRunTime = NEVER;
+        private int mEndTime = NEVER;
+        private int mNextTime = NEVER;
 
         // the assigned timeline
         private Timeline mTimeline;
+        private int mQueueIndex = -1;
+        private int mOrder = 0;
 
         public Action(final int stepDelay) {
             mStepDelay = stepDelay;
@@ -251,56 +431,42 @@ public class Timeline implements Manipulator {
 
         protected void reset() {
             mStarted = mEnded = false;
-            mAccumulatedTime = 0;
-        }
 
-        protected void update(final int deltaTime) {
-            if (mEnded) {
-                return;
-            }
+            mNextRunTime = mBaseTime + mStartDelay;
+            mEndTime = mDuration > 0 ? mNextRunTime + mDuration : NEVER;
+            mNextTime = Math.min(mNextRunTime, mEndTime);
+        }
 
-            // accumulate
-            mAccumulatedTime += deltaTime;
+        public boolean isStarted() {
+            return mStarted;
+        }
 
-            if (!mStarted) {
-                if (mAccumulatedTime >= mStartDelay) {
-                    // woohoo!
-                    mStarted = true;
+        public boolean isEnded() {
+            return mEnded;
+        }
 
-                    // start elapsing
-                    mElapsedTime = mAccumulatedTime - mStartDelay;
-                    mAccumulatedTime -= mStartDelay;
+        private void advance(final int time, final boolean running) {
+            // the runs, including the one right at the end
+            while (mNextRunTime <= time && mNextRunTime <= mEndTime) {
+                mStarted = true;
+                mNextRunTime = (mStepDelay > 0 && mNextRunTime < NEVER - mStepDelay) ? mNextRunTime + mStepDelay : NEVER;
 
-                    // start the first run
+                if (running) {
                     run();
                 }
-            } else {
-                // elapse more
-                mElapsedTime += deltaTime;
             }
 
-            if (mStarted) {
-                // duration check if it's set
-                if (mDuration > 0 && mElapsedTime >= mDuration) {
-                    mAccumulatedTime -= mElapsedTime - mDuration;
-                    // flag done
-                    mEnded = true;
-                }
-
-                // repeated?
-                if (mStepDelay > 0 && mAccumulatedTime >= mStepDelay) {
-                    final int steps = mAccumulatedTime / mStepDelay;
-                    for (int i = 0; i < steps; i++) {
-                        run();
+            if (mEndTime <= time) {
+                // flag done
+                mEnded = true;
+                mNextTime = NEVER;
 
-                        mAccumulatedTime -= mStepDelay;
-                    }
-                }
-
-                if (mEnded) {
-                    // callback
+                // callback
+                if (mTimeline != null) {
                     mTimeline.onActionEnd(this);
                 }
+            } else {
+                mNextTime = Math.min(mNextRunTime, mEndTime);
             }
         }
     }
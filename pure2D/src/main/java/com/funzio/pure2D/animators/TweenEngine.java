@@ -0,0 +1,820 @@
+/**
+ * Copyright (C) 2012-2014 GREE, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+/**
+ *
+ */
+package com.funzio.pure2D.animators;
+
+import java.util.IdentityHashMap;
+
+import android.view.animation.Interpolator;
+
+import com.funzio.pure2D.Displayable;
+import com.funzio.pure2D.Manipulatable;
+
+/**
+ * A central engine for large numbers of simple tweens. Instead of one {@link TweenAnimator} object per tween, all the tweens are kept in flat arrays (target slot, property, from, to,
+ * duration, elapsed time, easing) and are advanced in one loop per frame. The easings are precomputed into lookup tables, and the ended tweens are reported in one batch per frame.
+ * <p>
+ * A tween is referred by an int handle, which becomes invalid when the tween ends or is canceled. Tweens run in parallel by default, {@link #chain(int, int)} runs one after another
+ * like a {@link SequenceAnimator}. To mix with the regular animators, {@link #createAnimator(int, float, float, int, int)} makes an Animator that runs its tween on this engine, it can
+ * be added to a {@link SequenceAnimator} or a {@link ParallelAnimator}.
+ * </p>
+ * The engine is a {@link Manipulator}, it can be added to any display object, such as the Scene's root, or be updated manually.
+ *
+ * @author long
+ */
+public class TweenEngine implements Manipulator {
+    // properties
+    public static final int PROPERTY_X = 0;
+    public static final int PROPERTY_Y = 1;
+    public static final int PROPERTY_ALPHA = 2;
+    public static final int PROPERTY_SCALE = 3;
+    public static final int PROPERTY_SCALE_X = 4;
+    public static final int PROPERTY_SCALE_Y = 5;
+    public static final int PROPERTY_ROTATION = 6;
+
+    // built-in easings
+    public static final int EASE_LINEAR = 0;
+    public static final int EASE_IN_QUAD = 1;
+    public static final int EASE_OUT_QUAD = 2;
+    public static final int EASE_IN_OUT_QUAD = 3;
+    public static final int EASE_IN_CUBIC = 4;
+    public static final int EASE_OUT_CUBIC = 5;
+    public static final int EASE_IN_OUT_CUBIC = 6;
+    public static final int EASE_OUT_BACK = 7;
+    private static final int NUM_BUILT_IN_EASINGS = 8;
+
+    // samples per easing table
+    public static final int EASING_TABLE_SIZE = 256;
+
+    // pass as the start value to start from the current value of the property
+    public static final float CURRENT = Float.NaN;
+
+    public static final int INVALID_HANDLE = -1;
+    private static final int MAX_TWEENS = 1 << 16;
+    private static final int SLOT_MASK = MAX_TWEENS - 1;
+
+    // tween states
+    private static final int STATE_FREE = 0;
+    private static final int STATE_PENDING = 1; // chained, waiting for the previous tween
+    private static final int STATE_ACTIVE = 2;
+    private static final int STATE_CANCELED = 3;
+
+    private static final float[][] BUILT_IN_EASINGS = new float[NUM_BUILT_IN_EASINGS][];
+
+    static {
+        for (int e = 1; e < NUM_BUILT_IN_EASINGS; e++) {
+            final float[] table = new float[EASING_TABLE_SIZE + 1];
+            for (int i = 0; i <= EASING_TABLE_SIZE; i++) {
+                final float t = (float) i / EASING_TABLE_SIZE;
+                final float u = 1 - t;
+                switch (e) {
+                    case EASE_IN_QUAD:
+                        table[i] = t * t;
+                        break;
+                    case EASE_OUT_QUAD:
+                        table[i] = 1 - u * u;
+                        break;
+                    case EASE_IN_OUT_QUAD:
+                        table[i] = t < 0.5f ? 2 * t * t : 1 - 2 * u * u;
+                        break;
+                    case EASE_IN_CUBIC:
+                        table[i] = t * t * t;
+                        break;
+                    case EASE_OUT_CUBIC:
+                        table[i] = 1 - u * u * u;
+                        break;
+                    case EASE_IN_OUT_CUBIC:
+                        table[i] = t < 0.5f ? 4 * t * t * t : 1 - 4 * u * u * u;
+                        break;
+                    case EASE_OUT_BACK:
+                        // overshoot of 1.70158, like OvershootInterpolator
+                        table[i] = 1 - u * u * ((1.70158f + 1) * u - 1.70158f);
+                        break;
+                }
+            }
+            BUILT_IN_EASINGS[e] = table;
+        }
+    }
+
+    // per tween, indexed by slot
+    private int[] mStates;
+    private int[] mGenerations;
+    private int[] mTargetSlots;
+    private int[] mProperties;
+    private float[] mFrom;
+    private float[] mTo;
+    private int[] mDurations;
+    private int[] mElapsed; // negative during the start delay
+    private int[] mEasings;
+    private int[] mRepeats; // negative = forever
+    private boolean[] mYoyos;
+    private int[] mNext; // handle of the chained tween
+    private Proxy[] mProxies;
+    private int mNumSlots = 0;
+    private int[] mFreeSlots;
+    private int mNumFreeSlots = 0;
+
+    // the running tweens, in slots
+    private int[] mActive;
+    private int mNumActive = 0;
+
+    // per target
+    private Manipulatable[] mTargets;
+    private Displayable[] mDisplayables;
+    private int[] mTargetRefs;
+    private int mNumTargets = 0;
+    private int[] mFreeTargets;
+    private int mNumFreeTargets = 0;
+    private final IdentityHashMap<Manipulatable, Integer> mTargetMap = new IdentityHashMap<Manipulatable, Integer>();
+
+    private float[][] mEasingTables;
+    private int mNumEasings = NUM_BUILT_IN_EASINGS;
+
+    // batched events
+    private int[] mEnded;
+    private int mNumEnded = 0;
+    private Proxy[] mEndedProxies;
+    private int mNumEndedProxies = 0;
+    private Listener mListener;
+
+    private Manipulatable mTarget;
+    private boolean mPaused = false;
+
+    public TweenEngine() {
+        this(64);
+    }
+
+    public TweenEngine(final int capacity) {
+        allocate(Math.max(1, Math.min(capacity, MAX_TWEENS)));
+
+        mTargets = new Manipulatable[16];
+        mDisplayables = new Displayable[16];
+        mTargetRefs = new int[16];
+        mFreeTargets = new int[16];
+
+        mEasingTables = new float[NUM_BUILT_IN_EASINGS * 2][];
+        System.arraycopy(BUILT_IN_EASINGS, 0, mEasingTables, 0, NUM_BUILT_IN_EASINGS);
+    }
+
+    /**
+     * Sample an Interpolator into a lookup table, so it's not called per frame.
+     *
+     * @param interpolator
+     * @return the easing id to use with the tweens
+     */
+    public int registerEasing(final Interpolator interpolator) {
+        final float[] table = new float[EASING_TABLE_SIZE + 1];
+        for (int i = 0; i <= EASING_TABLE_SIZE; i++) {
+            table[i] = interpolator.getInterpolation((float) i / EASING_TABLE_SIZE);
+        }
+
+        if (mNumEasings == mEasingTables.length) {
+            final float[][] tables = new float[mNumEasings * 2][];
+            System.arraycopy(mEasingTables, 0, tables, 0, mNumEasings);
+            mEasingTables = tables;
+        }
+        mEasingTables[mNumEasings] = table;
+
+        return mNumEasings++;
+    }
+
+    /**
+     * Add a tween and start it.
+     *
+     * @param target
+     * @param property one of the PROPERTY_ constants
+     * @param from the start value, or {@link #CURRENT}
+     * @param to the end value
+     * @param duration in ms
+     * @param easing one of the EASE_ constants or a registered easing
+     * @return the handle
+     */
+    public int tween(final Manipulatable target, final int property, final float from, final float to, final int duration, final int easing) {
+        final int slot = add(target, property, from, to, duration, easing);
+        mStates[slot] = STATE_ACTIVE;
+        addActive(slot);
+
+        return handleOf(slot);
+    }
+
+    /**
+     * Add a tween from the current value of the property and start it.
+     *
+     * @see #tween(Manipulatable, int, float, float, int, int)
+     */
+    public int tweenTo(final Manipulatable target, final int property, final float to, final int duration, final int easing) {
+        return tween(target, property, CURRENT, to, duration, easing);
+    }
+
+    /**
+     * Add a tween that starts when another one ends, like in a {@link SequenceAnimator}. The time left from the previous tween is carried over.
+     *
+     * @param previous the handle of the previous tween
+     * @return the handle, or {@link #INVALID_HANDLE} if the previous tween is not alive
+     * @see #tween(Manipulatable, int, float, float, int, int)
+     */
+    public int tweenAfter(final int previous, final Manipulatable target, final int property, final float from, final float to, final int duration, final int easing) {
+        if (!isAlive(previous)) {
+            return INVALID_HANDLE;
+        }
+
+        final int slot = add(target, property, from, to, duration, easing);
+        mStates[slot] = STATE_PENDING;
+        final int handle = handleOf(slot);
+        chain(previous, handle);
+
+        return handle;
+    }
+
+    /**
+     * Make a pending tween start when another one ends. If the previous tween was already chained, the new tween is inserted between.
+     *
+     * @param previous
+     * @param next
+     */
+    public void chain(final int previous, final int next) {
+        if (!isAlive(previous) || !isAlive(next)) {
+            return;
+        }
+
+        final int nextSlot = next & SLOT_MASK;
+        if (mStates[nextSlot] == STATE_ACTIVE) {
+            // stop it for now
+            removeActive(nextSlot);
+            mStates[nextSlot] = STATE_PENDING;
+        }
+
+        final int prevSlot = previous & SLOT_MASK;
+        mNext[nextSlot] = mNext[prevSlot];
+        mNext[prevSlot] = next;
+    }
+
+    public void setDelay(final int handle, final int delay) {
+        if (isAlive(handle)) {
+            mElapsed[handle & SLOT_MASK] = -delay;
+        }
+    }
+
+    /**
+     * Jump to some elapsed time of a tween
+     *
+     * @param handle
+     * @param elapsedTime
+     */
+    public void setElapsedTime(final int handle, final int elapsedTime) {
+        if (isAlive(handle)) {
+            mElapsed[handle & SLOT_MASK] = elapsedTime;
+        }
+    }
+
+    /**
+     * @param handle
+     * @param repeats number of extra runs, negative for forever
+     * @param yoyo to reverse the direction on each run, like {@link com.funzio.pure2D.LoopModes#LOOP_REVERSE}
+     */
+    public void setRepeat(final int handle, final int repeats, final boolean yoyo) {
+        if (isAlive(handle)) {
+            final int slot = handle & SLOT_MASK;
+            mRepeats[slot] = repeats;
+            mYoyos[slot] = yoyo;
+        }
+    }
+
+    public boolean isAlive(final int handle) {
+        if (handle < 0) {
+            return false;
+        }
+
+        final int slot = handle & SLOT_MASK;
+        return slot < mNumSlots && mGenerations[slot] == (handle >>> 16) && (mStates[slot] == STATE_ACTIVE || mStates[slot] == STATE_PENDING);
+    }
+
+    /**
+     * Stop a tween without the end event. The tweens chained after it are canceled too.
+     *
+     * @param handle
+     */
+    public void cancel(final int handle) {
+        int current = handle;
+        while (isAlive(current)) {
+            final int slot = current & SLOT_MASK;
+            current = mNext[slot];
+            if (mStates[slot] == STATE_ACTIVE) {
+                // dropped by the next update
+                mStates[slot] = STATE_CANCELED;
+                mGenerations[slot] = (mGenerations[slot] + 1) & 0x7FFF;
+            } else {
+                free(slot);
+            }
+        }
+    }
+
+    /**
+     * Stop all the tweens of a target, without the end events.
+     *
+     * @param target
+     */
+    public void cancel(final Manipulatable target) {
+        final Integer targetSlot = mTargetMap.get(target);
+        if (targetSlot == null) {
+            return;
+        }
+
+        for (int slot = 0; slot < mNumSlots; slot++) {
+            if (mStates[slot] == STATE_ACTIVE && mTargetSlots[slot] == targetSlot) {
+                cancel(handleOf(slot));
+            }
+        }
+    }
+
+    public void cancelAll() {
+        for (int slot = 0; slot < mNumSlots; slot++) {
+            if (mStates[slot] == STATE_ACTIVE) {
+                cancel(handleOf(slot));
+            }
+        }
+    }
+
+    @Override
+    public boolean update(final int deltaTime) {
+        if (mPaused || mNumActive == 0) {
+            return false;
+        }
+
+        // the tweens started by chaining during this loop are appended, and updated right away with the time left over
+        final int numUpdated = mNumActive;
+        int count = 0;
+        for (int i = 0; i < mNumActive; i++) {
+            final int slot = mActive[i];
+            if (mStates[slot] == STATE_CANCELED) {
+                free(slot);
+                continue;
+            }
+
+            int elapsed = mElapsed[slot];
+            if (i < numUpdated) {
+                elapsed += deltaTime;
+                mElapsed[slot] = elapsed;
+            }
+            if (elapsed < 0) {
+                // still in delay
+                mActive[count++] = slot;
+                continue;
+            }
+
+            if (mFrom[slot] != mFrom[slot]) {
+                // NaN, start from the current value
+                mFrom[slot] = getValue(slot);
+            }
+
+            final int duration = mDurations[slot];
+            boolean ended = false;
+            float t = 1;
+            if (elapsed < duration) {
+                t = (float) elapsed / duration;
+            } else if (mRepeats[slot] != 0 && duration > 0) {
+                // next run
+                final int runs = elapsed / duration;
+                if (mRepeats[slot] > 0) {
+                    mRepeats[slot] = Math.max(0, mRepeats[slot] - runs);
+                }
+                if (mYoyos[slot] && (runs & 1) == 1) {
+                    final float from = mFrom[slot];
+                    mFrom[slot] = mTo[slot];
+                    mTo[slot] = from;
+                }
+                elapsed %= duration;
+                mElapsed[slot] = elapsed;
+                t = (float) elapsed / duration;
+            } else {
+                ended = true;
+            }
+
+            final float from = mFrom[slot];
+            setValue(slot, from + (mTo[slot] - from) * ease(mEasings[slot], t));
+
+            if (ended) {
+                end(slot, elapsed - duration);
+            } else {
+                mActive[count++] = slot;
+            }
+        }
+        mNumActive = count;
+
+        dispatchEvents();
+
+        return true;
+    }
+
+    private void end(final int slot, final int leftOver) {
+        final int handle = handleOf(slot);
+
+        // start the chained tween
+        final int next = mNext[slot];
+        if (isAlive(next)) {
+            final int nextSlot = next & SLOT_MASK;
+            mStates[nextSlot] = STATE_ACTIVE;
+            mElapsed[nextSlot] += leftOver;
+            addActive(nextSlot);
+        }
+
+        // collect the events
+        if (mListener != null) {
+            if (mNumEnded == mEnded.length) {
+                final int[] ended = new int[mNumEnded * 2];
+                System.arraycopy(mEnded, 0, ended, 0, mNumEnded);
+                mEnded = ended;
+            }
+            mEnded[mNumEnded++] = handle;
+        }
+        if (mProxies[slot] != null) {
+            if (mNumEndedProxies == mEndedProxies.length) {
+                final Proxy[] proxies = new Proxy[mNumEndedProxies * 2];
+                System.arraycopy(mEndedProxies, 0, proxies, 0, mNumEndedProxies);
+                mEndedProxies = proxies;
+            }
+            mEndedProxies[mNumEndedProxies++] = mProxies[slot];
+        }
+
+        free(slot);
+    }
+
+    private void dispatchEvents() {
+        if (mNumEnded > 0) {
+            final int numEnded = mNumEnded;
+            mNumEnded = 0;
+            if (mListener != null) {
+                mListener.onTweensEnd(this, mEnded, numEnded);
+            }
+        }
+
+        if (mNumEndedProxies > 0) {
+            // the proxies can start new tweens, which can end in another update only
+            final int numProxies = mNumEndedProxies;
+            mNumEndedProxies = 0;
+            for (int i = 0; i < numProxies; i++) {
+                final Proxy proxy = mEndedProxies[i];
+                mEndedProxies[i] = null;
+                proxy.onTweenEnd();
+            }
+        }
+    }
+
+    private float ease(final int easing, final float t) {
+        if (easing == EASE_LINEAR) {
+            return t;
+        }
+
+        final float[] table = mEasingTables[easing];
+        final float pos = t * EASING_TABLE_SIZE;
+        final int index = (int) pos;
+        if (index >= EASING_TABLE_SIZE) {
+            return table[EASING_TABLE_SIZE];
+        }
+
+        final float value = table[index];
+        return value + (table[index + 1] - value) * (pos - index);
+    }
+
+    private float getValue(final int slot) {
+        final int targetSlot = mTargetSlots[slot];
+        final Manipulatable target = mTargets[targetSlot];
+        switch (mProperties[slot]) {
+            case PROPERTY_X:
+                return target.getX();
+            case PROPERTY_Y:
+                return target.getY();
+            case PROPERTY_ALPHA:
+                return mDisplayables[targetSlot] != null ? mDisplayables[targetSlot].getAlpha() : 1;
+            case PROPERTY_SCALE:
+            case PROPERTY_SCALE_X:
+                return target.getScale().x;
+            case PROPERTY_SCALE_Y:
+                return target.getScale().y;
+            case PROPERTY_ROTATION:
+                return target.getRotation();
+            default:
+                return 0;
+        }
+    }
+
+    private void setValue(final int slot, final float value) {
+        final int targetSlot = mTargetSlots[slot];
+        final Manipulatable target = mTargets[targetSlot];
+        switch (mProperties[slot]) {
+            case PROPERTY_X:
+                target.setX(value);
+                break;
+            case PROPERTY_Y:
+                target.setY(value);
+                break;
+            case PROPERTY_ALPHA:
+                if (mDisplayables[targetSlot] != null) {
+                    mDisplayables[targetSlot].setAlpha(value);
+                }
+                break;
+            case PROPERTY_SCALE:
+                target.setScale(value);
+                break;
+            case PROPERTY_SCALE_X:
+                target.setScale(value, target.getScale().y);
+                break;
+            case PROPERTY_SCALE_Y:
+                target.setScale(target.getScale().x, value);
+                break;
+            case PROPERTY_ROTATION:
+                target.setRotation(value);
+                break;
+        }
+    }
+
+    private int add(final Manipulatable target, final int property, final float from, final float to, final int duration, final int easing) {
+        final int slot = allocateSlot();
+        mTargetSlots[slot] = acquireTarget(target);
+        mProperties[slot] = property;
+        mFrom[slot] = from;
+        mTo[slot] = to;
+        mDurations[slot] = duration;
+        mElapsed[slot] = 0;
+        mEasings[slot] = easing < mNumEasings && easing >= 0 ? easing : EASE_LINEAR;
+        mRepeats[slot] = 0;
+        mYoyos[slot] = false;
+        mNext[slot] = INVALID_HANDLE;
+        mProxies[slot] = null;
+
+        return slot;
+    }
+
+    private void free(final int slot) {
+        releaseTarget(mTargetSlots[slot]);
+        if (mStates[slot] != STATE_CANCELED) {
+            mGenerations[slot] = (mGenerations[slot] + 1) & 0x7FFF;
+        }
+        mStates[slot] = STATE_FREE;
+        mProxies[slot] = null;
+        mFreeSlots[mNumFreeSlots++] = slot;
+    }
+
+    private int handleOf(final int slot) {
+        return (mGenerations[slot] << 16) | slot;
+    }
+
+    private int allocateSlot() {
+        if (mNumFreeSlots > 0) {
+            return mFreeSlots[--mNumFreeSlots];
+        }
+
+        if (mNumSlots == mStates.length) {
+            if (mNumSlots == MAX_TWEENS) {
+                throw new IllegalStateException("Too many tweens: " + MAX_TWEENS);
+            }
+            allocate(Math.min(mNumSlots * 2, MAX_TWEENS));
+        }
+
+        return mNumSlots++;
+    }
+
+    private void addActive(final int slot) {
+        mActive[mNumActive++] = slot;
+    }
+
+    private void removeActive(final int slot) {
+        for (int i = 0; i < mNumActive; i++) {
+            if (mActive[i] == slot) {
+                System.arraycopy(mActive, i + 1, mActive, i, mNumActive - i - 1);
+                mNumActive--;
+                return;
+            }
+        }
+    }
+
+    private int acquireTarget(final Manipulatable target) {
+        final Integer existing = mTargetMap.get(target);
+        if (existing != null) {
+            mTargetRefs[existing]++;
+            return existing;
+        }
+
+        final int targetSlot;
+        if (mNumFreeTargets > 0) {
+            targetSlot = mFreeTargets[--mNumFreeTargets];
+        } else {
+            if (mNumTargets == mTargets.length) {
+                final int capacity = mNumTargets * 2;
+                final Manipulatable[] targets = new Manipulatable[capacity];
+                System.arraycopy(mTargets, 0, targets, 0, mNumTargets);
+                mTargets = targets;
+                final Displayable[] displayables = new Displayable[capacity];
+                System.arraycopy(mDisplayables, 0, displayables, 0, mNumTargets);
+                mDisplayables = displayables;
+                final int[] refs = new int[capacity];
+                System.arraycopy(mTargetRefs, 0, refs, 0, mNumTargets);
+                mTargetRefs = refs;
+                mFreeTargets = new int[capacity];
+            }
+            targetSlot = mNumTargets++;
+        }
+
+        mTargets[targetSlot] = target;
+        mDisplayables[targetSlot] = target instanceof Displayable ? (Displayable) target : null;
+        mTargetRefs[targetSlot] = 1;
+        mTargetMap.put(target, targetSlot);
+
+        return targetSlot;
+    }
+
+    private void releaseTarget(final int targetSlot) {
+        if (--mTargetRefs[targetSlot] == 0) {
+            mTargetMap.remove(mTargets[targetSlot]);
+            mTargets[targetSlot] = null;
+            mDisplayables[targetSlot] = null;
+            mFreeTargets[mNumFreeTargets++] = targetSlot;
+        }
+    }
+
+    private void allocate(final int capacity) {
+        final int size = mNumSlots;
+        mStates = grow(mStates, size, capacity);
+        mGenerations = grow(mGenerations, size, capacity);
+        mTargetSlots = grow(mTargetSlots, size, capacity);
+        mProperties = grow(mProperties, size, capacity);
+        mDurations = grow(mDurations, size, capacity);
+        mElapsed = grow(mElapsed, size, capacity);
+        mEasings = grow(mEasings, size, capacity);
+        mRepeats = grow(mRepeats, size, capacity);
+        mNext = grow(mNext, size, capacity);
+        mFreeSlots = grow(mFreeSlots, 0, capacity);
+        mActive = grow(mActive, mNumActive, capacity);
+        mEnded = grow(mEnded, 0, capacity);
+
+        final float[] from = new float[capacity];
+        final float[] to = new float[capacity];
+        final boolean[] yoyos = new boolean[capacity];
+        final Proxy[] proxies = new Proxy[capacity];
+        if (size > 0) {
+            System.arraycopy(mFrom, 0, from, 0, size);
+            System.arraycopy(mTo, 0, to, 0, size);
+            System.arraycopy(mYoyos, 0, yoyos, 0, size);
+            System.arraycopy(mProxies, 0, proxies, 0, size);
+        }
+        mFrom = from;
+        mTo = to;
+        mYoyos = yoyos;
+        mProxies = proxies;
+
+        if (mEndedProxies == null) {
+            mEndedProxies = new Proxy[16];
+        }
+    }
+
+    private static int[] grow(final int[] values, final int size, final int capacity) {
+        final int[] newValues = new int[capacity];
+        if (size > 0) {
+            System.arraycopy(values, 0, newValues, 0, size);
+        }
+        return newValues;
+    }
+
+    /**
+     * Create an Animator that runs a tween on this engine, to be used in a {@link SequenceAnimator} or a {@link ParallelAnimator}. The target is the Animator's target when it starts.
+     *
+     * @param property
+     * @param from the start value, or {@link #CURRENT}
+     * @param to
+     * @param duration
+     * @param easing
+     * @return the Animator
+     */
+    public Animator createAnimator(final int property, final float from, final float to, final int duration, final int easing) {
+        return new Proxy(property, from, to, duration, easing);
+    }
+
+    /**
+     * @return number of running tweens, excluding the chained ones
+     */
+    public int getNumActive() {
+        return mNumActive;
+    }
+
+    public boolean isPaused() {
+        return mPaused;
+    }
+
+    public void setPaused(final boolean paused) {
+        mPaused = paused;
+    }
+
+    public Listener getListener() {
+        return mListener;
+    }
+
+    public void setListener(final Listener listener) {
+        mListener = listener;
+    }
+
+    @Override
+    public void setTarget(final Manipulatable target) {
+        // the display object this engine is added to, not used by the tweens
+        mTarget = target;
+    }
+
+    @Override
+    public Manipulatable getTarget() {
+        return mTarget;
+    }
+
+    public static interface Listener {
+        /**
+         * Called once per update with all the tweens that ended
+         *
+         * @param engine
+         * @param handles the ended tweens, they are no longer alive
+         * @param numHandles
+         */
+        public void onTweensEnd(TweenEngine engine, int[] handles, int numHandles);
+    }
+
+    /**
+     * An Animator backed by a tween on the engine
+     */
+    private class Proxy extends BaseAnimator {
+        private final int mProperty;
+        private final float mFromValue;
+        private final float mToValue;
+        private final int mDuration;
+        private final int mEasing;
+        private int mHandle = INVALID_HANDLE;
+
+        public Proxy(final int property, final float from, final float to, final int duration, final int easing) {
+            mProperty = property;
+            mFromValue = from;
+            mToValue = to;
+            mDuration = duration;
+            mEasing = easing;
+        }
+
+        @Override
+        public void startElapse(final int elapsedTime) {
+            super.startElapse(elapsedTime);
+
+            if (mTarget != null) {
+                mHandle = tween(mTarget, mProperty, mFromValue, mToValue, mDuration, mEasing);
+                mProxies[mHandle & SLOT_MASK] = this;
+                setElapsedTime(mHandle, elapsedTime - mStartDelay);
+            } else {
+                // nothing to tween
+                onTweenEnd();
+            }
+        }
+
+        @Override
+        public boolean update(final int deltaTime) {
+            // the engine does the work
+            return mRunning;
+        }
+
+        @Override
+        public void stop() {
+            super.stop();
+
+            cancel(mHandle);
+            mHandle = INVALID_HANDLE;
+        }
+
+        @Override
+        public void end() {
+            // force end
+            cancel(mHandle);
+            mHandle = INVALID_HANDLE;
+
+            super.end();
+        }
+
+        private void onTweenEnd() {
+            mHandle = INVALID_HANDLE;
+
+            super.end();
+        }
+    }
+}
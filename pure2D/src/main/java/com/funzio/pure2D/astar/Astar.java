@@ -39,6 +39,13 @@ public class Astar {
     public static boolean LOG_ENABLED = true;
     private static final String TAG = Astar.class.getSimpleName();
 
+    private static final ObjectPool.Factory<AstarNode> NODE_FACTORY = new ObjectPool.Factory<AstarNode>() {
+        @Override
+        public AstarNode create() {
+            return new AstarNode(0, 0);
+        }
+    };
+
     protected AstarAdapter mAdapter;
     protected ObjectPool<AstarNode> mNodePool;
     protected boolean mClosedNodeRevision;
@@ -57,6 +64,19 @@ public class Astar {
         mNodePool.setMaxSize(nodePoolSize);
     }
 
+    /**
+     * Fill the node pool ahead, so the first searches don't allocate.
+     * 
+     * @param numNodes capped by the node pool size
+     */
+    public void prewarmNodePool(final int numNodes) {
+        mNodePool.prewarm(numNodes, NODE_FACTORY);
+    }
+
+    public ObjectPool<AstarNode> getNodePool() {
+        return mNodePool;
+    }
+
     /**
      * Find a path between 2 nodes
      * 
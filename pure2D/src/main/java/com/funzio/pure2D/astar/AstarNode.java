@@ -83,6 +83,18 @@ public class AstarNode extends Point implements Reusable {
         key = generateKey(x, y);
     }
 
+    /**
+     * Move this node without boxing the params like {@link #reset(Object...)} does
+     */
+    @Override
+    public void set(final int x, final int y) {
+        this.x = x;
+        this.y = y;
+
+        // generate the key for quick lookup
+        key = generateKey(x, y);
+    }
+
     @Override
     public boolean equals(final Object o) {
         if (o instanceof AstarNode) {
@@ -0,0 +1,382 @@
+/*******************************************************************************
+ * Copyright (C) 2012-2014 GREE, Inc.
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ ******************************************************************************/
+package com.funzio.pure2D.astar;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import android.graphics.Point;
+import android.util.Log;
+
+/**
+ * An A* engine for grid maps with known dimensions. It works with the same {@link AstarAdapter} but keeps the costs, parents and open/closed states in flat arrays indexed by cell, and
+ * uses an {@link IndexedHeap} for the open list. The arrays are reset between searches with a generation counter, so a search doesn't allocate anything once the engine is warmed up.
+ * <p>
+ * The adapter should create the neighbors with {@link #createNode(int, int)}, those are recycled internally during a search.
+ * </p>
+ *
+ * @author long
+ */
+public class GridAstar extends Astar implements GridPathFinder {
+    private static final String TAG = GridAstar.class.getSimpleName();
+
+    protected int mWidth;
+    protected int mHeight;
+
+    // per cell
+    private int[] mG;
+    private int[] mH;
+    private int[] mParents;
+    private int[] mGenerations;
+    private int mGeneration = 0;
+
+    // open list, keyed by f = g + h
+    private IndexedHeap mOpenList;
+
+    // the last found path, in cells
+    private int[] mPath;
+    private int mPathLength = 0;
+
+    // for the adapter
+    private final AstarNode[] mNeighbors;
+    private AstarNode[] mScratchNodes;
+    private int mNumScratchNodes = 0;
+    private boolean mExpanding = false;
+    private final AstarNode mCurrentNode = new AstarNode(0, 0);
+    private final AstarNode mEndNode = new AstarNode(0, 0);
+    private final AstarNodeSet mOpenCells = new CellSet(false);
+    private final AstarNodeSet mClosedCells = new CellSet(true);
+
+    public GridAstar(final AstarAdapter adapter, final int width, final int height) {
+        this(adapter, width, height, 0, false);
+    }
+
+    public GridAstar(final AstarAdapter adapter, final int width, final int height, final int nodePoolSize, final boolean closedNodeRevision) {
+        super(adapter, nodePoolSize, closedNodeRevision);
+
+        mNeighbors = new AstarNode[adapter.getNodeMaxNeighbors()];
+        mScratchNodes = new AstarNode[mNeighbors.length];
+        for (int i = 0; i < mScratchNodes.length; i++) {
+            mScratchNodes[i] = new AstarNode(0, 0);
+        }
+
+        setSize(width, height);
+    }
+
+    public void setSize(final int width, final int height) {
+        mWidth = width;
+        mHeight = height;
+
+        final int numCells = width * height;
+        mG = new int[numCells];
+        mH = new int[numCells];
+        mParents = new int[numCells];
+        mGenerations = new int[numCells];
+        mGeneration = 0;
+        mOpenList = new IndexedHeap(numCells);
+        mPath = new int[numCells];
+        mPathLength = 0;
+    }
+
+    public int getWidth() {
+        return mWidth;
+    }
+
+    public int getHeight() {
+        return mHeight;
+    }
+
+    /**
+     * Find a path between 2 cells. The result can be read with {@link #getPathLength()}, {@link #getPathX(int)} and {@link #getPathY(int)}.
+     *
+     * @see GridPathFinder#findPath(int, int, int, int, int, boolean)
+     */
+    @Override
+    public int findPath(final int startX, final int startY, final int endX, final int endY, final int maxCost, final boolean compressPath) {
+        mPathLength = 0;
+
+        if (search(startX, startY, endX, endY, maxCost)) {
+            extractPath(endY * mWidth + endX, compressPath);
+        }
+
+        return mPathLength;
+    }
+
+    /**
+     * Find a path between 2 nodes. Preset open and closed nodes are not supported by this engine, the default {@link Astar} is used for those.
+     *
+     * @see Astar#findPath(AstarNode, AstarNode, int, boolean, List, List)
+     */
+    @Override
+    public List<AstarNode> findPath(final AstarNode start, final AstarNode end, final int maxCost, final boolean compressPath, final List<AstarNode> closedNodes, final List<AstarNode> openNodes) {
+        if (closedNodes != null || openNodes != null) {
+            return super.findPath(start, end, maxCost, compressPath, closedNodes, openNodes);
+        }
+
+        if (LOG_ENABLED) {
+            Log.v(TAG, "findPath(): " + start + ", " + end);
+        }
+
+        if (findPath(start.x, start.y, end.x, end.y, maxCost, compressPath) == 0) {
+            return null;
+        }
+
+        // make the nodes, chained like the ones from Astar
+        final ArrayList<AstarNode> path = new ArrayList<AstarNode>(mPathLength);
+        AstarNode parent = null;
+        for (int i = 0; i < mPathLength; i++) {
+            final int cell = mPath[i];
+            final AstarNode node = i == 0 ? start : i == mPathLength - 1 ? end : createNode(cell % mWidth, cell / mWidth);
+            node.g = mG[cell];
+            node.h = mH[cell];
+            node.parent = parent;
+            path.add(node);
+            parent = node;
+        }
+
+        return path;
+    }
+
+    @Override
+    public int getPathLength() {
+        return mPathLength;
+    }
+
+    @Override
+    public int getPathX(final int index) {
+        return mPath[index] % mWidth;
+    }
+
+    @Override
+    public int getPathY(final int index) {
+        return mPath[index] / mWidth;
+    }
+
+    /**
+     * @param index
+     * @param p the output point
+     */
+    @Override
+    public void getPathAt(final int index, final Point p) {
+        p.x = mPath[index] % mWidth;
+        p.y = mPath[index] / mWidth;
+    }
+
+    /**
+     * Get a node for the adapter. During a search, the nodes come from an internal scratch list instead of the pool.
+     */
+    @Override
+    public AstarNode createNode(final int x, final int y) {
+        if (!mExpanding) {
+            return super.createNode(x, y);
+        }
+
+        if (mNumScratchNodes == mScratchNodes.length) {
+            final AstarNode[] nodes = new AstarNode[Math.max(4, mNumScratchNodes * 2)];
+            System.arraycopy(mScratchNodes, 0, nodes, 0, mNumScratchNodes);
+            for (int i = mNumScratchNodes; i < nodes.length; i++) {
+                nodes[i] = new AstarNode(0, 0);
+            }
+            mScratchNodes = nodes;
+        }
+
+        final AstarNode node = mScratchNodes[mNumScratchNodes++];
+        node.set(x, y);
+        node.g = 1;
+        node.h = 0;
+        node.parent = null;
+
+        return node;
+    }
+
+    @Override
+    public AstarNode createNode(final Point p) {
+        return createNode(p.x, p.y);
+    }
+
+    protected boolean search(final int startX, final int startY, final int endX, final int endY, final int maxCost) {
+        if (!isInside(startX, startY) || !isInside(endX, endY)) {
+            return false;
+        }
+
+        // invalidate all the cells from the last search
+        if (mGeneration == Integer.MAX_VALUE) {
+            Arrays.fill(mGenerations, 0);
+            mGeneration = 0;
+        }
+        mGeneration++;
+        mOpenList.clear();
+
+        final int startCell = startY * mWidth + startX;
+        final int endCell = endY * mWidth + endX;
+        mEndNode.set(endX, endY);
+        mCurrentNode.set(startX, startY);
+        visit(startCell, 0, mAdapter.getHeuristic(mEndNode, mCurrentNode), -1);
+
+        while (!mOpenList.isEmpty()) {
+            // get the lowest cost cell and close it
+            final int cell = mOpenList.pop();
+
+            if (cell == endCell) {
+                // awesome! path found!
+                return true;
+            }
+
+            // find the neighbors
+            mCurrentNode.set(cell % mWidth, cell / mWidth);
+            mCurrentNode.g = mG[cell];
+            mCurrentNode.h = mH[cell];
+            mCurrentNode.parent = null;
+            Arrays.fill(mNeighbors, null);
+            mNumScratchNodes = 0;
+            mExpanding = true;
+            try {
+                mAdapter.getNodeNeighbors(mCurrentNode, mOpenCells, mClosedCells, mNeighbors);
+            } finally {
+                mExpanding = false;
+            }
+
+            for (int i = 0; i < mNeighbors.length; i++) {
+                final AstarNode neighbor = mNeighbors[i];
+                if (neighbor == null) {
+                    break;
+                }
+                if (!isInside(neighbor.x, neighbor.y)) {
+                    continue;
+                }
+
+                // add the G
+                final int g = mG[cell] + neighbor.g;
+                // check the cost
+                if (maxCost > 0 && g > maxCost) {
+                    continue;
+                }
+
+                final int neighborCell = neighbor.y * mWidth + neighbor.x;
+                if (mGenerations[neighborCell] != mGeneration) {
+                    // new cell
+                    visit(neighborCell, g, mAdapter.getHeuristic(neighbor, mEndNode), cell);
+                } else if (g < mG[neighborCell]) {
+                    if (mOpenList.contains(neighborCell)) {
+                        // shorter way to an open cell
+                        mG[neighborCell] = g;
+                        mParents[neighborCell] = cell;
+                        mOpenList.update(neighborCell, g + mH[neighborCell]);
+                    } else if (mClosedNodeRevision) {
+                        // re-open the closed cell
+                        mG[neighborCell] = g;
+                        mParents[neighborCell] = cell;
+                        mOpenList.push(neighborCell, g + mH[neighborCell]);
+                    }
+                }
+            }
+        }
+
+        return false;
+    }
+
+    private void visit(final int cell, final int g, final int h, final int parent) {
+        mGenerations[cell] = mGeneration;
+        mG[cell] = g;
+        mH[cell] = h;
+        mParents[cell] = parent;
+        mOpenList.push(cell, g + h);
+    }
+
+    private boolean isInside(final int x, final int y) {
+        return x >= 0 && x < mWidth && y >= 0 && y < mHeight;
+    }
+
+    private void extractPath(final int endCell, final boolean compression) {
+        // count first
+        int length = 0;
+        for (int cell = endCell; cell >= 0; cell = mParents[cell]) {
+            length++;
+        }
+
+        // then fill backward
+        int index = length;
+        for (int cell = endCell; cell >= 0; cell = mParents[cell]) {
+            mPath[--index] = cell;
+        }
+
+        if (compression && length > 2) {
+            // optimize the path by removing the cells on the same line
+            int count = 1;
+            for (int i = 1; i < length - 1; i++) {
+                final int prev = mPath[i - 1], cell = mPath[i], next = mPath[i + 1];
+                if ((cell % mWidth) - (prev % mWidth) != (next % mWidth) - (cell % mWidth) || (cell / mWidth) - (prev / mWidth) != (next / mWidth) - (cell / mWidth)) {
+                    mPath[count++] = cell;
+                }
+            }
+            mPath[count++] = mPath[length - 1];
+            length = count;
+        }
+
+        mPathLength = length;
+    }
+
+    /**
+     * A read-only view of the open or closed cells, for the adapter
+     */
+    private class CellSet extends AstarNodeSet {
+        private final boolean mClosed;
+
+        public CellSet(final boolean closed) {
+            super();
+
+            mClosed = closed;
+        }
+
+        @Override
+        public boolean containsXY(final int x, final int y) {
+            if (!isInside(x, y)) {
+                return false;
+            }
+
+            final int cell = y * mWidth + x;
+            return mGenerations[cell] == mGeneration && mOpenList.contains(cell) != mClosed;
+        }
+
+        @Override
+        public boolean containsSimilarNode(final AstarNode node) {
+            return containsXY(node.x, node.y);
+        }
+
+        @Override
+        public AstarNode getSimilarNode(final AstarNode node) {
+            // nodes are not kept
+            return null;
+        }
+
+        @Override
+        public void addNode(final AstarNode node) {
+            // read-only
+        }
+
+        @Override
+        public void removeNode(final AstarNode node) {
+            // read-only
+        }
+    }
+}
@@ -0,0 +1,185 @@
+/*******************************************************************************
+ * Copyright (C) 2012-2014 GREE, Inc.
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ ******************************************************************************/
+package com.funzio.pure2D.astar;
+
+import java.util.ArrayList;
+
+import com.funzio.pure2D.grid.Grid;
+
+/**
+ * A walkability map of a {@link Grid}, for the grid path finders. Cells are indexed as y * width + x.
+ * <p>
+ * The map listens to the grid, so {@link Grid#setDataAt(int, int, Object)} updates the walkable flags and notifies the path finders right away. A grid has one listener only, so there should be
+ * one map per grid.
+ * </p>
+ *
+ * @author long
+ */
+public abstract class GridMap<T> implements Grid.Listener<T> {
+    public static final int STRAIGHT_COST = 10;
+    public static final int DIAGONAL_COST = 14;
+
+    protected Grid<T> mGrid;
+    protected Filter<T> mFilter;
+    protected int mWidth;
+    protected int mHeight;
+    protected boolean[] mWalkables;
+
+    private final ArrayList<Listener> mListeners = new ArrayList<Listener>();
+
+    /**
+     * @param grid
+     * @param filter decides which data is walkable, null means only empty cells are walkable
+     */
+    public GridMap(final Grid<T> grid, final Filter<T> filter) {
+        mGrid = grid;
+        mFilter = filter;
+        mGrid.addListener(this);
+
+        refresh();
+    }
+
+    /**
+     * Rebuild the walkable flags from the grid data
+     */
+    public void refresh() {
+        mWidth = mGrid.getSize().x;
+        mHeight = mGrid.getSize().y;
+        if (mWalkables == null || mWalkables.length != mWidth * mHeight) {
+            mWalkables = new boolean[mWidth * mHeight];
+        }
+
+        for (int y = 0; y < mHeight; y++) {
+            for (int x = 0; x < mWidth; x++) {
+                mWalkables[y * mWidth + x] = isWalkableData(mGrid.getDataAt(x, y));
+            }
+        }
+
+        for (int i = 0; i < mListeners.size(); i++) {
+            mListeners.get(i).onMapRefreshed(this);
+        }
+    }
+
+    protected boolean isWalkableData(final T data) {
+        return mFilter != null ? mFilter.isWalkable(data) : data == null;
+    }
+
+    public boolean isWalkable(final int x, final int y) {
+        return x >= 0 && x < mWidth && y >= 0 && y < mHeight && mWalkables[y * mWidth + x];
+    }
+
+    public boolean isWalkable(final int cell) {
+        return mWalkables[cell];
+    }
+
+    /**
+     * Override the walkable flag of a cell without changing the grid data
+     *
+     * @param x
+     * @param y
+     * @param walkable
+     */
+    public void setWalkable(final int x, final int y, final boolean walkable) {
+        final int cell = y * mWidth + x;
+        if (mWalkables[cell] == walkable) {
+            return;
+        }
+
+        mWalkables[cell] = walkable;
+        for (int i = 0; i < mListeners.size(); i++) {
+            mListeners.get(i).onWalkableChanged(this, x, y, walkable);
+        }
+    }
+
+    public int getWidth() {
+        return mWidth;
+    }
+
+    public int getHeight() {
+        return mHeight;
+    }
+
+    public int getNumCells() {
+        return mWidth * mHeight;
+    }
+
+    public Grid<T> getGrid() {
+        return mGrid;
+    }
+
+    /**
+     * @return the max number of neighbors of a cell
+     */
+    public abstract int getMaxNeighbors();
+
+    /**
+     * Get the walkable neighbors of a cell
+     *
+     * @param cell
+     * @param cells the output neighbor cells
+     * @param costs the output costs to move to the neighbors
+     * @return the number of neighbors found
+     */
+    public abstract int getNeighbors(final int cell, final int[] cells, final int[] costs);
+
+    /**
+     * @param cell1
+     * @param cell2
+     * @return the estimated cost between 2 cells, never more than the real cost
+     */
+    public abstract int getHeuristic(final int cell1, final int cell2);
+
+    public void addListener(final Listener listener) {
+        if (!mListeners.contains(listener)) {
+            mListeners.add(listener);
+        }
+    }
+
+    public void removeListener(final Listener listener) {
+        mListeners.remove(listener);
+    }
+
+    @Override
+    public void onSizeChanged(final Grid<T> grid) {
+        refresh();
+    }
+
+    @Override
+    public void onDataChanged(final Grid<T> grid, final int cellX, final int cellY, final T oldData, final T newData) {
+        setWalkable(cellX, cellY, isWalkableData(newData));
+    }
+
+    public void dispose() {
+        mGrid.removeListener(this);
+        mListeners.clear();
+    }
+
+    public static interface Filter<T> {
+        public boolean isWalkable(T data);
+    }
+
+    public static interface Listener {
+        public void onWalkableChanged(GridMap<?> map, int cellX, int cellY, boolean walkable);
+
+        public void onMapRefreshed(GridMap<?> map);
+    }
+}
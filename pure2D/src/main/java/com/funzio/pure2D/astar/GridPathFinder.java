@@ -0,0 +1,52 @@
+/*******************************************************************************
+ * Copyright (C) 2012-2014 GREE, Inc.
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ ******************************************************************************/
+package com.funzio.pure2D.astar;
+
+import android.graphics.Point;
+
+/**
+ * A path finder that works with cell coordinates and keeps the last found path in its own buffer
+ *
+ * @author long
+ */
+public interface GridPathFinder {
+    /**
+     * Find a path between 2 cells
+     *
+     * @param startX
+     * @param startY
+     * @param endX
+     * @param endY
+     * @param maxCost 0 for no limit
+     * @param compressPath remove the cells on the same line
+     * @return the number of cells in the path, including start and end. Or 0 if there is no path.
+     */
+    public int findPath(final int startX, final int startY, final int endX, final int endY, final int maxCost, final boolean compressPath);
+
+    public int getPathLength();
+
+    public int getPathX(final int index);
+
+    public int getPathY(final int index);
+
+    public void getPathAt(final int index, final Point p);
+}
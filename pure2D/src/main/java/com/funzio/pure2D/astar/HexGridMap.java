@@ -0,0 +1,82 @@
+/*******************************************************************************
+ * Copyright (C) 2012-2014 GREE, Inc.
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ ******************************************************************************/
+package com.funzio.pure2D.astar;
+
+import com.funzio.pure2D.grid.HexGrid;
+import com.funzio.pure2D.grid.VerticalHexGrid;
+
+/**
+ * A {@link GridMap} of a {@link VerticalHexGrid}. All 6 moves have the same cost.
+ *
+ * @author long
+ */
+public class HexGridMap<T> extends GridMap<T> {
+    protected final int[][] mOffsets;
+    protected final boolean mEvenColumn;
+
+    public HexGridMap(final VerticalHexGrid<T> grid) {
+        this(grid, null);
+    }
+
+    public HexGridMap(final VerticalHexGrid<T> grid, final Filter<T> filter) {
+        super(grid, filter);
+
+        mOffsets = grid.getNeighborOffets();
+        mEvenColumn = grid.isEvenColumn();
+    }
+
+    @Override
+    public int getMaxNeighbors() {
+        return HexGrid.CELL_MAX_NEIGHBORS;
+    }
+
+    @Override
+    public int getNeighbors(final int cell, final int[] cells, final int[] costs) {
+        final int x = cell % mWidth;
+        final int y = cell / mWidth;
+        final int start = (x % 2) * HexGrid.CELL_MAX_NEIGHBORS;
+        int num = 0;
+        for (int i = 0; i < HexGrid.CELL_MAX_NEIGHBORS; i++) {
+            final int nx = x + mOffsets[start + i][0];
+            final int ny = y + mOffsets[start + i][1];
+            if (isWalkable(nx, ny)) {
+                cells[num] = ny * mWidth + nx;
+                costs[num++] = STRAIGHT_COST;
+            }
+        }
+
+        return num;
+    }
+
+    @Override
+    public int getHeuristic(final int cell1, final int cell2) {
+        // convert to axial coordinates
+        final int q1 = cell1 % mWidth;
+        final int q2 = cell2 % mWidth;
+        final int r1 = cell1 / mWidth - (mEvenColumn ? (q1 + (q1 & 1)) : (q1 - (q1 & 1))) / 2;
+        final int r2 = cell2 / mWidth - (mEvenColumn ? (q2 + (q2 & 1)) : (q2 - (q2 & 1))) / 2;
+        final int dq = q1 - q2;
+        final int dr = r1 - r2;
+
+        return STRAIGHT_COST * (Math.abs(dq) + Math.abs(dr) + Math.abs(dq + dr)) / 2;
+    }
+}
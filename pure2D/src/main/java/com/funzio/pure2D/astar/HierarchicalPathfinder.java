@@ -0,0 +1,761 @@
+/*******************************************************************************
+ * Copyright (C) 2012-2014 GREE, Inc.
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ ******************************************************************************/
+package com.funzio.pure2D.astar;
+
+import java.util.Arrays;
+
+import android.graphics.Point;
+
+/**
+ * A hierarchical path finder (HPA*) for any {@link GridMap}. The map is split into square clusters, the entrances between neighbor clusters become the nodes of an abstract graph and the costs
+ * inside each cluster are precomputed. A query only searches the abstract graph plus the start and end clusters, then refines the result cluster by cluster, so the cost of a long route depends
+ * on the number of clusters it crosses instead of the number of cells.
+ * <p>
+ * The paths are near optimal, usually within a few percent of A*. When a cell changes walkability, only the cluster that owns it is updated, plus the borders with its neighbor clusters if the
+ * cell is on the edge.
+ * </p>
+ * <p>
+ * This class is not thread-safe. Map changes and queries should happen on the same thread.
+ * </p>
+ *
+ * @author long
+ */
+public class HierarchicalPathfinder implements GridPathFinder, GridMap.Listener {
+    public static final int DEFAULT_CLUSTER_SIZE = 16;
+    // entrances this long get a transition at each end instead of one in the middle
+    protected static final int LONG_ENTRANCE = 6;
+
+    protected final GridMap<?> mMap;
+    protected final int mClusterSize;
+    protected int mWidth;
+    protected int mHeight;
+    protected int mClustersX;
+    protected int mClustersY;
+
+    // abstract graph
+    private Node[] mNodes = new Node[0];
+    private int[] mFreeNodes = new int[0];
+    private int mNumFreeNodes = 0;
+    private int[] mCellNodes;
+    private int[][] mClusterNodes;
+    private int[] mClusterNumNodes;
+
+    // abstract search, the last id is the end
+    private int[] mAbsG;
+    private int[] mAbsParents;
+    private int[] mAbsGenerations;
+    private int mAbsGeneration = 0;
+    private IndexedHeap mAbsOpenList;
+    private int[] mEndCosts;
+    private int[] mCostGenerations;
+
+    // cell search, inside a cluster
+    private int[] mG;
+    private int[] mParents;
+    private int[] mGenerations;
+    private int mGeneration = 0;
+    private IndexedHeap mOpenList;
+    private final int[] mNeighborCells;
+    private final int[] mNeighborCosts;
+
+    // border scan
+    private final int[][] mRunCells = new int[2][];
+    private final int[][] mRunTargets = new int[2][];
+    private final int[][] mRunCosts = new int[2][];
+    private final int[] mRunLengths = new int[2];
+    private final int[] mFoundCells = new int[2];
+    private final int[] mFoundCosts = new int[2];
+    private final boolean[] mFoundConnected = new boolean[2];
+    private final int[] mTouchedClusters = new int[4];
+
+    // the last found path, in cells
+    private int[] mPath;
+    private int mPathLength = 0;
+    private int[] mWaypoints;
+    private boolean mRefinePath = true;
+
+    public HierarchicalPathfinder(final GridMap<?> map) {
+        this(map, DEFAULT_CLUSTER_SIZE);
+    }
+
+    public HierarchicalPathfinder(final GridMap<?> map, final int clusterSize) {
+        mMap = map;
+        mClusterSize = clusterSize;
+        mNeighborCells = new int[map.getMaxNeighbors()];
+        mNeighborCosts = new int[map.getMaxNeighbors()];
+        for (int i = 0; i < 2; i++) {
+            mRunCells[i] = new int[clusterSize];
+            mRunTargets[i] = new int[clusterSize];
+            mRunCosts[i] = new int[clusterSize];
+        }
+
+        rebuild();
+        mMap.addListener(this);
+    }
+
+    /**
+     * Rebuild the whole abstract graph from the map
+     */
+    public void rebuild() {
+        mWidth = mMap.getWidth();
+        mHeight = mMap.getHeight();
+        mClustersX = (mWidth + mClusterSize - 1) / mClusterSize;
+        mClustersY = (mHeight + mClusterSize - 1) / mClusterSize;
+
+        final int numCells = mWidth * mHeight;
+        mCellNodes = new int[numCells];
+        Arrays.fill(mCellNodes, -1);
+        mG = new int[numCells];
+        mParents = new int[numCells];
+        mGenerations = new int[numCells];
+        mGeneration = 0;
+        mOpenList = new IndexedHeap(numCells);
+        mPath = new int[numCells];
+        mPathLength = 0;
+
+        final int numClusters = mClustersX * mClustersY;
+        mClusterNodes = new int[numClusters][8];
+        mClusterNumNodes = new int[numClusters];
+        mNodes = new Node[0];
+        mNumFreeNodes = 0;
+        allocateNodes(numClusters * 4);
+
+        for (int cluster = 0; cluster < numClusters; cluster++) {
+            scanBorders(cluster, -1);
+        }
+        for (int cluster = 0; cluster < numClusters; cluster++) {
+            updateIntraEdges(cluster);
+        }
+    }
+
+    /**
+     * Set whether the found paths have all the cells or just the entrances between clusters. Without refinement, a query is much cheaper and the path can be refined later, one segment at a time
+     * with any other path finder.
+     *
+     * @param value
+     */
+    public void setRefinePath(final boolean value) {
+        mRefinePath = value;
+    }
+
+    public boolean isRefinePath() {
+        return mRefinePath;
+    }
+
+    public int getClusterSize() {
+        return mClusterSize;
+    }
+
+    /**
+     * @return the number of nodes in the abstract graph
+     */
+    public int getNumNodes() {
+        return mNodes.length - mNumFreeNodes;
+    }
+
+    @Override
+    public int findPath(final int startX, final int startY, final int endX, final int endY, final int maxCost, final boolean compressPath) {
+        mPathLength = 0;
+        if (!mMap.isWalkable(startX, startY) || !mMap.isWalkable(endX, endY)) {
+            return 0;
+        }
+
+        final int startCell = startY * mWidth + startX;
+        final int endCell = endY * mWidth + endX;
+        final int startCluster = getCluster(startX, startY);
+        final int endCluster = getCluster(endX, endY);
+
+        // short ways first, inside the cluster
+        if (startCluster == endCluster && searchCells(startCluster, startCell, endCell) && (maxCost <= 0 || mG[endCell] <= maxCost)) {
+            appendCells(startCell, endCell);
+        } else if (searchNodes(startCell, endCell, startCluster, endCluster, maxCost)) {
+            appendWaypoints(startCell, endCell);
+        } else {
+            return 0;
+        }
+
+        if (compressPath && mPathLength > 2) {
+            compress();
+        }
+
+        return mPathLength;
+    }
+
+    @Override
+    public int getPathLength() {
+        return mPathLength;
+    }
+
+    @Override
+    public int getPathX(final int index) {
+        return mPath[index] % mWidth;
+    }
+
+    @Override
+    public int getPathY(final int index) {
+        return mPath[index] / mWidth;
+    }
+
+    @Override
+    public void getPathAt(final int index, final Point p) {
+        p.x = mPath[index] % mWidth;
+        p.y = mPath[index] / mWidth;
+    }
+
+    @Override
+    public void onWalkableChanged(final GridMap<?> map, final int cellX, final int cellY, final boolean walkable) {
+        // the clusters around the cell, up to 4 at a corner. Those are the ones with entrances that might use the cell, directly or as a corner of a diagonal move
+        int numClusters = 0;
+        for (int y = Math.max(cellY - 1, 0); y <= Math.min(cellY + 1, mHeight - 1); y++) {
+            for (int x = Math.max(cellX - 1, 0); x <= Math.min(cellX + 1, mWidth - 1); x++) {
+                final int cluster = getCluster(x, y);
+                int i = 0;
+                while (i < numClusters && mTouchedClusters[i] != cluster) {
+                    i++;
+                }
+                if (i == numClusters) {
+                    mTouchedClusters[numClusters++] = cluster;
+                }
+            }
+        }
+
+        // update the borders between them
+        for (int i = 0; i < numClusters; i++) {
+            for (int j = i + 1; j < numClusters; j++) {
+                final int cluster1 = mTouchedClusters[i], cluster2 = mTouchedClusters[j];
+                removeBorder(cluster1, cluster2);
+                // each border is scanned from the top-left side, which has the lower id
+                scanBorders(Math.min(cluster1, cluster2), Math.max(cluster1, cluster2));
+            }
+        }
+
+        for (int i = 0; i < numClusters; i++) {
+            updateIntraEdges(mTouchedClusters[i]);
+        }
+    }
+
+    @Override
+    public void onMapRefreshed(final GridMap<?> map) {
+        rebuild();
+    }
+
+    public void dispose() {
+        mMap.removeListener(this);
+    }
+
+    private int getCluster(final int x, final int y) {
+        return (y / mClusterSize) * mClustersX + x / mClusterSize;
+    }
+
+    private int getCellCluster(final int cell) {
+        return getCluster(cell % mWidth, cell / mWidth);
+    }
+
+    // abstract graph ///////////////////////////
+
+    private void allocateNodes(final int capacity) {
+        final int oldCapacity = mNodes.length;
+        mNodes = Arrays.copyOf(mNodes, capacity);
+        mFreeNodes = Arrays.copyOf(mFreeNodes, capacity);
+        // lowest ids first
+        for (int i = capacity - 1; i >= oldCapacity; i--) {
+            mNodes[i] = new Node();
+            mFreeNodes[mNumFreeNodes++] = i;
+        }
+
+        // search buffers, with one more for the end
+        mAbsG = new int[capacity + 1];
+        mAbsParents = new int[capacity + 1];
+        mAbsGenerations = new int[capacity + 1];
+        mAbsGeneration = 0;
+        mEndCosts = new int[capacity];
+        mCostGenerations = new int[capacity];
+        mAbsOpenList = new IndexedHeap(capacity + 1);
+        mWaypoints = new int[capacity + 2];
+    }
+
+    private int getNode(final int cell) {
+        if (mCellNodes[cell] >= 0) {
+            return mCellNodes[cell];
+        }
+
+        if (mNumFreeNodes == 0) {
+            allocateNodes(mNodes.length * 2);
+        }
+
+        final int id = mFreeNodes[--mNumFreeNodes];
+        final int cluster = getCellCluster(cell);
+        final Node node = mNodes[id];
+        node.mCell = cell;
+        node.mCluster = cluster;
+        node.mNumInters = 0;
+        node.mNumIntras = 0;
+        mCellNodes[cell] = id;
+
+        // add to the cluster
+        int[] nodes = mClusterNodes[cluster];
+        if (mClusterNumNodes[cluster] == nodes.length) {
+            nodes = mClusterNodes[cluster] = Arrays.copyOf(nodes, nodes.length * 2);
+        }
+        nodes[mClusterNumNodes[cluster]++] = id;
+
+        return id;
+    }
+
+    private void removeNode(final int id) {
+        final Node node = mNodes[id];
+        final int[] nodes = mClusterNodes[node.mCluster];
+        final int num = mClusterNumNodes[node.mCluster];
+        for (int i = 0; i < num; i++) {
+            if (nodes[i] == id) {
+                nodes[i] = nodes[num - 1];
+                mClusterNumNodes[node.mCluster]--;
+                break;
+            }
+        }
+
+        mCellNodes[node.mCell] = -1;
+        node.mCell = -1;
+        mFreeNodes[mNumFreeNodes++] = id;
+    }
+
+    private void removeBorder(final int cluster1, final int cluster2) {
+        final int[] nodes = mClusterNodes[cluster1];
+        for (int i = mClusterNumNodes[cluster1] - 1; i >= 0; i--) {
+            final int id = nodes[i];
+            final Node node = mNodes[id];
+            for (int e = node.mNumInters - 1; e >= 0; e--) {
+                final int otherId = node.mInterNodes[e];
+                final Node other = mNodes[otherId];
+                if (other.mCluster == cluster2) {
+                    node.removeInter(e);
+                    other.removeInter(other.indexOfInter(id));
+                    if (other.mNumInters == 0) {
+                        removeNode(otherId);
+                    }
+                }
+            }
+            if (node.mNumInters == 0) {
+                removeNode(id);
+            }
+        }
+    }
+
+    /**
+     * Find the entrances on the right and bottom borders of a cluster
+     *
+     * @param cluster
+     * @param target only the border with this cluster, or -1 for all
+     */
+    private void scanBorders(final int cluster, final int target) {
+        final int cx = cluster % mClustersX, cy = cluster / mClustersX;
+        final int x0 = cx * mClusterSize, y0 = cy * mClusterSize;
+        final int x1 = Math.min(x0 + mClusterSize, mWidth) - 1, y1 = Math.min(y0 + mClusterSize, mHeight) - 1;
+
+        // right column: right and bottom-right clusters
+        if (x1 < mWidth - 1) {
+            scanBorder(true, x0, y0, x1, y1, target);
+        }
+        // bottom row: bottom and bottom-left clusters
+        if (y1 < mHeight - 1) {
+            scanBorder(false, x0, y0, x1, y1, target);
+        }
+    }
+
+    private void scanBorder(final boolean column, final int x0, final int y0, final int x1, final int y1, final int target) {
+        // one run per target cluster, the straight one (0) and the diagonal one (1)
+        final int length = column ? y1 - y0 + 1 : x1 - x0 + 1;
+        mRunLengths[0] = mRunLengths[1] = 0;
+        for (int i = 0; i <= length; i++) {
+            final int cell = column ? (y0 + i) * mWidth + x1 : y1 * mWidth + x0 + i;
+            mFoundCells[0] = mFoundCells[1] = -1;
+            if (i < length && mMap.isWalkable(cell)) {
+                final int num = mMap.getNeighbors(cell, mNeighborCells, mNeighborCosts);
+                for (int n = 0; n < num; n++) {
+                    final int neighbor = mNeighborCells[n];
+                    final int nx = neighbor % mWidth, ny = neighbor / mWidth;
+                    final int slot;
+                    if (column) {
+                        if (nx <= x1 || ny < y0) {
+                            continue;
+                        }
+                        slot = ny <= y1 ? 0 : 1;
+                    } else {
+                        if (ny <= y1 || nx > x1) {
+                            continue;
+                        }
+                        slot = nx >= x0 ? 0 : 1;
+                    }
+                    // prefer the ones next to the run, then the cheapest move
+                    final boolean connected = isRunConnected(column, slot, neighbor);
+                    if (mFoundCells[slot] < 0 || (connected && !mFoundConnected[slot]) || (connected == mFoundConnected[slot] && mNeighborCosts[n] < mFoundCosts[slot])) {
+                        mFoundCells[slot] = neighbor;
+                        mFoundCosts[slot] = mNeighborCosts[n];
+                        mFoundConnected[slot] = connected;
+                    }
+                }
+            }
+
+            for (int slot = 0; slot < 2; slot++) {
+                if (mFoundCells[slot] >= 0) {
+                    if (mRunLengths[slot] > 0 && !mFoundConnected[slot]) {
+                        // the other side is broken, that's a new entrance
+                        addEntrance(slot, mRunLengths[slot], target);
+                        mRunLengths[slot] = 0;
+                    }
+                    final int runLength = mRunLengths[slot]++;
+                    mRunCells[slot][runLength] = cell;
+                    mRunTargets[slot][runLength] = mFoundCells[slot];
+                    mRunCosts[slot][runLength] = mFoundCosts[slot];
+                } else if (mRunLengths[slot] > 0) {
+                    addEntrance(slot, mRunLengths[slot], target);
+                    mRunLengths[slot] = 0;
+                }
+            }
+        }
+    }
+
+    /**
+     * @return true if the cell is next to the last target cell of the run, on the other side of the border
+     */
+    private boolean isRunConnected(final boolean column, final int slot, final int cell) {
+        if (mRunLengths[slot] == 0) {
+            return false;
+        }
+
+        final int last = mRunTargets[slot][mRunLengths[slot] - 1];
+        return Math.abs(column ? cell / mWidth - last / mWidth : cell % mWidth - last % mWidth) <= 1;
+    }
+
+    private void addEntrance(final int slot, final int length, final int target) {
+        if (target >= 0 && getCellCluster(mRunTargets[slot][0]) != target) {
+            return;
+        }
+
+        if (length >= LONG_ENTRANCE) {
+            addTransition(mRunCells[slot][0], mRunTargets[slot][0], mRunCosts[slot][0]);
+            addTransition(mRunCells[slot][length - 1], mRunTargets[slot][length - 1], mRunCosts[slot][length - 1]);
+        } else {
+            final int middle = length / 2;
+            addTransition(mRunCells[slot][middle], mRunTargets[slot][middle], mRunCosts[slot][middle]);
+        }
+    }
+
+    private void addTransition(final int cell1, final int cell2, final int cost) {
+        final int id1 = getNode(cell1);
+        final int id2 = getNode(cell2);
+        final Node node1 = mNodes[id1];
+        if (node1.indexOfInter(id2) < 0) {
+            node1.addInter(id2, cost);
+            mNodes[id2].addInter(id1, cost);
+        }
+    }
+
+    /**
+     * Compute the costs between all the nodes of a cluster
+     *
+     * @param cluster
+     */
+    private void updateIntraEdges(final int cluster) {
+        final int[] nodes = mClusterNodes[cluster];
+        final int numNodes = mClusterNumNodes[cluster];
+        for (int i = 0; i < numNodes; i++) {
+            mNodes[nodes[i]].mNumIntras = 0;
+        }
+
+        for (int i = 0; i < numNodes; i++) {
+            final Node node = mNodes[nodes[i]];
+            // all costs from this node
+            searchCells(cluster, node.mCell, -1);
+            for (int j = 0; j < numNodes; j++) {
+                final int other = mNodes[nodes[j]].mCell;
+                if (j != i && mGenerations[other] == mGeneration) {
+                    node.addIntra(nodes[j], mG[other]);
+                }
+            }
+        }
+    }
+
+    private boolean searchNodes(final int startCell, final int endCell, final int startCluster, final int endCluster, final int maxCost) {
+        if (mAbsGeneration == Integer.MAX_VALUE) {
+            Arrays.fill(mAbsGenerations, 0);
+            Arrays.fill(mCostGenerations, 0);
+            mAbsGeneration = 0;
+        }
+        mAbsGeneration++;
+        mAbsOpenList.clear();
+        final int end = mNodes.length;
+
+        // costs from the end to the nodes of its cluster
+        searchCells(endCluster, endCell, -1);
+        final int[] endNodes = mClusterNodes[endCluster];
+        for (int i = 0; i < mClusterNumNodes[endCluster]; i++) {
+            final int cell = mNodes[endNodes[i]].mCell;
+            if (mGenerations[cell] == mGeneration) {
+                mCostGenerations[endNodes[i]] = mAbsGeneration;
+                mEndCosts[endNodes[i]] = mG[cell];
+            }
+        }
+
+        // costs from the start to the nodes of its cluster, those are the first open nodes
+        searchCells(startCluster, startCell, -1);
+        final int[] startNodes = mClusterNodes[startCluster];
+        for (int i = 0; i < mClusterNumNodes[startCluster]; i++) {
+            final int id = startNodes[i];
+            final int cell = mNodes[id].mCell;
+            if (mGenerations[cell] == mGeneration) {
+                openNode(id, mG[cell], -1, endCell, maxCost);
+            }
+        }
+
+        while (!mAbsOpenList.isEmpty()) {
+            final int id = mAbsOpenList.pop();
+            if (id == end) {
+                return true;
+            }
+
+            final Node node = mNodes[id];
+            final int g = mAbsG[id];
+            if (mCostGenerations[id] == mAbsGeneration) {
+                // reachable from the end
+                openNode(end, g + mEndCosts[id], id, endCell, maxCost);
+            }
+            for (int e = 0; e < node.mNumInters; e++) {
+                openNode(node.mInterNodes[e], g + node.mInterCosts[e], id, endCell, maxCost);
+            }
+            for (int e = 0; e < node.mNumIntras; e++) {
+                openNode(node.mIntraNodes[e], g + node.mIntraCosts[e], id, endCell, maxCost);
+            }
+        }
+
+        return false;
+    }
+
+    private void openNode(final int id, final int g, final int parent, final int endCell, final int maxCost) {
+        if (maxCost > 0 && g > maxCost) {
+            return;
+        }
+
+        if (mAbsGenerations[id] != mAbsGeneration) {
+            // new node
+            mAbsGenerations[id] = mAbsGeneration;
+            mAbsG[id] = g;
+            mAbsParents[id] = parent;
+            mAbsOpenList.push(id, g + (id == mNodes.length ? 0 : mMap.getHeuristic(mNodes[id].mCell, endCell)));
+        } else if (g < mAbsG[id] && mAbsOpenList.contains(id)) {
+            // shorter way to an open node
+            mAbsG[id] = g;
+            mAbsParents[id] = parent;
+            mAbsOpenList.update(id, g + (id == mNodes.length ? 0 : mMap.getHeuristic(mNodes[id].mCell, endCell)));
+        }
+    }
+
+    /**
+     * A* or Dijkstra between cells, inside a cluster
+     *
+     * @param cluster
+     * @param startCell
+     * @param endCell -1 to find the costs to all the cells
+     * @return true if the end is found
+     */
+    private boolean searchCells(final int cluster, final int startCell, final int endCell) {
+        if (mGeneration == Integer.MAX_VALUE) {
+            Arrays.fill(mGenerations, 0);
+            mGeneration = 0;
+        }
+        mGeneration++;
+        mOpenList.clear();
+
+        final int x0 = (cluster % mClustersX) * mClusterSize, y0 = (cluster / mClustersX) * mClusterSize;
+        final int x1 = x0 + mClusterSize, y1 = y0 + mClusterSize;
+
+        mGenerations[startCell] = mGeneration;
+        mG[startCell] = 0;
+        mParents[startCell] = -1;
+        mOpenList.push(startCell, endCell >= 0 ? mMap.getHeuristic(startCell, endCell) : 0);
+
+        while (!mOpenList.isEmpty()) {
+            final int cell = mOpenList.pop();
+            if (cell == endCell) {
+                return true;
+            }
+
+            final int num = mMap.getNeighbors(cell, mNeighborCells, mNeighborCosts);
+            for (int i = 0; i < num; i++) {
+                final int neighbor = mNeighborCells[i];
+                final int nx = neighbor % mWidth, ny = neighbor / mWidth;
+                if (nx < x0 || nx >= x1 || ny < y0 || ny >= y1) {
+                    continue;
+                }
+
+                final int g = mG[cell] + mNeighborCosts[i];
+                if (mGenerations[neighbor] != mGeneration) {
+                    mGenerations[neighbor] = mGeneration;
+                    mG[neighbor] = g;
+                    mParents[neighbor] = cell;
+                    mOpenList.push(neighbor, g + (endCell >= 0 ? mMap.getHeuristic(neighbor, endCell) : 0));
+                } else if (g < mG[neighbor] && mOpenList.contains(neighbor)) {
+                    mG[neighbor] = g;
+                    mParents[neighbor] = cell;
+                    mOpenList.update(neighbor, g + (endCell >= 0 ? mMap.getHeuristic(neighbor, endCell) : 0));
+                }
+            }
+        }
+
+        return endCell < 0;
+    }
+
+    // path ///////////////////////////
+
+    private void appendWaypoints(final int startCell, final int endCell) {
+        // collect the nodes backward
+        int numWaypoints = 0;
+        mWaypoints[numWaypoints++] = endCell;
+        for (int id = mAbsParents[mNodes.length]; id >= 0; id = mAbsParents[id]) {
+            mWaypoints[numWaypoints++] = mNodes[id].mCell;
+        }
+        mWaypoints[numWaypoints++] = startCell;
+
+        mPathLength = 0;
+        for (int i = numWaypoints - 1; i > 0; i--) {
+            final int from = mWaypoints[i], to = mWaypoints[i - 1];
+            if (from == to) {
+                // the start or end is a node
+                continue;
+            }
+
+            if (!mRefinePath) {
+                if (mPathLength == 0) {
+                    addPathCell(from);
+                }
+                addPathCell(to);
+            } else if (getCellCluster(from) != getCellCluster(to)) {
+                // a transition, next to each other
+                if (mPathLength == 0) {
+                    addPathCell(from);
+                }
+                addPathCell(to);
+            } else {
+                searchCells(getCellCluster(from), from, to);
+                appendCells(from, to);
+            }
+        }
+
+        if (mPathLength == 0) {
+            // start == end
+            addPathCell(startCell);
+        }
+    }
+
+    /**
+     * Append the cells of the last cell search
+     */
+    private void appendCells(final int from, final int to) {
+        int length = 0;
+        for (int cell = to; cell != from; cell = mParents[cell]) {
+            length++;
+        }
+        if (mPathLength == 0) {
+            addPathCell(from);
+        }
+
+        ensurePathCapacity(mPathLength + length);
+        int index = mPathLength + length;
+        for (int cell = to; cell != from; cell = mParents[cell]) {
+            mPath[--index] = cell;
+        }
+        mPathLength += length;
+    }
+
+    private void addPathCell(final int cell) {
+        ensurePathCapacity(mPathLength + 1);
+        mPath[mPathLength++] = cell;
+    }
+
+    private void ensurePathCapacity(final int capacity) {
+        if (capacity > mPath.length) {
+            mPath = Arrays.copyOf(mPath, Math.max(capacity, mPath.length * 2));
+        }
+    }
+
+    private void compress() {
+        // remove the cells on the same line
+        int count = 1;
+        for (int i = 1; i < mPathLength - 1; i++) {
+            final int prev = mPath[i - 1], cell = mPath[i], next = mPath[i + 1];
+            if ((cell % mWidth) - (prev % mWidth) != (next % mWidth) - (cell % mWidth) || (cell / mWidth) - (prev / mWidth) != (next / mWidth) - (cell / mWidth)) {
+                mPath[count++] = cell;
+            }
+        }
+        mPath[count++] = mPath[mPathLength - 1];
+        mPathLength = count;
+    }
+
+    /**
+     * An entrance cell, with the edges to other clusters (inter) and to the entrances of the same cluster (intra)
+     */
+    private static class Node {
+        private int mCell = -1;
+        private int mCluster;
+
+        private int[] mInterNodes = new int[2];
+        private int[] mInterCosts = new int[2];
+        private int mNumInters = 0;
+
+        private int[] mIntraNodes = new int[4];
+        private int[] mIntraCosts = new int[4];
+        private int mNumIntras = 0;
+
+        private void addInter(final int id, final int cost) {
+            if (mNumInters == mInterNodes.length) {
+                mInterNodes = Arrays.copyOf(mInterNodes, mNumInters * 2);
+                mInterCosts = Arrays.copyOf(mInterCosts, mNumInters * 2);
+            }
+            mInterNodes[mNumInters] = id;
+            mInterCosts[mNumInters++] = cost;
+        }
+
+        private int indexOfInter(final int id) {
+            for (int i = 0; i < mNumInters; i++) {
+                if (mInterNodes[i] == id) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        private void removeInter(final int index) {
+            mNumInters--;
+            mInterNodes[index] = mInterNodes[mNumInters];
+            mInterCosts[index] = mInterCosts[mNumInters];
+        }
+
+        private void addIntra(final int id, final int cost) {
+            if (mNumIntras == mIntraNodes.length) {
+                mIntraNodes = Arrays.copyOf(mIntraNodes, mNumIntras * 2);
+                mIntraCosts = Arrays.copyOf(mIntraCosts, mNumIntras * 2);
+            }
+            mIntraNodes[mNumIntras] = id;
+            mIntraCosts[mNumIntras++] = cost;
+        }
+    }
+}
@@ -0,0 +1,189 @@
+/*******************************************************************************
+ * Copyright (C) 2012-2014 GREE, Inc.
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ ******************************************************************************/
+package com.funzio.pure2D.astar;
+
+import java.util.Arrays;
+
+/**
+ * A binary min-heap of int ids in [0, capacity) with int keys. It knows where each id is, so keys can be updated in place (decrease-key) and contains() is O(1).
+ *
+ * @author long
+ */
+public class IndexedHeap {
+    private int[] mHeap;
+    private int[] mKeys;
+    private int[] mIndices;
+    private int mSize = 0;
+
+    public IndexedHeap(final int capacity) {
+        setCapacity(capacity);
+    }
+
+    /**
+     * Set the max number of ids. This also clears the heap.
+     *
+     * @param capacity
+     */
+    public void setCapacity(final int capacity) {
+        mHeap = new int[capacity];
+        mKeys = new int[capacity];
+        mIndices = new int[capacity];
+        Arrays.fill(mIndices, -1);
+        mSize = 0;
+    }
+
+    /**
+     * Grow the capacity, keeping the content
+     *
+     * @param capacity
+     */
+    public void ensureCapacity(final int capacity) {
+        if (capacity <= mHeap.length) {
+            return;
+        }
+
+        final int oldCapacity = mHeap.length;
+        mHeap = Arrays.copyOf(mHeap, capacity);
+        mKeys = Arrays.copyOf(mKeys, capacity);
+        mIndices = Arrays.copyOf(mIndices, capacity);
+        Arrays.fill(mIndices, oldCapacity, capacity, -1);
+    }
+
+    public int getCapacity() {
+        return mHeap.length;
+    }
+
+    public int size() {
+        return mSize;
+    }
+
+    public boolean isEmpty() {
+        return mSize == 0;
+    }
+
+    public boolean contains(final int id) {
+        return mIndices[id] >= 0;
+    }
+
+    public int getKey(final int id) {
+        return mKeys[id];
+    }
+
+    /**
+     * Add an id, or update its key if it's already in
+     *
+     * @param id
+     * @param key
+     */
+    public void push(final int id, final int key) {
+        if (mIndices[id] >= 0) {
+            update(id, key);
+            return;
+        }
+
+        mKeys[id] = key;
+        mHeap[mSize] = id;
+        mIndices[id] = mSize;
+        siftUp(mSize++);
+    }
+
+    /**
+     * Change the key of an id that's in the heap
+     *
+     * @param id
+     * @param key
+     */
+    public void update(final int id, final int key) {
+        final int oldKey = mKeys[id];
+        mKeys[id] = key;
+        if (key < oldKey) {
+            siftUp(mIndices[id]);
+        } else if (key > oldKey) {
+            siftDown(mIndices[id]);
+        }
+    }
+
+    /**
+     * @return the id with the lowest key
+     */
+    public int pop() {
+        final int top = mHeap[0];
+        mIndices[top] = -1;
+        if (--mSize > 0) {
+            mHeap[0] = mHeap[mSize];
+            mIndices[mHeap[0]] = 0;
+            siftDown(0);
+        }
+
+        return top;
+    }
+
+    public int peek() {
+        return mHeap[0];
+    }
+
+    public void clear() {
+        for (int i = 0; i < mSize; i++) {
+            mIndices[mHeap[i]] = -1;
+        }
+        mSize = 0;
+    }
+
+    private void siftUp(int index) {
+        final int id = mHeap[index];
+        final int key = mKeys[id];
+        while (index > 0) {
+            final int parentIndex = (index - 1) >> 1;
+            final int parent = mHeap[parentIndex];
+            if (key >= mKeys[parent]) {
+                break;
+            }
+            mHeap[index] = parent;
+            mIndices[parent] = index;
+            index = parentIndex;
+        }
+        mHeap[index] = id;
+        mIndices[id] = index;
+    }
+
+    private void siftDown(int index) {
+        final int id = mHeap[index];
+        final int key = mKeys[id];
+        final int half = mSize >> 1;
+        while (index < half) {
+            int childIndex = (index << 1) + 1;
+            final int right = childIndex + 1;
+            if (right < mSize && mKeys[mHeap[right]] < mKeys[mHeap[childIndex]]) {
+                childIndex = right;
+            }
+            final int child = mHeap[childIndex];
+            if (key <= mKeys[child]) {
+                break;
+            }
+            mHeap[index] = child;
+            mIndices[child] = index;
+            index = childIndex;
+        }
+        mHeap[index] = id;
+        mIndices[id] = index;
+    }
+}
@@ -0,0 +1,325 @@
+/*******************************************************************************
+ * Copyright (C) 2012-2014 GREE, Inc.
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ ******************************************************************************/
+package com.funzio.pure2D.astar;
+
+import java.util.Arrays;
+
+import android.graphics.Point;
+
+/**
+ * Jump Point Search for 8-connected {@link RectGridMap}s with uniform costs. Instead of adding every neighbor to the open list, it jumps along straight and diagonal lines and only stops at the
+ * cells where the path could turn, so long routes expand a small fraction of the nodes plain A* does. The paths have the same cost as A* on the same map.
+ * <p>
+ * There is no pre-processing, the search reads the walkable flags of the map directly, so it's always up to date with {@link GridMap#setWalkable(int, int, boolean)}.
+ * </p>
+ *
+ * @author long
+ */
+public class JumpPointSearch implements GridPathFinder {
+    protected final RectGridMap<?> mMap;
+    protected int mWidth;
+    protected int mHeight;
+
+    // per cell
+    private int[] mG;
+    private int[] mParents;
+    private int[] mGenerations;
+    private int mGeneration = 0;
+    private IndexedHeap mOpenList;
+
+    private int mEndCell;
+
+    // the last found path, in cells
+    private int[] mPath;
+    private int mPathLength = 0;
+
+    public JumpPointSearch(final RectGridMap<?> map) {
+        if (!map.isDiagonal()) {
+            throw new IllegalArgumentException("Jump Point Search requires an 8-connected map!");
+        }
+
+        mMap = map;
+        allocate();
+    }
+
+    private void allocate() {
+        mWidth = mMap.getWidth();
+        mHeight = mMap.getHeight();
+
+        final int numCells = mWidth * mHeight;
+        mG = new int[numCells];
+        mParents = new int[numCells];
+        mGenerations = new int[numCells];
+        mGeneration = 0;
+        mOpenList = new IndexedHeap(numCells);
+        mPath = new int[numCells];
+        mPathLength = 0;
+    }
+
+    @Override
+    public int findPath(final int startX, final int startY, final int endX, final int endY, final int maxCost, final boolean compressPath) {
+        // the map might have been resized
+        if (mWidth != mMap.getWidth() || mHeight != mMap.getHeight()) {
+            allocate();
+        }
+
+        mPathLength = 0;
+        if (!mMap.isWalkable(startX, startY) || !mMap.isWalkable(endX, endY)) {
+            return 0;
+        }
+
+        if (search(startY * mWidth + startX, endY * mWidth + endX, maxCost)) {
+            extractPath(compressPath);
+        }
+
+        return mPathLength;
+    }
+
+    @Override
+    public int getPathLength() {
+        return mPathLength;
+    }
+
+    @Override
+    public int getPathX(final int index) {
+        return mPath[index] % mWidth;
+    }
+
+    @Override
+    public int getPathY(final int index) {
+        return mPath[index] / mWidth;
+    }
+
+    @Override
+    public void getPathAt(final int index, final Point p) {
+        p.x = mPath[index] % mWidth;
+        p.y = mPath[index] / mWidth;
+    }
+
+    private boolean search(final int startCell, final int endCell, final int maxCost) {
+        // invalidate all the cells from the last search
+        if (mGeneration == Integer.MAX_VALUE) {
+            Arrays.fill(mGenerations, 0);
+            mGeneration = 0;
+        }
+        mGeneration++;
+        mOpenList.clear();
+        mEndCell = endCell;
+
+        mGenerations[startCell] = mGeneration;
+        mG[startCell] = 0;
+        mParents[startCell] = -1;
+        mOpenList.push(startCell, mMap.getHeuristic(startCell, endCell));
+
+        while (!mOpenList.isEmpty()) {
+            final int cell = mOpenList.pop();
+            if (cell == endCell) {
+                return true;
+            }
+
+            final int x = cell % mWidth;
+            final int y = cell / mWidth;
+            final int parent = mParents[cell];
+            if (parent < 0) {
+                // the start cell, all directions
+                for (int dx = -1; dx <= 1; dx++) {
+                    for (int dy = -1; dy <= 1; dy++) {
+                        if ((dx != 0 || dy != 0) && canMove(x, y, dx, dy)) {
+                            addJumpPoint(cell, jump(x + dx, y + dy, dx, dy), maxCost);
+                        }
+                    }
+                }
+                continue;
+            }
+
+            // prune the neighbors by the direction from the parent
+            final int dx = Integer.signum(x - parent % mWidth);
+            final int dy = Integer.signum(y - parent / mWidth);
+            if (dx != 0 && dy != 0) {
+                final boolean walkableX = mMap.isWalkable(x + dx, y);
+                final boolean walkableY = mMap.isWalkable(x, y + dy);
+                if (walkableX) {
+                    addJumpPoint(cell, jump(x + dx, y, dx, 0), maxCost);
+                }
+                if (walkableY) {
+                    addJumpPoint(cell, jump(x, y + dy, 0, dy), maxCost);
+                }
+                if (walkableX && walkableY && mMap.isWalkable(x + dx, y + dy)) {
+                    addJumpPoint(cell, jump(x + dx, y + dy, dx, dy), maxCost);
+                }
+            } else {
+                // the sides are perpendicular to the direction
+                final int sx = dy, sy = dx;
+                final boolean walkableNext = mMap.isWalkable(x + dx, y + dy);
+                final boolean walkableSide1 = mMap.isWalkable(x + sx, y + sy);
+                final boolean walkableSide2 = mMap.isWalkable(x - sx, y - sy);
+                if (walkableNext) {
+                    addJumpPoint(cell, jump(x + dx, y + dy, dx, dy), maxCost);
+                    if (walkableSide1 && mMap.isWalkable(x + dx + sx, y + dy + sy)) {
+                        addJumpPoint(cell, jump(x + dx + sx, y + dy + sy, dx + sx, dy + sy), maxCost);
+                    }
+                    if (walkableSide2 && mMap.isWalkable(x + dx - sx, y + dy - sy)) {
+                        addJumpPoint(cell, jump(x + dx - sx, y + dy - sy, dx - sx, dy - sy), maxCost);
+                    }
+                }
+                if (walkableSide1) {
+                    addJumpPoint(cell, jump(x + sx, y + sy, sx, sy), maxCost);
+                }
+                if (walkableSide2) {
+                    addJumpPoint(cell, jump(x - sx, y - sy, -sx, -sy), maxCost);
+                }
+            }
+        }
+
+        return false;
+    }
+
+    private boolean canMove(final int x, final int y, final int dx, final int dy) {
+        // no corner cutting
+        return mMap.isWalkable(x + dx, y + dy) && (dx == 0 || dy == 0 || (mMap.isWalkable(x + dx, y) && mMap.isWalkable(x, y + dy)));
+    }
+
+    private void addJumpPoint(final int parent, final int cell, final int maxCost) {
+        if (cell < 0) {
+            return;
+        }
+
+        final int g = mG[parent] + mMap.getHeuristic(parent, cell); // exact on a line
+        if (maxCost > 0 && g > maxCost) {
+            return;
+        }
+
+        if (mGenerations[cell] != mGeneration) {
+            // new cell
+            mGenerations[cell] = mGeneration;
+            mG[cell] = g;
+            mParents[cell] = parent;
+            mOpenList.push(cell, g + mMap.getHeuristic(cell, mEndCell));
+        } else if (g < mG[cell] && mOpenList.contains(cell)) {
+            // shorter way to an open cell
+            mG[cell] = g;
+            mParents[cell] = parent;
+            mOpenList.update(cell, g + mMap.getHeuristic(cell, mEndCell));
+        }
+    }
+
+    /**
+     * Move from (x, y) in a direction until a jump point is found
+     *
+     * @return the jump point, or -1 if there is none
+     */
+    private int jump(int x, int y, final int dx, final int dy) {
+        if (dx == 0 || dy == 0) {
+            return jumpStraight(x, y, dx, dy);
+        }
+
+        while (true) {
+            final int cell = y * mWidth + x;
+            if (cell == mEndCell) {
+                return cell;
+            }
+
+            // stop here if there is something on the straight lines
+            if (jumpStraight(x + dx, y, dx, 0) >= 0 || jumpStraight(x, y + dy, 0, dy) >= 0) {
+                return cell;
+            }
+
+            if (!mMap.isWalkable(x + dx, y) || !mMap.isWalkable(x, y + dy) || !mMap.isWalkable(x + dx, y + dy)) {
+                return -1;
+            }
+            x += dx;
+            y += dy;
+        }
+    }
+
+    private int jumpStraight(int x, int y, final int dx, final int dy) {
+        // the sides are perpendicular to the direction
+        final int sx = dy, sy = dx;
+        while (mMap.isWalkable(x, y)) {
+            final int cell = y * mWidth + x;
+            if (cell == mEndCell) {
+                return cell;
+            }
+
+            // forced neighbors: a side that can't be reached diagonally from the previous cell
+            if ((mMap.isWalkable(x + sx, y + sy) && !mMap.isWalkable(x - dx + sx, y - dy + sy)) || (mMap.isWalkable(x - sx, y - sy) && !mMap.isWalkable(x - dx - sx, y - dy - sy))) {
+                return cell;
+            }
+
+            x += dx;
+            y += dy;
+        }
+
+        return -1;
+    }
+
+    private void extractPath(final boolean compression) {
+        // count the jump points first
+        int numPoints = 0;
+        for (int cell = mEndCell; cell >= 0; cell = mParents[cell]) {
+            numPoints++;
+        }
+
+        // then fill backward, at the end of the buffer
+        int index = mPath.length;
+        for (int cell = mEndCell; cell >= 0; cell = mParents[cell]) {
+            mPath[--index] = cell;
+        }
+
+        int length = 0;
+        if (compression) {
+            // jump points can still be on the same line
+            for (int i = index; i < mPath.length; i++) {
+                final int cell = mPath[i];
+                if (length >= 2) {
+                    final int prev = mPath[length - 1], prev2 = mPath[length - 2];
+                    if (getDirection(prev2, prev) == getDirection(prev, cell)) {
+                        mPath[length - 1] = cell;
+                        continue;
+                    }
+                }
+                mPath[length++] = cell;
+            }
+        } else if (numPoints == 1) {
+            mPath[length++] = mPath[index];
+        } else {
+            // fill the cells between the jump points. The path never visits a cell twice so it always fits
+            mPath[length++] = mPath[index];
+            for (int i = index + 1; i < mPath.length; i++) {
+                final int to = mPath[i];
+                final int dx = Integer.signum(to % mWidth - mPath[length - 1] % mWidth);
+                final int step = Integer.signum(to / mWidth - mPath[length - 1] / mWidth) * mWidth + dx;
+                int cell = mPath[length - 1];
+                while (cell != to) {
+                    cell += step;
+                    mPath[length++] = cell;
+                }
+            }
+        }
+
+        mPathLength = length;
+    }
+
+    private int getDirection(final int from, final int to) {
+        return (Integer.signum(to / mWidth - from / mWidth) + 1) * 3 + Integer.signum(to % mWidth - from % mWidth) + 1;
+    }
+}
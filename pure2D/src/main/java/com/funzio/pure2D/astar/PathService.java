@@ -0,0 +1,529 @@
+/*******************************************************************************
+ * Copyright (C) 2012-2014 GREE, Inc.
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ ******************************************************************************/
+package com.funzio.pure2D.astar;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import android.graphics.Point;
+import android.util.Log;
+
+import com.funzio.pure2D.Scene;
+
+/**
+ * Finds paths on a small pool of worker threads, so long searches don't hold the GL thread.
+ * <ul>
+ * <li>Each worker owns a {@link GridPathFinder} made by the {@link Factory}, with its own buffers and node pool.</li>
+ * <li>Requests for the same route are merged into one search, and the workers take the queued searches in batches.</li>
+ * <li>The results are cached (LRU) by route and map version, so the units heading to the same target reuse one search. Call {@link #invalidate()} or add the service as a {@link GridMap.Listener}
+ * when the map changes.</li>
+ * <li>The listeners are called on the GL thread, through {@link Scene#queueEvent(Runnable)}, all the results that are ready in one go.</li>
+ * </ul>
+ * <p>
+ * The path finders run while the map can still change on the GL thread, so they should only read the map: {@link GridAstar} with a read-only adapter or {@link JumpPointSearch}, but not
+ * {@link HierarchicalPathfinder} which updates itself with the map. A result can be a bit outdated, but it's never cached for a newer map version.
+ * </p>
+ *
+ * @author long
+ */
+public class PathService implements GridMap.Listener {
+    public static boolean LOG_ENABLED = false;
+    private static final String TAG = PathService.class.getSimpleName();
+
+    public static final int DEFAULT_BATCH_SIZE = 8;
+    public static final int DEFAULT_CACHE_SIZE = 256;
+
+    // cached for no path
+    private static final Path NO_PATH = new Path(new int[0]);
+
+    private final Scene mScene;
+    private final Object mLock = new Object();
+    private final Worker[] mWorkers;
+    private int mBatchSize = DEFAULT_BATCH_SIZE;
+    private boolean mDisposed = false;
+
+    // searches
+    private final ArrayDeque<Job> mQueue = new ArrayDeque<Job>();
+    private final HashMap<Key, Job> mPendingJobs = new HashMap<Key, Job>();
+    private final Key mScratchKey = new Key();
+    private int mVersion = 0;
+
+    // LRU cache
+    private final LinkedHashMap<Key, Path> mCache;
+    private int mCacheSize;
+    private int mNumCacheHits = 0;
+    private int mNumSearches = 0;
+
+    // results for the GL thread
+    private ArrayList<Request> mReadyRequests = new ArrayList<Request>();
+    private ArrayList<Request> mDeliveringRequests = new ArrayList<Request>();
+    private boolean mDeliveryQueued = false;
+    private final Runnable mDeliveryRunnable = new Runnable() {
+        @Override
+        public void run() {
+            deliver();
+        }
+    };
+
+    public PathService(final Scene scene, final int numWorkers, final Factory factory) {
+        this(scene, numWorkers, factory, DEFAULT_CACHE_SIZE);
+    }
+
+    public PathService(final Scene scene, final int numWorkers, final Factory factory, final int cacheSize) {
+        mScene = scene;
+        mCacheSize = cacheSize;
+        mCache = new LinkedHashMap<Key, Path>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<Key, Path> eldest) {
+                return size() > mCacheSize;
+            }
+        };
+
+        mWorkers = new Worker[numWorkers];
+        for (int i = 0; i < numWorkers; i++) {
+            mWorkers[i] = new Worker(i, factory.createPathFinder());
+            mWorkers[i].start();
+        }
+    }
+
+    /**
+     * Request a path between 2 cells. The listener is called on the GL thread, with null if there is no path.
+     *
+     * @param startX
+     * @param startY
+     * @param endX
+     * @param endY
+     * @param maxCost 0 for no limit
+     * @param compressPath
+     * @param listener
+     * @return the request, which can be cancelled
+     */
+    public Request findPath(final int startX, final int startY, final int endX, final int endY, final int maxCost, final boolean compressPath, final Listener listener) {
+        final Request request = new Request(listener);
+        boolean queueDelivery = false;
+
+        synchronized (mLock) {
+            if (mDisposed) {
+                request.mCancelled = true;
+                return request;
+            }
+
+            mScratchKey.set(startX, startY, endX, endY, maxCost, compressPath, mVersion);
+            final Path path = mCache.get(mScratchKey);
+            if (path != null) {
+                // no need to search
+                mNumCacheHits++;
+                request.mPath = path == NO_PATH ? null : path;
+                queueDelivery = addReadyRequest(request);
+            } else {
+                Job job = mPendingJobs.get(mScratchKey);
+                if (job == null) {
+                    // new search
+                    job = new Job(new Key(mScratchKey));
+                    mPendingJobs.put(job.mKey, job);
+                    mQueue.add(job);
+                    mLock.notify();
+                }
+                request.mJob = job;
+                job.mRequests.add(request);
+            }
+        }
+
+        if (queueDelivery) {
+            mScene.queueEvent(mDeliveryRunnable);
+        }
+
+        return request;
+    }
+
+    /**
+     * Drop all the cached paths. The searches in progress still finish but their results are not cached.
+     */
+    public void invalidate() {
+        synchronized (mLock) {
+            mVersion++;
+            mCache.clear();
+        }
+    }
+
+    @Override
+    public void onWalkableChanged(final GridMap<?> map, final int cellX, final int cellY, final boolean walkable) {
+        invalidate();
+    }
+
+    @Override
+    public void onMapRefreshed(final GridMap<?> map) {
+        invalidate();
+    }
+
+    /**
+     * Set the max number of searches a worker takes at once
+     *
+     * @param batchSize
+     */
+    public void setBatchSize(final int batchSize) {
+        synchronized (mLock) {
+            mBatchSize = batchSize;
+        }
+    }
+
+    public void setCacheSize(final int cacheSize) {
+        synchronized (mLock) {
+            mCacheSize = cacheSize;
+            if (cacheSize == 0) {
+                mCache.clear();
+            }
+        }
+    }
+
+    public int getNumPendingSearches() {
+        synchronized (mLock) {
+            return mPendingJobs.size();
+        }
+    }
+
+    public int getNumCacheHits() {
+        synchronized (mLock) {
+            return mNumCacheHits;
+        }
+    }
+
+    public int getNumSearches() {
+        synchronized (mLock) {
+            return mNumSearches;
+        }
+    }
+
+    /**
+     * Stop the workers and cancel all the requests
+     */
+    public void dispose() {
+        synchronized (mLock) {
+            mDisposed = true;
+            for (final Job job : mQueue) {
+                for (int i = 0; i < job.mRequests.size(); i++) {
+                    job.mRequests.get(i).mCancelled = true;
+                }
+            }
+            mQueue.clear();
+            mPendingJobs.clear();
+            mCache.clear();
+            mReadyRequests.clear();
+            mLock.notifyAll();
+        }
+    }
+
+    /**
+     * @return true if the delivery needs to be queued
+     */
+    private boolean addReadyRequest(final Request request) {
+        mReadyRequests.add(request);
+        if (mDeliveryQueued) {
+            return false;
+        }
+
+        mDeliveryQueued = true;
+        return true;
+    }
+
+    private void deliver() {
+        synchronized (mLock) {
+            // swap
+            final ArrayList<Request> requests = mReadyRequests;
+            mReadyRequests = mDeliveringRequests;
+            mDeliveringRequests = requests;
+            mDeliveryQueued = false;
+        }
+
+        final int size = mDeliveringRequests.size();
+        for (int i = 0; i < size; i++) {
+            final Request request = mDeliveringRequests.get(i);
+            if (!request.mCancelled) {
+                request.mDone = true;
+                request.mListener.onPathFound(request, request.mPath);
+            }
+        }
+        mDeliveringRequests.clear();
+    }
+
+    private void onJobsDone(final ArrayList<Job> jobs) {
+        boolean queueDelivery = false;
+
+        synchronized (mLock) {
+            if (mDisposed) {
+                return;
+            }
+
+            for (int i = 0; i < jobs.size(); i++) {
+                final Job job = jobs.get(i);
+                mPendingJobs.remove(job.mKey);
+                mNumSearches++;
+
+                // only cache the paths of the current map
+                if (job.mKey.mVersion == mVersion && mCacheSize > 0) {
+                    mCache.put(job.mKey, job.mPath != null ? job.mPath : NO_PATH);
+                }
+
+                for (int r = 0; r < job.mRequests.size(); r++) {
+                    final Request request = job.mRequests.get(r);
+                    request.mJob = null;
+                    request.mPath = job.mPath;
+                    queueDelivery |= addReadyRequest(request);
+                }
+            }
+        }
+
+        if (queueDelivery) {
+            mScene.queueEvent(mDeliveryRunnable);
+        }
+    }
+
+    /**
+     * A path, shared by all the requests of the same route. Don't change it.
+     */
+    public static class Path {
+        // x, y pairs
+        private final int[] mPoints;
+
+        private Path(final int[] points) {
+            mPoints = points;
+        }
+
+        private Path(final GridPathFinder finder) {
+            final int length = finder.getPathLength();
+            mPoints = new int[length * 2];
+            for (int i = 0; i < length; i++) {
+                mPoints[i * 2] = finder.getPathX(i);
+                mPoints[i * 2 + 1] = finder.getPathY(i);
+            }
+        }
+
+        public int getLength() {
+            return mPoints.length / 2;
+        }
+
+        public int getX(final int index) {
+            return mPoints[index * 2];
+        }
+
+        public int getY(final int index) {
+            return mPoints[index * 2 + 1];
+        }
+
+        public void getPointAt(final int index, final Point p) {
+            p.x = mPoints[index * 2];
+            p.y = mPoints[index * 2 + 1];
+        }
+    }
+
+    /**
+     * A path request. Cancel it when the result is not needed anymore, such as when the unit has moved.
+     */
+    public class Request {
+        private final Listener mListener;
+        private Job mJob;
+        private Path mPath;
+        private volatile boolean mCancelled = false;
+        private volatile boolean mDone = false;
+
+        private Request(final Listener listener) {
+            mListener = listener;
+        }
+
+        /**
+         * Cancel this request. The search is dropped too if no other request is waiting for it and it hasn't started yet.
+         */
+        public void cancel() {
+            synchronized (mLock) {
+                if (mCancelled || mDone) {
+                    return;
+                }
+
+                mCancelled = true;
+                if (mJob != null) {
+                    mJob.mRequests.remove(this);
+                    if (mJob.mRequests.isEmpty() && !mJob.mRunning) {
+                        mQueue.remove(mJob);
+                        mPendingJobs.remove(mJob.mKey);
+                    }
+                    mJob = null;
+                }
+            }
+        }
+
+        public boolean isCancelled() {
+            return mCancelled;
+        }
+
+        public boolean isDone() {
+            return mDone;
+        }
+
+        /**
+         * @return the found path, or null
+         */
+        public Path getPath() {
+            return mPath;
+        }
+    }
+
+    private static class Key {
+        private int mStartX;
+        private int mStartY;
+        private int mEndX;
+        private int mEndY;
+        private int mMaxCost;
+        private boolean mCompressPath;
+        private int mVersion;
+
+        public Key() {
+        }
+
+        public Key(final Key key) {
+            set(key.mStartX, key.mStartY, key.mEndX, key.mEndY, key.mMaxCost, key.mCompressPath, key.mVersion);
+        }
+
+        public void set(final int startX, final int startY, final int endX, final int endY, final int maxCost, final boolean compressPath, final int version) {
+            mStartX = startX;
+            mStartY = startY;
+            mEndX = endX;
+            mEndY = endY;
+            mMaxCost = maxCost;
+            mCompressPath = compressPath;
+            mVersion = version;
+        }
+
+        @Override
+        public int hashCode() {
+            int hash = mStartX;
+            hash = hash * 31 + mStartY;
+            hash = hash * 31 + mEndX;
+            hash = hash * 31 + mEndY;
+            hash = hash * 31 + mMaxCost;
+            hash = hash * 31 + mVersion;
+            return mCompressPath ? ~hash : hash;
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+
+            final Key key = (Key) o;
+            return mStartX == key.mStartX && mStartY == key.mStartY && mEndX == key.mEndX && mEndY == key.mEndY && mMaxCost == key.mMaxCost && mCompressPath == key.mCompressPath
+                    && mVersion == key.mVersion;
+        }
+    }
+
+    private static class Job {
+        private final Key mKey;
+        private final ArrayList<Request> mRequests = new ArrayList<Request>(1);
+        private boolean mRunning = false;
+        private Path mPath;
+
+        private Job(final Key key) {
+            mKey = key;
+        }
+    }
+
+    private class Worker extends Thread {
+        private final GridPathFinder mPathFinder;
+        private final ArrayList<Job> mBatch = new ArrayList<Job>();
+
+        private Worker(final int index, final GridPathFinder pathFinder) {
+            super(TAG + "-" + index);
+
+            mPathFinder = pathFinder;
+            setDaemon(true);
+            setPriority(Thread.MIN_PRIORITY);
+        }
+
+        @Override
+        public void run() {
+            while (true) {
+                mBatch.clear();
+                synchronized (mLock) {
+                    while (mQueue.isEmpty() && !mDisposed) {
+                        try {
+                            mLock.wait();
+                        } catch (InterruptedException e) {
+                            return;
+                        }
+                    }
+                    if (mDisposed) {
+                        return;
+                    }
+
+                    // share the queue with the other workers
+                    final int batchSize = Math.max(1, Math.min(mBatchSize, mQueue.size() / mWorkers.length));
+                    while (mBatch.size() < batchSize && !mQueue.isEmpty()) {
+                        final Job job = mQueue.poll();
+                        job.mRunning = true;
+                        mBatch.add(job);
+                    }
+                }
+
+                for (int i = 0; i < mBatch.size(); i++) {
+                    final Job job = mBatch.get(i);
+                    final Key key = job.mKey;
+                    try {
+                        if (mPathFinder.findPath(key.mStartX, key.mStartY, key.mEndX, key.mEndY, key.mMaxCost, key.mCompressPath) > 0) {
+                            job.mPath = new Path(mPathFinder);
+                        }
+                    } catch (Exception e) {
+                        // the map might have changed in the middle
+                        Log.e(TAG, "Search failed: " + key.mStartX + "," + key.mStartY + " -> " + key.mEndX + "," + key.mEndY, e);
+                    }
+                }
+
+                if (LOG_ENABLED) {
+                    Log.v(TAG, getName() + " done " + mBatch.size() + " searches");
+                }
+
+                onJobsDone(mBatch);
+            }
+        }
+    }
+
+    public static interface Factory {
+        /**
+         * Create a path finder for a worker. This is called once per worker, and each one should have its own path finder.
+         */
+        public GridPathFinder createPathFinder();
+    }
+
+    public static interface Listener {
+        /**
+         * Called on the GL thread
+         *
+         * @param request
+         * @param path the found path, or null if there is none
+         */
+        public void onPathFound(Request request, Path path);
+    }
+}
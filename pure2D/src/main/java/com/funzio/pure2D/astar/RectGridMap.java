@@ -0,0 +1,99 @@
+/*******************************************************************************
+ * Copyright (C) 2012-2014 GREE, Inc.
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ ******************************************************************************/
+package com.funzio.pure2D.astar;
+
+import com.funzio.pure2D.grid.RectGrid;
+
+/**
+ * A {@link GridMap} of a {@link RectGrid}, 4 or 8 connected. Diagonal moves can't cut corners, so both straight cells next to a diagonal move have to be walkable.
+ *
+ * @author long
+ */
+public class RectGridMap<T> extends GridMap<T> {
+    // straight first, then diagonal
+    private static final int[] DX = {
+            1, 0, -1, 0, 1, -1, -1, 1
+    };
+    private static final int[] DY = {
+            0, 1, 0, -1, 1, 1, -1, -1
+    };
+
+    protected final boolean mDiagonal;
+
+    public RectGridMap(final RectGrid<T> grid, final boolean diagonal) {
+        this(grid, diagonal, null);
+    }
+
+    public RectGridMap(final RectGrid<T> grid, final boolean diagonal, final Filter<T> filter) {
+        super(grid, filter);
+
+        mDiagonal = diagonal;
+    }
+
+    public boolean isDiagonal() {
+        return mDiagonal;
+    }
+
+    @Override
+    public int getMaxNeighbors() {
+        return mDiagonal ? 8 : 4;
+    }
+
+    @Override
+    public int getNeighbors(final int cell, final int[] cells, final int[] costs) {
+        final int x = cell % mWidth;
+        final int y = cell / mWidth;
+        int num = 0;
+        for (int i = 0; i < 4; i++) {
+            if (isWalkable(x + DX[i], y + DY[i])) {
+                cells[num] = cell + DY[i] * mWidth + DX[i];
+                costs[num++] = STRAIGHT_COST;
+            }
+        }
+
+        if (mDiagonal) {
+            for (int i = 4; i < 8; i++) {
+                final int nx = x + DX[i];
+                final int ny = y + DY[i];
+                if (isWalkable(nx, ny) && isWalkable(nx, y) && isWalkable(x, ny)) {
+                    cells[num] = ny * mWidth + nx;
+                    costs[num++] = DIAGONAL_COST;
+                }
+            }
+        }
+
+        return num;
+    }
+
+    @Override
+    public int getHeuristic(final int cell1, final int cell2) {
+        final int dx = Math.abs(cell1 % mWidth - cell2 % mWidth);
+        final int dy = Math.abs(cell1 / mWidth - cell2 / mWidth);
+        if (mDiagonal) {
+            // octile distance
+            return dx > dy ? STRAIGHT_COST * dx + (DIAGONAL_COST - STRAIGHT_COST) * dy : STRAIGHT_COST * dy + (DIAGONAL_COST - STRAIGHT_COST) * dx;
+        } else {
+            // manhattan distance
+            return STRAIGHT_COST * (dx + dy);
+        }
+    }
+}
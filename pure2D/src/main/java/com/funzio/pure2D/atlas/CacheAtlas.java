@@ -36,7 +36,8 @@ import com.funzio.pure2D.animation.PlayableObject;
 import com.funzio.pure2D.gl.gl10.FrameBuffer;
 import com.funzio.pure2D.gl.gl10.GLState;
 import com.funzio.pure2D.gl.gl10.textures.BufferTexture;
-import com.funzio.pure2D.utils.RectBinPacker;
+import com.funzio.pure2D.utils.BinPacker;
+import com.funzio.pure2D.utils.MaxRectsPacker;
 
 /**
  * @author long
@@ -49,7 +50,7 @@ public class CacheAtlas extends Atlas {
     private BufferTexture mTexture;
     private FrameBuffer mFrameBuffer;
 
-    private RectBinPacker mPacker;
+    private BinPacker mPacker;
     private PlayableObject mTarget;
 
     public CacheAtlas(final GLState glState, final PlayableObject target, final int maxWidth) {
@@ -66,7 +67,7 @@ public class CacheAtlas extends Atlas {
      * Creates a buffer texture to bind to the frame buffer
      */
     private void initBuffer(final int maxWidth) {
-        mPacker = new RectBinPacker(maxWidth, !Pure2D.GL_NPOT_TEXTURE_SUPPORTED); // !Pure2D.GL_NPOT_TEXTURE_SUPPORTED
+        mPacker = new MaxRectsPacker(maxWidth, !Pure2D.GL_NPOT_TEXTURE_SUPPORTED); // !Pure2D.GL_NPOT_TEXTURE_SUPPORTED
         final int frames = mTarget.getNumFrames();
         for (int i = 0; i < frames; i++) {
             final RectF frameRect = mTarget.getFrameRect(i);
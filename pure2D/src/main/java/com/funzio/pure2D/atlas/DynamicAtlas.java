@@ -0,0 +1,424 @@
+/*******************************************************************************
+ * Copyright (C) 2012-2014 GREE, Inc.
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ ******************************************************************************/
+/**
+ * 
+ */
+package com.funzio.pure2D.atlas;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+
+import javax.microedition.khronos.opengles.GL10;
+
+import android.graphics.Bitmap;
+import android.graphics.Rect;
+import android.graphics.RectF;
+import android.opengl.GLUtils;
+import android.util.Log;
+
+import com.funzio.pure2D.Pure2D;
+import com.funzio.pure2D.gl.gl10.GLState;
+import com.funzio.pure2D.gl.gl10.textures.BufferTexture;
+import com.funzio.pure2D.gl.gl10.textures.Texture;
+import com.funzio.pure2D.gl.gl10.textures.TextureManager;
+import com.funzio.pure2D.utils.Pure2DUtils;
+import com.funzio.pure2D.utils.BinPacker;
+import com.funzio.pure2D.utils.RectBinPacker;
+
+/**
+ * An atlas that packs small bitmaps at runtime into a few large pages, so the sprites using them share textures and can be batched. Each bitmap is uploaded into its region with
+ * glTexSubImage2D, the rest of the page is left untouched.
+ * <p>
+ * The atlas keeps the added bitmaps to rebuild the pages when the surface is lost or a page is expired, and recycles them when they are removed. Everything here must be called on GL
+ * Thread.
+ * </p>
+ * <p>
+ * Removing a bitmap doesn't free its space until {@link #compact()} is called. Compacting moves the frames, the sprites using them should set their frames again, see
+ * {@link Atlas.Listener}.
+ * </p>
+ *
+ * @author long
+ */
+public class DynamicAtlas extends Atlas {
+    public static final String TAG = DynamicAtlas.class.getSimpleName();
+
+    public static final int DEFAULT_PAGE_SIZE = 1024;
+    public static final int DEFAULT_PADDING = 1;
+    // max size of the zero buffer used to clear a page
+    private static final int CLEAR_BYTES = 64 * 1024;
+
+    private static final Comparator<Entry> SIZE_COMPARATOR = new Comparator<Entry>() {
+        @Override
+        public int compare(final Entry lhs, final Entry rhs) {
+            // biggest first
+            return Math.max(rhs.mWidth, rhs.mHeight) - Math.max(lhs.mWidth, lhs.mHeight);
+        }
+    };
+
+    private final GLState mGLState;
+    private final int mPageSize;
+    private final int mPadding;
+
+    private final ArrayList<Page> mPages = new ArrayList<Page>();
+    private final HashMap<String, Entry> mEntries = new HashMap<String, Entry>();
+    private int mFrameIndex = 0;
+
+    public DynamicAtlas(final GLState glState) {
+        this(glState, DEFAULT_PAGE_SIZE, DEFAULT_PADDING);
+    }
+
+    /**
+     * @param glState
+     * @param pageSize the width and height of the pages
+     * @param padding the spacing between the bitmaps, to avoid bleeding
+     */
+    public DynamicAtlas(final GLState glState, final int pageSize, final int padding) {
+        mGLState = glState;
+        mPageSize = Math.min(Pure2D.GL_NPOT_TEXTURE_SUPPORTED ? pageSize : Pure2DUtils.getNextPO2(pageSize), Pure2D.GL_MAX_TEXTURE_SIZE);
+        mPadding = padding;
+
+        setSize(mPageSize, mPageSize);
+    }
+
+    /**
+     * Pack a bitmap into a page. The atlas owns the bitmap from now on, don't recycle it.
+     *
+     * @param name the frame name, it replaces the existing frame with the same name
+     * @param bitmap
+     * @return the frame, or null if the bitmap is bigger than a page
+     */
+    public AtlasFrame add(final String name, final Bitmap bitmap) {
+        final int width = bitmap.getWidth();
+        final int height = bitmap.getHeight();
+        if (width + mPadding > mPageSize || height + mPadding > mPageSize) {
+            Log.e(TAG, String.format("Bitmap is too big: %s, %d x %d", name, width, height));
+            return null;
+        }
+
+        // replace
+        if (mEntries.containsKey(name)) {
+            remove(name);
+        }
+
+        final Entry entry = new Entry(name, bitmap);
+        final Page page = findPage(width + mPadding, height + mPadding);
+        page.occupy(entry);
+        page.upload(entry);
+
+        entry.mFrame = new AtlasFrame(page, mFrameIndex++, name, entry.getFrameRect());
+        mEntries.put(name, entry);
+        addFrame(entry.mFrame);
+
+        return entry.mFrame;
+    }
+
+    /**
+     * Remove a frame and recycle its bitmap. An empty page is also removed.
+     *
+     * @param name
+     * @return true if found
+     */
+    public boolean remove(final String name) {
+        final Entry entry = mEntries.remove(name);
+        if (entry == null) {
+            return false;
+        }
+
+        removeFrame(entry.mFrame);
+        final Page page = entry.mPage;
+        page.mEntries.remove(entry);
+        page.mUsedArea -= (entry.mWidth + mPadding) * (entry.mHeight + mPadding);
+        entry.mBitmap.recycle();
+
+        if (page.mEntries.isEmpty()) {
+            removePage(page);
+        }
+
+        return true;
+    }
+
+    public boolean remove(final AtlasFrame frame) {
+        return remove(frame.getName());
+    }
+
+    /**
+     * Re-pack all the bitmaps into as few pages as possible, to reclaim the space of the removed ones. The frames are kept but their textures and rects are updated.
+     */
+    public void compact() {
+        if (Texture.LOG_ENABLED) {
+            Log.v(TAG, "compact(): " + mEntries.size() + " frames in " + mPages.size() + " pages");
+        }
+
+        final ArrayList<Entry> entries = new ArrayList<Entry>(mEntries.values());
+        Collections.sort(entries, SIZE_COMPARATOR);
+
+        // reuse the pages
+        final ArrayList<Page> oldPages = new ArrayList<Page>(mPages);
+        for (Page page : oldPages) {
+            page.reset();
+        }
+        mPages.clear();
+
+        int numReused = 0;
+        for (Entry entry : entries) {
+            final int w = entry.mWidth + mPadding, h = entry.mHeight + mPadding;
+            Page page = null;
+            for (int i = 0; i < mPages.size(); i++) {
+                if (mPages.get(i).mPacker.canOccupy(w, h)) {
+                    page = mPages.get(i);
+                    break;
+                }
+            }
+            if (page == null) {
+                if (numReused < oldPages.size()) {
+                    page = oldPages.get(numReused++);
+                    mPages.add(page);
+                } else {
+                    page = addPage();
+                }
+            }
+            page.occupy(entry);
+        }
+
+        // drop the unused pages
+        for (int i = numReused; i < oldPages.size(); i++) {
+            removeTexture(oldPages.get(i));
+        }
+
+        // the reused pages still hold the old pixels, wipe them so they don't show in the gutters and freed areas
+        for (int i = 0; i < numReused; i++) {
+            oldPages.get(i).clear();
+        }
+
+        // upload and move the frames
+        for (Page page : mPages) {
+            page.uploadAll();
+            for (Entry entry : page.mEntries) {
+                entry.mFrame.setTexture(page);
+                entry.mFrame.setRect(entry.getFrameRect());
+            }
+        }
+
+        if (mListener != null) {
+            mListener.onAtlasLoad(this);
+        }
+    }
+
+    /**
+     * Remove all the frames and pages
+     */
+    public void dispose() {
+        for (Entry entry : mEntries.values()) {
+            entry.mBitmap.recycle();
+        }
+        mEntries.clear();
+        removeAllFrames();
+
+        for (Page page : mPages) {
+            removeTexture(page);
+        }
+        mPages.clear();
+    }
+
+    public int getNumPages() {
+        return mPages.size();
+    }
+
+    public BufferTexture getPage(final int index) {
+        return mPages.get(index);
+    }
+
+    public int getPageSize() {
+        return mPageSize;
+    }
+
+    public int getNumFrames() {
+        return mEntries.size();
+    }
+
+    /**
+     * @return the ratio of the occupied area in all the pages, from 0 to 1
+     */
+    public float getOccupancy() {
+        if (mPages.isEmpty()) {
+            return 0;
+        }
+
+        long used = 0;
+        for (Page page : mPages) {
+            used += page.mUsedArea;
+        }
+
+        return (float) used / ((long) mPageSize * mPageSize * mPages.size());
+    }
+
+    private Page findPage(final int w, final int h) {
+        for (int i = 0; i < mPages.size(); i++) {
+            final Page page = mPages.get(i);
+            if (page.mPacker.canOccupy(w, h)) {
+                return page;
+            }
+        }
+
+        return addPage();
+    }
+
+    private Page addPage() {
+        final Page page = new Page(mGLState, mPageSize);
+        mPages.add(page);
+
+        final TextureManager manager = mGLState.getTextureManager();
+        if (manager != null) {
+            manager.addTexture(page);
+        }
+
+        return page;
+    }
+
+    private void removePage(final Page page) {
+        mPages.remove(page);
+        removeTexture(page);
+    }
+
+    private void removeTexture(final Page page) {
+        final TextureManager manager = mGLState.getTextureManager();
+        if (manager != null) {
+            manager.removeTexture(page);
+        } else {
+            page.unload();
+        }
+    }
+
+    private static class Entry {
+        final String mName;
+        final Bitmap mBitmap;
+        final int mWidth;
+        final int mHeight;
+
+        AtlasFrame mFrame;
+        Page mPage;
+        Rect mRect;
+
+        public Entry(final String name, final Bitmap bitmap) {
+            mName = name;
+            mBitmap = bitmap;
+            mWidth = bitmap.getWidth();
+            mHeight = bitmap.getHeight();
+        }
+
+        public RectF getFrameRect() {
+            return new RectF(mRect.left, mRect.top, mRect.left + mWidth - 1, mRect.top + mHeight - 1);
+        }
+
+        @Override
+        public String toString() {
+            return mName;
+        }
+    }
+
+    /**
+     * A page texture which can upload its bitmaps again
+     */
+    private class Page extends BufferTexture {
+        final BinPacker mPacker;
+        final ArrayList<Entry> mEntries = new ArrayList<Entry>();
+        int mUsedArea = 0;
+
+        public Page(final GLState glState, final int size) {
+            super(glState, size, size);
+            // a blank texture has undefined pixels, they would bleed through the gutters
+            clear();
+
+            mPacker = new RectBinPacker(size, size, false);
+        }
+
+        public void occupy(final Entry entry) {
+            entry.mPage = this;
+            entry.mRect = mPacker.occupy(entry.mWidth + mPadding, entry.mHeight + mPadding);
+            mEntries.add(entry);
+            mUsedArea += entry.mRect.width() * entry.mRect.height();
+        }
+
+        public void reset() {
+            mPacker.reset();
+            mEntries.clear();
+            mUsedArea = 0;
+        }
+
+        public void upload(final Entry entry) {
+            if (mTextureID == 0) {
+                return;
+            }
+
+            mGLState.bindTexture(this);
+            GLUtils.texSubImage2D(GL10.GL_TEXTURE_2D, 0, entry.mRect.left, entry.mRect.top, entry.mBitmap);
+        }
+
+        /**
+         * Fill the texture with transparent pixels, a strip of rows at a time
+         */
+        public void clear() {
+            if (mTextureID == 0) {
+                return;
+            }
+
+            final int size = (int) mSize.x;
+            final int rows = Math.max(1, Math.min(size, CLEAR_BYTES / (size * 4)));
+            // direct buffers are zeroed on allocation
+            final ByteBuffer zeros = ByteBuffer.allocateDirect(size * rows * 4);
+            mGLState.bindTexture(this);
+            for (int y = 0; y < size; y += rows) {
+                mGLState.mGL.glTexSubImage2D(GL10.GL_TEXTURE_2D, 0, 0, y, size, Math.min(rows, size - y), GL10.GL_RGBA, GL10.GL_UNSIGNED_BYTE, zeros);
+            }
+        }
+
+        public void uploadAll() {
+            for (int i = 0; i < mEntries.size(); i++) {
+                upload(mEntries.get(i));
+            }
+        }
+
+        /**
+         * Create a cleared texture and upload the bitmaps again
+         *
+         * @see com.funzio.pure2D.gl.gl10.textures.BufferTexture#reload()
+         */
+        @Override
+        public void reload() {
+            super.reload();
+            clear();
+
+            uploadAll();
+        }
+
+        /**
+         * The bitmaps are kept, it can be reloaded
+         */
+        @Override
+        public boolean isEvictable() {
+            return true;
+        }
+    }
+}
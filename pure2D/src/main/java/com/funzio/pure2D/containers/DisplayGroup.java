@@ -30,6 +30,7 @@ import android.view.MotionEvent;
 import com.funzio.pure2D.BaseDisplayObject;
 import com.funzio.pure2D.Cacheable;
 import com.funzio.pure2D.DisplayObject;
+import com.funzio.pure2D.HitTestIndex;
 import com.funzio.pure2D.Parentable;
 import com.funzio.pure2D.Pure2D;
 import com.funzio.pure2D.Scene;
@@ -38,6 +39,9 @@ import com.funzio.pure2D.exceptions.Pure2DException;
 import com.funzio.pure2D.geom.Rectangle;
 import com.funzio.pure2D.gl.gl10.FrameBuffer;
 import com.funzio.pure2D.gl.gl10.GLState;
+import com.funzio.pure2D.gl.gl10.RenderQueue;
+import com.funzio.pure2D.gl.gl10.SpriteBatch;
+import com.funzio.pure2D.profiler.Profiler;
 import com.funzio.pure2D.shapes.DummyDrawer;
 import com.funzio.pure2D.ui.UIManager;
 
@@ -54,6 +58,8 @@ public class DisplayGroup extends BaseDisplayObject implements Container, Cachea
     protected static final String ATT_TOUCHABLE = "touchable";
     protected static final String ATT_CLIPPING_ENABLED = "clippingEnabled";
     protected static final String ATT_CACHE_ENABLED = "cacheEnabled";
+    protected static final String ATT_BATCH_ENABLED = "batchEnabled";
+    protected static final String ATT_REORDERABLE = "reorderable";
 
     protected ArrayList<DisplayObject> mChildren = new ArrayList<DisplayObject>();
     protected ArrayList<DisplayObject> mChildrenDisplayOrder = mChildren;
@@ -61,7 +67,7 @@ public class DisplayGroup extends BaseDisplayObject implements Container, Cachea
     protected int mNumChildren = 0;
 
     // UI
-    protected ArrayList<Touchable> mVisibleTouchables;
+    protected final HitTestIndex mHitTestIndex = new HitTestIndex();
     protected boolean mTouchable = true; // true by default
     protected boolean mModal = false;
 
@@ -72,6 +78,26 @@ public class DisplayGroup extends BaseDisplayObject implements Container, Cachea
     protected int mCacheProjection = Scene.AXIS_BOTTOM_LEFT;
     protected int mCachePolicy = CACHE_WHEN_CHILDREN_STABLE; // best perf
 
+    // batching
+    protected SpriteBatch mSpriteBatch;
+    protected boolean mBatchEnabled = false;
+    // order-independent children
+    protected RenderQueue mRenderQueue;
+    protected boolean mReorderable = false;
+
+    // camera culling
+    protected SpatialGrid mSpatialGrid;
+
+    // the matrix version the children were last hinted with
+    private int mChildrenMatrixVersion = -1;
+
+    // static subtree
+    protected boolean mFrozen = false;
+    private boolean mFrozenInvalidated = false;
+    protected RectF mFrozenBounds;
+    // false when some content can't be bounded, such as the children that bypass camera clipping
+    private boolean mFrozenCullable = false;
+
     // clipping
     protected boolean mClippingEnabled = false;
     protected boolean mOriginalScissorEnabled = false;
@@ -96,6 +122,14 @@ public class DisplayGroup extends BaseDisplayObject implements Container, Cachea
         super.updateChildren(deltaTime);
 
         final boolean forceChildrenConstraints = ((mInvalidateFlags & (SIZE | PARENT | PARENT_BOUNDS)) != 0);
+        // the children only need to recompose when my matrix actually changed
+        final boolean matrixChanged = mMatrixVersion != mChildrenMatrixVersion;
+
+        // frozen, nothing to walk
+        if (mFrozen && !mFrozenInvalidated && !matrixChanged && !forceChildrenConstraints) {
+            return;
+        }
+        mChildrenMatrixVersion = mMatrixVersion;
 
         DisplayObject child;
         float sx = 0, sy = 0;
@@ -108,7 +142,7 @@ public class DisplayGroup extends BaseDisplayObject implements Container, Cachea
 
             if (child.isAlive()) {
                 // hint child to update bounds
-                if ((mInvalidateFlags & BOUNDS) != 0) {
+                if (matrixChanged) {
                     child.invalidate(PARENT_BOUNDS);
                 }
 
@@ -149,6 +183,102 @@ public class DisplayGroup extends BaseDisplayObject implements Container, Cachea
                 }
             }
         }
+
+        // re-index the children that moved
+        if (mSpatialGrid != null) {
+            mSpatialGrid.sync(mChildrenDisplayOrder);
+        }
+
+        if (mFrozen) {
+            updateFrozenBounds();
+        }
+    }
+
+    /**
+     * Find the union of the content's bounds, including the frozen sub-groups
+     */
+    private void updateFrozenBounds() {
+        mFrozenBounds.setEmpty();
+        mFrozenCullable = unionContentBounds(this, mFrozenBounds);
+
+        mFrozenInvalidated = false;
+    }
+
+    /**
+     * Add the global bounds of a group's content. The bounds are computed here, the children might not auto-update them. The sub-groups bypass camera clipping so their content is
+     * walked instead.
+     *
+     * @param group
+     * @param bounds
+     * @return false if some content can't be bounded, such as a child that bypasses camera clipping
+     */
+    private static boolean unionContentBounds(final DisplayGroup group, final RectF bounds) {
+        for (int i = 0; i < group.mNumChildren; i++) {
+            final DisplayObject child = group.mChildren.get(i);
+            if (child instanceof DisplayGroup) {
+                final DisplayGroup childGroup = (DisplayGroup) child;
+                if (childGroup.mFrozen) {
+                    if (childGroup.mFrozenInvalidated || !childGroup.mFrozenCullable) {
+                        return false;
+                    }
+                    bounds.union(childGroup.mFrozenBounds);
+                } else {
+                    // the children's bounds depend on this
+                    childGroup.updateBounds();
+                    if (!unionContentBounds(childGroup, bounds)) {
+                        return false;
+                    }
+                }
+            } else if (child.isBypassCameraClipping()) {
+                return false;
+            } else {
+                bounds.union(child.updateBounds());
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Freeze a static subtree. The children are no longer updated every frame, only when this group moves or the children get added or removed. Their aggregate bounds are cached and
+     * used to skip the whole group when it's outside of the camera, unless some of the content bypasses camera clipping. Changes made on the children directly are not picked up until {@link #unfreeze()}.
+     */
+    public void freeze() {
+        if (mFrozen) {
+            return;
+        }
+
+        mFrozen = true;
+        if (mFrozenBounds == null) {
+            mFrozenBounds = new RectF();
+        }
+        // walk once on the next update
+        mFrozenInvalidated = true;
+    }
+
+    public void unfreeze() {
+        mFrozen = false;
+    }
+
+    public boolean isFrozen() {
+        return mFrozen;
+    }
+
+    /**
+     * @return the union of the content's global bounds, only valid when frozen
+     * @see #freeze()
+     */
+    public RectF getFrozenBounds() {
+        return mFrozenBounds;
+    }
+
+    @Override
+    public boolean shouldDraw(final RectF globalViewRect) {
+        if (mFrozen && !mFrozenInvalidated && mFrozenCullable && globalViewRect != null && !RectF.intersects(globalViewRect, mFrozenBounds)) {
+            return false;
+        }
+
+        return super.shouldDraw(globalViewRect);
     }
 
     @Override
@@ -273,38 +403,63 @@ public class DisplayGroup extends BaseDisplayObject implements Container, Cachea
         }
 
         if (mTouchable) {
-            if (mVisibleTouchables == null) {
-                mVisibleTouchables = new ArrayList<Touchable>();
-            } else {
-                mVisibleTouchables.clear();
-            }
+            mHitTestIndex.begin();
+        }
+
+        if (mBatchEnabled && mSpriteBatch == null) {
+            mSpriteBatch = new SpriteBatch();
+        }
+        if (mReorderable && mRenderQueue == null) {
+            mRenderQueue = new RenderQueue();
         }
 
         // draw the children
-        int numVisibles = 0;
         final boolean uiEnabled = mTouchable && mScene != null && mScene.isUIEnabled();
         DisplayObject child;
         final int numChildren = mChildrenDisplayOrder.size();
-        for (int i = 0; i < numChildren; i++) {
+        final RectF cameraRect = mScene != null ? mScene.getCameraRect() : null;
+        // only visit the children around the camera
+        final boolean indexed = mSpatialGrid != null && cameraRect != null;
+        if (indexed) {
+            mSpatialGrid.query(cameraRect, mChildrenDisplayOrder);
+        }
+        for (int i = indexed ? mSpatialGrid.nextVisible(0) : 0; i >= 0 && i < numChildren; i = indexed ? mSpatialGrid.nextVisible(i + 1) : i + 1) {
             child = mChildrenDisplayOrder.get(i);
 
-            if (child.shouldDraw(mScene != null ? mScene.getCameraRect() : null)) {
+            if (child.shouldDraw(cameraRect)) {
                 // draw frame, check alpha for optimization
-                child.draw(glState);
+                if (mReorderable) {
+                    // drawn later, sorted
+                    mRenderQueue.add(child);
+                } else if (mBatchEnabled) {
+                    mSpriteBatch.draw(glState, child);
+                } else {
+                    child.draw(glState);
+                }
 
                 // stack the visible child
                 if (uiEnabled && child instanceof Touchable && ((Touchable) child).isTouchable()) {
-                    float childZ = child.getZ();
-                    int j = numVisibles;
-                    while (j > 0 && ((DisplayObject) mVisibleTouchables.get(j - 1)).getZ() > childZ) {
-                        j--;
-                    }
-                    mVisibleTouchables.add(j, (Touchable) child);
-                    numVisibles++;
+                    mHitTestIndex.add((Touchable) child);
                 }
+            } else {
+                Profiler.count(Profiler.CULLED_OBJECTS);
             }
         }
 
+        if (mTouchable) {
+            mHitTestIndex.end();
+        }
+
+        // draw the queued children
+        if (mReorderable) {
+            mRenderQueue.flush(glState, mBatchEnabled ? mSpriteBatch : null);
+        }
+
+        // flush the remaining batch
+        if (mBatchEnabled) {
+            mSpriteBatch.flush(glState);
+        }
+
         return true;
     }
 
@@ -368,6 +523,16 @@ public class DisplayGroup extends BaseDisplayObject implements Container, Cachea
             mCacheDrawer.dispose();
             mCacheDrawer = null;
         }
+
+        if (mSpriteBatch != null) {
+            mSpriteBatch.dispose();
+            mSpriteBatch = null;
+        }
+
+        if (mRenderQueue != null) {
+            mRenderQueue.clear();
+            mRenderQueue = null;
+        }
     }
 
     public boolean addChild(final DisplayObject child) {
@@ -385,10 +550,12 @@ public class DisplayGroup extends BaseDisplayObject implements Container, Cachea
             mChildrenIds.put(childId, child);
             mChildren.add(child);
             mNumChildren++;
+            mFrozenInvalidated = mFrozen;
 
             // child callback
             child.onAdded(this);
             invalidate(CHILDREN);
+            invalidateSpatialIndex();
 
             // internal callback
             onAddedChild(child);
@@ -412,10 +579,12 @@ public class DisplayGroup extends BaseDisplayObject implements Container, Cachea
             mChildrenIds.put(childId, child);
             mChildren.add(index, child);
             mNumChildren++;
+            mFrozenInvalidated = mFrozen;
 
             // child callback
             child.onAdded(this);
             invalidate(CHILDREN);
+            invalidateSpatialIndex();
 
             onAddedChild(child);
             return true;
@@ -432,10 +601,12 @@ public class DisplayGroup extends BaseDisplayObject implements Container, Cachea
             mChildrenIds.remove(child.getId());
             mChildren.remove(child);
             mNumChildren--;
+            mFrozenInvalidated = mFrozen;
 
             // child callback
             child.onRemoved();
             invalidate(CHILDREN);
+            invalidateSpatialIndex();
 
             onRemovedChild(child);
             return true;
@@ -454,10 +625,12 @@ public class DisplayGroup extends BaseDisplayObject implements Container, Cachea
             mChildrenIds.remove(child.getId());
             mChildren.remove(child);
             mNumChildren--;
+            mFrozenInvalidated = mFrozen;
 
             // child callback
             child.onRemoved();
             invalidate(CHILDREN);
+            invalidateSpatialIndex();
 
             onRemovedChild(child);
             return true;
@@ -485,7 +658,9 @@ public class DisplayGroup extends BaseDisplayObject implements Container, Cachea
         mChildrenIds.clear();
         mChildren.clear();
         mNumChildren = 0;
+        mFrozenInvalidated = mFrozen;
         invalidate(CHILDREN);
+        invalidateSpatialIndex();
     }
 
     public DisplayObject getChildAt(final int index) {
@@ -539,6 +714,7 @@ public class DisplayGroup extends BaseDisplayObject implements Container, Cachea
         mChildren.set(index1, child2);
         mChildren.set(index2, child1);
         invalidate(CHILDREN);
+        invalidateSpatialIndex();
 
         return true;
     }
@@ -565,6 +741,7 @@ public class DisplayGroup extends BaseDisplayObject implements Container, Cachea
         mChildren.set(index1, child2);
         mChildren.set(index2, child1);
         invalidate(CHILDREN);
+        invalidateSpatialIndex();
 
         return true;
     }
@@ -585,6 +762,7 @@ public class DisplayGroup extends BaseDisplayObject implements Container, Cachea
         }
         mChildren.set(mNumChildren - 1, child);
         invalidate(CHILDREN);
+        invalidateSpatialIndex();
 
         return true;
     }
@@ -605,6 +783,7 @@ public class DisplayGroup extends BaseDisplayObject implements Container, Cachea
         }
         mChildren.set(0, child);
         invalidate(CHILDREN);
+        invalidateSpatialIndex();
 
         return true;
     }
@@ -642,14 +821,10 @@ public class DisplayGroup extends BaseDisplayObject implements Container, Cachea
     @Override
     public boolean onTouchEvent(final MotionEvent event) {
 
-        if (mNumChildren > 0 && mVisibleTouchables != null) {
-            // start from front to back
-            for (int i = mVisibleTouchables.size() - 1; i >= 0; i--) {
-                if (mVisibleTouchables.get(i).onTouchEvent(event)) {
-                    // break here
-                    return true;
-                }
-            }
+        // start from front to back
+        if (mNumChildren > 0 && mHitTestIndex.dispatch(event, mScene)) {
+            // break here
+            return true;
         }
 
         // also take control if this is modal
@@ -719,6 +894,102 @@ public class DisplayGroup extends BaseDisplayObject implements Container, Cachea
         invalidate(CACHE);
     }
 
+    public boolean isSpatialIndexEnabled() {
+        return mSpatialGrid != null;
+    }
+
+    /**
+     * Enable/disable the spatial index for camera culling. Use this when there are many children but only some of them are seen by the Camera at a time.
+     * Children's bounds need to be updated for this to work, see {@link #setAutoUpdateBounds(boolean)}.
+     *
+     * @param enabled
+     * @param cellSize the size of a grid cell, in global coordinates
+     * @see SpatialGrid
+     */
+    public void setSpatialIndexEnabled(final boolean enabled, final float cellSize) {
+        if (mSpatialGrid != null && (!enabled || mSpatialGrid.getCellSize() != cellSize)) {
+            // detach the children
+            mSpatialGrid.clear();
+            mSpatialGrid = null;
+        }
+
+        if (enabled && mSpatialGrid == null) {
+            mSpatialGrid = new SpatialGrid(cellSize);
+        }
+
+        invalidate(VISUAL);
+    }
+
+    public void setSpatialIndexEnabled(final boolean enabled) {
+        setSpatialIndexEnabled(enabled, SpatialGrid.DEFAULT_CELL_SIZE);
+    }
+
+    /**
+     * Rebuild the spatial index on the next update. Subclasses that reorder the children directly should call this.
+     */
+    protected void invalidateSpatialIndex() {
+        if (mSpatialGrid != null) {
+            mSpatialGrid.invalidateChildren();
+        }
+    }
+
+    public boolean isBatchEnabled() {
+        return mBatchEnabled;
+    }
+
+    public boolean isReorderable() {
+        return mReorderable;
+    }
+
+    /**
+     * Allow the children to be drawn in any order, sorted by z, Mask, Texture and BlendFunc to minimize the state changes. Only use this when the children don't overlap, or when
+     * their order doesn't matter such as opaque children with depth test. The children's own children keep their order unless they are reorderable too.
+     *
+     * @param reorderable
+     * @see RenderQueue
+     */
+    public void setReorderable(final boolean reorderable) {
+        mReorderable = reorderable;
+
+        if (!reorderable && mRenderQueue != null) {
+            mRenderQueue.clear();
+            mRenderQueue = null;
+        }
+
+        invalidate(VISUAL);
+    }
+
+    /**
+     * @return the RenderQueue, for stats
+     */
+    public RenderQueue getRenderQueue() {
+        return mRenderQueue;
+    }
+
+    /**
+     * Enable/disable batching. Consecutive Batchable children sharing the same Texture, BlendFunc and Mask get drawn with a single draw call.
+     *
+     * @param batchEnabled
+     * @see com.funzio.pure2D.Batchable
+     */
+    public void setBatchEnabled(final boolean batchEnabled) {
+        mBatchEnabled = batchEnabled;
+
+        if (!batchEnabled && mSpriteBatch != null) {
+            mSpriteBatch.dispose();
+            mSpriteBatch = null;
+        }
+
+        invalidate(VISUAL);
+    }
+
+    /**
+     * @return the SpriteBatch, for stats
+     */
+    public SpriteBatch getSpriteBatch() {
+        return mSpriteBatch;
+    }
+
     public int getCachePolicy() {
         return mCachePolicy;
     }
@@ -776,6 +1047,7 @@ public class DisplayGroup extends BaseDisplayObject implements Container, Cachea
         mChildrenDisplayOrder = childrenDisplayOrder;
 
         invalidate(CHILDREN);
+        invalidateSpatialIndex();
     }
 
     public void setChildrenVisible(boolean value) {
@@ -813,6 +1085,16 @@ public class DisplayGroup extends BaseDisplayObject implements Container, Cachea
             setCacheEnabled(Boolean.valueOf(cacheEnabled));
         }
 
+        final String batchEnabled = xmlParser.getAttributeValue(null, ATT_BATCH_ENABLED);
+        if (batchEnabled != null) {
+            setBatchEnabled(Boolean.valueOf(batchEnabled));
+        }
+
+        final String reorderable = xmlParser.getAttributeValue(null, ATT_REORDERABLE);
+        if (reorderable != null) {
+            setReorderable(Boolean.valueOf(reorderable));
+        }
+
         final String clippingEnabled = xmlParser.getAttributeValue(null, ATT_CLIPPING_ENABLED);
         if (clippingEnabled != null) {
             setClippingEnabled(Boolean.valueOf(clippingEnabled));
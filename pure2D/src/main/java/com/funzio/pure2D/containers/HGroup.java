@@ -35,8 +35,6 @@ import com.funzio.pure2D.ui.UIObject;
 
 import org.xmlpull.v1.XmlPullParser;
 
-import java.util.ArrayList;
-
 /**
  * @author long
  */
@@ -154,11 +152,7 @@ public class HGroup extends LinearGroup implements UIObject {
     @Override
     protected boolean drawChildren(final GLState glState) {
         if (mTouchable) {
-            if (mVisibleTouchables == null) {
-                mVisibleTouchables = new ArrayList<Touchable>();
-            } else {
-                mVisibleTouchables.clear();
-            }
+            mHitTestIndex.begin();
         }
 
         // draw the children
@@ -178,12 +172,7 @@ public class HGroup extends LinearGroup implements UIObject {
 
                 // stack the visible child
                 if (mTouchable && child instanceof Touchable && ((Touchable) child).isTouchable()) {
-                    float childZ = child.getZ();
-                    int j = mVisibleTouchables.size();
-                    while (j > 0 && ((DisplayObject) mVisibleTouchables.get(j - 1)).getZ() > childZ) {
-                        j--;
-                    }
-                    mVisibleTouchables.add(j, (Touchable) child);
+                    mHitTestIndex.add((Touchable) child);
                 }
             } else {
                 if (mAutoSleepChildren) {
@@ -193,6 +182,10 @@ public class HGroup extends LinearGroup implements UIObject {
             }
         }
 
+        if (mTouchable) {
+            mHitTestIndex.end();
+        }
+
         // if there's an empty space at the beginning
         // if (mRepeating && mStartX > mGap) {
         // // draw the first item to fill the space
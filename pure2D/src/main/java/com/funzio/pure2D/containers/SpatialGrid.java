@@ -0,0 +1,462 @@
+/**
+ * Copyright (C) 2012-2014 GREE, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+/**
+ *
+ */
+package com.funzio.pure2D.containers;
+
+import java.util.List;
+
+import android.graphics.RectF;
+import android.util.SparseArray;
+
+import com.funzio.pure2D.BaseDisplayObject;
+import com.funzio.pure2D.DisplayObject;
+
+/**
+ * A uniform grid that indexes children by their global bounds, used for camera culling. Objects that bypass camera clipping are always visible.
+ * Query results are kept as a bit set so the visible children can be iterated in display order without sorting or allocating.
+ * <p>
+ * The children report their own bounds changes through their {@link Entry}, so a sync only re-indexes the ones that moved. The container calls {@link #invalidateChildren()} when
+ * its children list changes. Empty cells are removed from the grid and recycled.
+ * </p>
+ *
+ * @author long
+ * @see DisplayGroup#setSpatialIndexEnabled(boolean, float)
+ */
+public class SpatialGrid {
+    public static final float DEFAULT_CELL_SIZE = 256;
+
+    private final float mCellSize;
+    private final SparseArray<Cell> mCells = new SparseArray<Cell>();
+    private Cell[] mFreeCells = new Cell[16];
+    private int mNumFreeCells = 0;
+
+    // entries, in the same order as the children list
+    private Entry[] mEntries = new Entry[0];
+    private int mNumEntries = 0;
+    private boolean mSynced = false;
+    private boolean mChildrenInvalidated = true;
+
+    // the entries whose bounds have changed since the last sync
+    private Entry[] mDirtyEntries = new Entry[16];
+    private int mNumDirtyEntries = 0;
+
+    // the children that can't report their changes, checked on every sync
+    private int[] mPolled = new int[8];
+    private int mNumPolled = 0;
+
+    // always visible entries
+    private int[] mAlways = new int[8];
+    private int mNumAlways = 0;
+
+    // query result
+    private long[] mVisibleBits = new long[1];
+
+    public SpatialGrid() {
+        this(DEFAULT_CELL_SIZE);
+    }
+
+    public SpatialGrid(final float cellSize) {
+        mCellSize = cellSize;
+    }
+
+    public float getCellSize() {
+        return mCellSize;
+    }
+
+    public int getNumEntries() {
+        return mNumEntries;
+    }
+
+    /**
+     * @return number of non-empty cells
+     */
+    public int getNumCells() {
+        return mCells.size();
+    }
+
+    /**
+     * Rebuild the grid on the next sync. Call this when the children were added, removed or reordered.
+     */
+    public void invalidateChildren() {
+        mChildrenInvalidated = true;
+    }
+
+    /**
+     * Match the grid with the children. Only the children whose bounds have changed get re-indexed. If the list itself has changed, the whole grid is rebuilt.
+     *
+     * @param children
+     */
+    public void sync(final List<? extends DisplayObject> children) {
+        if (mChildrenInvalidated || children.size() != mNumEntries) {
+            rebuild(children);
+        } else {
+            // the children that moved
+            for (int i = 0; i < mNumDirtyEntries; i++) {
+                final Entry entry = mDirtyEntries[i];
+                if (entry.mIndex < mNumEntries && mEntries[entry.mIndex] == entry) {
+                    removeEntry(entry.mIndex, entry);
+                    addEntry(entry.mIndex, entry, entry.mObject);
+                }
+            }
+
+            for (int i = 0; i < mNumPolled; i++) {
+                final int index = mPolled[i];
+                final Entry entry = mEntries[index];
+                if (entry.hasChanged(entry.mObject)) {
+                    removeEntry(index, entry);
+                    addEntry(index, entry, entry.mObject);
+                }
+            }
+        }
+
+        // clean up
+        for (int i = 0; i < mNumDirtyEntries; i++) {
+            mDirtyEntries[i].mDirty = false;
+            mDirtyEntries[i] = null;
+        }
+        mNumDirtyEntries = 0;
+
+        mSynced = true;
+    }
+
+    private void rebuild(final List<? extends DisplayObject> children) {
+        // recycle the cells
+        final int numCells = mCells.size();
+        for (int i = 0; i < numCells; i++) {
+            recycleCell(mCells.valueAt(i));
+        }
+        mCells.clear();
+        mNumAlways = 0;
+        mNumPolled = 0;
+
+        // detach the old children
+        for (int i = 0; i < mNumEntries; i++) {
+            mEntries[i].detach();
+        }
+
+        final int size = children.size();
+        if (mEntries.length < size) {
+            final Entry[] entries = new Entry[Math.max(size, mEntries.length * 2)];
+            System.arraycopy(mEntries, 0, entries, 0, mEntries.length);
+            mEntries = entries;
+        }
+        if (mVisibleBits.length < (size >> 6) + 1) {
+            mVisibleBits = new long[(size >> 6) + 1];
+        }
+
+        for (int i = 0; i < size; i++) {
+            if (mEntries[i] == null) {
+                mEntries[i] = new Entry(this);
+            }
+            final Entry entry = mEntries[i];
+            final DisplayObject child = children.get(i);
+            entry.mIndex = i;
+            addEntry(i, entry, child);
+
+            // attach
+            if (child instanceof BaseDisplayObject) {
+                ((BaseDisplayObject) child).setSpatialEntry(entry);
+            } else {
+                if (mNumPolled == mPolled.length) {
+                    final int[] polled = new int[mNumPolled * 2];
+                    System.arraycopy(mPolled, 0, polled, 0, mNumPolled);
+                    mPolled = polled;
+                }
+                mPolled[mNumPolled++] = i;
+            }
+        }
+        // release the removed children
+        for (int i = size; i < mNumEntries; i++) {
+            mEntries[i].mObject = null;
+        }
+        mNumEntries = size;
+        mChildrenInvalidated = false;
+    }
+
+    private void addEntry(final int index, final Entry entry, final DisplayObject child) {
+        entry.set(child);
+
+        if (entry.mBypass) {
+            if (mNumAlways == mAlways.length) {
+                final int[] always = new int[mNumAlways * 2];
+                System.arraycopy(mAlways, 0, always, 0, mNumAlways);
+                mAlways = always;
+            }
+            mAlways[mNumAlways++] = index;
+            return;
+        }
+
+        entry.mCol1 = getCell(entry.mLeft);
+        entry.mCol2 = getCell(entry.mRight);
+        entry.mRow1 = getCell(entry.mTop);
+        entry.mRow2 = getCell(entry.mBottom);
+        for (int row = entry.mRow1; row <= entry.mRow2; row++) {
+            for (int col = entry.mCol1; col <= entry.mCol2; col++) {
+                final int key = getKey(col, row);
+                Cell cell = mCells.get(key);
+                if (cell == null) {
+                    cell = mNumFreeCells > 0 ? mFreeCells[--mNumFreeCells] : new Cell();
+                    mCells.put(key, cell);
+                }
+                cell.add(index);
+            }
+        }
+    }
+
+    private void removeEntry(final int index, final Entry entry) {
+        if (entry.mBypass) {
+            for (int i = 0; i < mNumAlways; i++) {
+                if (mAlways[i] == index) {
+                    mAlways[i] = mAlways[--mNumAlways];
+                    break;
+                }
+            }
+            return;
+        }
+
+        for (int row = entry.mRow1; row <= entry.mRow2; row++) {
+            for (int col = entry.mCol1; col <= entry.mCol2; col++) {
+                final int key = getKey(col, row);
+                final Cell cell = mCells.get(key);
+                if (cell != null) {
+                    cell.remove(index);
+
+                    // drop the empty cell
+                    if (cell.mSize == 0) {
+                        mCells.delete(key);
+                        recycleCell(cell);
+                    }
+                }
+            }
+        }
+    }
+
+    private void recycleCell(final Cell cell) {
+        cell.mSize = 0;
+        if (mNumFreeCells == mFreeCells.length) {
+            final Cell[] cells = new Cell[mNumFreeCells * 2];
+            System.arraycopy(mFreeCells, 0, cells, 0, mNumFreeCells);
+            mFreeCells = cells;
+        }
+        mFreeCells[mNumFreeCells++] = cell;
+    }
+
+    private void addDirty(final Entry entry) {
+        if (mNumDirtyEntries == mDirtyEntries.length) {
+            final Entry[] entries = new Entry[mNumDirtyEntries * 2];
+            System.arraycopy(mDirtyEntries, 0, entries, 0, mNumDirtyEntries);
+            mDirtyEntries = entries;
+        }
+        mDirtyEntries[mNumDirtyEntries++] = entry;
+    }
+    /**
+     * Find the children that might intersect with the specified rect. Use {@link #nextVisible(int)} to iterate the result.
+     *
+     * @param rect global rect, usually the camera rect
+     * @param children the same list passed to {@link #sync(List)}
+     */
+    public void query(final RectF rect, final List<? extends DisplayObject> children) {
+        // children changed since the last sync?
+        if (!mSynced || mChildrenInvalidated || children.size() != mNumEntries) {
+            sync(children);
+        }
+        mSynced = false;
+
+        // reset
+        final int numWords = (mNumEntries >> 6) + 1;
+        for (int i = 0; i < numWords; i++) {
+            mVisibleBits[i] = 0;
+        }
+
+        for (int i = 0; i < mNumAlways; i++) {
+            setVisible(mAlways[i]);
+        }
+
+        final int col1 = getCell(Math.min(rect.left, rect.right));
+        final int col2 = getCell(Math.max(rect.left, rect.right));
+        final int row1 = getCell(Math.min(rect.top, rect.bottom));
+        final int row2 = getCell(Math.max(rect.top, rect.bottom));
+        final int numCells = mCells.size();
+        if ((long) (col2 - col1 + 1) * (row2 - row1 + 1) > numCells) {
+            // the rect covers more cells than the existing ones, just check them all
+            for (int i = 0; i < numCells; i++) {
+                final int key = mCells.keyAt(i);
+                final int col = (short) (key & 0xFFFF);
+                final int row = key >> 16;
+                if (col >= col1 && col <= col2 && row >= row1 && row <= row2) {
+                    setVisible(mCells.valueAt(i));
+                }
+            }
+        } else {
+            for (int row = row1; row <= row2; row++) {
+                for (int col = col1; col <= col2; col++) {
+                    final Cell cell = mCells.get(getKey(col, row));
+                    if (cell != null) {
+                        setVisible(cell);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * @param from
+     * @return the index of the next visible child from the last query, starting from the specified index, or -1 if there is no more
+     */
+    public int nextVisible(final int from) {
+        if (from >= mNumEntries) {
+            return -1;
+        }
+
+        int word = from >> 6;
+        long bits = mVisibleBits[word] & (-1L << (from & 63));
+        final int numWords = (mNumEntries >> 6) + 1;
+        while (true) {
+            if (bits != 0) {
+                final int index = (word << 6) + Long.numberOfTrailingZeros(bits);
+                return index < mNumEntries ? index : -1;
+            }
+            if (++word >= numWords) {
+                return -1;
+            }
+            bits = mVisibleBits[word];
+        }
+    }
+
+    public void clear() {
+        mCells.clear();
+        mNumFreeCells = 0;
+        mNumAlways = 0;
+        mNumPolled = 0;
+        mSynced = false;
+        mChildrenInvalidated = true;
+        for (int i = 0; i < mNumDirtyEntries; i++) {
+            mDirtyEntries[i].mDirty = false;
+            mDirtyEntries[i] = null;
+        }
+        mNumDirtyEntries = 0;
+        for (int i = 0; i < mNumEntries; i++) {
+            mEntries[i].detach();
+            mEntries[i].mObject = null;
+        }
+        mNumEntries = 0;
+    }
+
+    private void setVisible(final int index) {
+        mVisibleBits[index >> 6] |= 1L << (index & 63);
+    }
+
+    private void setVisible(final Cell cell) {
+        final int[] indices = cell.mIndices;
+        final int size = cell.mSize;
+        for (int i = 0; i < size; i++) {
+            setVisible(indices[i]);
+        }
+    }
+
+    private int getCell(final float value) {
+        final float col = (float) Math.floor(value / mCellSize);
+        return col < Short.MIN_VALUE ? Short.MIN_VALUE : col > Short.MAX_VALUE ? Short.MAX_VALUE : (int) col;
+    }
+
+    private static int getKey(final int col, final int row) {
+        return (row << 16) | (col & 0xFFFF);
+    }
+
+    private static class Cell {
+        private int[] mIndices = new int[4];
+        private int mSize = 0;
+
+        private void add(final int index) {
+            if (mSize == mIndices.length) {
+                final int[] indices = new int[mSize * 2];
+                System.arraycopy(mIndices, 0, indices, 0, mSize);
+                mIndices = indices;
+            }
+            mIndices[mSize++] = index;
+        }
+
+        private void remove(final int index) {
+            for (int i = 0; i < mSize; i++) {
+                if (mIndices[i] == index) {
+                    mIndices[i] = mIndices[--mSize];
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * The place of a child in the grid. The child calls {@link #invalidate()} when its bounds change.
+     */
+    public static final class Entry {
+        private final SpatialGrid mGrid;
+        private int mIndex;
+        private boolean mDirty = false;
+
+        private DisplayObject mObject;
+        private boolean mBypass;
+        private float mLeft, mTop, mRight, mBottom;
+        private int mCol1, mRow1, mCol2, mRow2;
+
+        private Entry(final SpatialGrid grid) {
+            mGrid = grid;
+        }
+
+        /**
+         * Re-index the child on the next sync
+         */
+        public void invalidate() {
+            if (!mDirty && mObject != null) {
+                mDirty = true;
+                mGrid.addDirty(this);
+            }
+        }
+
+        private void detach() {
+            if (mObject instanceof BaseDisplayObject && ((BaseDisplayObject) mObject).getSpatialEntry() == this) {
+                ((BaseDisplayObject) mObject).setSpatialEntry(null);
+            }
+        }
+
+        private void set(final DisplayObject child) {
+            final RectF bounds = child.getBounds();
+            mObject = child;
+            mBypass = child.isBypassCameraClipping();
+            mLeft = Math.min(bounds.left, bounds.right);
+            mRight = Math.max(bounds.left, bounds.right);
+            mTop = Math.min(bounds.top, bounds.bottom);
+            mBottom = Math.max(bounds.top, bounds.bottom);
+        }
+
+        private boolean hasChanged(final DisplayObject child) {
+            final RectF bounds = child.getBounds();
+            return mBypass != child.isBypassCameraClipping() //
+                    || mLeft != Math.min(bounds.left, bounds.right) //
+                    || mRight != Math.max(bounds.left, bounds.right) //
+                    || mTop != Math.min(bounds.top, bounds.bottom) //
+                    || mBottom != Math.max(bounds.top, bounds.bottom);
+        }
+    }
+}
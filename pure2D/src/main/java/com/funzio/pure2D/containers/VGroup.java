@@ -24,7 +24,6 @@
  */
 package com.funzio.pure2D.containers;
 
-import java.util.ArrayList;
 
 import android.graphics.PointF;
 import android.graphics.RectF;
@@ -161,11 +160,7 @@ public class VGroup extends LinearGroup implements UIObject {
     @Override
     protected boolean drawChildren(final GLState glState) {
         if (mTouchable) {
-            if (mVisibleTouchables == null) {
-                mVisibleTouchables = new ArrayList<Touchable>();
-            } else {
-                mVisibleTouchables.clear();
-            }
+            mHitTestIndex.begin();
         }
 
         // draw the children
@@ -185,12 +180,7 @@ public class VGroup extends LinearGroup implements UIObject {
 
                 // stack the visible child
                 if (mTouchable && child instanceof Touchable && ((Touchable) child).isTouchable()) {
-                    float childZ = child.getZ();
-                    int j = mVisibleTouchables.size();
-                    while (j > 0 && ((DisplayObject) mVisibleTouchables.get(j - 1)).getZ() > childZ) {
-                        j--;
-                    }
-                    mVisibleTouchables.add(j, (Touchable) child);
+                    mHitTestIndex.add((Touchable) child);
                 }
             } else {
                 if (mAutoSleepChildren) {
@@ -200,6 +190,10 @@ public class VGroup extends LinearGroup implements UIObject {
             }
         }
 
+        if (mTouchable) {
+            mHitTestIndex.end();
+        }
+
         // if there's an empty space at the beginning
         // if (mRepeating && mStartY > mGap) {
         // // draw the first item to fill the space
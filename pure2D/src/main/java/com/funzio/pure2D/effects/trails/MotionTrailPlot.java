@@ -511,6 +511,17 @@ public class MotionTrailPlot extends BaseDisplayObject implements MotionTrail, S
         return mNumPoints;
     }
 
+    @Override
+    public int getStackIndex() {
+        return -1;
+    }
+
+    @Override
+    public boolean isStackInvalidated() {
+        // always restacked
+        return true;
+    }
+
     @Override
     public void setStackable(final boolean value) {
         mStackable = value;
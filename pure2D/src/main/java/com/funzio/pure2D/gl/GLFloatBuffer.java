@@ -67,6 +67,68 @@ public class GLFloatBuffer {
         }
     }
 
+    /**
+     * Upload only the first values, to avoid copying the unused part of a large array. The buffer grows if it's not big enough.
+     *
+     * @param values
+     * @param length number of values to upload
+     */
+    public void setValues(final float[] values, final int length) {
+        if (mBuffer == null || mCapacity < length) {
+            setValues(values);
+            return;
+        }
+
+        mBuffer.clear();
+        mBuffer.put(values, 0, length);
+        mBuffer.flip();
+    }
+
+    /**
+     * Copy a range of another buffer, without going through a float array. The buffer is reallocated if the length changes.
+     *
+     * @param values the source, its position and limit are restored
+     * @param offset the first value to copy
+     * @param length number of values to copy
+     */
+    public void setValues(final FloatBuffer values, final int offset, final int length) {
+        if (mBuffer == null || mCapacity != length) {
+            ByteBuffer bb = ByteBuffer.allocateDirect(length * 4);
+            bb.order(ByteOrder.nativeOrder());
+            mBuffer = bb.asFloatBuffer();
+            mCapacity = length;
+        } else {
+            mBuffer.clear();
+        }
+
+        final int position = values.position();
+        final int limit = values.limit();
+        values.limit(offset + length);
+        values.position(offset);
+        mBuffer.put(values);
+        mBuffer.flip();
+        values.limit(limit);
+        values.position(position);
+    }
+
+    /**
+     * Copy a range of the values into the buffer, at the same offset. The whole array is copied instead if the buffer was not created for the same length.
+     *
+     * @param values
+     * @param offset the first value to copy
+     * @param length number of values to copy
+     */
+    public void updateValues(final float[] values, final int offset, final int length) {
+        if (mBuffer == null || mCapacity != values.length) {
+            setValues(values);
+            return;
+        }
+
+        mBuffer.position(offset);
+        mBuffer.put(values, offset, length);
+        mBuffer.position(0);
+    }
+
     public void dispose() {
         // texture coordinates buffer
         if (mBuffer != null) {
@@ -36,8 +36,10 @@ import com.funzio.pure2D.gl.GLColor;
 import com.funzio.pure2D.gl.gl10.textures.Texture;
 import com.funzio.pure2D.gl.gl10.textures.TextureCoordBuffer;
 import com.funzio.pure2D.gl.gl10.textures.TextureManager;
+import com.funzio.pure2D.profiler.Profiler;
 
 import javax.microedition.khronos.opengles.GL10;
+import javax.microedition.khronos.opengles.GL11;
 import javax.microedition.khronos.opengles.GL11ExtensionPack;
 
 /**
@@ -49,9 +51,13 @@ public class GLState {
 
     public GL10 mGL;
     private Stage mStage;
+    // changes with every new GL context, the buffer objects are gone with the old one
+    private static int sContextVersion = 0;
+    private int mContextVersion = 0;
 
     // texture
     private Texture mTexture = null;
+    private Texture mAlphaTexture = null; // on the second texture unit
     private boolean mTextureEnabled = false;
     private TextureCoordBuffer mTextureCoordBuffer;
     private boolean mTextureCoordArrayEnabled = false;
@@ -98,11 +104,13 @@ public class GLState {
 
     public void reset(final GL10 gl) {
         mGL = gl;
+        mContextVersion = ++sContextVersion;
 
         // invalidate surface
         // mInvalidateFlags = InvalidateFlags.SURFACE;
 
         mTexture = null;
+        mAlphaTexture = null;
         mTextureEnabled = false;
         mTextureCoordBuffer = null;
         mTextureCoordArrayEnabled = false;
@@ -232,6 +240,7 @@ public class GLState {
 
         // only works for GLES11
         ((GL11ExtensionPack) mGL).glBindFramebufferOES(GL11ExtensionPack.GL_FRAMEBUFFER_OES, mFrameBuffer);
+        Profiler.count(Profiler.STATE_CHANGES);
 
         return true;
     }
@@ -252,6 +261,46 @@ public class GLState {
         // bind to gl
         mTexture = texture;
         mGL.glBindTexture(GL10.GL_TEXTURE_2D, mTexture.mTextureID);
+        Profiler.count(Profiler.TEXTURE_BINDS);
+
+        // separate alpha
+        setAlphaTexture(texture.getAlphaTexture());
+
+        return true;
+    }
+
+    /**
+     * Bind a texture to the second unit, its alpha is multiplied to the first one's
+     *
+     * @param texture can be null
+     * @return
+     */
+    private boolean setAlphaTexture(final Texture texture) {
+        // diff check
+        if (mAlphaTexture == texture) {
+            return false;
+        }
+
+        mAlphaTexture = texture;
+
+        mGL.glActiveTexture(GL10.GL_TEXTURE1);
+        mGL.glClientActiveTexture(GL10.GL_TEXTURE1);
+        if (texture != null) {
+            mGL.glEnable(GL10.GL_TEXTURE_2D);
+            mGL.glBindTexture(GL10.GL_TEXTURE_2D, texture.mTextureID);
+            Profiler.count(Profiler.TEXTURE_BINDS);
+            mGL.glTexEnvf(GL10.GL_TEXTURE_ENV, GL10.GL_TEXTURE_ENV_MODE, GL10.GL_MODULATE);
+            // same coordinates as the first unit
+            mGL.glEnableClientState(GL10.GL_TEXTURE_COORD_ARRAY);
+            if (mTextureCoordBuffer != null) {
+                mGL.glTexCoordPointer(2, GL10.GL_FLOAT, 0, mTextureCoordBuffer.mBuffer);
+            }
+        } else {
+            mGL.glDisable(GL10.GL_TEXTURE_2D);
+            mGL.glDisableClientState(GL10.GL_TEXTURE_COORD_ARRAY);
+        }
+        mGL.glClientActiveTexture(GL10.GL_TEXTURE0);
+        mGL.glActiveTexture(GL10.GL_TEXTURE0);
 
         return true;
     }
@@ -265,6 +314,7 @@ public class GLState {
         // unbind to gl
         mTexture = null;
         // mGL.glBindTexture(GL10.GL_TEXTURE_2D, mTextureID);
+        setAlphaTexture(null);
 
         // make sure it's disabled
         setTextureEnabled(false);
@@ -294,6 +344,7 @@ public class GLState {
         } else {
             mGL.glDisableClientState(GL10.GL_VERTEX_ARRAY);
         }
+        Profiler.count(Profiler.STATE_CHANGES);
 
         return true;
     }
@@ -315,6 +366,20 @@ public class GLState {
         return true;
     }
 
+    /**
+     * Point the vertices to the buffer object that is currently bound to GL_ARRAY_BUFFER. GL11 only.
+     * 
+     * @param buffer
+     * @see StreamBuffer
+     */
+    public boolean setVertexBufferObject(final VertexBuffer buffer) {
+        ((GL11) mGL).glVertexPointer(buffer.mVertexPointerSize, GL10.GL_FLOAT, 0, 0);
+
+        // now keep
+        mVertexBuffer = buffer;
+        return true;
+    }
+
     /**
      * @return the textureEnabled
      */
@@ -339,6 +404,7 @@ public class GLState {
         } else {
             mGL.glDisable(GL10.GL_TEXTURE_2D);
         }
+        Profiler.count(Profiler.STATE_CHANGES);
 
         return true;
     }
@@ -352,6 +418,33 @@ public class GLState {
         // values check
         if (buffer != null) { // && !TextureCoordBuffer.compare(mTextureCoordBuffer, buffer) // not correct for all cases
             mGL.glTexCoordPointer(2, GL10.GL_FLOAT, 0, buffer.mBuffer);
+
+            if (mAlphaTexture != null) {
+                mGL.glClientActiveTexture(GL10.GL_TEXTURE1);
+                mGL.glTexCoordPointer(2, GL10.GL_FLOAT, 0, buffer.mBuffer);
+                mGL.glClientActiveTexture(GL10.GL_TEXTURE0);
+            }
+        }
+
+        // now keep
+        mTextureCoordBuffer = buffer;
+        return true;
+    }
+
+    /**
+     * Point the texture coordinates to the buffer object that is currently bound to GL_ARRAY_BUFFER. GL11 only.
+     * 
+     * @param buffer
+     * @see StreamBuffer
+     */
+    public boolean setTextureCoordBufferObject(final TextureCoordBuffer buffer) {
+        final GL11 gl = (GL11) mGL;
+        gl.glTexCoordPointer(2, GL10.GL_FLOAT, 0, 0);
+
+        if (mAlphaTexture != null) {
+            gl.glClientActiveTexture(GL10.GL_TEXTURE1);
+            gl.glTexCoordPointer(2, GL10.GL_FLOAT, 0, 0);
+            gl.glClientActiveTexture(GL10.GL_TEXTURE0);
         }
 
         // now keep
@@ -386,6 +479,7 @@ public class GLState {
         } else {
             mGL.glDisableClientState(GL10.GL_TEXTURE_COORD_ARRAY);
         }
+        Profiler.count(Profiler.STATE_CHANGES);
 
         return true;
     }
@@ -413,6 +507,7 @@ public class GLState {
         } else {
             mGL.glDisableClientState(GL10.GL_COLOR_ARRAY);
         }
+        Profiler.count(Profiler.STATE_CHANGES);
 
         return true;
     }
@@ -434,6 +529,7 @@ public class GLState {
         } else {
             mGL.glDisable(GL10.GL_ALPHA_TEST);
         }
+        Profiler.count(Profiler.STATE_CHANGES);
     }
 
     /**
@@ -460,6 +556,7 @@ public class GLState {
 
         // apply
         mGL.glColor4f(mColor.r, mColor.g, mColor.b, mColor.a);
+        Profiler.count(Profiler.STATE_CHANGES);
 
         return true;
     }
@@ -476,6 +573,7 @@ public class GLState {
         // apply
         mColor.setValues(r, g, b, a);
         mGL.glColor4f(mColor.r, mColor.g, mColor.b, mColor.a);
+        Profiler.count(Profiler.STATE_CHANGES);
 
         return true;
     }
@@ -510,6 +608,7 @@ public class GLState {
                 } else {
                     GLES11Ext.glBlendFuncSeparateOES(mBlendFunc.src, mBlendFunc.dst, mBlendFunc.src_alpha, mBlendFunc.dst_alpha);
                 }
+                Profiler.count(Profiler.BLEND_CHANGES);
                 return true;
             } else {
                 return false;
@@ -526,6 +625,7 @@ public class GLState {
         } else {
             GLES11Ext.glBlendFuncSeparateOES(blendFunc.src, blendFunc.dst, blendFunc.src_alpha, blendFunc.dst_alpha);
         }
+        Profiler.count(Profiler.BLEND_CHANGES);
 
         return true;
     }
@@ -600,6 +700,7 @@ public class GLState {
         } else {
             mGL.glDisable(GL10.GL_DEPTH_TEST);
         }
+        Profiler.count(Profiler.STATE_CHANGES);
     }
 
     public boolean isScissorTestEnabled() {
@@ -619,6 +720,7 @@ public class GLState {
         } else {
             mGL.glDisable(GL10.GL_SCISSOR_TEST);
         }
+        Profiler.count(Profiler.STATE_CHANGES);
     }
 
     public void setScissor(final int x, final int y, final int width, final int height) {
@@ -654,6 +756,13 @@ public class GLState {
         mTextureManager = textureManager;
     }
 
+    /**
+     * @return a number that changes with every new GL context
+     */
+    public int getContextVersion() {
+        return mContextVersion;
+    }
+
     public Stage getStage() {
         return mStage;
     }
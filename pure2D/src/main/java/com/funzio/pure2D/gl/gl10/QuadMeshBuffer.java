@@ -24,7 +24,14 @@
  */
 package com.funzio.pure2D.gl.gl10;
 
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.ShortBuffer;
+
 import javax.microedition.khronos.opengles.GL10;
+import javax.microedition.khronos.opengles.GL11;
+
+import com.funzio.pure2D.profiler.Profiler;
 
 /**
  * @author long
@@ -32,11 +39,27 @@ import javax.microedition.khronos.opengles.GL10;
 public class QuadMeshBuffer extends VertexBuffer {
     public static final int NUM_VERTICES_PER_CELL = 4;
     public static final int NUM_INDICES_PER_CELL = 6;
+    // limited by the short indices
+    public static final int MAX_CELLS = 65536 / NUM_VERTICES_PER_CELL;
+
+    // the indices are always the same, so the streaming meshes share one index buffer
+    private static int sIndexBufferID = 0;
+    private static int sIndexBufferCells = 0;
+    private static int sIndexContextVersion = 0;
+    private static final int[] sScratch = new int[1];
 
     protected float[] mVertices;
     protected short[] mIndices;
     protected int mNumCells = 0;
     protected boolean mInvalidated = false;
+    // the changed cells, to upload
+    protected int mDirtyStart = Integer.MAX_VALUE;
+    protected int mDirtyEnd = 0;
+
+    // streaming mode
+    protected StreamBuffer mStreamBuffer;
+    protected boolean mStreamInvalidated = false;
+    protected int mStreamedValues = 0;
 
     public QuadMeshBuffer(final int numCells) {
         super(GL10.GL_TRIANGLES, numCells * NUM_VERTICES_PER_CELL);
@@ -58,23 +81,10 @@ public class QuadMeshBuffer extends VertexBuffer {
             // }
 
             // indices is always fixed
-            int start = 0;
-            short vertexStart = 0;
-            for (int i = 0; i < numCells; i++) {
-                // first triangle
-                mIndices[start] = vertexStart;
-                mIndices[start + 1] = (short) (vertexStart + 1);
-                mIndices[start + 2] = (short) (vertexStart + 2);
-                // second triangle
-                mIndices[start + 3] = (short) (vertexStart + 2);
-                mIndices[start + 4] = (short) (vertexStart + 1);
-                mIndices[start + 5] = (short) (vertexStart + 3);
-                start += NUM_INDICES_PER_CELL;
-                vertexStart += NUM_VERTICES_PER_CELL;
-            }
+            fillIndices(mIndices, numCells);
             setIndices(mIndices);
 
-            mInvalidated = true;
+            invalidateCells(0, numCells);
         }
 
         mNumCells = numCells;
@@ -114,7 +124,7 @@ public class QuadMeshBuffer extends VertexBuffer {
         mVertices[start + 6] = x + width;
         mVertices[start + 7] = y;
 
-        mInvalidated = true;
+        invalidateCells(index, 1);
     }
 
     /**
@@ -139,7 +149,7 @@ public class QuadMeshBuffer extends VertexBuffer {
         mVertices[start + 4] = x + width;
         mVertices[start + 5] = y;
 
-        mInvalidated = true;
+        invalidateCells(index, 1);
     }
 
     public void setValuesAt(final int index, final float... values) {
@@ -150,7 +160,7 @@ public class QuadMeshBuffer extends VertexBuffer {
             mVertices[start + i] = values[i];
         }
 
-        mInvalidated = true;
+        invalidateCells(index, (length + NUM_VERTICES_PER_CELL * mVertexPointerSize - 1) / (NUM_VERTICES_PER_CELL * mVertexPointerSize));
     }
 
     public void setValuesAt(final int index, final int numCells, final float... values) {
@@ -161,7 +171,7 @@ public class QuadMeshBuffer extends VertexBuffer {
             mVertices[start + i] = values[i];
         }
 
-        mInvalidated = true;
+        invalidateCells(index, numCells);
     }
 
     public void setValuesAt(final int index, final int numCells, final int srcOffset, final float... values) {
@@ -172,6 +182,23 @@ public class QuadMeshBuffer extends VertexBuffer {
             mVertices[start + i] = values[srcOffset + i];
         }
 
+        invalidateCells(index, numCells);
+    }
+
+    /**
+     * Flag a range of cells to be uploaded by {@link #validate()}
+     *
+     * @param index
+     * @param numCells
+     */
+    protected void invalidateCells(final int index, final int numCells) {
+        if (index < mDirtyStart) {
+            mDirtyStart = index;
+        }
+        if (index + numCells > mDirtyEnd) {
+            mDirtyEnd = index + numCells;
+        }
+
         mInvalidated = true;
     }
 
@@ -180,10 +207,16 @@ public class QuadMeshBuffer extends VertexBuffer {
      */
     protected void validate() {
         if (mInvalidated) {
-            setValues(mVertices);
+            // only the changed cells
+            final int cellSize = NUM_VERTICES_PER_CELL * mVertexPointerSize;
+            final int end = Math.min(mDirtyEnd * cellSize, mVertices.length);
+            updateValues(mVertices, mDirtyStart * cellSize, end - mDirtyStart * cellSize);
+            mDirtyStart = Integer.MAX_VALUE;
+            mDirtyEnd = 0;
 
             // unflag
             mInvalidated = false;
+            mStreamInvalidated = true;
         }
     }
 
@@ -191,7 +224,125 @@ public class QuadMeshBuffer extends VertexBuffer {
     public void draw(final GLState glState) {
         validate();
 
-        super.draw(glState);
+        if (mStreamBuffer != null && StreamBuffer.isSupported(glState.mGL)) {
+            drawStream(glState);
+        } else {
+            super.draw(glState);
+        }
+    }
+
+    /**
+     * Draw from the stream buffer and the shared index buffer. The vertices are only uploaded when they changed.
+     * 
+     * @param glState
+     */
+    protected void drawStream(final GLState glState) {
+        final int numIndices = mIndicesNumUsed > 0 ? Math.min(mIndicesNumUsed, mIndicesNum) : mIndicesNum;
+        final int numCells = numIndices / NUM_INDICES_PER_CELL;
+        if (numCells == 0 || mBuffer == null) {
+            return;
+        }
+
+        // gl.glEnableClientState(GL10.GL_VERTEX_ARRAY);
+        glState.setVertexArrayEnabled(true);
+
+        final int numValues = numCells * NUM_VERTICES_PER_CELL * mVertexPointerSize;
+        if (mStreamInvalidated || numValues > mStreamedValues || !mStreamBuffer.bind(glState)) {
+            mStreamBuffer.upload(glState, mBuffer, numValues * 4);
+            mStreamedValues = numValues;
+            mStreamInvalidated = false;
+        }
+        glState.setVertexBufferObject(this);
+        mStreamBuffer.unbind(glState);
+
+        final GL11 gl = (GL11) glState.mGL;
+        bindIndexBuffer(glState, numCells);
+        gl.glDrawElements(mPrimitive, numIndices, GL10.GL_UNSIGNED_SHORT, 0);
+        Profiler.count(Profiler.DRAW_CALLS);
+        gl.glBindBuffer(GL11.GL_ELEMENT_ARRAY_BUFFER, 0);
+    }
+
+    public boolean isStreamingEnabled() {
+        return mStreamBuffer != null;
+    }
+
+    /**
+     * Upload the vertices into a ring of buffer objects instead of passing the client array on every draw. Good for meshes that change often. This requires GL11, the client array is
+     * used otherwise.
+     * 
+     * @param value
+     * @see StreamBuffer
+     */
+    public void setStreamingEnabled(final boolean value) {
+        if (value && mStreamBuffer == null) {
+            mStreamBuffer = new StreamBuffer(GL11.GL_ARRAY_BUFFER);
+            mStreamInvalidated = true;
+        } else if (!value && mStreamBuffer != null) {
+            mStreamBuffer.unload();
+            mStreamBuffer = null;
+        }
+    }
+
+    @Override
+    public void dispose() {
+        super.dispose();
+
+        setStreamingEnabled(false);
+    }
+
+    protected static void fillIndices(final short[] indices, final int numCells) {
+        int start = 0;
+        short vertexStart = 0;
+        for (int i = 0; i < numCells; i++) {
+            // first triangle
+            indices[start] = vertexStart;
+            indices[start + 1] = (short) (vertexStart + 1);
+            indices[start + 2] = (short) (vertexStart + 2);
+            // second triangle
+            indices[start + 3] = (short) (vertexStart + 2);
+            indices[start + 4] = (short) (vertexStart + 1);
+            indices[start + 5] = (short) (vertexStart + 3);
+            start += NUM_INDICES_PER_CELL;
+            vertexStart += NUM_VERTICES_PER_CELL;
+        }
+    }
+
+    /**
+     * Bind the shared index buffer, and grow it if it doesn't have enough cells.
+     * 
+     * @param glState
+     * @param numCells
+     */
+    protected static void bindIndexBuffer(final GLState glState, final int numCells) {
+        final GL11 gl = (GL11) glState.mGL;
+        if (sIndexContextVersion != glState.getContextVersion()) {
+            // the old buffer is gone with the old context
+            sIndexBufferID = 0;
+            sIndexBufferCells = 0;
+            sIndexContextVersion = glState.getContextVersion();
+        }
+
+        if (sIndexBufferID == 0) {
+            gl.glGenBuffers(1, sScratch, 0);
+            sIndexBufferID = sScratch[0];
+        }
+        gl.glBindBuffer(GL11.GL_ELEMENT_ARRAY_BUFFER, sIndexBufferID);
+
+        if (numCells > sIndexBufferCells) {
+            // grow with some room
+            final int cells = Math.min(Math.max(numCells, sIndexBufferCells * 2), MAX_CELLS);
+            final short[] indices = new short[cells * NUM_INDICES_PER_CELL];
+            fillIndices(indices, cells);
+
+            final ByteBuffer bb = ByteBuffer.allocateDirect(indices.length * 2);
+            bb.order(ByteOrder.nativeOrder());
+            final ShortBuffer buffer = bb.asShortBuffer();
+            buffer.put(indices);
+            buffer.flip();
+
+            gl.glBufferData(GL11.GL_ELEMENT_ARRAY_BUFFER, indices.length * 2, buffer, GL11.GL_STATIC_DRAW);
+            sIndexBufferCells = cells;
+        }
     }
 
 }
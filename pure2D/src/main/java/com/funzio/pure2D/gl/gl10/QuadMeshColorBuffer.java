@@ -24,6 +24,9 @@
  */
 package com.funzio.pure2D.gl.gl10;
 
+import javax.microedition.khronos.opengles.GL10;
+import javax.microedition.khronos.opengles.GL11;
+
 import com.funzio.pure2D.gl.GLColor;
 
 /**
@@ -37,6 +40,14 @@ public class QuadMeshColorBuffer extends ColorBuffer {
     protected int mNumCells = 0;
 
     protected boolean mInvalidated = false;
+    // the changed cells, to upload
+    protected int mDirtyStart = Integer.MAX_VALUE;
+    protected int mDirtyEnd = 0;
+
+    // streaming mode
+    protected StreamBuffer mStreamBuffer;
+    protected boolean mStreamInvalidated = false;
+    protected int mStreamedValues = 0;
 
     public QuadMeshColorBuffer(final int numCells) {
         super();
@@ -58,7 +69,7 @@ public class QuadMeshColorBuffer extends ColorBuffer {
                 }
             }
 
-            mInvalidated = true;
+            invalidateCells(0, numCells);
         }
 
         mNumCells = numCells;
@@ -96,7 +107,7 @@ public class QuadMeshColorBuffer extends ColorBuffer {
             }
         }
 
-        mInvalidated = true;
+        invalidateCells(index, 1);
     }
 
     public void setColorAt(final int index, final float r, final float g, final float b, final float a) {
@@ -109,7 +120,7 @@ public class QuadMeshColorBuffer extends ColorBuffer {
             mValues[start++] = a;
         }
 
-        mInvalidated = true;
+        invalidateCells(index, 1);
     }
 
     public void setAlphaAt(final int index, final float alpha) {
@@ -122,7 +133,7 @@ public class QuadMeshColorBuffer extends ColorBuffer {
             start += NUM_COLOR_PER_CELL;
         }
 
-        mInvalidated = true;
+        invalidateCells(index, 1);
     }
 
     public void setValuesAt(final int index, final int numCells, final float... values) {
@@ -133,7 +144,7 @@ public class QuadMeshColorBuffer extends ColorBuffer {
             mValues[start + i] = values[i];
         }
 
-        mInvalidated = true;
+        invalidateCells(index, numCells);
     }
 
     public void setValuesAt(final int index, final int numCells, final int srcOffset, final float... values) {
@@ -144,7 +155,7 @@ public class QuadMeshColorBuffer extends ColorBuffer {
             mValues[start + i] = values[srcOffset + i];
         }
 
-        mInvalidated = true;
+        invalidateCells(index, numCells);
     }
 
     public void setValuesAt(final int index, final int numCells, final int srcOffset, final float[] values, final float[] multipliers) {
@@ -155,6 +166,23 @@ public class QuadMeshColorBuffer extends ColorBuffer {
             mValues[start + i] = values[srcOffset + i] * multipliers[srcOffset + i];
         }
 
+        invalidateCells(index, numCells);
+    }
+
+    /**
+     * Flag a range of cells to be uploaded by {@link #validate()}
+     *
+     * @param index
+     * @param numCells
+     */
+    protected void invalidateCells(final int index, final int numCells) {
+        if (index < mDirtyStart) {
+            mDirtyStart = index;
+        }
+        if (index + numCells > mDirtyEnd) {
+            mDirtyEnd = index + numCells;
+        }
+
         mInvalidated = true;
     }
 
@@ -163,9 +191,15 @@ public class QuadMeshColorBuffer extends ColorBuffer {
      */
     protected void validate() {
         if (mInvalidated) {
-            setValues(mValues);
+            // only the changed cells
+            final int cellSize = NUM_CHANNEL_PER_COLOR * NUM_COLOR_PER_CELL;
+            final int end = Math.min(mDirtyEnd * cellSize, mValues.length);
+            updateValues(mValues, mDirtyStart * cellSize, end - mDirtyStart * cellSize);
+            mDirtyStart = Integer.MAX_VALUE;
+            mDirtyEnd = 0;
 
             mInvalidated = false;
+            mStreamInvalidated = true;
         }
     }
 
@@ -173,7 +207,48 @@ public class QuadMeshColorBuffer extends ColorBuffer {
     public void apply(final GLState glState) {
         validate();
 
-        super.apply(glState);
+        if (mStreamBuffer != null && mBuffer != null && StreamBuffer.isSupported(glState.mGL)) {
+            // gl.glEnableClientState(GL10.GL_COLOR_ARRAY);
+            glState.setColorArrayEnabled(true);
+
+            final int numValues = Math.min(mNumCells * NUM_CHANNEL_PER_COLOR * NUM_COLOR_PER_CELL, mValues.length);
+            if (mStreamInvalidated || numValues > mStreamedValues || !mStreamBuffer.bind(glState)) {
+                mStreamBuffer.upload(glState, mBuffer, numValues * 4);
+                mStreamedValues = numValues;
+                mStreamInvalidated = false;
+            }
+            ((GL11) glState.mGL).glColorPointer(4, GL10.GL_FLOAT, 0, 0);
+            mStreamBuffer.unbind(glState);
+        } else {
+            super.apply(glState);
+        }
+    }
+
+    public boolean isStreamingEnabled() {
+        return mStreamBuffer != null;
+    }
+
+    /**
+     * Upload the colors into a ring of buffer objects instead of passing the client array on every draw. This requires GL11, the client array is used otherwise.
+     * 
+     * @param value
+     * @see StreamBuffer
+     */
+    public void setStreamingEnabled(final boolean value) {
+        if (value && mStreamBuffer == null) {
+            mStreamBuffer = new StreamBuffer(GL11.GL_ARRAY_BUFFER);
+            mStreamInvalidated = true;
+        } else if (!value && mStreamBuffer != null) {
+            mStreamBuffer.unload();
+            mStreamBuffer = null;
+        }
+    }
+
+    @Override
+    public void dispose() {
+        super.dispose();
+
+        setStreamingEnabled(false);
     }
 
 }
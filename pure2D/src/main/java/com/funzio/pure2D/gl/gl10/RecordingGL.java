@@ -0,0 +1,837 @@
+/**
+ * Copyright (C) 2012-2014 GREE, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+/**
+ *
+ */
+package com.funzio.pure2D.gl.gl10;
+
+import java.nio.Buffer;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+
+import javax.microedition.khronos.opengles.GL10;
+
+/**
+ * RecordingGL is a GL10 that does not render anything but counts the calls it receives: draw calls, texture binds, matrix operations and state changes. It
+ * can be passed to {@link com.funzio.pure2D.BaseScene#onSurfaceCreated(GL10, javax.microedition.khronos.egl.EGLConfig)} and
+ * {@link com.funzio.pure2D.BaseScene#onDrawFrame(GL10)} without a GL context to measure the cost of a frame. Framebuffer and VBO extensions are not reported
+ * since those go through GL11ExtensionPack and GLES11.
+ *
+ * @author long
+ */
+public class RecordingGL implements GL10 {
+    public static final String DEFAULT_EXTENSIONS = "GL_OES_texture_npot GL_OES_stencil8 GL_OES_depth24";
+    public static final int DEFAULT_MAX_TEXTURE_SIZE = 2048;
+    public static final int DEFAULT_MAX_STACK_DEPTH = 32;
+
+    private String mExtensions = DEFAULT_EXTENSIONS;
+    private int mMaxTextureSize = DEFAULT_MAX_TEXTURE_SIZE;
+    private int mNextTextureID = 1;
+
+    // counters
+    private int mNumCalls = 0;
+    private int mNumDrawCalls = 0;
+    private int mNumVertices = 0;
+    private int mNumTextureBinds = 0;
+    private int mNumTextureUploads = 0;
+    private int mNumPushMatrix = 0;
+    private int mNumPopMatrix = 0;
+    private int mNumMatrixOps = 0;
+    private int mNumStateChanges = 0;
+    private int mMatrixDepth = 0;
+    private int mMaxMatrixDepth = 0;
+
+    public RecordingGL() {
+    }
+
+    public RecordingGL(final String extensions, final int maxTextureSize) {
+        mExtensions = extensions;
+        mMaxTextureSize = maxTextureSize;
+    }
+
+    /**
+     * Reset all the counters, usually at the beginning of a frame
+     */
+    public void reset() {
+        mNumCalls = 0;
+        mNumDrawCalls = 0;
+        mNumVertices = 0;
+        mNumTextureBinds = 0;
+        mNumTextureUploads = 0;
+        mNumPushMatrix = 0;
+        mNumPopMatrix = 0;
+        mNumMatrixOps = 0;
+        mNumStateChanges = 0;
+        mMaxMatrixDepth = mMatrixDepth;
+    }
+
+    public int getNumCalls() {
+        return mNumCalls;
+    }
+
+    public int getNumDrawCalls() {
+        return mNumDrawCalls;
+    }
+
+    public int getNumVertices() {
+        return mNumVertices;
+    }
+
+    public int getNumTextureBinds() {
+        return mNumTextureBinds;
+    }
+
+    public int getNumTextureUploads() {
+        return mNumTextureUploads;
+    }
+
+    public int getNumPushMatrix() {
+        return mNumPushMatrix;
+    }
+
+    public int getNumPopMatrix() {
+        return mNumPopMatrix;
+    }
+
+    public int getNumMatrixOps() {
+        return mNumMatrixOps;
+    }
+
+    public int getNumStateChanges() {
+        return mNumStateChanges;
+    }
+
+    /**
+     * @return the current push/pop balance, should be 0 at the end of a frame
+     */
+    public int getMatrixDepth() {
+        return mMatrixDepth;
+    }
+
+    public int getMaxMatrixDepth() {
+        return mMaxMatrixDepth;
+    }
+
+    @Override
+    public String toString() {
+        return "calls: " + mNumCalls //
+                + ", draws: " + mNumDrawCalls //
+                + ", vertices: " + mNumVertices //
+                + ", binds: " + mNumTextureBinds //
+                + ", uploads: " + mNumTextureUploads //
+                + ", push/pop: " + mNumPushMatrix + "/" + mNumPopMatrix //
+                + ", matrix ops: " + mNumMatrixOps //
+                + ", states: " + mNumStateChanges //
+                + ", max depth: " + mMaxMatrixDepth;
+    }
+
+    private void call() {
+        mNumCalls++;
+    }
+
+    private void state() {
+        mNumCalls++;
+        mNumStateChanges++;
+    }
+
+    private void matrix() {
+        mNumCalls++;
+        mNumMatrixOps++;
+    }
+
+    private void upload() {
+        mNumCalls++;
+        mNumTextureUploads++;
+    }
+
+    // draw calls ///////////////////////////
+
+    @Override
+    public void glDrawArrays(final int mode, final int first, final int count) {
+        mNumCalls++;
+        mNumDrawCalls++;
+        mNumVertices += count;
+    }
+
+    @Override
+    public void glDrawElements(final int mode, final int count, final int type, final Buffer indices) {
+        mNumCalls++;
+        mNumDrawCalls++;
+        mNumVertices += count;
+    }
+
+    @Override
+    public void glClear(final int mask) {
+        call();
+    }
+
+    @Override
+    public void glFinish() {
+        call();
+    }
+
+    @Override
+    public void glFlush() {
+        call();
+    }
+
+    @Override
+    public void glReadPixels(final int x, final int y, final int width, final int height, final int format, final int type, final Buffer pixels) {
+        call();
+    }
+
+    // matrix ///////////////////////////
+
+    @Override
+    public void glPushMatrix() {
+        mNumCalls++;
+        mNumPushMatrix++;
+        if (++mMatrixDepth > mMaxMatrixDepth) {
+            mMaxMatrixDepth = mMatrixDepth;
+        }
+    }
+
+    @Override
+    public void glPopMatrix() {
+        mNumCalls++;
+        mNumPopMatrix++;
+        mMatrixDepth--;
+    }
+
+    @Override
+    public void glMatrixMode(final int mode) {
+        matrix();
+    }
+
+    @Override
+    public void glLoadIdentity() {
+        matrix();
+    }
+
+    @Override
+    public void glLoadMatrixf(final float[] m, final int offset) {
+        matrix();
+    }
+
+    @Override
+    public void glLoadMatrixf(final FloatBuffer m) {
+        matrix();
+    }
+
+    @Override
+    public void glLoadMatrixx(final int[] m, final int offset) {
+        matrix();
+    }
+
+    @Override
+    public void glLoadMatrixx(final IntBuffer m) {
+        matrix();
+    }
+
+    @Override
+    public void glMultMatrixf(final float[] m, final int offset) {
+        matrix();
+    }
+
+    @Override
+    public void glMultMatrixf(final FloatBuffer m) {
+        matrix();
+    }
+
+    @Override
+    public void glMultMatrixx(final int[] m, final int offset) {
+        matrix();
+    }
+
+    @Override
+    public void glMultMatrixx(final IntBuffer m) {
+        matrix();
+    }
+
+    @Override
+    public void glTranslatef(final float x, final float y, final float z) {
+        matrix();
+    }
+
+    @Override
+    public void glTranslatex(final int x, final int y, final int z) {
+        matrix();
+    }
+
+    @Override
+    public void glRotatef(final float angle, final float x, final float y, final float z) {
+        matrix();
+    }
+
+    @Override
+    public void glRotatex(final int angle, final int x, final int y, final int z) {
+        matrix();
+    }
+
+    @Override
+    public void glScalef(final float x, final float y, final float z) {
+        matrix();
+    }
+
+    @Override
+    public void glScalex(final int x, final int y, final int z) {
+        matrix();
+    }
+
+    @Override
+    public void glOrthof(final float left, final float right, final float bottom, final float top, final float zNear, final float zFar) {
+        matrix();
+    }
+
+    @Override
+    public void glOrthox(final int left, final int right, final int bottom, final int top, final int zNear, final int zFar) {
+        matrix();
+    }
+
+    @Override
+    public void glFrustumf(final float left, final float right, final float bottom, final float top, final float zNear, final float zFar) {
+        matrix();
+    }
+
+    @Override
+    public void glFrustumx(final int left, final int right, final int bottom, final int top, final int zNear, final int zFar) {
+        matrix();
+    }
+
+    // textures ///////////////////////////
+
+    @Override
+    public void glBindTexture(final int target, final int texture) {
+        mNumCalls++;
+        mNumTextureBinds++;
+    }
+
+    @Override
+    public void glGenTextures(final int n, final int[] textures, final int offset) {
+        call();
+        for (int i = 0; i < n; i++) {
+            textures[offset + i] = mNextTextureID++;
+        }
+    }
+
+    @Override
+    public void glGenTextures(final int n, final IntBuffer textures) {
+        call();
+        for (int i = 0; i < n; i++) {
+            textures.put(textures.position() + i, mNextTextureID++);
+        }
+    }
+
+    @Override
+    public void glDeleteTextures(final int n, final int[] textures, final int offset) {
+        call();
+    }
+
+    @Override
+    public void glDeleteTextures(final int n, final IntBuffer textures) {
+        call();
+    }
+
+    @Override
+    public void glTexImage2D(final int target, final int level, final int internalformat, final int width, final int height, final int border, final int format, final int type, final Buffer pixels) {
+        upload();
+    }
+
+    @Override
+    public void glTexSubImage2D(final int target, final int level, final int xoffset, final int yoffset, final int width, final int height, final int format, final int type, final Buffer pixels) {
+        upload();
+    }
+
+    @Override
+    public void glCompressedTexImage2D(final int target, final int level, final int internalformat, final int width, final int height, final int border, final int imageSize, final Buffer data) {
+        upload();
+    }
+
+    @Override
+    public void glCompressedTexSubImage2D(final int target, final int level, final int xoffset, final int yoffset, final int width, final int height, final int format, final int imageSize, final Buffer data) {
+        upload();
+    }
+
+    @Override
+    public void glCopyTexImage2D(final int target, final int level, final int internalformat, final int x, final int y, final int width, final int height, final int border) {
+        upload();
+    }
+
+    @Override
+    public void glCopyTexSubImage2D(final int target, final int level, final int xoffset, final int yoffset, final int x, final int y, final int width, final int height) {
+        upload();
+    }
+
+    @Override
+    public void glTexParameterf(final int target, final int pname, final float param) {
+        state();
+    }
+
+    @Override
+    public void glTexParameterx(final int target, final int pname, final int param) {
+        state();
+    }
+
+    @Override
+    public void glTexEnvf(final int target, final int pname, final float param) {
+        state();
+    }
+
+    @Override
+    public void glTexEnvfv(final int target, final int pname, final float[] params, final int offset) {
+        state();
+    }
+
+    @Override
+    public void glTexEnvfv(final int target, final int pname, final FloatBuffer params) {
+        state();
+    }
+
+    @Override
+    public void glTexEnvx(final int target, final int pname, final int param) {
+        state();
+    }
+
+    @Override
+    public void glTexEnvxv(final int target, final int pname, final int[] params, final int offset) {
+        state();
+    }
+
+    @Override
+    public void glTexEnvxv(final int target, final int pname, final IntBuffer params) {
+        state();
+    }
+
+    @Override
+    public void glActiveTexture(final int texture) {
+        state();
+    }
+
+    @Override
+    public void glClientActiveTexture(final int texture) {
+        state();
+    }
+
+    @Override
+    public void glPixelStorei(final int pname, final int param) {
+        state();
+    }
+
+    // arrays ///////////////////////////
+
+    @Override
+    public void glVertexPointer(final int size, final int type, final int stride, final Buffer pointer) {
+        state();
+    }
+
+    @Override
+    public void glColorPointer(final int size, final int type, final int stride, final Buffer pointer) {
+        state();
+    }
+
+    @Override
+    public void glTexCoordPointer(final int size, final int type, final int stride, final Buffer pointer) {
+        state();
+    }
+
+    @Override
+    public void glNormalPointer(final int type, final int stride, final Buffer pointer) {
+        state();
+    }
+
+    @Override
+    public void glEnableClientState(final int array) {
+        state();
+    }
+
+    @Override
+    public void glDisableClientState(final int array) {
+        state();
+    }
+
+    // states ///////////////////////////
+
+    @Override
+    public void glEnable(final int cap) {
+        state();
+    }
+
+    @Override
+    public void glDisable(final int cap) {
+        state();
+    }
+
+    @Override
+    public void glBlendFunc(final int sfactor, final int dfactor) {
+        state();
+    }
+
+    @Override
+    public void glAlphaFunc(final int func, final float ref) {
+        state();
+    }
+
+    @Override
+    public void glAlphaFuncx(final int func, final int ref) {
+        state();
+    }
+
+    @Override
+    public void glColor4f(final float red, final float green, final float blue, final float alpha) {
+        state();
+    }
+
+    @Override
+    public void glColor4x(final int red, final int green, final int blue, final int alpha) {
+        state();
+    }
+
+    @Override
+    public void glColorMask(final boolean red, final boolean green, final boolean blue, final boolean alpha) {
+        state();
+    }
+
+    @Override
+    public void glClearColor(final float red, final float green, final float blue, final float alpha) {
+        state();
+    }
+
+    @Override
+    public void glClearColorx(final int red, final int green, final int blue, final int alpha) {
+        state();
+    }
+
+    @Override
+    public void glClearDepthf(final float depth) {
+        state();
+    }
+
+    @Override
+    public void glClearDepthx(final int depth) {
+        state();
+    }
+
+    @Override
+    public void glClearStencil(final int s) {
+        state();
+    }
+
+    @Override
+    public void glDepthFunc(final int func) {
+        state();
+    }
+
+    @Override
+    public void glDepthMask(final boolean flag) {
+        state();
+    }
+
+    @Override
+    public void glDepthRangef(final float zNear, final float zFar) {
+        state();
+    }
+
+    @Override
+    public void glDepthRangex(final int zNear, final int zFar) {
+        state();
+    }
+
+    @Override
+    public void glStencilFunc(final int func, final int ref, final int mask) {
+        state();
+    }
+
+    @Override
+    public void glStencilMask(final int mask) {
+        state();
+    }
+
+    @Override
+    public void glStencilOp(final int fail, final int zfail, final int zpass) {
+        state();
+    }
+
+    @Override
+    public void glScissor(final int x, final int y, final int width, final int height) {
+        state();
+    }
+
+    @Override
+    public void glViewport(final int x, final int y, final int width, final int height) {
+        state();
+    }
+
+    @Override
+    public void glCullFace(final int mode) {
+        state();
+    }
+
+    @Override
+    public void glFrontFace(final int mode) {
+        state();
+    }
+
+    @Override
+    public void glShadeModel(final int mode) {
+        state();
+    }
+
+    @Override
+    public void glHint(final int target, final int mode) {
+        state();
+    }
+
+    @Override
+    public void glLineWidth(final float width) {
+        state();
+    }
+
+    @Override
+    public void glLineWidthx(final int width) {
+        state();
+    }
+
+    @Override
+    public void glPointSize(final float size) {
+        state();
+    }
+
+    @Override
+    public void glPointSizex(final int size) {
+        state();
+    }
+
+    @Override
+    public void glPolygonOffset(final float factor, final float units) {
+        state();
+    }
+
+    @Override
+    public void glPolygonOffsetx(final int factor, final int units) {
+        state();
+    }
+
+    @Override
+    public void glLogicOp(final int opcode) {
+        state();
+    }
+
+    @Override
+    public void glSampleCoverage(final float value, final boolean invert) {
+        state();
+    }
+
+    @Override
+    public void glSampleCoveragex(final int value, final boolean invert) {
+        state();
+    }
+
+    @Override
+    public void glMultiTexCoord4f(final int target, final float s, final float t, final float r, final float q) {
+        state();
+    }
+
+    @Override
+    public void glMultiTexCoord4x(final int target, final int s, final int t, final int r, final int q) {
+        state();
+    }
+
+    @Override
+    public void glNormal3f(final float nx, final float ny, final float nz) {
+        state();
+    }
+
+    @Override
+    public void glNormal3x(final int nx, final int ny, final int nz) {
+        state();
+    }
+
+    // fog, lights and materials ///////////////////////////
+
+    @Override
+    public void glFogf(final int pname, final float param) {
+        state();
+    }
+
+    @Override
+    public void glFogfv(final int pname, final float[] params, final int offset) {
+        state();
+    }
+
+    @Override
+    public void glFogfv(final int pname, final FloatBuffer params) {
+        state();
+    }
+
+    @Override
+    public void glFogx(final int pname, final int param) {
+        state();
+    }
+
+    @Override
+    public void glFogxv(final int pname, final int[] params, final int offset) {
+        state();
+    }
+
+    @Override
+    public void glFogxv(final int pname, final IntBuffer params) {
+        state();
+    }
+
+    @Override
+    public void glLightModelf(final int pname, final float param) {
+        state();
+    }
+
+    @Override
+    public void glLightModelfv(final int pname, final float[] params, final int offset) {
+        state();
+    }
+
+    @Override
+    public void glLightModelfv(final int pname, final FloatBuffer params) {
+        state();
+    }
+
+    @Override
+    public void glLightModelx(final int pname, final int param) {
+        state();
+    }
+
+    @Override
+    public void glLightModelxv(final int pname, final int[] params, final int offset) {
+        state();
+    }
+
+    @Override
+    public void glLightModelxv(final int pname, final IntBuffer params) {
+        state();
+    }
+
+    @Override
+    public void glLightf(final int light, final int pname, final float param) {
+        state();
+    }
+
+    @Override
+    public void glLightfv(final int light, final int pname, final float[] params, final int offset) {
+        state();
+    }
+
+    @Override
+    public void glLightfv(final int light, final int pname, final FloatBuffer params) {
+        state();
+    }
+
+    @Override
+    public void glLightx(final int light, final int pname, final int param) {
+        state();
+    }
+
+    @Override
+    public void glLightxv(final int light, final int pname, final int[] params, final int offset) {
+        state();
+    }
+
+    @Override
+    public void glLightxv(final int light, final int pname, final IntBuffer params) {
+        state();
+    }
+
+    @Override
+    public void glMaterialf(final int face, final int pname, final float param) {
+        state();
+    }
+
+    @Override
+    public void glMaterialfv(final int face, final int pname, final float[] params, final int offset) {
+        state();
+    }
+
+    @Override
+    public void glMaterialfv(final int face, final int pname, final FloatBuffer params) {
+        state();
+    }
+
+    @Override
+    public void glMaterialx(final int face, final int pname, final int param) {
+        state();
+    }
+
+    @Override
+    public void glMaterialxv(final int face, final int pname, final int[] params, final int offset) {
+        state();
+    }
+
+    @Override
+    public void glMaterialxv(final int face, final int pname, final IntBuffer params) {
+        state();
+    }
+
+    // queries ///////////////////////////
+
+    @Override
+    public int glGetError() {
+        call();
+        return GL_NO_ERROR;
+    }
+
+    @Override
+    public String glGetString(final int name) {
+        call();
+        switch (name) {
+            case GL_EXTENSIONS:
+                return mExtensions;
+            case GL_VENDOR:
+            case GL_RENDERER:
+                return RecordingGL.class.getSimpleName();
+            case GL_VERSION:
+                return "OpenGL ES-CM 1.0";
+            default:
+                return "";
+        }
+    }
+
+    @Override
+    public void glGetIntegerv(final int pname, final int[] params, final int offset) {
+        call();
+        params[offset] = getInteger(pname);
+    }
+
+    @Override
+    public void glGetIntegerv(final int pname, final IntBuffer params) {
+        call();
+        params.put(params.position(), getInteger(pname));
+    }
+
+    private int getInteger(final int pname) {
+        switch (pname) {
+            case GL_MAX_TEXTURE_SIZE:
+                return mMaxTextureSize;
+            case GL_MAX_MODELVIEW_STACK_DEPTH:
+            case GL_MAX_PROJECTION_STACK_DEPTH:
+                return DEFAULT_MAX_STACK_DEPTH;
+            default:
+                return 0;
+        }
+    }
+}
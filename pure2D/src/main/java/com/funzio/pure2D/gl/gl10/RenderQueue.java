@@ -0,0 +1,342 @@
+/**
+ * Copyright (C) 2012-2014 GREE, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+/**
+ *
+ */
+package com.funzio.pure2D.gl.gl10;
+
+import java.util.Arrays;
+
+import com.funzio.pure2D.BaseDisplayObject;
+import com.funzio.pure2D.Batchable;
+import com.funzio.pure2D.DisplayObject;
+import com.funzio.pure2D.profiler.Profiler;
+
+/**
+ * RenderQueue collects the visible children of a container whose drawing order doesn't matter, then draws them sorted by z, Mask, Texture and BlendFunc so GLState has as few
+ * transitions as possible. The sort is stable, so the children with the same state keep their order. The textures are only known for {@link Batchable} children, the others are kept
+ * together at the front of their z.
+ * <p>
+ * Each container has its own queue, so the nested containers are sorted separately and the painter's order is kept between them.
+ * </p>
+ *
+ * @author long
+ */
+public class RenderQueue {
+    public static final int DEFAULT_CAPACITY = 64;
+    // the number of different states that get their own ids, per flush
+    private static final int MAX_STATES = 0xFFFF;
+    private static final int Z_SHIFT = 48;
+
+    // commands
+    private DisplayObject[] mObjects;
+    private long[] mKeys;
+    private float[] mZs;
+    private int mNumCommands = 0;
+    // for sorting
+    private float[] mSortedZs;
+    private DisplayObject[] mScratchObjects;
+    private long[] mScratchKeys;
+
+    // state ids, by first appearance. 0 = none or unknown
+    private Object[] mStates = new Object[16];
+    private int mNumStates = 0;
+
+    // stats
+    private int mNumSavedChanges = 0;
+
+    public RenderQueue() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public RenderQueue(final int capacity) {
+        allocate(capacity);
+    }
+
+    protected void allocate(final int capacity) {
+        final DisplayObject[] objects = new DisplayObject[capacity];
+        final long[] keys = new long[capacity];
+        final float[] zs = new float[capacity];
+        if (mNumCommands > 0) {
+            System.arraycopy(mObjects, 0, objects, 0, mNumCommands);
+            System.arraycopy(mKeys, 0, keys, 0, mNumCommands);
+            System.arraycopy(mZs, 0, zs, 0, mNumCommands);
+        }
+
+        mObjects = objects;
+        mKeys = keys;
+        mZs = zs;
+        mSortedZs = new float[capacity];
+        mScratchObjects = new DisplayObject[capacity];
+        mScratchKeys = new long[capacity];
+    }
+
+    /**
+     * Queue a child to be drawn on the next {@link #flush(GLState, SpriteBatch)}
+     *
+     * @param child
+     */
+    public void add(final DisplayObject child) {
+        // full? grow for the next frames too
+        if (mNumCommands == mObjects.length) {
+            allocate(mObjects.length * 2);
+        }
+
+        mObjects[mNumCommands] = child;
+        mKeys[mNumCommands] = createKey(child);
+        mZs[mNumCommands] = child.getZ();
+        mNumCommands++;
+    }
+
+    /**
+     * The sort key, from high to low: mask, texture and blend function. The rank of z goes on top later, see {@link #rankZs()}
+     *
+     * @param child
+     * @return
+     */
+    protected long createKey(final DisplayObject child) {
+        final int mask = child instanceof BaseDisplayObject ? getStateId(((BaseDisplayObject) child).getMask()) : 0;
+        final int texture = child instanceof Batchable ? getStateId(((Batchable) child).getTexture()) : 0;
+        final int blend = getStateId(child.getInheritedBlendFunc());
+
+        return ((long) mask << 32) | ((long) texture << 16) | blend;
+    }
+
+    private int getStateId(final Object state) {
+        if (state == null) {
+            return 0;
+        }
+
+        for (int i = 0; i < mNumStates; i++) {
+            if (mStates[i] == state || mStates[i].equals(state)) {
+                return i + 1;
+            }
+        }
+
+        // new state
+        if (mNumStates == MAX_STATES - 1) {
+            return MAX_STATES;
+        }
+        if (mNumStates == mStates.length) {
+            final Object[] states = new Object[mStates.length * 2];
+            System.arraycopy(mStates, 0, states, 0, mNumStates);
+            mStates = states;
+        }
+        mStates[mNumStates++] = state;
+
+        return mNumStates;
+    }
+
+    /**
+     * Sort and draw all the queued children
+     *
+     * @param glState
+     * @param batch optional, to batch the sorted children
+     * @return number of children drawn
+     */
+    public int flush(final GLState glState, final SpriteBatch batch) {
+        final int numCommands = mNumCommands;
+        if (numCommands == 0) {
+            return 0;
+        }
+
+        rankZs();
+        final int before = countChanges();
+        sort();
+        final int saved = before - countChanges();
+        mNumSavedChanges += saved;
+        Profiler.count(Profiler.SAVED_CHANGES, saved);
+
+        // clear first, the children might have their own queues
+        mNumCommands = 0;
+        for (int i = 0; i < mNumStates; i++) {
+            mStates[i] = null;
+        }
+        mNumStates = 0;
+
+        for (int i = 0; i < numCommands; i++) {
+            if (batch != null) {
+                batch.draw(glState, mObjects[i]);
+            } else {
+                mObjects[i].draw(glState);
+            }
+            mObjects[i] = null;
+        }
+
+        return numCommands;
+    }
+
+    /**
+     * Put the rank of each z on top of the keys. Ranking keeps the fractional z apart, which a plain cast to int would merge
+     */
+    private void rankZs() {
+        final int n = mNumCommands;
+        final float[] zs = mZs;
+
+        // same z for all? that's the common case
+        boolean same = true;
+        for (int i = 1; i < n; i++) {
+            if (Float.compare(zs[i], zs[0]) != 0) {
+                same = false;
+                break;
+            }
+        }
+        if (same) {
+            return;
+        }
+
+        // the distinct z values, in order
+        final float[] sorted = mSortedZs;
+        System.arraycopy(zs, 0, sorted, 0, n);
+        Arrays.sort(sorted, 0, n);
+        int numZs = 1;
+        for (int i = 1; i < n; i++) {
+            if (Float.compare(sorted[i], sorted[numZs - 1]) != 0) {
+                sorted[numZs++] = sorted[i];
+            }
+        }
+
+        for (int i = 0; i < n; i++) {
+            // binary search
+            int low = 0, high = numZs - 1;
+            while (low < high) {
+                final int mid = (low + high) >>> 1;
+                if (Float.compare(sorted[mid], zs[i]) < 0) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            mKeys[i] |= (long) Math.min(low, Short.MAX_VALUE) << Z_SHIFT;
+        }
+    }
+
+    /**
+     * @return number of state changes between the consecutive commands
+     */
+    private int countChanges() {
+        int changes = 0;
+        for (int i = 1; i < mNumCommands; i++) {
+            final long diff = mKeys[i] ^ mKeys[i - 1];
+            // mask, texture and blend
+            if ((diff & 0xFFFF00000000L) != 0) {
+                changes++;
+            }
+            if ((diff & 0xFFFF0000L) != 0) {
+                changes++;
+            }
+            if ((diff & 0xFFFFL) != 0) {
+                changes++;
+            }
+        }
+
+        return changes;
+    }
+
+    /**
+     * A stable bottom-up merge sort of the commands, by key
+     */
+    private void sort() {
+        long[] keys = mKeys, scratchKeys = mScratchKeys;
+        DisplayObject[] objects = mObjects, scratchObjects = mScratchObjects;
+        final int n = mNumCommands;
+
+        // already sorted? that's the common case for static scenes
+        boolean sorted = true;
+        for (int i = 1; i < n; i++) {
+            if (keys[i] < keys[i - 1]) {
+                sorted = false;
+                break;
+            }
+        }
+        if (sorted) {
+            return;
+        }
+
+        for (int width = 1; width < n; width <<= 1) {
+            for (int left = 0; left < n; left += width << 1) {
+                final int mid = Math.min(left + width, n);
+                final int right = Math.min(left + (width << 1), n);
+                int i = left, j = mid, k = left;
+                while (i < mid && j < right) {
+                    if (keys[j] < keys[i]) {
+                        scratchKeys[k] = keys[j];
+                        scratchObjects[k++] = objects[j++];
+                    } else {
+                        scratchKeys[k] = keys[i];
+                        scratchObjects[k++] = objects[i++];
+                    }
+                }
+                while (i < mid) {
+                    scratchKeys[k] = keys[i];
+                    scratchObjects[k++] = objects[i++];
+                }
+                while (j < right) {
+                    scratchKeys[k] = keys[j];
+                    scratchObjects[k++] = objects[j++];
+                }
+            }
+
+            // swap
+            final long[] tempKeys = keys;
+            keys = scratchKeys;
+            scratchKeys = tempKeys;
+            final DisplayObject[] tempObjects = objects;
+            objects = scratchObjects;
+            scratchObjects = tempObjects;
+        }
+
+        mKeys = keys;
+        mScratchKeys = scratchKeys;
+        mObjects = objects;
+        mScratchObjects = scratchObjects;
+        for (int i = 0; i < n; i++) {
+            mScratchObjects[i] = null;
+        }
+    }
+
+    public int getNumCommands() {
+        return mNumCommands;
+    }
+
+    /**
+     * @return number of GLState transitions saved so far by sorting
+     */
+    public int getNumSavedChanges() {
+        return mNumSavedChanges;
+    }
+
+    public void resetStats() {
+        mNumSavedChanges = 0;
+    }
+
+    public void clear() {
+        for (int i = 0; i < mNumCommands; i++) {
+            mObjects[i] = null;
+        }
+        mNumCommands = 0;
+        for (int i = 0; i < mNumStates; i++) {
+            mStates[i] = null;
+        }
+        mNumStates = 0;
+    }
+}
@@ -0,0 +1,250 @@
+/**
+ * Copyright (C) 2012-2014 GREE, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+/**
+ *
+ */
+package com.funzio.pure2D.gl.gl10;
+
+import android.graphics.Matrix;
+
+import com.funzio.pure2D.Batchable;
+import com.funzio.pure2D.DisplayObject;
+import com.funzio.pure2D.Maskable;
+import com.funzio.pure2D.gl.GLColor;
+import com.funzio.pure2D.gl.gl10.textures.QuadMeshTextureCoordBuffer;
+import com.funzio.pure2D.gl.gl10.textures.Texture;
+import com.funzio.pure2D.gl.gl10.textures.TextureCoordBuffer;
+
+/**
+ * SpriteBatch collects consecutive Batchable quads that share the same Texture, BlendFunc and Mask, and flushes them out with a single draw call.
+ *
+ * @author long
+ * @see Batchable
+ */
+public class SpriteBatch {
+    public static final int DEFAULT_NUM_CELLS = 64;
+    // indices are unsigned shorts
+    public static final int MAX_NUM_CELLS = 65536 / QuadMeshBuffer.NUM_VERTICES_PER_CELL;
+    // the whole texture, for the quads without coords
+    private static final float[] DEFAULT_COORDS = new float[QuadMeshTextureCoordBuffer.NUM_COORD_PER_CELL];
+    static {
+        TextureCoordBuffer.getDefault(DEFAULT_COORDS);
+    }
+
+    protected QuadMeshBuffer mMeshBuffer;
+    protected QuadMeshColorBuffer mColorBuffer;
+    protected QuadMeshTextureCoordBuffer mTextureCoordBuffer;
+    protected int mNumCellsAllocated = 0;
+
+    // current run
+    private int mNumCells = 0;
+    private Texture mTexture;
+    private BlendFunc mBlendFunc;
+    private Maskable mMask;
+
+    private final float[] mMappedVertices = new float[QuadMeshBuffer.NUM_VERTICES_PER_CELL * 2];
+
+    // stats
+    private int mNumFlushes = 0;
+    private int mNumBatchedObjects = 0;
+
+    public SpriteBatch() {
+        this(DEFAULT_NUM_CELLS);
+    }
+
+    public SpriteBatch(final int numCells) {
+        mMeshBuffer = new QuadMeshBuffer(0);
+        mColorBuffer = new QuadMeshColorBuffer(0);
+        mTextureCoordBuffer = new QuadMeshTextureCoordBuffer(0);
+
+        allocate(numCells);
+    }
+
+    protected void allocate(final int numCells) {
+        mNumCellsAllocated = Math.min(numCells, MAX_NUM_CELLS);
+
+        mMeshBuffer.setNumCells(mNumCellsAllocated);
+        mColorBuffer.setNumCells(mNumCellsAllocated);
+        mTextureCoordBuffer.setNumCells(mNumCellsAllocated);
+    }
+
+    /**
+     * Draws the specified object. Batchable objects get collected, others get drawn normally after the current run is flushed.
+     *
+     * @param glState
+     * @param child
+     * @return true if the object was drawn or batched
+     */
+    public boolean draw(final GLState glState, final DisplayObject child) {
+        if (child instanceof Batchable && ((Batchable) child).isBatchable()) {
+            final Batchable batchable = (Batchable) child;
+            final Texture texture = batchable.getTexture();
+            final BlendFunc blendFunc = batchable.getInheritedBlendFunc();
+            final Maskable mask = batchable.getMask();
+
+            // state changed? flush the current run first
+            if (mNumCells > 0 && (texture != mTexture || mask != mMask || !isSameBlendFunc(blendFunc, mBlendFunc))) {
+                flush(glState);
+            }
+
+            mTexture = texture;
+            mBlendFunc = blendFunc;
+            mMask = mask;
+
+            if (batchable.batch(glState, this)) {
+                mNumBatchedObjects++;
+                return true;
+            }
+
+            return false;
+        }
+
+        // keep the drawing order
+        flush(glState);
+
+        return child.draw(glState);
+    }
+
+    /**
+     * Adds a quad to the current run. This is called by {@link Batchable#batch(GLState, SpriteBatch)}.
+     *
+     * @param glState
+     * @param matrix the local matrix to map the vertices with, can be null
+     * @param vertices 4 vertices in the order of {@link QuadBuffer}
+     * @param coords 4 texture coordinates, null for the whole texture
+     * @param color
+     */
+    public void add(final GLState glState, final Matrix matrix, final float[] vertices, final float[] coords, final GLColor color) {
+        // full? flush and grow for the next frames
+        if (mNumCells >= mNumCellsAllocated) {
+            flush(glState);
+
+            if (mNumCellsAllocated < MAX_NUM_CELLS) {
+                allocate(mNumCellsAllocated * 2);
+            }
+        }
+
+        if (matrix != null) {
+            matrix.mapPoints(mMappedVertices, vertices);
+            mMeshBuffer.setValuesAt(mNumCells, mMappedVertices);
+        } else {
+            mMeshBuffer.setValuesAt(mNumCells, vertices);
+        }
+        mColorBuffer.setColorAt(mNumCells, color);
+        // always set, the cell might still have the coords of another quad
+        mTextureCoordBuffer.setRectAt(mNumCells, coords != null ? coords : DEFAULT_COORDS);
+
+        mNumCells++;
+    }
+
+    /**
+     * Draws all the collected quads with a single draw call
+     *
+     * @param glState
+     * @return true if something was drawn
+     */
+    public boolean flush(final GLState glState) {
+        if (mNumCells == 0) {
+            return false;
+        }
+
+        glState.setAlphaTestEnabled(false);
+        glState.setBlendFunc(mBlendFunc);
+
+        // check mask
+        if (mMask != null) {
+            mMask.enableMask();
+        }
+
+        // apply color buffer
+        mColorBuffer.apply(glState);
+
+        // texture
+        if (mTexture != null) {
+            // bind the texture
+            mTexture.bind();
+
+            // apply coords
+            mTextureCoordBuffer.apply(glState);
+        } else {
+            // unbind the texture
+            glState.unbindTexture();
+            glState.setTextureCoordArrayEnabled(false);
+        }
+
+        // now draw
+        mMeshBuffer.setIndicesNumUsed(mNumCells * QuadMeshBuffer.NUM_INDICES_PER_CELL);
+        mMeshBuffer.draw(glState);
+
+        // current color is undefined after drawing with a color array, restore it
+        glState.setColorArrayEnabled(false);
+        final GLColor color = glState.getColor();
+        glState.mGL.glColor4f(color.r, color.g, color.b, color.a);
+
+        // check mask
+        if (mMask != null) {
+            mMask.disableMask();
+        }
+
+        mNumCells = 0;
+        mNumFlushes++;
+
+        return true;
+    }
+
+    private static boolean isSameBlendFunc(final BlendFunc a, final BlendFunc b) {
+        return a == b || (a != null && b != null && a.equals(b));
+    }
+
+    public int getNumCellsAllocated() {
+        return mNumCellsAllocated;
+    }
+
+    /**
+     * @return number of draw calls made so far
+     */
+    public int getNumFlushes() {
+        return mNumFlushes;
+    }
+
+    /**
+     * @return number of objects batched so far
+     */
+    public int getNumBatchedObjects() {
+        return mNumBatchedObjects;
+    }
+
+    public void resetStats() {
+        mNumFlushes = 0;
+        mNumBatchedObjects = 0;
+    }
+
+    public void dispose() {
+        mMeshBuffer.dispose();
+        mColorBuffer.dispose();
+        mTextureCoordBuffer.dispose();
+
+        mTexture = null;
+        mBlendFunc = null;
+        mMask = null;
+    }
+}
@@ -0,0 +1,168 @@
+/*******************************************************************************
+ * Copyright (C) 2012-2014 GREE, Inc.
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ ******************************************************************************/
+/**
+ * 
+ */
+package com.funzio.pure2D.gl.gl10;
+
+import java.nio.Buffer;
+
+import javax.microedition.khronos.opengles.GL10;
+import javax.microedition.khronos.opengles.GL11;
+
+/**
+ * A ring of buffer objects for data that changes often. Every upload goes to the next buffer of the ring and orphans its old storage first, so the driver doesn't have to wait for
+ * the draws that are still reading it. Requires GL11, check {@link #isSupported(GL10)} and fall back to the client arrays otherwise.
+ * 
+ * @author long
+ */
+public class StreamBuffer {
+    public static final int DEFAULT_RING_SIZE = 3;
+
+    private static Boolean sSupported = null;
+
+    private final int mTarget;
+    private final int[] mIDs;
+    private final int[] mSizes;
+    private int mCurrent = -1;
+
+    private GLState mGLState;
+    private int mContextVersion = 0;
+
+    public StreamBuffer(final int target) {
+        this(target, DEFAULT_RING_SIZE);
+    }
+
+    /**
+     * @param target GL_ARRAY_BUFFER or GL_ELEMENT_ARRAY_BUFFER
+     * @param ringSize number of buffer objects to rotate
+     */
+    public StreamBuffer(final int target, final int ringSize) {
+        mTarget = target;
+        mIDs = new int[ringSize];
+        mSizes = new int[ringSize];
+    }
+
+    /**
+     * Upload the data into the next buffer of the ring and leave it bound.
+     * 
+     * @param glState
+     * @param data
+     * @param bytes number of bytes to upload
+     */
+    public void upload(final GLState glState, final Buffer data, final int bytes) {
+        validateContext(glState);
+
+        final GL11 gl = (GL11) glState.mGL;
+        mCurrent = (mCurrent + 1) % mIDs.length;
+        if (mIDs[mCurrent] == 0) {
+            gl.glGenBuffers(1, mIDs, mCurrent);
+            mSizes[mCurrent] = 0;
+        }
+
+        gl.glBindBuffer(mTarget, mIDs[mCurrent]);
+        if (bytes > mSizes[mCurrent]) {
+            // grow
+            gl.glBufferData(mTarget, bytes, data, GL11.GL_DYNAMIC_DRAW);
+            mSizes[mCurrent] = bytes;
+        } else {
+            // orphan the old storage then fill the new one
+            gl.glBufferData(mTarget, mSizes[mCurrent], null, GL11.GL_DYNAMIC_DRAW);
+            gl.glBufferSubData(mTarget, 0, bytes, data);
+        }
+    }
+
+    /**
+     * Bind the last uploaded buffer again, without uploading anything.
+     * 
+     * @param glState
+     * @return false if there is nothing uploaded on the current GL context
+     */
+    public boolean bind(final GLState glState) {
+        if (mCurrent < 0 || mContextVersion != glState.getContextVersion()) {
+            return false;
+        }
+
+        ((GL11) glState.mGL).glBindBuffer(mTarget, mIDs[mCurrent]);
+        return true;
+    }
+
+    public void unbind(final GLState glState) {
+        ((GL11) glState.mGL).glBindBuffer(mTarget, 0);
+    }
+
+    /**
+     * Delete the buffer objects. This should be called on the GL thread.
+     */
+    public void unload() {
+        if (mGLState != null && mContextVersion == mGLState.getContextVersion()) {
+            for (int i = 0; i < mIDs.length; i++) {
+                if (mIDs[i] != 0) {
+                    ((GL11) mGLState.mGL).glDeleteBuffers(1, mIDs, i);
+                }
+            }
+        }
+
+        forget();
+        mGLState = null;
+    }
+
+    private void validateContext(final GLState glState) {
+        if (mGLState != glState || mContextVersion != glState.getContextVersion()) {
+            // the old buffers are gone with the old context
+            forget();
+            mGLState = glState;
+            mContextVersion = glState.getContextVersion();
+        }
+    }
+
+    private void forget() {
+        for (int i = 0; i < mIDs.length; i++) {
+            mIDs[i] = 0;
+            mSizes[i] = 0;
+        }
+        mCurrent = -1;
+    }
+
+    public int getTarget() {
+        return mTarget;
+    }
+
+    public int getRingSize() {
+        return mIDs.length;
+    }
+
+    /**
+     * Buffer objects came with GLES 1.1
+     * 
+     * @param gl
+     * @return true if the buffer objects can be used
+     */
+    public static boolean isSupported(final GL10 gl) {
+        if (sSupported == null) {
+            final String version = gl.glGetString(GL10.GL_VERSION);
+            sSupported = gl instanceof GL11 && version != null && !version.contains(" 1.0");
+        }
+
+        return sSupported;
+    }
+}
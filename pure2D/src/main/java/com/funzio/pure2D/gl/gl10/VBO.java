@@ -29,6 +29,8 @@ import javax.microedition.khronos.opengles.GL11;
 
 import android.opengl.GLES11;
 
+import com.funzio.pure2D.profiler.Profiler;
+
 /**
  * @author long
  * @description This is designed for large buffer only and requires GLES11.
@@ -115,6 +117,7 @@ public class VBO extends VertexBuffer {
         } else {
             GLES11.glDrawArrays(mPrimitive, 0, mVerticesNum);
         }
+        Profiler.count(Profiler.DRAW_CALLS);
 
         // unbind
         GLES11.glBindBuffer(GL11.GL_ARRAY_BUFFER, 0);
@@ -31,6 +31,7 @@ import java.nio.ShortBuffer;
 import javax.microedition.khronos.opengles.GL10;
 
 import com.funzio.pure2D.gl.GLFloatBuffer;
+import com.funzio.pure2D.profiler.Profiler;
 
 /**
  * @author long
@@ -127,6 +128,7 @@ public class VertexBuffer extends GLFloatBuffer {
         } else {
             glState.mGL.glDrawArrays(mPrimitive, 0, mVerticesNum);
         }
+        Profiler.count(Profiler.DRAW_CALLS);
 
         // Disable the vertices buffer.
         // gl.glDisableClientState(GL10.GL_VERTEX_ARRAY);
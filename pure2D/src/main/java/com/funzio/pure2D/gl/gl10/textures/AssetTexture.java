@@ -83,9 +83,7 @@ public class AssetTexture extends Texture {
         } else {
             Log.e(TAG, "Unable to load bitmap: " + filePath, new Exception());
             // callback, regardless whether it's successful or not
-            if (mListener != null) {
-                mListener.onTextureLoad(this);
-            }
+            dispatchLoad();
         }
     }
 
@@ -111,6 +109,18 @@ public class AssetTexture extends Texture {
         mFilePath = filePath;
         mOptions = options;
 
+        // decode on the shared loader if possible
+        final TextureLoader loader = getLoader();
+        if (loader != null) {
+            loader.load(this, "asset://" + mFilePath, mOptions, getLoadPriority(), new TextureLoader.Decoder() {
+                @Override
+                public Bitmap decode(final int[] outDimensions) {
+                    return Pure2DUtils.getAssetBitmap(mAssetManager, filePath, options, outDimensions);
+                }
+            });
+            return;
+        }
+
         // AsyncTask can only be initialized on UI Thread, especially on Android 2.2
         mGLState.getStage().getHandler().post(new Runnable() {
             @Override
@@ -140,9 +150,7 @@ public class AssetTexture extends Texture {
                     } else {
                         Log.e(TAG, "Unable to load bitmap: " + mFilePath);
                         // callback, regardless whether it's successful or not
-                        if (mListener != null) {
-                            mListener.onTextureLoad(AssetTexture.this);
-                        }
+                        dispatchLoad();
                     }
                 }
             });
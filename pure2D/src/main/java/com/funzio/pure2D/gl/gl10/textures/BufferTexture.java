@@ -82,4 +82,14 @@ public class BufferTexture extends Texture {
         load(null, (int) mSize.x, (int) mSize.y, 0);
     }
 
+    /**
+     * The content is drawn, it can't be reloaded
+     * 
+     * @see com.funzio.pure2D.gl.gl10.textures.Texture#isEvictable()
+     */
+    @Override
+    public boolean isEvictable() {
+        return false;
+    }
+
 }
@@ -0,0 +1,339 @@
+/*******************************************************************************
+ * Copyright (C) 2012-2014 GREE, Inc.
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ ******************************************************************************/
+/**
+ * 
+ */
+package com.funzio.pure2D.gl.gl10.textures;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+
+import javax.microedition.khronos.opengles.GL10;
+
+import android.content.res.AssetFileDescriptor;
+import android.content.res.AssetManager;
+import android.opengl.ETC1;
+import android.opengl.GLU;
+import android.util.Log;
+
+import com.funzio.pure2D.gl.gl10.GLState;
+import com.funzio.pure2D.loaders.tasks.ReadBinaryFileTask;
+
+/**
+ * A Texture loaded from a compressed container (PKM or KTX), without decoding any Bitmap. The compressed data is mapped and uploaded as is with glCompressedTexImage2D, so it stays
+ * compressed in GPU memory. If ETC1 is not supported by the device, the data is decoded to RGB565 in software.
+ * <p>
+ * ETC1 has no alpha. The alpha can be stored in a second ETC1 file as a grayscale image, which is uploaded as an 8-bit alpha texture and multiplied in on the second texture unit by
+ * {@link GLState#bindTexture(Texture)}.
+ * </p>
+ *
+ * @author long
+ * @see CompressedTextureFile
+ */
+public class CompressedTexture extends Texture {
+    public static final String ETC1_EXTENSION = "GL_OES_compressed_ETC1_RGB8_texture";
+
+    // checked once, on the GL thread
+    private static Boolean sETC1Supported;
+
+    private final AssetManager mAssets; // null means file system
+    private final String mFilePath;
+    private final String mAlphaPath;
+    private AlphaTexture mAlphaTexture;
+
+    /**
+     * @param glState
+     * @param assets the AssetManager, or null to read from the file system
+     * @param filePath a .pkm or .ktx file
+     * @param alphaPath an optional .pkm or .ktx file whose red channel is the alpha, can be null
+     */
+    protected CompressedTexture(final GLState glState, final AssetManager assets, final String filePath, final String alphaPath) {
+        super(glState);
+
+        mAssets = assets;
+        mFilePath = filePath;
+        mAlphaPath = alphaPath;
+
+        load();
+    }
+
+    /**
+     * This MUST be executed on GL Thread.
+     */
+    public void load() {
+        final CompressedTextureFile file = readFile(mFilePath);
+        if (file == null || !upload(file)) {
+            // callback, regardless whether it's successful or not
+            dispatchLoad();
+            return;
+        }
+
+        // separate alpha
+        int alphaSize = 0;
+        if (mAlphaPath != null) {
+            final CompressedTextureFile alphaFile = readFile(mAlphaPath);
+            if (alphaFile != null && alphaFile.isETC1()) {
+                if (mAlphaTexture == null) {
+                    mAlphaTexture = new AlphaTexture(mGLState);
+                }
+                mAlphaTexture.load(alphaFile);
+                alphaSize = mAlphaTexture.getMemorySize();
+            } else {
+                Log.e(TAG, "Unable to load alpha: " + mAlphaPath);
+            }
+        }
+
+        // unexpire
+        mExpired = false;
+        mIdleTime = 0;
+
+        setMemorySize(getMemorySize() + alphaSize);
+
+        // callback
+        dispatchLoad();
+    }
+
+    private CompressedTextureFile readFile(final String filePath) {
+        final ByteBuffer buffer = mAssets != null ? mapAsset(mAssets, filePath) : ReadBinaryFileTask.map(filePath);
+        if (buffer == null) {
+            Log.e(TAG, "Unable to read file: " + filePath);
+            return null;
+        }
+
+        try {
+            return CompressedTextureFile.parse(buffer);
+        } catch (IOException e) {
+            Log.e(TAG, "Unable to parse file: " + filePath, e);
+            return null;
+        }
+    }
+
+    /**
+     * Map an asset if it's stored uncompressed in the APK, otherwise read it into a direct buffer
+     *
+     * @param assets
+     * @param filePath
+     * @return
+     */
+    protected static ByteBuffer mapAsset(final AssetManager assets, final String filePath) {
+        AssetFileDescriptor fd = null;
+        try {
+            fd = assets.openFd(filePath);
+            final FileInputStream stream = fd.createInputStream();
+            final FileChannel channel = stream.getChannel();
+            // the mapping stays valid after closing the file
+            return channel.map(FileChannel.MapMode.READ_ONLY, fd.getStartOffset(), fd.getDeclaredLength());
+        } catch (IOException e) {
+            // compressed in the APK, can't be mapped
+        } finally {
+            if (fd != null) {
+                try {
+                    fd.close();
+                } catch (IOException e) {
+                    // ignore
+                }
+            }
+        }
+
+        final ReadBinaryFileTask readTask = new ReadBinaryFileTask(assets, filePath);
+        if (readTask.run()) {
+            final byte[] content = readTask.getContent();
+            final ByteBuffer buffer = ByteBuffer.allocateDirect(content.length);
+            buffer.put(content);
+            buffer.flip();
+            return buffer;
+        }
+
+        return null;
+    }
+
+    private boolean upload(final CompressedTextureFile file) {
+        final int[] ids = new int[1];
+        // clear the previous error(s), to make sure
+        mGLState.clearErrors();
+        mGL.glGenTextures(1, ids, 0);
+        mTextureID = ids[0];
+
+        int error = mGL.glGetError();
+        if (LOG_ENABLED) {
+            Log.v(TAG, String.format("load(%s, %d, %d); id: %d, error: %d", mFilePath, file.getWidth(), file.getHeight(), mTextureID, error));
+        }
+        if (error != 0 || mTextureID == 0) {
+            Log.e(TAG, "Failed to generate Texture: " + GLU.gluErrorString(error), new Exception());
+            mTextureID = 0;
+            return false;
+        }
+
+        mGLState.bindTexture(this);
+
+        final int numLevels = file.getNumLevels();
+        final boolean compressed = !file.isETC1() || isETC1Supported(mGL);
+        int memorySize = 0;
+        for (int i = 0; i < numLevels; i++) {
+            final int width = file.getLevelWidth(i);
+            final int height = file.getLevelHeight(i);
+            final ByteBuffer data = file.getLevelData(i);
+            if (compressed) {
+                mGL.glCompressedTexImage2D(GL10.GL_TEXTURE_2D, i, file.getInternalFormat(), width, height, 0, data.capacity(), data);
+                memorySize += data.capacity();
+            } else {
+                // software fallback
+                final ByteBuffer pixels = decodeETC1(data, width, height, 2);
+                mGL.glPixelStorei(GL10.GL_UNPACK_ALIGNMENT, 1);
+                mGL.glTexImage2D(GL10.GL_TEXTURE_2D, i, GL10.GL_RGB, width, height, 0, GL10.GL_RGB, GL10.GL_UNSIGNED_SHORT_5_6_5, pixels);
+                mGL.glPixelStorei(GL10.GL_UNPACK_ALIGNMENT, 4);
+                memorySize += width * height * 2;
+            }
+        }
+
+        error = mGL.glGetError();
+        if (error != 0) {
+            Log.e(TAG, "Failed to upload: " + mFilePath + ", " + GLU.gluErrorString(error));
+            unload();
+            return false;
+        }
+
+        setBitmapSize(file.getWidth(), file.getHeight(), 0, 0);
+        applyFilters(numLevels > 1);
+        setMemorySize(memorySize);
+
+        return true;
+    }
+
+    /**
+     * Decode an ETC1 image
+     *
+     * @param data
+     * @param width
+     * @param height
+     * @param pixelSize 2 for RGB565, 3 for RGB888
+     * @return the pixels, in a direct buffer
+     */
+    protected static ByteBuffer decodeETC1(final ByteBuffer data, final int width, final int height, final int pixelSize) {
+        final ByteBuffer pixels = ByteBuffer.allocateDirect(width * height * pixelSize).order(ByteOrder.nativeOrder());
+        ETC1.decodeImage(data, pixels, width, height, pixelSize, width * pixelSize);
+        return pixels;
+    }
+
+    /**
+     * This MUST be executed on GL Thread.
+     *
+     * @param gl
+     * @return true if ETC1 can be uploaded without decoding
+     */
+    public static boolean isETC1Supported(final GL10 gl) {
+        if (sETC1Supported == null) {
+            final String extensions = gl.glGetString(GL10.GL_EXTENSIONS);
+            sETC1Supported = extensions != null && extensions.contains(ETC1_EXTENSION);
+        }
+
+        return sETC1Supported;
+    }
+
+    @Override
+    public void unload() {
+        if (mAlphaTexture != null) {
+            mAlphaTexture.unload();
+        }
+
+        super.unload();
+    }
+
+    @Override
+    public void reload() {
+        load();
+    }
+
+    @Override
+    public Texture getAlphaTexture() {
+        return mAlphaTexture != null && mAlphaTexture.isLoaded() ? mAlphaTexture : null;
+    }
+
+    public String getFilePath() {
+        return mFilePath;
+    }
+
+    public String getAlphaPath() {
+        return mAlphaPath;
+    }
+
+    @Override
+    public String toString() {
+        return mFilePath;
+    }
+
+    /**
+     * An 8-bit alpha texture, decoded from the red channel of an ETC1 image. Its memory is counted in the color texture.
+     */
+    private static class AlphaTexture extends Texture {
+
+        private AlphaTexture(final GLState glState) {
+            super(glState);
+        }
+
+        private void load(final CompressedTextureFile file) {
+            final int[] ids = new int[1];
+            mGLState.clearErrors();
+            mGL.glGenTextures(1, ids, 0);
+            mTextureID = ids[0];
+            if (mGL.glGetError() != 0 || mTextureID == 0) {
+                mTextureID = 0;
+                return;
+            }
+
+            mGLState.bindTexture(this);
+
+            final int numLevels = file.getNumLevels();
+            int memorySize = 0;
+            mGL.glPixelStorei(GL10.GL_UNPACK_ALIGNMENT, 1);
+            for (int i = 0; i < numLevels; i++) {
+                final int width = file.getLevelWidth(i);
+                final int height = file.getLevelHeight(i);
+                final ByteBuffer rgb = decodeETC1(file.getLevelData(i), width, height, 3);
+                // keep the red only
+                final ByteBuffer alpha = ByteBuffer.allocateDirect(width * height);
+                for (int p = 0, n = width * height; p < n; p++) {
+                    alpha.put(p, rgb.get(p * 3));
+                }
+                mGL.glTexImage2D(GL10.GL_TEXTURE_2D, i, GL10.GL_ALPHA, width, height, 0, GL10.GL_ALPHA, GL10.GL_UNSIGNED_BYTE, alpha);
+                memorySize += width * height;
+            }
+            mGL.glPixelStorei(GL10.GL_UNPACK_ALIGNMENT, 4);
+
+            setBitmapSize(file.getWidth(), file.getHeight(), 0, 0);
+            applyFilters(numLevels > 1);
+            // not tracked by the manager
+            mMemorySize = memorySize;
+
+            // back to the color texture
+            mGLState.unbindTexture();
+        }
+
+        @Override
+        public void reload() {
+            // reloaded by the color texture
+        }
+    }
+}
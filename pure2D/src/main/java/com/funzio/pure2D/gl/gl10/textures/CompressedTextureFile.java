@@ -0,0 +1,286 @@
+/*******************************************************************************
+ * Copyright (C) 2012-2014 GREE, Inc.
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ ******************************************************************************/
+/**
+ * 
+ */
+package com.funzio.pure2D.gl.gl10.textures;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+
+/**
+ * A parser of the compressed texture containers: PKM (ETC1) and KTX. It only slices the given buffer, the image data is not copied, so a mapped or direct buffer can go straight to
+ * glCompressedTexImage2D. This class has no Android dependencies.
+ * <p>
+ * A PKM file has one image. A mipmap chain can be made by concatenating the PKM files of the levels, from the biggest. A KTX file can have its own mipmap levels, only the first face and
+ * array element are used.
+ * </p>
+ *
+ * @author long
+ */
+public class CompressedTextureFile {
+    // same as ETC1.ETC1_RGB8_OES
+    public static final int GL_ETC1_RGB8_OES = 0x8D64;
+
+    public static final int PKM_HEADER_SIZE = 16;
+    public static final int KTX_HEADER_SIZE = 64;
+
+    private static final byte[] PKM_MAGIC = {
+            'P', 'K', 'M', ' '
+    };
+    private static final byte[] KTX_IDENTIFIER = {
+            (byte) 0xAB, 'K', 'T', 'X', ' ', '1', '1', (byte) 0xBB, '\r', '\n', 0x1A, '\n'
+    };
+    private static final int KTX_ENDIANNESS = 0x04030201;
+
+    protected int mWidth;
+    protected int mHeight;
+    protected int mInternalFormat;
+
+    // the levels, from the biggest
+    protected int[] mLevelWidths;
+    protected int[] mLevelHeights;
+    protected ByteBuffer[] mLevelData;
+
+    protected CompressedTextureFile() {
+    }
+
+    /**
+     * Parse a PKM or KTX container
+     *
+     * @param buffer the whole file, from its position
+     * @return
+     * @throws IOException if the format is unknown or the data is truncated
+     */
+    public static CompressedTextureFile parse(final ByteBuffer buffer) throws IOException {
+        final CompressedTextureFile file = new CompressedTextureFile();
+        if (isPKM(buffer)) {
+            file.readPKM(buffer.slice());
+        } else if (isKTX(buffer)) {
+            file.readKTX(buffer.slice());
+        } else {
+            throw new IOException("Unknown compressed texture format!");
+        }
+
+        return file;
+    }
+
+    public static boolean isPKM(final ByteBuffer buffer) {
+        return startsWith(buffer, PKM_MAGIC);
+    }
+
+    public static boolean isKTX(final ByteBuffer buffer) {
+        return startsWith(buffer, KTX_IDENTIFIER);
+    }
+
+    /**
+     * @return true if the file name is a supported container, by its extension
+     */
+    public static boolean isCompressedFile(final String filePath) {
+        final String path = filePath.toLowerCase();
+        return path.endsWith(".pkm") || path.endsWith(".ktx");
+    }
+
+    /**
+     * @return the size in bytes of an ETC1 image
+     */
+    public static int getETC1DataSize(final int width, final int height) {
+        return ((width + 3) / 4) * ((height + 3) / 4) * 8;
+    }
+
+    private static boolean startsWith(final ByteBuffer buffer, final byte[] magic) {
+        if (buffer.remaining() < magic.length) {
+            return false;
+        }
+
+        final int position = buffer.position();
+        for (int i = 0; i < magic.length; i++) {
+            if (buffer.get(position + i) != magic[i]) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private void readPKM(final ByteBuffer buffer) throws IOException {
+        // big endian header
+        buffer.order(ByteOrder.BIG_ENDIAN);
+
+        final ArrayList<ByteBuffer> levels = new ArrayList<ByteBuffer>();
+        final ArrayList<int[]> sizes = new ArrayList<int[]>();
+        while (buffer.remaining() >= PKM_HEADER_SIZE && isPKM(buffer)) {
+            final int start = buffer.position();
+            // magic, version, type, extended width, extended height
+            final int extendedWidth = buffer.getShort(start + 8) & 0xFFFF;
+            final int extendedHeight = buffer.getShort(start + 10) & 0xFFFF;
+            final int width = buffer.getShort(start + 12) & 0xFFFF;
+            final int height = buffer.getShort(start + 14) & 0xFFFF;
+            final int dataSize = getETC1DataSize(extendedWidth, extendedHeight);
+            if (buffer.remaining() < PKM_HEADER_SIZE + dataSize) {
+                throw new IOException("Truncated PKM data!");
+            }
+
+            sizes.add(new int[] {
+                    width, height
+            });
+            levels.add(slice(buffer, start + PKM_HEADER_SIZE, dataSize));
+            buffer.position(start + PKM_HEADER_SIZE + dataSize);
+        }
+
+        mInternalFormat = GL_ETC1_RGB8_OES;
+        setLevels(levels, sizes);
+    }
+
+    private void readKTX(final ByteBuffer buffer) throws IOException {
+        if (buffer.remaining() < KTX_HEADER_SIZE) {
+            throw new IOException("Truncated KTX header!");
+        }
+
+        // the endianness of the writer
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        if (buffer.getInt(12) != KTX_ENDIANNESS) {
+            buffer.order(ByteOrder.BIG_ENDIAN);
+        }
+
+        final int glType = buffer.getInt(16);
+        mInternalFormat = buffer.getInt(28);
+        final int width = buffer.getInt(36);
+        final int height = Math.max(1, buffer.getInt(40));
+        final int numFaces = Math.max(1, buffer.getInt(52));
+        final int numElements = buffer.getInt(48);
+        final int numLevels = Math.max(1, buffer.getInt(56));
+        final int keyValueSize = buffer.getInt(60);
+        if (glType != 0) {
+            throw new IOException("KTX is not compressed!");
+        }
+
+        final ArrayList<ByteBuffer> levels = new ArrayList<ByteBuffer>();
+        final ArrayList<int[]> sizes = new ArrayList<int[]>();
+        int offset = KTX_HEADER_SIZE + keyValueSize;
+        for (int i = 0; i < numLevels; i++) {
+            if (offset + 4 > buffer.limit()) {
+                throw new IOException("Truncated KTX data!");
+            }
+
+            // a non-array cubemap has the size of one face, each face is padded to 4 bytes. Otherwise it's all the faces and elements of the level
+            final int imageSize = buffer.getInt(offset);
+            offset += 4;
+            final int faceSize;
+            final int levelSize;
+            if (numElements == 0 && numFaces == 6) {
+                faceSize = imageSize;
+                levelSize = numFaces * ((imageSize + 3) & ~3);
+            } else {
+                faceSize = imageSize / (Math.max(1, numElements) * numFaces);
+                levelSize = (imageSize + 3) & ~3;
+            }
+            if (imageSize < 0 || offset + faceSize > buffer.limit()) {
+                throw new IOException("Truncated KTX data!");
+            }
+
+            sizes.add(new int[] {
+                    Math.max(1, width >> i), Math.max(1, height >> i)
+            });
+            levels.add(slice(buffer, offset, faceSize));
+            offset += levelSize;
+        }
+
+        setLevels(levels, sizes);
+    }
+
+    private void setLevels(final ArrayList<ByteBuffer> levels, final ArrayList<int[]> sizes) throws IOException {
+        final int numLevels = levels.size();
+        if (numLevels == 0) {
+            throw new IOException("No image found!");
+        }
+
+        mLevelData = levels.toArray(new ByteBuffer[numLevels]);
+        mLevelWidths = new int[numLevels];
+        mLevelHeights = new int[numLevels];
+        for (int i = 0; i < numLevels; i++) {
+            mLevelWidths[i] = sizes.get(i)[0];
+            mLevelHeights[i] = sizes.get(i)[1];
+        }
+        mWidth = mLevelWidths[0];
+        mHeight = mLevelHeights[0];
+    }
+
+    private static ByteBuffer slice(final ByteBuffer buffer, final int offset, final int length) {
+        final ByteBuffer duplicate = buffer.duplicate();
+        duplicate.limit(offset + length);
+        duplicate.position(offset);
+        return duplicate.slice();
+    }
+
+    public int getWidth() {
+        return mWidth;
+    }
+
+    public int getHeight() {
+        return mHeight;
+    }
+
+    /**
+     * @return the GL internal format, such as {@link #GL_ETC1_RGB8_OES}
+     */
+    public int getInternalFormat() {
+        return mInternalFormat;
+    }
+
+    public boolean isETC1() {
+        return mInternalFormat == GL_ETC1_RGB8_OES;
+    }
+
+    public int getNumLevels() {
+        return mLevelData.length;
+    }
+
+    public int getLevelWidth(final int level) {
+        return mLevelWidths[level];
+    }
+
+    public int getLevelHeight(final int level) {
+        return mLevelHeights[level];
+    }
+
+    /**
+     * @param level
+     * @return the compressed data of a level, the position is always 0
+     */
+    public ByteBuffer getLevelData(final int level) {
+        return mLevelData[level];
+    }
+
+    /**
+     * @return the size in bytes of all the levels
+     */
+    public int getDataSize() {
+        int size = 0;
+        for (ByteBuffer data : mLevelData) {
+            size += data.capacity();
+        }
+        return size;
+    }
+}
@@ -97,6 +97,18 @@ public class DrawableTexture extends Texture {
         mDrawable = drawable;
         mOptions = options;
 
+        // decode on the shared loader if possible
+        final TextureLoader loader = getLoader();
+        if (loader != null) {
+            loader.load(this, "drawable://" + mDrawable, mOptions, getLoadPriority(), new TextureLoader.Decoder() {
+                @Override
+                public Bitmap decode(final int[] outDimensions) {
+                    return Pure2DUtils.getResourceBitmap(mResources, drawable, options, outDimensions);
+                }
+            });
+            return;
+        }
+
         // AsyncTask can only be initialized on UI Thread, especially on Android 2.2
         mGLState.getStage().getHandler().post(new Runnable() {
             @Override
@@ -126,9 +138,7 @@ public class DrawableTexture extends Texture {
                     } else {
                         Log.e(TAG, "Unable to load bitmap: " + mDrawable);
                         // callback, regardless whether it's successful or not
-                        if (mListener != null) {
-                            mListener.onTextureLoad(DrawableTexture.this);
-                        }
+                        dispatchLoad();
                     }
                 }
             });
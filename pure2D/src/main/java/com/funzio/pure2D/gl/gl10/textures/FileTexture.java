@@ -70,9 +70,7 @@ public class FileTexture extends Texture {
         } else {
             Log.e(TAG, "Unable to load bitmap: " + filePath);
             // callback, regardless whether it's successful or not
-            if (mListener != null) {
-                mListener.onTextureLoad(this);
-            }
+            dispatchLoad();
         }
     }
 
@@ -98,6 +96,18 @@ public class FileTexture extends Texture {
         mFilePath = filePath;
         mOptions = options;
 
+        // decode on the shared loader if possible
+        final TextureLoader loader = getLoader();
+        if (loader != null) {
+            loader.load(this, "file://" + mFilePath, mOptions, getLoadPriority(), new TextureLoader.Decoder() {
+                @Override
+                public Bitmap decode(final int[] outDimensions) {
+                    return Pure2DUtils.getFileBitmap(filePath, options, outDimensions);
+                }
+            });
+            return;
+        }
+
         // AsyncTask can only be initialized on UI Thread, especially on Android 2.2
         mGLState.getStage().getHandler().post(new Runnable() {
             @Override
@@ -127,9 +137,7 @@ public class FileTexture extends Texture {
                     } else {
                         Log.e(TAG, "Unable to load bitmap: " + mFilePath);
                         // callback, regardless whether it's successful or not
-                        if (mListener != null) {
-                            mListener.onTextureLoad(FileTexture.this);
-                        }
+                        dispatchLoad();
                     }
                 }
             });
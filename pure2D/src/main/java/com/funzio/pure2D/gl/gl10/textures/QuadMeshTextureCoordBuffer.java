@@ -24,7 +24,10 @@
  */
 package com.funzio.pure2D.gl.gl10.textures;
 
+import javax.microedition.khronos.opengles.GL11;
+
 import com.funzio.pure2D.gl.gl10.GLState;
+import com.funzio.pure2D.gl.gl10.StreamBuffer;
 
 /**
  * @author long.ngo
@@ -34,6 +37,14 @@ public class QuadMeshTextureCoordBuffer extends TextureCoordBuffer {
 
     protected int mNumCells;
     protected boolean mInvalidated = false;
+    // the changed cells, to upload
+    protected int mDirtyStart = Integer.MAX_VALUE;
+    protected int mDirtyEnd = 0;
+
+    // streaming mode
+    protected StreamBuffer mStreamBuffer;
+    protected boolean mStreamInvalidated = false;
+    protected int mStreamedValues = 0;
 
     protected float mScaleX = 1;
     protected float mScaleY = 1;
@@ -56,7 +67,7 @@ public class QuadMeshTextureCoordBuffer extends TextureCoordBuffer {
             // }
             // }
 
-            mInvalidated = true;
+            invalidateCells(0, numCells);
         }
 
         mNumCells = numCells;
@@ -88,7 +99,7 @@ public class QuadMeshTextureCoordBuffer extends TextureCoordBuffer {
         mValues[start + 6] = (x + width);
         mValues[start + 7] = (y + height);
 
-        mInvalidated = true;
+        invalidateCells(index, 1);
     }
 
     public void setRectFlipVerticalAt(final int index, final float x, final float y, final float width, final float height) {
@@ -103,7 +114,7 @@ public class QuadMeshTextureCoordBuffer extends TextureCoordBuffer {
         mValues[start + 6] = (x + width);
         mValues[start + 7] = y;
 
-        mInvalidated = true;
+        invalidateCells(index, 1);
     }
 
     /**
@@ -125,7 +136,7 @@ public class QuadMeshTextureCoordBuffer extends TextureCoordBuffer {
         mValues[start + 6] = values[6];
         mValues[start + 7] = values[7];
 
-        mInvalidated = true;
+        invalidateCells(index, 1);
     }
 
     public void setValuesAt(final int index, final int numCells, final float... values) {
@@ -136,7 +147,7 @@ public class QuadMeshTextureCoordBuffer extends TextureCoordBuffer {
             mValues[start + i] = values[i];
         }
 
-        mInvalidated = true;
+        invalidateCells(index, numCells);
     }
 
     public void setValuesAt(final int index, final int numCells, final int srcOffset, final float... values) {
@@ -147,6 +158,23 @@ public class QuadMeshTextureCoordBuffer extends TextureCoordBuffer {
             mValues[start + i] = values[srcOffset + i];
         }
 
+        invalidateCells(index, numCells);
+    }
+
+    /**
+     * Flag a range of cells to be uploaded by {@link #validate()}
+     *
+     * @param index
+     * @param numCells
+     */
+    protected void invalidateCells(final int index, final int numCells) {
+        if (index < mDirtyStart) {
+            mDirtyStart = index;
+        }
+        if (index + numCells > mDirtyEnd) {
+            mDirtyEnd = index + numCells;
+        }
+
         mInvalidated = true;
     }
 
@@ -154,27 +182,33 @@ public class QuadMeshTextureCoordBuffer extends TextureCoordBuffer {
      * Applies the values set by {@link #setRectAt(int, float...)}
      */
     protected void validate() {
-        if (mInvalidated) {
-
-            // scale the values
-            if (mValues != null && (mScaleX != 1 || mScaleY != 1)) {
-                for (int i = 0; i < mValues.length; i++) {
-                    if (i % 2 == 0) {
-                        mValues[i] *= mScaleX;
-                    } else {
-                        mValues[i] *= mScaleY;
-                    }
+        if (mInvalidated && mValues != null) {
+
+            // only the changed cells
+            final int start = mDirtyStart * NUM_COORD_PER_CELL;
+            final int end = Math.min(mDirtyEnd * NUM_COORD_PER_CELL, mValues.length);
+
+            // scale the values, only the new ones
+            if (mScaleX != 1 || mScaleY != 1) {
+                for (int i = start; i < end; i += 2) {
+                    mValues[i] *= mScaleX;
+                    mValues[i + 1] *= mScaleY;
                 }
             }
 
-            setValues(mValues);
+            updateValues(mValues, start, end - start);
+            mDirtyStart = Integer.MAX_VALUE;
+            mDirtyEnd = 0;
 
             // unflag
             mInvalidated = false;
+            mStreamInvalidated = true;
         }
     }
 
     /**
+     * Set the scale that applies to the coordinates when they're validated. The values are scaled in place, so they need to be set again after this.
+     *
      * @param scaleX
      * @param scaleY
      */
@@ -182,15 +216,56 @@ public class QuadMeshTextureCoordBuffer extends TextureCoordBuffer {
         mScaleX = scaleX;
         mScaleY = scaleY;
 
-        // unflag
-        mInvalidated = true;
+        // flag
+        invalidateCells(0, mNumCells);
     }
 
     @Override
     public void apply(final GLState glState) {
         validate();
 
-        super.apply(glState);
+        if (mStreamBuffer != null && mBuffer != null && StreamBuffer.isSupported(glState.mGL)) {
+            // gl.glEnableClientState(GL10.GL_TEXTURE_COORD_ARRAY);
+            glState.setTextureCoordArrayEnabled(true);
+
+            final int numValues = Math.min(mNumCells * NUM_COORD_PER_CELL, mValues.length);
+            if (mStreamInvalidated || numValues > mStreamedValues || !mStreamBuffer.bind(glState)) {
+                mStreamBuffer.upload(glState, mBuffer, numValues * 4);
+                mStreamedValues = numValues;
+                mStreamInvalidated = false;
+            }
+            glState.setTextureCoordBufferObject(this);
+            mStreamBuffer.unbind(glState);
+        } else {
+            super.apply(glState);
+        }
+    }
+
+    public boolean isStreamingEnabled() {
+        return mStreamBuffer != null;
+    }
+
+    /**
+     * Upload the coordinates into a ring of buffer objects instead of passing the client array on every draw. This requires GL11, the client array is used otherwise.
+     * 
+     * @param value
+     * @see StreamBuffer
+     */
+    public void setStreamingEnabled(final boolean value) {
+        if (value && mStreamBuffer == null) {
+            mStreamBuffer = new StreamBuffer(GL11.GL_ARRAY_BUFFER);
+            mStreamInvalidated = true;
+        } else if (!value && mStreamBuffer != null) {
+            mStreamBuffer.unload();
+            mStreamBuffer = null;
+        }
+    }
+
+    @Override
+    public void dispose() {
+        super.dispose();
+
+        setStreamingEnabled(false);
     }
 
 }
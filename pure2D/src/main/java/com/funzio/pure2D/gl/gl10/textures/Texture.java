@@ -24,6 +24,8 @@
  */
 package com.funzio.pure2D.gl.gl10.textures;
 
+import java.util.ArrayList;
+
 import javax.microedition.khronos.opengles.GL10;
 import javax.microedition.khronos.opengles.GL11;
 
@@ -58,12 +60,28 @@ public abstract class Texture {
 
     protected PointF mSize = new PointF(0, 0);
     protected Listener mListener;
+    protected ArrayList<Listener> mListeners; // more listeners, created on demand
+    protected boolean mLoadDispatched = false;
 
     // expiration stuff
     protected int mExpirationTime = 0; // <=0 means no expiration
     protected int mIdleTime = 0;
     protected boolean mExpired = false;
 
+    // for async loading, < 0 means the Texture Manager's default
+    protected int mLoadPriority = -1;
+
+    // memory tracking, maintained by the Texture Manager
+    TextureManager mManager;
+    Texture mLruPrev;
+    Texture mLruNext;
+    int mBindFrame = -1;
+    protected int mMemorySize = 0; // estimated bytes in GPU memory
+
+    // shared cache, maintained by the Texture Manager
+    String mCacheKey;
+    int mRefCount = 0;
+
     protected Texture(final GLState glState) {
         mGLState = glState;
         mGL = mGLState.mGL;
@@ -126,11 +144,7 @@ public abstract class Texture {
             }
 
             // default filters
-            if (mHasMipmaps) {
-                mGL.glTexParameterf(GL10.GL_TEXTURE_2D, GL10.GL_TEXTURE_MIN_FILTER, GL10.GL_LINEAR_MIPMAP_NEAREST);
-            } else {
-                setFilters(mMinFilter, mMagFilter);
-            }
+            applyFilters(mHasMipmaps);
 
             // mGL.glBindTexture(GL10.GL_TEXTURE_2D, 0);
             // mGLState.unbindTexture();
@@ -138,15 +152,18 @@ public abstract class Texture {
             // unexpire
             mExpired = false;
             mIdleTime = 0;
+
+            // estimate the memory
+            final int bytesPerPixel = bitmap != null ? getBytesPerPixel(bitmap.getConfig()) : 4;
+            final int size = (bitmap != null ? bitmap.getWidth() * bitmap.getHeight() : actualWidth * actualHeight) * bytesPerPixel;
+            setMemorySize(mHasMipmaps ? size * 4 / 3 : size);
         } else {
             Log.e(TAG, "Failed to generate Texture: " + GLU.gluErrorString(error), new Exception());
             // TODO maybe throw an Exception here
         }
 
         // callback, regardless whether it's successful or not
-        if (mListener != null) {
-            mListener.onTextureLoad(this);
-        }
+        dispatchLoad();
     }
 
     protected void setBitmapSize(final int bitmapWidth, final int bitmapHeight, final int actualWidth, final int actualHeight) {
@@ -172,6 +189,21 @@ public abstract class Texture {
         }
     }
 
+    /**
+     * Apply the filters to the bound texture after uploading. A mipmapped texture always uses GL_LINEAR_MIPMAP_NEAREST.
+     *
+     * @param mipmaps
+     */
+    protected void applyFilters(final boolean mipmaps) {
+        mHasMipmaps = mipmaps;
+
+        if (mipmaps) {
+            mGL.glTexParameterf(GL10.GL_TEXTURE_2D, GL10.GL_TEXTURE_MIN_FILTER, GL10.GL_LINEAR_MIPMAP_NEAREST);
+        } else {
+            setFilters(mMinFilter, mMagFilter);
+        }
+    }
+
     /**
      * Set repeating mode
      * 
@@ -225,6 +257,9 @@ public abstract class Texture {
 
             // no longer idle
             mIdleTime = 0;
+            if (mManager != null) {
+                mManager.onTextureBind(this);
+            }
         } else {
             // texture is not ready, notify the glstate
             mGLState.unbindTexture();
@@ -252,10 +287,14 @@ public abstract class Texture {
             mGLState.bindTexture(this);
             mGL.glDeleteTextures(1, ids, 0);
             mTextureID = 0;
+            setMemorySize(0);
 
             // now unbind me
             mGLState.unbindTexture();
         }
+
+        // the next load dispatches again
+        mLoadDispatched = false;
     }
 
     public int getTextureID() {
@@ -273,6 +312,8 @@ public abstract class Texture {
         if (mGL != mGLState.mGL) {
             mGL = mGLState.mGL;
             mTextureID = 0; // clear the previous id
+            setMemorySize(0);
+            mLoadDispatched = false;
 
             // reload now
             reload();
@@ -298,14 +339,58 @@ public abstract class Texture {
             // expiration check
             if (mIdleTime >= mExpirationTime) {
                 // expire it now!
-                unload();
-
-                // flag
-                mExpired = true;
+                expire();
             }
         }
     }
 
+    /**
+     * Unload this Texture now. It gets reloaded automatically when it's bound again.
+     */
+    public void expire() {
+        unload();
+
+        // flag
+        mExpired = true;
+    }
+
+    /**
+     * @return whether this Texture can be expired to free some memory, which means its content can be reloaded
+     * @see TextureManager#setMemoryBudget(long)
+     */
+    public boolean isEvictable() {
+        return true;
+    }
+
+    /**
+     * @return the estimated size (in bytes) in GPU memory, 0 if it's not loaded
+     */
+    public int getMemorySize() {
+        return mMemorySize;
+    }
+
+    /**
+     * Set the estimated size in GPU memory, for subclasses that load the texture data differently
+     * 
+     * @param memorySize
+     */
+    protected void setMemorySize(final int memorySize) {
+        if (mManager != null) {
+            mManager.onTextureMemoryChange(this, memorySize - mMemorySize);
+        }
+        mMemorySize = memorySize;
+    }
+
+    protected static int getBytesPerPixel(final Bitmap.Config config) {
+        if (config == Bitmap.Config.ALPHA_8) {
+            return 1;
+        } else if (config == Bitmap.Config.RGB_565 || config == Bitmap.Config.ARGB_4444) {
+            return 2;
+        }
+
+        return 4;
+    }
+
     /**
      * Get the expiration time (in ms)
      * 
@@ -337,6 +422,55 @@ public abstract class Texture {
         return "Texture {id: " + mTextureID + ", size: " + mSize.x + " x " + mSize.y + "}";
     }
 
+    /**
+     * @return the shared loader for async loading, or null if there is no Texture Manager
+     */
+    protected TextureLoader getLoader() {
+        final TextureManager manager = mGLState.getTextureManager();
+        return manager != null ? manager.getLoader() : null;
+    }
+
+    public int getLoadPriority() {
+        if (mLoadPriority >= 0) {
+            return mLoadPriority;
+        }
+
+        final TextureManager manager = mGLState.getTextureManager();
+        return manager != null ? manager.getDefaultLoadPriority() : TextureLoader.PRIORITY_VISIBLE;
+    }
+
+    /**
+     * Set the priority of the async loading. This also applies to the current loading if it's not started yet.
+     * 
+     * @param loadPriority
+     * @see TextureLoader#PRIORITY_VISIBLE
+     * @see TextureLoader#PRIORITY_PREFETCH
+     * @see TextureLoader#PRIORITY_BACKGROUND
+     */
+    public void setLoadPriority(final int loadPriority) {
+        mLoadPriority = loadPriority;
+
+        final TextureLoader loader = getLoader();
+        if (loader != null) {
+            loader.setPriority(this, loadPriority);
+        }
+    }
+
+    /**
+     * @return number of references from {@link TextureManager#acquireTexture(String, TextureOptions, boolean)}, 0 if this texture is not shared
+     */
+    public int getRefCount() {
+        return mRefCount;
+    }
+
+    /**
+     * @return the texture that gives the alpha of this one on the second texture unit, or null
+     * @see CompressedTexture
+     */
+    public Texture getAlphaTexture() {
+        return null;
+    }
+
     public Listener getListener() {
         return mListener;
     }
@@ -345,6 +479,44 @@ public abstract class Texture {
         mListener = listener;
     }
 
+    /**
+     * Add a listener besides the main one. If this texture has already finished loading, the listener is called right away.
+     *
+     * @param listener
+     */
+    public void addListener(final Listener listener) {
+        if (mListeners == null) {
+            mListeners = new ArrayList<Listener>();
+        }
+        mListeners.add(listener);
+
+        // late subscriber
+        if (mLoadDispatched) {
+            listener.onTextureLoad(this);
+        }
+    }
+
+    public boolean removeListener(final Listener listener) {
+        return mListeners != null && mListeners.remove(listener);
+    }
+
+    /**
+     * Notify the listeners that a load has finished, regardless whether it's successful or not
+     */
+    protected void dispatchLoad() {
+        mLoadDispatched = true;
+
+        if (mListener != null) {
+            mListener.onTextureLoad(this);
+        }
+
+        if (mListeners != null) {
+            for (int i = 0; i < mListeners.size(); i++) {
+                mListeners.get(i).onTextureLoad(this);
+            }
+        }
+    }
+
     public static interface Listener {
         public void onTextureLoad(Texture texture);
     }
@@ -0,0 +1,386 @@
+/*******************************************************************************
+ * Copyright (C) 2012-2014 GREE, Inc.
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ ******************************************************************************/
+/**
+ * 
+ */
+package com.funzio.pure2D.gl.gl10.textures;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+
+import android.graphics.Bitmap;
+import android.os.Process;
+import android.util.Log;
+
+/**
+ * Decodes the bitmaps of the async textures on a small pool of worker threads, and uploads them on the GL thread within a time budget per frame, so a screen opening with many textures
+ * doesn't upload all of them in one frame.
+ * <ul>
+ * <li>Requests have a priority: {@link #PRIORITY_VISIBLE} first, then {@link #PRIORITY_PREFETCH} and {@link #PRIORITY_BACKGROUND}.</li>
+ * <li>Requests for the same source and options are decoded once, the bitmap is uploaded to all the requesting textures.</li>
+ * <li>The decoded bitmaps are uploaded by {@link #upload(float)}, called by {@link TextureManager#update(int)}.</li>
+ * </ul>
+ * 
+ * @author long
+ */
+public class TextureLoader {
+    public static boolean LOG_ENABLED = false;
+    private static final String TAG = TextureLoader.class.getSimpleName();
+
+    public static final int PRIORITY_VISIBLE = 0;
+    public static final int PRIORITY_PREFETCH = 1;
+    public static final int PRIORITY_BACKGROUND = 2;
+    private static final int NUM_PRIORITIES = 3;
+
+    public static final int DEFAULT_NUM_WORKERS = 2;
+
+    private final Object mLock = new Object();
+    private final Worker[] mWorkers;
+    private boolean mDisposed = false;
+
+    // waiting to be decoded, per priority
+    private final ArrayDeque<Request>[] mQueues;
+    // all the requests not uploaded yet, by key
+    private final HashMap<String, Request> mRequests = new HashMap<String, Request>();
+    // decoded, for the GL thread
+    private final ArrayDeque<Request> mDecodedRequests = new ArrayDeque<Request>();
+
+    // stats
+    private int mNumRequests = 0;
+    private int mNumMerges = 0;
+    private int mNumUploads = 0;
+
+    public TextureLoader() {
+        this(DEFAULT_NUM_WORKERS);
+    }
+
+    @SuppressWarnings("unchecked")
+    public TextureLoader(final int numWorkers) {
+        mQueues = new ArrayDeque[NUM_PRIORITIES];
+        for (int i = 0; i < NUM_PRIORITIES; i++) {
+            mQueues[i] = new ArrayDeque<Request>();
+        }
+
+        mWorkers = new Worker[numWorkers];
+        for (int i = 0; i < numWorkers; i++) {
+            mWorkers[i] = new Worker(i);
+            mWorkers[i].start();
+        }
+    }
+
+    /**
+     * Request a bitmap for a texture. If the same source with the same options is already requested, the texture just waits for the same bitmap.
+     * 
+     * @param texture
+     * @param source the source uri, such as the asset path or url
+     * @param options
+     * @param priority one of the PRIORITY_ constants
+     * @param decoder decodes the bitmap, on a worker thread
+     */
+    public void load(final Texture texture, final String source, final TextureOptions options, final int priority, final Decoder decoder) {
+        final String key = getKey(source, options);
+        final int clampedPriority = Math.max(PRIORITY_VISIBLE, Math.min(priority, PRIORITY_BACKGROUND));
+
+        synchronized (mLock) {
+            if (mDisposed) {
+                return;
+            }
+
+            Request request = mRequests.get(key);
+            if (request == null) {
+                request = new Request(key, options, clampedPriority, decoder);
+                mRequests.put(key, request);
+                mQueues[clampedPriority].add(request);
+                mLock.notify();
+            } else {
+                mNumMerges++;
+
+                // move up if it's more urgent now
+                if (clampedPriority < request.mPriority && mQueues[request.mPriority].remove(request)) {
+                    request.mPriority = clampedPriority;
+                    mQueues[clampedPriority].add(request);
+                }
+            }
+
+            if (!request.mTextures.contains(texture)) {
+                request.mTextures.add(texture);
+            }
+            mNumRequests++;
+        }
+
+        if (LOG_ENABLED) {
+            Log.v(TAG, "load(): " + key + ", " + priority);
+        }
+    }
+
+    /**
+     * Change the priority of a texture's request, if it's not decoded yet. A request shared by several textures is only moved up.
+     * 
+     * @param texture
+     * @param priority
+     */
+    public void setPriority(final Texture texture, final int priority) {
+        final int clampedPriority = Math.max(PRIORITY_VISIBLE, Math.min(priority, PRIORITY_BACKGROUND));
+
+        synchronized (mLock) {
+            for (final Request request : mRequests.values()) {
+                if (request.mTextures.contains(texture)) {
+                    if (clampedPriority != request.mPriority && (clampedPriority < request.mPriority || request.mTextures.size() == 1) && mQueues[request.mPriority].remove(request)) {
+                        request.mPriority = clampedPriority;
+                        mQueues[clampedPriority].add(request);
+                    }
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * Stop waiting for a bitmap, such as when the texture is removed
+     * 
+     * @param texture
+     */
+    public void cancel(final Texture texture) {
+        synchronized (mLock) {
+            for (final Request request : mRequests.values()) {
+                if (request.mTextures.remove(texture) && request.mTextures.isEmpty() && mQueues[request.mPriority].remove(request)) {
+                    // not decoded yet, just drop it
+                    mRequests.remove(request.mKey);
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * Drop all the requests
+     */
+    public void cancelAll() {
+        synchronized (mLock) {
+            for (int i = 0; i < NUM_PRIORITIES; i++) {
+                mQueues[i].clear();
+            }
+            // the ones being decoded are dropped when they are done
+            for (final Request request : mRequests.values()) {
+                request.mTextures.clear();
+            }
+            mRequests.clear();
+
+            for (final Request request : mDecodedRequests) {
+                request.recycle();
+            }
+            mDecodedRequests.clear();
+        }
+    }
+
+    /**
+     * Upload the decoded bitmaps to their textures. This MUST be called on GL Thread.
+     * 
+     * @param budget the time budget in ms, at least one bitmap is uploaded. <= 0 for no limit.
+     * @return number of bitmaps uploaded
+     */
+    public int upload(final float budget) {
+        final long startTime = System.nanoTime();
+        final long budgetTime = (long) (budget * 1000000);
+        int count = 0;
+
+        while (true) {
+            final Request request;
+            final Texture[] textures;
+            synchronized (mLock) {
+                request = mDecodedRequests.poll();
+                if (request == null) {
+                    break;
+                }
+
+                // no more textures can join from here
+                mRequests.remove(request.mKey);
+                textures = request.mTextures.toArray(new Texture[request.mTextures.size()]);
+            }
+
+            final int mipmaps = request.mOptions != null ? request.mOptions.inMipmaps : 0;
+            for (final Texture texture : textures) {
+                if (request.mBitmap != null) {
+                    texture.load(request.mBitmap, request.mDimensions[0], request.mDimensions[1], mipmaps);
+                } else {
+                    Log.e(TAG, "Unable to load bitmap: " + request.mKey);
+                    // callback, regardless whether it's successful or not
+                    texture.dispatchLoad();
+                }
+            }
+            request.recycle();
+            count++;
+
+            if (budget > 0 && System.nanoTime() - startTime >= budgetTime) {
+                break;
+            }
+        }
+
+        mNumUploads += count;
+        return count;
+    }
+
+    /**
+     * @return number of requests waiting to be decoded or uploaded
+     */
+    public int getNumPendingRequests() {
+        synchronized (mLock) {
+            return mRequests.size();
+        }
+    }
+
+    /**
+     * @return number of requests so far, including the merged ones
+     */
+    public int getNumRequests() {
+        return mNumRequests;
+    }
+
+    /**
+     * @return number of requests that waited for the same bitmap as another one
+     */
+    public int getNumMerges() {
+        return mNumMerges;
+    }
+
+    /**
+     * @return number of bitmaps uploaded so far
+     */
+    public int getNumUploads() {
+        return mNumUploads;
+    }
+
+    /**
+     * Stop the workers. Requests after this are ignored.
+     */
+    public void dispose() {
+        cancelAll();
+
+        synchronized (mLock) {
+            mDisposed = true;
+            mLock.notifyAll();
+        }
+    }
+
+    /**
+     * @return the key of a source and its options
+     */
+    protected static String getKey(final String source, final TextureOptions options) {
+        return options == null ? source : source + "|" + options.getKey();
+    }
+
+    private Request takeRequest() throws InterruptedException {
+        synchronized (mLock) {
+            while (!mDisposed) {
+                for (int i = 0; i < NUM_PRIORITIES; i++) {
+                    final Request request = mQueues[i].poll();
+                    if (request != null) {
+                        return request;
+                    }
+                }
+                mLock.wait();
+            }
+        }
+
+        return null;
+    }
+
+    private void onDecoded(final Request request) {
+        synchronized (mLock) {
+            if (mRequests.get(request.mKey) == request) {
+                mDecodedRequests.add(request);
+                return;
+            }
+        }
+
+        // cancelled while decoding
+        request.recycle();
+    }
+
+    /**
+     * Decodes a bitmap, on a worker thread
+     */
+    public static interface Decoder {
+        /**
+         * @param outDimensions the actual width and height of the texture
+         * @return the bitmap or null
+         */
+        public Bitmap decode(int[] outDimensions);
+    }
+
+    private static class Request {
+        private final String mKey;
+        private final TextureOptions mOptions;
+        private final Decoder mDecoder;
+        private final ArrayList<Texture> mTextures = new ArrayList<Texture>(1);
+        private int mPriority;
+
+        private final int[] mDimensions = new int[2];
+        private Bitmap mBitmap;
+
+        public Request(final String key, final TextureOptions options, final int priority, final Decoder decoder) {
+            mKey = key;
+            mOptions = options;
+            mPriority = priority;
+            mDecoder = decoder;
+        }
+
+        public void decode() {
+            try {
+                mBitmap = mDecoder.decode(mDimensions);
+            } catch (Exception e) {
+                Log.e(TAG, "Decode failed: " + mKey, e);
+            }
+        }
+
+        public void recycle() {
+            if (mBitmap != null) {
+                mBitmap.recycle();
+                mBitmap = null;
+            }
+        }
+    }
+
+    private class Worker extends Thread {
+        public Worker(final int index) {
+            super(TAG + "-" + index);
+
+            setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+
+            try {
+                Request request;
+                while ((request = takeRequest()) != null) {
+                    request.decode();
+                    onDecoded(request);
+                }
+            } catch (InterruptedException e) {
+                // done
+            }
+        }
+    }
+}
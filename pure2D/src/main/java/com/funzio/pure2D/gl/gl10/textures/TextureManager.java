@@ -30,11 +30,13 @@ import android.content.res.AssetManager;
 import android.content.res.Resources;
 import android.util.Log;
 
+import com.funzio.pure2D.Pure2DURI;
 import com.funzio.pure2D.Scene;
 import com.funzio.pure2D.gl.gl10.GLState;
 import com.funzio.pure2D.text.TextOptions;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 
 import javax.microedition.khronos.opengles.GL10;
 
@@ -45,6 +47,7 @@ public class TextureManager {
 
     public static final String TAG = TextureManager.class.getSimpleName();
     public static final int DEFAULT_EXPIRATION_CHECK_INTERVAL = 60 * 1000; // ms
+    public static final float DEFAULT_UPLOAD_BUDGET = 4; // ms per frame
 
     protected Scene mScene;
     protected ArrayList<Texture> mTextures = new ArrayList<Texture>();
@@ -58,6 +61,25 @@ public class TextureManager {
     protected int mExpirationCheckInterval = 0; // <= 0 means disabled
     protected int mExpirationCheckElapsedTime = 0;
 
+    // async loading
+    protected TextureLoader mLoader;
+    protected int mNumLoaderWorkers = TextureLoader.DEFAULT_NUM_WORKERS;
+    protected float mUploadBudget = DEFAULT_UPLOAD_BUDGET;
+    protected int mDefaultLoadPriority = TextureLoader.PRIORITY_VISIBLE;
+
+    // memory budget, with the textures in bind order: head is the most recent
+    protected long mMemoryBudget = 0; // <= 0 means no limit
+    protected long mMemoryUsage = 0;
+    protected int mNumEvictions = 0;
+    private Texture mLruHead;
+    private Texture mLruTail;
+    private int mFrame = 0;
+
+    // shared textures, by uri and options
+    protected HashMap<String, Texture> mSharedTextures = new HashMap<String, Texture>();
+    protected int mNumCacheHits = 0;
+    protected int mNumCacheMisses = 0;
+
     public TextureManager(final Scene scene, final Resources res) {
         mScene = scene;
         if (mScene != null) {
@@ -96,6 +118,84 @@ public class TextureManager {
         mExpirationCheckInterval = expirationCheckInterval;
     }
 
+    /**
+     * Get the shared loader of the async textures. It's created on demand.
+     *
+     * @return
+     */
+    public TextureLoader getLoader() {
+        if (mLoader == null) {
+            mLoader = new TextureLoader(mNumLoaderWorkers);
+        }
+
+        return mLoader;
+    }
+
+    /**
+     * Set the number of decoding threads, before the first async texture
+     *
+     * @param numWorkers
+     */
+    public void setNumLoaderWorkers(final int numWorkers) {
+        mNumLoaderWorkers = numWorkers;
+    }
+
+    public float getUploadBudget() {
+        return mUploadBudget;
+    }
+
+    /**
+     * Set how long (in ms) per frame can be spent on uploading the async textures. At least one texture is uploaded per frame.
+     *
+     * @param uploadBudget <= 0 means no limit
+     */
+    public void setUploadBudget(final float uploadBudget) {
+        mUploadBudget = uploadBudget;
+    }
+
+    public int getDefaultLoadPriority() {
+        return mDefaultLoadPriority;
+    }
+
+    /**
+     * Set the priority of the async textures that don't have their own, such as {@link TextureLoader#PRIORITY_PREFETCH} while preparing the next screen.
+     *
+     * @param loadPriority
+     * @see Texture#setLoadPriority(int)
+     */
+    public void setDefaultLoadPriority(final int loadPriority) {
+        mDefaultLoadPriority = loadPriority;
+    }
+
+    public long getMemoryBudget() {
+        return mMemoryBudget;
+    }
+
+    /**
+     * Set the max estimated GPU memory (in bytes) of all the textures. When it's exceeded, the least recently bound textures are expired until it's not, except the ones bound in the last
+     * frame. The expired textures are reloaded when they are bound again.
+     *
+     * @param memoryBudget <= 0 means no limit
+     * @see Texture#isEvictable()
+     */
+    public void setMemoryBudget(final long memoryBudget) {
+        mMemoryBudget = memoryBudget;
+    }
+
+    /**
+     * @return the estimated GPU memory (in bytes) of all the loaded textures
+     */
+    public long getMemoryUsage() {
+        return mMemoryUsage;
+    }
+
+    /**
+     * @return number of textures expired because of the memory budget
+     */
+    public int getNumEvictions() {
+        return mNumEvictions;
+    }
+
     /**
      * Call this when GL changed
      *
@@ -230,6 +330,44 @@ public class TextureManager {
         return texture;
     }
 
+    /**
+     * Create a new Texture from a compressed (PKM or KTX) asset, synchronously
+     *
+     * @param filePath
+     * @param alphaPath an optional ETC1 file for the alpha, can be null
+     * @return
+     * @see CompressedTexture
+     */
+    public CompressedTexture createCompressedAssetTexture(final String filePath, final String alphaPath) {
+        Log.v(TAG, String.format("createCompressedAssetTexture(%s, %s)", filePath, alphaPath));
+
+        final CompressedTexture texture = new CompressedTexture(mGLState, mAssets, filePath, alphaPath);
+
+        // add to list
+        addTexture(texture);
+
+        return texture;
+    }
+
+    /**
+     * Create a new Texture from a compressed (PKM or KTX) file, synchronously
+     *
+     * @param filePath
+     * @param alphaPath an optional ETC1 file for the alpha, can be null
+     * @return
+     * @see CompressedTexture
+     */
+    public CompressedTexture createCompressedFileTexture(final String filePath, final String alphaPath) {
+        Log.v(TAG, String.format("createCompressedFileTexture(%s, %s)", filePath, alphaPath));
+
+        final CompressedTexture texture = new CompressedTexture(mGLState, null, filePath, alphaPath);
+
+        // add to list
+        addTexture(texture);
+
+        return texture;
+    }
+
     /**
      * Create a new Texture from a URL
      *
@@ -364,6 +502,175 @@ public class TextureManager {
         return texture;
     }
 
+    /**
+     * Get a shared Texture from a specified URI, such as asset://, file:// or http://. The same URI and options always share the same Texture, which is only created and loaded on the first
+     * call. Each call must be paired with {@link #releaseTexture(Texture)}.
+     *
+     * @param uri
+     * @param options can be null
+     * @param async
+     * @return null if the URI is not supported
+     * @see Pure2DURI
+     */
+    public Texture acquireTexture(final String uri, final TextureOptions options, final boolean async) {
+        return acquireTexture(uri, options, async, null);
+    }
+
+    /**
+     * Get a shared Texture from a specified URI and listen to it. The listener is called right away if the Texture has already been loaded.
+     *
+     * @param uri
+     * @param options can be null
+     * @param async
+     * @param listener can be null
+     * @return null if the URI is not supported
+     * @see #acquireTexture(String, TextureOptions, boolean)
+     */
+    public Texture acquireTexture(final String uri, final TextureOptions options, final boolean async, final Texture.Listener listener) {
+        final String normalizedUri = normalizeUri(uri);
+        final String key = options == null ? normalizedUri : normalizedUri + "|" + options.getKey();
+
+        Texture texture = mSharedTextures.get(key);
+        if (texture != null) {
+            mNumCacheHits++;
+        } else {
+            texture = createUriTexture(normalizedUri, options, async);
+            if (texture == null) {
+                Log.e(TAG, "Unsupported URI: " + uri);
+                return null;
+            }
+
+            mNumCacheMisses++;
+            texture.mCacheKey = key;
+            mSharedTextures.put(key, texture);
+        }
+
+        texture.mRefCount++;
+        if (listener != null) {
+            texture.addListener(listener);
+        }
+
+        return texture;
+    }
+
+    /**
+     * Release a Texture from {@link #acquireTexture(String, TextureOptions, boolean)}. It's removed and unloaded when nothing else references it.
+     *
+     * @param texture
+     * @return true if the texture is removed
+     */
+    public boolean releaseTexture(final Texture texture) {
+        return releaseTexture(texture, null);
+    }
+
+    /**
+     * Release a Texture and stop listening to it
+     *
+     * @param texture
+     * @param listener can be null
+     * @return true if the texture is removed
+     * @see #releaseTexture(Texture)
+     */
+    public boolean releaseTexture(final Texture texture, final Texture.Listener listener) {
+        if (listener != null) {
+            texture.removeListener(listener);
+        }
+
+        if (texture.mCacheKey == null || texture.mManager != this) {
+            Log.w(TAG, "Not a shared texture: " + texture);
+            return false;
+        }
+
+        if (--texture.mRefCount > 0) {
+            return false;
+        }
+
+        removeTexture(texture);
+        return true;
+    }
+
+    /**
+     * Create a new Texture for {@link #acquireTexture(String, TextureOptions, boolean)}. Subclasses can support more schemes.
+     *
+     * @param uri a normalized URI
+     * @param options
+     * @param async
+     * @return null if the URI is not supported
+     */
+    protected Texture createUriTexture(final String uri, final TextureOptions options, final boolean async) {
+        if (CompressedTextureFile.isCompressedFile(uri)) {
+            // compressed, always sync
+            if (uri.startsWith(Pure2DURI.ASSET)) {
+                return createCompressedAssetTexture(Pure2DURI.getPathFromUri(uri), null);
+            } else if (uri.startsWith(Pure2DURI.FILE)) {
+                return createCompressedFileTexture(Pure2DURI.getPathFromUri(uri), null);
+            }
+        }
+
+        if (uri.startsWith(Pure2DURI.ASSET)) {
+            return createAssetTexture(Pure2DURI.getPathFromUri(uri), options, async);
+        } else if (uri.startsWith(Pure2DURI.FILE)) {
+            return createFileTexture(Pure2DURI.getPathFromUri(uri), options, async);
+        } else if (uri.startsWith(Pure2DURI.HTTP) || uri.startsWith(Pure2DURI.HTTPS)) {
+            return createURLTexture(uri, options, async);
+        }
+
+        return null;
+    }
+
+    /**
+     * Make the different forms of the same file share the same key. A URI without a scheme is an asset.
+     *
+     * @param uri
+     * @return
+     */
+    protected String normalizeUri(final String uri) {
+        final int schemeEnd = uri.indexOf("://");
+        if (schemeEnd < 0 && uri.startsWith("@")) {
+            // resources
+            return uri;
+        }
+
+        final String scheme = schemeEnd < 0 ? Pure2DURI.ASSET : uri.substring(0, schemeEnd + 3).toLowerCase();
+        String path = schemeEnd < 0 ? uri : uri.substring(schemeEnd + 3);
+        if (scheme.equals(Pure2DURI.HTTP) || scheme.equals(Pure2DURI.HTTPS)) {
+            // keep the url as is
+            return scheme + path;
+        }
+
+        // clean up the path
+        while (path.startsWith("./")) {
+            path = path.substring(2);
+        }
+        int index;
+        while ((index = path.indexOf("/./")) >= 0) {
+            path = path.substring(0, index) + path.substring(index + 2);
+        }
+        while ((index = path.indexOf("//", 1)) >= 0) {
+            path = path.substring(0, index) + path.substring(index + 1);
+        }
+
+        return scheme + path;
+    }
+
+    /**
+     * @return number of times {@link #acquireTexture(String, TextureOptions, boolean)} reused a shared texture
+     */
+    public int getNumCacheHits() {
+        return mNumCacheHits;
+    }
+
+    /**
+     * @return number of times {@link #acquireTexture(String, TextureOptions, boolean)} created a new texture
+     */
+    public int getNumCacheMisses() {
+        return mNumCacheMisses;
+    }
+
+    public int getNumSharedTextures() {
+        return mSharedTextures.size();
+    }
+
     /**
      * Add a new texture which created outside this manager
      *
@@ -371,6 +678,12 @@ public class TextureManager {
      * @return
      */
     public boolean addTexture(final Texture texture) {
+        if (texture.mManager == null) {
+            texture.mManager = this;
+            mMemoryUsage += texture.mMemorySize;
+            linkTexture(texture);
+        }
+
         return mTextures.add(texture);
     }
 
@@ -381,7 +694,22 @@ public class TextureManager {
      */
     public void removeTexture(final Texture texture) {
         if (mTextures.remove(texture)) {
+            if (mLoader != null) {
+                mLoader.cancel(texture);
+            }
             texture.unload();
+
+            if (texture.mCacheKey != null && mSharedTextures.get(texture.mCacheKey) == texture) {
+                mSharedTextures.remove(texture.mCacheKey);
+            }
+            texture.mCacheKey = null;
+            texture.mRefCount = 0;
+
+            if (texture.mManager == this) {
+                unlinkTexture(texture);
+                mMemoryUsage -= texture.mMemorySize;
+                texture.mManager = null;
+            }
         }
     }
 
@@ -425,11 +753,27 @@ public class TextureManager {
     public void removeAllTextures() {
         Log.v(TAG, "removeAllTextures()");
 
+        // nothing to wait for
+        if (mLoader != null) {
+            mLoader.cancelAll();
+        }
+
         // unload all first
         unloadAllTextures();
 
         // empty
+        final int len = mTextures.size();
+        for (int i = 0; i < len; i++) {
+            final Texture texture = mTextures.get(i);
+            texture.mLruPrev = texture.mLruNext = null;
+            texture.mManager = null;
+            texture.mCacheKey = null;
+            texture.mRefCount = 0;
+        }
         mTextures.clear();
+        mSharedTextures.clear();
+        mLruHead = mLruTail = null;
+        mMemoryUsage = 0;
     }
 
     /**
@@ -437,6 +781,11 @@ public class TextureManager {
      * @hide For internal use only. Do NOT call!
      */
     public void update(final int deltaTime) {
+        // upload the decoded textures
+        if (mLoader != null) {
+            mLoader.upload(mUploadBudget);
+        }
+
         // negative check
         if (mExpirationCheckInterval > 0) {
 
@@ -452,12 +801,105 @@ public class TextureManager {
                 mExpirationCheckElapsedTime = 0;
             }
         }
+
+        // memory check
+        if (mMemoryBudget > 0 && mMemoryUsage > mMemoryBudget) {
+            evictTextures();
+        }
+
+        mFrame++;
+    }
+
+    /**
+     * Expire the least recently bound textures until the memory usage is within the budget
+     */
+    protected void evictTextures() {
+        Texture texture = mLruTail;
+        while (texture != null && mMemoryUsage > mMemoryBudget) {
+            // the rest were bound in the last frame
+            if (texture.mBindFrame == mFrame) {
+                break;
+            }
+
+            final Texture prev = texture.mLruPrev;
+            if (texture.mMemorySize > 0 && texture.isEvictable()) {
+                if (Texture.LOG_ENABLED) {
+                    Log.v(TAG, "evictTextures(): " + texture + ", " + texture.mMemorySize);
+                }
+                texture.expire();
+                mNumEvictions++;
+            }
+            texture = prev;
+        }
+    }
+
+    /**
+     * Called by {@link Texture#bind()}
+     *
+     * @param texture
+     */
+    protected void onTextureBind(final Texture texture) {
+        texture.mBindFrame = mFrame;
+
+        // move to head
+        if (mLruHead != texture) {
+            unlinkTexture(texture);
+            linkTexture(texture);
+        }
+    }
+
+    /**
+     * Called when a texture is loaded or unloaded
+     *
+     * @param texture
+     * @param delta the change in bytes
+     */
+    protected void onTextureMemoryChange(final Texture texture, final int delta) {
+        mMemoryUsage += delta;
+    }
+
+    private void linkTexture(final Texture texture) {
+        texture.mLruPrev = null;
+        texture.mLruNext = mLruHead;
+        if (mLruHead != null) {
+            mLruHead.mLruPrev = texture;
+        }
+        mLruHead = texture;
+        if (mLruTail == null) {
+            mLruTail = texture;
+        }
+    }
+
+    private void unlinkTexture(final Texture texture) {
+        if (texture.mLruPrev != null) {
+            texture.mLruPrev.mLruNext = texture.mLruNext;
+        } else if (mLruHead == texture) {
+            mLruHead = texture.mLruNext;
+        }
+        if (texture.mLruNext != null) {
+            texture.mLruNext.mLruPrev = texture.mLruPrev;
+        } else if (mLruTail == texture) {
+            mLruTail = texture.mLruPrev;
+        }
+        texture.mLruPrev = texture.mLruNext = null;
     }
 
     public int getNumTextures() {
         return mTextures.size();
     }
 
+    /**
+     * Remove all the textures and stop the loader
+     */
+    public void dispose() {
+        removeAllTextures();
+
+        if (mLoader != null) {
+            mLoader.dispose();
+            mLoader = null;
+        }
+    }
+
     public interface TextureRunnable {
         void run(final Texture texture);
     }
@@ -75,6 +75,14 @@ public class TextureOptions extends BitmapFactory.Options {
         inMipmaps = options.inMipmaps;
     }
 
+    /**
+     * @return a string that is the same for the options that produce the same texture: all the decoding fields, including the densities used when scaled, and the texture fields
+     */
+    public String getKey() {
+        return inPreferredConfig + "," + inSampleSize + "," + inScaled + "," + inDensity + "," + inTargetDensity + "," + inScreenDensity + "," + inDither + "," + inScaleX + "," + inScaleY + ","
+                + inPo2 + "," + inMipmaps;
+    }
+
     @Override
     public String toString() {
         return String.format("[%.1f, %.1f, %s, %d]", inScaleX, inScaleY, inPo2 ? "POT" : "NPOT", inMipmaps);
@@ -38,7 +38,8 @@ import com.funzio.pure2D.atlas.Atlas;
 import com.funzio.pure2D.atlas.AtlasFrame;
 import com.funzio.pure2D.gl.gl10.GLState;
 import com.funzio.pure2D.utils.Pure2DUtils;
-import com.funzio.pure2D.utils.RectBinPacker;
+import com.funzio.pure2D.utils.BinPacker;
+import com.funzio.pure2D.utils.MaxRectsPacker;
 
 /**
  * @author long
@@ -50,7 +51,7 @@ public class TexturePacker {
     private Texture mTexture;
 
     private Atlas mAtlas;
-    private RectBinPacker mRectPacker;
+    private BinPacker mRectPacker;
     private Resources mResources;
     private String mPackageName;
 
@@ -63,7 +64,7 @@ public class TexturePacker {
         mPackageName = packageName;
         mTextureOptions = (textureOptions == null) ? TextureOptions.getDefault() : textureOptions;
 
-        mRectPacker = new RectBinPacker(Math.min(textureMaxSize, Pure2D.GL_MAX_TEXTURE_SIZE), mTextureOptions.inPo2);
+        mRectPacker = new MaxRectsPacker(Math.min(textureMaxSize, Pure2D.GL_MAX_TEXTURE_SIZE), mTextureOptions.inPo2);
         mRectPacker.setRotationEnabled(false);
     }
 
@@ -69,17 +69,7 @@ public class URLCacheTexture extends Texture {
         mOptions = options;
 
         int[] dimensions = new int[2];
-        Bitmap bitmap = null;
-
-        final File file = new File(mCachePath);
-        if (file.exists()) {
-            bitmap = Pure2DUtils.getFileBitmap(mCachePath, options, dimensions);
-        } else if (fileUrl != null && fileUrl.length() > 0) {
-            // try to download and cache
-            if (new DownloadTask(mFileUrl, mCachePath).run()) {
-                bitmap = Pure2DUtils.getFileBitmap(mCachePath, options, dimensions);
-            }
-        }
+        Bitmap bitmap = getBitmap(fileUrl, cachePath, options, dimensions);
 
         if (bitmap != null) {
             load(bitmap, dimensions[0], dimensions[1], options != null ? options.inMipmaps : 0);
@@ -87,9 +77,7 @@ public class URLCacheTexture extends Texture {
         } else {
             Log.e(TAG, "Unable to load bitmap: " + mCachePath, new Exception());
             // callback, regardless whether it's successful or not
-            if (mListener != null) {
-                mListener.onTextureLoad(this);
-            }
+            dispatchLoad();
         }
     }
 
@@ -116,6 +104,18 @@ public class URLCacheTexture extends Texture {
         mCachePath = cachePath;
         mOptions = options;
 
+        // decode on the shared loader if possible
+        final TextureLoader loader = getLoader();
+        if (loader != null) {
+            loader.load(this, "cache://" + mCachePath, mOptions, getLoadPriority(), new TextureLoader.Decoder() {
+                @Override
+                public Bitmap decode(final int[] outDimensions) {
+                    return getBitmap(fileUrl, cachePath, options, outDimensions);
+                }
+            });
+            return;
+        }
+
         // AsyncTask can only be initialized on UI Thread, especially on Android 2.2
         mGLState.getStage().getHandler().post(new Runnable() {
             @Override
@@ -131,21 +131,28 @@ public class URLCacheTexture extends Texture {
 
     }
 
+    /**
+     * Get the bitmap from the cache file, download it first if needed
+     */
+    private static Bitmap getBitmap(final String fileUrl, final String cachePath, final TextureOptions options, final int[] outDimensions) {
+        final File file = new File(cachePath);
+        if (file.exists()) {
+            return Pure2DUtils.getFileBitmap(cachePath, options, outDimensions);
+        } else if (fileUrl != null && fileUrl.length() > 0) {
+            // try to download and cache
+            if (new DownloadTask(fileUrl, cachePath).run()) {
+                return Pure2DUtils.getFileBitmap(cachePath, options, outDimensions);
+            }
+        }
+
+        return null;
+    }
+
     private class AsyncLoader extends AsyncTask<Void, Void, Void> {
         @Override
         protected Void doInBackground(final Void... params) {
             final int[] dimensions = new int[2];
-            Bitmap bitmap = null;
-            final File file = new File(mCachePath);
-            if (file.exists()) {
-                bitmap = Pure2DUtils.getFileBitmap(mCachePath, mOptions, dimensions);
-            } else if (mFileUrl != null && mFileUrl.length() > 0) {
-                // try to download and cache
-                if (new DownloadTask(mFileUrl, mCachePath).run()) {
-                    bitmap = Pure2DUtils.getFileBitmap(mCachePath, mOptions, dimensions);
-                }
-            }
-            final Bitmap finalBitmap = bitmap;
+            final Bitmap finalBitmap = getBitmap(mFileUrl, mCachePath, mOptions, dimensions);
 
             mGLState.queueEvent(new Runnable() {
 
@@ -157,9 +164,7 @@ public class URLCacheTexture extends Texture {
                     } else {
                         Log.e(TAG, "Unable to load bitmap: " + mCachePath, new Exception());
                         // callback, regardless whether it's successful or not
-                        if (mListener != null) {
-                            mListener.onTextureLoad(URLCacheTexture.this);
-                        }
+                        dispatchLoad();
                     }
                 }
             });
@@ -71,9 +71,7 @@ public class URLTexture extends Texture {
         } else {
             Log.e(TAG, "Unable to load bitmap: " + url, new Exception());
             // callback, regardless whether it's successful or not
-            if (mListener != null) {
-                mListener.onTextureLoad(this);
-            }
+            dispatchLoad();
         }
     }
 
@@ -99,6 +97,18 @@ public class URLTexture extends Texture {
         mURL = filePath;
         mOptions = options;
 
+        // decode on the shared loader if possible
+        final TextureLoader loader = getLoader();
+        if (loader != null) {
+            loader.load(this, mURL, mOptions, getLoadPriority(), new TextureLoader.Decoder() {
+                @Override
+                public Bitmap decode(final int[] outDimensions) {
+                    return Pure2DUtils.getURLBitmap(filePath, options, outDimensions);
+                }
+            });
+            return;
+        }
+
         // AsyncTask can only be initialized on UI Thread, especially on Android 2.2
         mGLState.getStage().getHandler().post(new Runnable() {
             @Override
@@ -129,9 +139,7 @@ public class URLTexture extends Texture {
                     } else {
                         Log.e(TAG, "Unable to load bitmap: " + mURL, new Exception());
                         // callback, regardless whether it's successful or not
-                        if (mListener != null) {
-                            mListener.onTextureLoad(URLTexture.this);
-                        }
+                        dispatchLoad();
                     }
                 }
             });
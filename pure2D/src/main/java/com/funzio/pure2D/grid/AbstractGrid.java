@@ -44,6 +44,8 @@ public abstract class AbstractGrid<T> implements Grid<T> {
 
     protected ArrayList<PointF> mScratchList;
 
+    protected ArrayList<Listener<T>> mListeners; // created on demand
+
     public AbstractGrid(final int width, final int height) {
         setSize(width, height);
     }
@@ -63,6 +65,12 @@ public abstract class AbstractGrid<T> implements Grid<T> {
         mData = (T[][]) new Object[h][w];
 
         updateBounds();
+
+        if (mListeners != null) {
+            for (int i = 0; i < mListeners.size(); i++) {
+                mListeners.get(i).onSizeChanged(this);
+            }
+        }
     }
 
     /*
@@ -89,12 +97,37 @@ public abstract class AbstractGrid<T> implements Grid<T> {
             return;
         }
 
+        final T oldData = mData[cellY][cellX];
         mData[cellY][cellX] = data;
+
+        if (mListeners != null && oldData != data) {
+            for (int i = 0; i < mListeners.size(); i++) {
+                mListeners.get(i).onDataChanged(this, cellX, cellY, oldData, data);
+            }
+        }
+    }
+
+    @Override
+    public void addListener(final Listener<T> listener) {
+        if (mListeners == null) {
+            mListeners = new ArrayList<Listener<T>>();
+        }
+        if (!mListeners.contains(listener)) {
+            mListeners.add(listener);
+        }
+    }
+
+    @Override
+    public boolean removeListener(final Listener<T> listener) {
+        return mListeners != null && mListeners.remove(listener);
     }
 
     public void dispose() {
         mSize = null;
         mData = null;
+        if (mListeners != null) {
+            mListeners.clear();
+        }
     }
 
     public RectF getBounds() {
@@ -50,5 +50,15 @@ public interface Grid<T> {
 
     public RectF getBounds();
 
+    public void addListener(final Listener<T> listener);
+
+    public boolean removeListener(final Listener<T> listener);
+
     public void dispose();
+
+    public static interface Listener<T> {
+        public void onSizeChanged(Grid<T> grid);
+
+        public void onDataChanged(Grid<T> grid, int cellX, int cellY, T oldData, T newData);
+    }
 }
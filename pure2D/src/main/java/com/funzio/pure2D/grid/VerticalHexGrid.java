@@ -133,6 +133,10 @@ public class VerticalHexGrid<T> extends HexGrid<T> {
         mBounds.bottom = (mCellRadius * SQRT_3) * (mSize.y + (mEvenColumn ? -1 : 1) * 0.5f);
     }
 
+    public boolean isEvenColumn() {
+        return mEvenColumn;
+    }
+
     public int[][] getNeighborOffets() {
         return mEvenColumn ? EVEN_COLUMN_NEIGHBOR_OFFSETS : ODD_COLUMN_NEIGHBOR_OFFSETS;
     }
@@ -0,0 +1,119 @@
+/*******************************************************************************
+ * Copyright (C) 2012-2014 GREE, Inc.
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ ******************************************************************************/
+/**
+ * 
+ */
+package com.funzio.pure2D.loaders.tasks;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+import android.content.Intent;
+import android.content.res.AssetManager;
+
+/**
+ * @author long
+ */
+public class ReadBinaryFileTask extends ReadFileTask {
+    public static final String TAG = ReadBinaryFileTask.class.getSimpleName();
+    public static final String CLASS_NAME = ReadBinaryFileTask.class.getName();
+    public static final String INTENT_COMPLETE = CLASS_NAME + ".INTENT_COMPLETE";
+
+    protected byte[] mContent;
+
+    public ReadBinaryFileTask(final String filePath) {
+        super(filePath);
+    }
+
+    public ReadBinaryFileTask(final AssetManager assets, final String filePath) {
+        super(assets, filePath);
+    }
+
+    @Override
+    protected void readContent(final InputStream in) throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(in.available(), 1024));
+        final byte[] buffer = new byte[4096];
+        int count;
+        while ((count = in.read(buffer)) > 0) {
+            out.write(buffer, 0, count);
+        }
+
+        // get the bytes
+        mContent = out.toByteArray();
+    }
+
+    public byte[] getContent() {
+        return mContent;
+    }
+
+    /**
+     * Memory-map a file instead of reading it. Only for files on disk, not assets.
+     * 
+     * @param filePath
+     * @return the buffer, or null if the file can't be read
+     */
+    public static ByteBuffer map(final String filePath) {
+        final File file = new File(filePath);
+        if (!file.exists()) {
+            return null;
+        }
+
+        RandomAccessFile raf = null;
+        try {
+            raf = new RandomAccessFile(file, "r");
+            final FileChannel channel = raf.getChannel();
+            // the mapping stays valid after closing the file
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        } catch (IOException e) {
+            return null;
+        } finally {
+            if (raf != null) {
+                try {
+                    raf.close();
+                } catch (IOException e) {
+                    // ignore
+                }
+            }
+        }
+    }
+
+    @Override
+    public Intent getCompleteIntent() {
+        final Intent intent = super.getCompleteIntent();
+        intent.setAction(INTENT_COMPLETE);
+        return intent;
+    }
+
+    /*
+     * (non-Javadoc)
+     * @see java.lang.Object#toString()
+     */
+    @Override
+    public String toString() {
+        return "[ReadBinaryFileTask]";
+    }
+}
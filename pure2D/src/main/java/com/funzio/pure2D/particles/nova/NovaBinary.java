@@ -0,0 +1,480 @@
+/*******************************************************************************
+ * Copyright (C) 2012-2014 GREE, Inc.
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ ******************************************************************************/
+package com.funzio.pure2D.particles.nova;
+
+import java.io.UnsupportedEncodingException;
+import java.nio.ByteBuffer;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import com.funzio.pure2D.loaders.tasks.ReadBinaryFileTask;
+
+/**
+ * A compiled, binary form of the Nova JSON files. All the strings (keys and values) are stored once in a table, numbers are stored as they are, and each object or array has a table of
+ * offsets to its values.
+ * <p>
+ * Reading doesn't parse anything and builds no DOM: only the string table is decoded, then the objects, arrays and values are addressed by their offsets in the buffer and read with typed
+ * getters, without boxing. {@link com.funzio.pure2D.particles.nova.vo.NovaVO} and the other VOs decode their fields straight from these offsets. The buffer can be memory-mapped with
+ * {@link #map(String)}.
+ * </p>
+ * 
+ * @author long
+ */
+public class NovaBinary {
+    public static final int MAGIC = 0x4E4F5642; // NOVB
+    public static final int FORMAT_VERSION = 1;
+
+    private static final String CHARSET = "UTF-8";
+
+    // value types
+    private static final byte TYPE_NULL = 0;
+    private static final byte TYPE_FALSE = 1;
+    private static final byte TYPE_TRUE = 2;
+    private static final byte TYPE_INT = 3;
+    private static final byte TYPE_LONG = 4;
+    private static final byte TYPE_DOUBLE = 5;
+    private static final byte TYPE_STRING = 6;
+    private static final byte TYPE_OBJECT = 7;
+    private static final byte TYPE_ARRAY = 8;
+
+    // magic, version, number of strings
+    private static final int HEADER_SIZE = 4 + 4 + 4;
+
+    private final ByteBuffer mBuffer;
+    private final String[] mStrings;
+    private final int mRoot;
+
+    /**
+     * @param buffer
+     * @return true if the buffer has the binary format, from its current position
+     */
+    public static boolean isBinary(final ByteBuffer buffer) {
+        return buffer.remaining() >= HEADER_SIZE && buffer.getInt(buffer.position()) == MAGIC;
+    }
+
+    /**
+     * Compile a Nova JSON into the binary format
+     * 
+     * @param json
+     * @return the bytes
+     * @throws JSONException
+     */
+    public static byte[] compile(final JSONObject json) throws JSONException {
+        return new Writer().write(json);
+    }
+
+    /**
+     * Memory-map a file, for {@link #NovaBinary(ByteBuffer)}
+     * 
+     * @param filePath
+     * @return the buffer, or null if the file can't be read
+     */
+    public static ByteBuffer map(final String filePath) {
+        return ReadBinaryFileTask.map(filePath);
+    }
+
+    /**
+     * Write the values depth first, each object and array with a table of offsets to its values
+     */
+    private static class Writer {
+        private final LinkedHashMap<String, Integer> mStrings = new LinkedHashMap<String, Integer>();
+        private ByteBuffer mBuffer = ByteBuffer.allocate(4096);
+
+        public byte[] write(final JSONObject json) throws JSONException {
+            // string table first
+            collectStrings(json);
+            ensureCapacity(HEADER_SIZE);
+            mBuffer.putInt(MAGIC);
+            mBuffer.putInt(FORMAT_VERSION);
+            mBuffer.putInt(mStrings.size());
+            try {
+                for (final String string : mStrings.keySet()) {
+                    final byte[] bytes = string.getBytes(CHARSET);
+                    ensureCapacity(4 + bytes.length);
+                    mBuffer.putInt(bytes.length);
+                    mBuffer.put(bytes);
+                }
+            } catch (UnsupportedEncodingException e) {
+                throw new JSONException(e.getMessage());
+            }
+
+            // then the values
+            writeValue(json);
+
+            final byte[] bytes = new byte[mBuffer.position()];
+            mBuffer.flip();
+            mBuffer.get(bytes);
+            return bytes;
+        }
+
+        private void collectStrings(final Object value) throws JSONException {
+            if (value instanceof JSONObject) {
+                final JSONObject object = (JSONObject) value;
+                final Iterator<?> keys = object.keys();
+                while (keys.hasNext()) {
+                    final String key = (String) keys.next();
+                    addString(key);
+                    collectStrings(object.get(key));
+                }
+            } else if (value instanceof JSONArray) {
+                final JSONArray array = (JSONArray) value;
+                final int length = array.length();
+                for (int i = 0; i < length; i++) {
+                    collectStrings(array.get(i));
+                }
+            } else if (value instanceof String) {
+                addString((String) value);
+            }
+        }
+
+        private void addString(final String string) {
+            if (!mStrings.containsKey(string)) {
+                mStrings.put(string, mStrings.size());
+            }
+        }
+
+        private void writeValue(final Object value) throws JSONException {
+            ensureCapacity(1 + 8);
+            if (value == null || value == JSONObject.NULL) {
+                mBuffer.put(TYPE_NULL);
+            } else if (value instanceof Boolean) {
+                mBuffer.put((Boolean) value ? TYPE_TRUE : TYPE_FALSE);
+            } else if (value instanceof Integer || value instanceof Short || value instanceof Byte) {
+                mBuffer.put(TYPE_INT);
+                mBuffer.putInt(((Number) value).intValue());
+            } else if (value instanceof Long) {
+                mBuffer.put(TYPE_LONG);
+                mBuffer.putLong((Long) value);
+            } else if (value instanceof Number) {
+                mBuffer.put(TYPE_DOUBLE);
+                mBuffer.putDouble(((Number) value).doubleValue());
+            } else if (value instanceof String) {
+                mBuffer.put(TYPE_STRING);
+                mBuffer.putInt(mStrings.get(value));
+            } else if (value instanceof JSONObject) {
+                final JSONObject object = (JSONObject) value;
+                final int length = object.length();
+                mBuffer.put(TYPE_OBJECT);
+                mBuffer.putInt(length);
+
+                // reserve the table: key, offset
+                ensureCapacity(length * 8);
+                int table = mBuffer.position();
+                mBuffer.position(table + length * 8);
+
+                final Iterator<?> keys = object.keys();
+                while (keys.hasNext()) {
+                    final String key = (String) keys.next();
+                    final int offset = mBuffer.position();
+                    writeValue(object.get(key));
+                    mBuffer.putInt(table, mStrings.get(key));
+                    mBuffer.putInt(table + 4, offset);
+                    table += 8;
+                }
+            } else if (value instanceof JSONArray) {
+                final JSONArray array = (JSONArray) value;
+                final int length = array.length();
+                mBuffer.put(TYPE_ARRAY);
+                mBuffer.putInt(length);
+
+                // reserve the table: offset
+                ensureCapacity(length * 4);
+                final int table = mBuffer.position();
+                mBuffer.position(table + length * 4);
+
+                for (int i = 0; i < length; i++) {
+                    mBuffer.putInt(table + i * 4, mBuffer.position());
+                    writeValue(array.get(i));
+                }
+            } else {
+                throw new JSONException("Unsupported value: " + value);
+            }
+        }
+
+        private void ensureCapacity(final int size) {
+            if (mBuffer.remaining() < size) {
+                final ByteBuffer buffer = ByteBuffer.allocate(Math.max(mBuffer.capacity() * 2, mBuffer.position() + size));
+                mBuffer.flip();
+                buffer.put(mBuffer);
+                mBuffer = buffer;
+            }
+        }
+    }
+
+    /**
+     * Read a compiled Nova, without copying or parsing the buffer. Only the string table is decoded.
+     * 
+     * @param buffer the content, from the current position. It shouldn't be changed after this.
+     * @throws JSONException if the buffer doesn't have the binary format
+     */
+    public NovaBinary(final ByteBuffer buffer) throws JSONException {
+        if (!isBinary(buffer)) {
+            throw new JSONException("Not a binary Nova!");
+        }
+        mBuffer = buffer.slice();
+
+        final int version = mBuffer.getInt(4);
+        if (version > FORMAT_VERSION) {
+            throw new JSONException("Unsupported binary Nova version: " + version);
+        }
+
+        mStrings = new String[mBuffer.getInt(8)];
+        int position = HEADER_SIZE;
+        byte[] bytes = new byte[64];
+        try {
+            for (int i = 0; i < mStrings.length; i++) {
+                final int length = mBuffer.getInt(position);
+                position += 4;
+                if (length > bytes.length) {
+                    bytes = new byte[length];
+                }
+                mBuffer.position(position);
+                mBuffer.get(bytes, 0, length);
+                // interned, so the keys usually match by reference
+                mStrings[i] = new String(bytes, 0, length, CHARSET).intern();
+                position += length;
+            }
+        } catch (UnsupportedEncodingException e) {
+            throw new JSONException(e.getMessage());
+        }
+        mBuffer.position(0);
+
+        mRoot = position;
+        if (mBuffer.get(mRoot) != TYPE_OBJECT) {
+            throw new JSONException("Invalid binary Nova!");
+        }
+    }
+
+    /**
+     * @return the offset of the root object
+     */
+    public int getRoot() {
+        return mRoot;
+    }
+
+    /**
+     * @param object the offset of an object
+     * @param key
+     * @return the offset of the key's value, or -1
+     */
+    public int find(final int object, final String key) {
+        final int length = mBuffer.getInt(object + 1);
+        int table = object + 5;
+        for (int i = 0; i < length; i++) {
+            final String name = mStrings[mBuffer.getInt(table)];
+            if (name == key || name.equals(key)) {
+                return mBuffer.getInt(table + 4);
+            }
+            table += 8;
+        }
+
+        return -1;
+    }
+
+    public boolean has(final int object, final String key) {
+        return find(object, key) >= 0;
+    }
+
+    /**
+     * @param object the offset of an object
+     * @param key
+     * @return the offset of the key's value if it's an object, or -1
+     */
+    public int getObject(final int object, final String key) {
+        final int value = find(object, key);
+        return value >= 0 && isObject(value) ? value : -1;
+    }
+
+    /**
+     * @param object the offset of an object
+     * @param key
+     * @return the offset of the key's value if it's an array, or -1
+     */
+    public int getArray(final int object, final String key) {
+        final int value = find(object, key);
+        return value >= 0 && isArray(value) ? value : -1;
+    }
+
+    public int optInt(final int object, final String key, final int fallback) {
+        final int value = find(object, key);
+        return value >= 0 && isNumber(value) ? getInt(value) : fallback;
+    }
+
+    public boolean optBoolean(final int object, final String key, final boolean fallback) {
+        final int value = find(object, key);
+        final byte type = value >= 0 ? mBuffer.get(value) : TYPE_NULL;
+        return type == TYPE_TRUE || type == TYPE_FALSE ? type == TYPE_TRUE : fallback;
+    }
+
+    public String optString(final int object, final String key, final String fallback) {
+        final int value = find(object, key);
+        return value >= 0 && !isNull(value) ? getString(value) : fallback;
+    }
+
+    public String optString(final int object, final String key) {
+        return optString(object, key, "");
+    }
+
+    /**
+     * @param container the offset of an object or array
+     * @return the number of values
+     */
+    public int getLength(final int container) {
+        return mBuffer.getInt(container + 1);
+    }
+
+    /**
+     * @param array the offset of an array
+     * @param index
+     * @return the offset of the value at the index
+     */
+    public int getValueAt(final int array, final int index) {
+        return mBuffer.getInt(array + 5 + index * 4);
+    }
+
+    public boolean isNull(final int value) {
+        return mBuffer.get(value) == TYPE_NULL;
+    }
+
+    public boolean isNumber(final int value) {
+        final byte type = mBuffer.get(value);
+        return type == TYPE_INT || type == TYPE_LONG || type == TYPE_DOUBLE;
+    }
+
+    public boolean isString(final int value) {
+        return mBuffer.get(value) == TYPE_STRING;
+    }
+
+    public boolean isObject(final int value) {
+        return mBuffer.get(value) == TYPE_OBJECT;
+    }
+
+    public boolean isArray(final int value) {
+        return mBuffer.get(value) == TYPE_ARRAY;
+    }
+
+    /**
+     * @param value the offset of a value
+     * @return the number, 0 if it's not a number
+     */
+    public int getInt(final int value) {
+        switch (mBuffer.get(value)) {
+            case TYPE_INT:
+                return mBuffer.getInt(value + 1);
+            case TYPE_LONG:
+                return (int) mBuffer.getLong(value + 1);
+            case TYPE_DOUBLE:
+                return (int) mBuffer.getDouble(value + 1);
+            default:
+                return 0;
+        }
+    }
+
+    /**
+     * @param value the offset of a value
+     * @return the number, 0 if it's not a number
+     */
+    public double getDouble(final int value) {
+        switch (mBuffer.get(value)) {
+            case TYPE_INT:
+                return mBuffer.getInt(value + 1);
+            case TYPE_LONG:
+                return mBuffer.getLong(value + 1);
+            case TYPE_DOUBLE:
+                return mBuffer.getDouble(value + 1);
+            default:
+                return 0;
+        }
+    }
+
+    /**
+     * @param value the offset of a value
+     * @return the string, or the text of a number or boolean as JSON would give. Null for the other types
+     */
+    public String getString(final int value) {
+        switch (mBuffer.get(value)) {
+            case TYPE_STRING:
+                return mStrings[mBuffer.getInt(value + 1)];
+            case TYPE_FALSE:
+                return "false";
+            case TYPE_TRUE:
+                return "true";
+            case TYPE_INT:
+                return String.valueOf(mBuffer.getInt(value + 1));
+            case TYPE_LONG:
+                return String.valueOf(mBuffer.getLong(value + 1));
+            case TYPE_DOUBLE:
+                return String.valueOf(mBuffer.getDouble(value + 1));
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Decode everything into a regular JSONObject, for debugging
+     * 
+     * @return the root object
+     */
+    public JSONObject toJSONObject() throws JSONException {
+        return (JSONObject) toJSON(mRoot);
+    }
+
+    private Object toJSON(final int value) throws JSONException {
+        switch (mBuffer.get(value)) {
+            case TYPE_FALSE:
+                return Boolean.FALSE;
+            case TYPE_TRUE:
+                return Boolean.TRUE;
+            case TYPE_INT:
+                return mBuffer.getInt(value + 1);
+            case TYPE_LONG:
+                return mBuffer.getLong(value + 1);
+            case TYPE_DOUBLE:
+                return mBuffer.getDouble(value + 1);
+            case TYPE_STRING:
+                return mStrings[mBuffer.getInt(value + 1)];
+            case TYPE_OBJECT: {
+                final JSONObject object = new JSONObject();
+                final int length = getLength(value);
+                for (int i = 0; i < length; i++) {
+                    final int entry = value + 5 + i * 8;
+                    object.put(mStrings[mBuffer.getInt(entry)], toJSON(mBuffer.getInt(entry + 4)));
+                }
+                return object;
+            }
+            case TYPE_ARRAY: {
+                final JSONArray array = new JSONArray();
+                final int length = getLength(value);
+                for (int i = 0; i < length; i++) {
+                    array.put(toJSON(getValueAt(value, i)));
+                }
+                return array;
+            }
+            default:
+                return JSONObject.NULL;
+        }
+    }
+}
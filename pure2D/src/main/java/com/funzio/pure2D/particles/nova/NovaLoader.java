@@ -24,18 +24,22 @@
  */
 package com.funzio.pure2D.particles.nova;
 
+import java.io.UnsupportedEncodingException;
+import java.nio.ByteBuffer;
+
 import android.content.res.AssetManager;
 import android.util.Log;
 
 import org.json.JSONException;
+import org.json.JSONObject;
 
 import com.funzio.pure2D.loaders.AsyncTaskExecuter;
-import com.funzio.pure2D.loaders.tasks.ReadTextFileTask;
+import com.funzio.pure2D.loaders.tasks.ReadBinaryFileTask;
 import com.funzio.pure2D.loaders.tasks.RunnableTask;
 import com.funzio.pure2D.loaders.tasks.Task;
 import com.funzio.pure2D.loaders.tasks.URLLoadJsonTask;
 import com.funzio.pure2D.loaders.tasks.URLLoadTextTask;
-import com.funzio.pure2D.loaders.tasks.WriteTextFileTask;
+import com.funzio.pure2D.loaders.tasks.WriteBinaryFileTask;
 import com.funzio.pure2D.particles.nova.vo.NovaVO;
 
 /**
@@ -74,7 +78,7 @@ public class NovaLoader {
     }
 
     /**
-     * Load a specific Nova file, synchronously
+     * Load a specific Nova file, synchronously. The file can be JSON or compiled with {@link NovaBinary}.
      * 
      * @param assets
      * @param filePath
@@ -82,13 +86,13 @@ public class NovaLoader {
     public void load(final AssetManager assets, final String filePath) {
         Log.v(TAG, "load(): " + filePath);
 
-        final ReadTextFileTask readTask = new ReadTextFileTask(assets, filePath);
+        final ReadBinaryFileTask readTask = new ReadBinaryFileTask(assets, filePath);
         if (readTask.run()) {
             Log.v(TAG, "Load success: " + filePath);
 
             try {
                 if (mListener != null) {
-                    mListener.onLoad(NovaLoader.this, filePath, new NovaVO(readTask.getContent()));
+                    mListener.onLoad(NovaLoader.this, filePath, createVO(ByteBuffer.wrap(readTask.getContent())));
                 }
             } catch (JSONException e) {
                 Log.e(TAG, "Load JSON failed: " + filePath, e);
@@ -107,16 +111,24 @@ public class NovaLoader {
         }
     }
 
+    /**
+     * Load a Nova file from a URL, or from the cache file if it exists. The downloaded JSON is cached in the binary format.
+     * 
+     * @param urlPath
+     * @param cachePath
+     * @return true if loaded
+     * @see NovaBinary
+     */
     public boolean loadURL(final String urlPath, final String cachePath) {
         Log.v(TAG, "loadURL(): " + urlPath + ", " + cachePath);
 
         // read cache first
         if (cachePath != null && cachePath.length() > 0) {
-            final ReadTextFileTask readTask = new ReadTextFileTask(cachePath);
-            if (readTask.run()) {
+            final ByteBuffer buffer = NovaBinary.map(cachePath);
+            if (buffer != null) {
                 try {
                     if (mListener != null) {
-                        mListener.onLoad(NovaLoader.this, urlPath, new NovaVO(readTask.getContent()));
+                        mListener.onLoad(NovaLoader.this, urlPath, createVO(buffer));
                     }
                 } catch (JSONException e) {
                     Log.e(TAG, "Load JSON failed: " + urlPath, e);
@@ -133,9 +145,11 @@ public class NovaLoader {
         final URLLoadTextTask urlTask = new URLLoadJsonTask(urlPath);
         if (urlTask.run()) {
             final String json = urlTask.getStringBuilder().toString();
+            JSONObject jsonObject = null;
             try {
+                jsonObject = new JSONObject(json);
                 if (mListener != null) {
-                    mListener.onLoad(NovaLoader.this, urlPath, new NovaVO(json));
+                    mListener.onLoad(NovaLoader.this, urlPath, new NovaVO(jsonObject));
                 }
             } catch (JSONException e) {
                 Log.e(TAG, "Load JSON failed: " + urlPath, e);
@@ -144,10 +158,14 @@ public class NovaLoader {
                     mListener.onError(NovaLoader.this, urlPath);
                 }
             }
-            // cache it
-            if (cachePath != null && cachePath.length() > 0) {
-                final WriteTextFileTask fileTask = new WriteTextFileTask(json, cachePath, false);
-                fileTask.run();
+            // cache it, compiled
+            if (jsonObject != null && cachePath != null && cachePath.length() > 0) {
+                try {
+                    final WriteBinaryFileTask fileTask = new WriteBinaryFileTask(NovaBinary.compile(jsonObject), cachePath, false);
+                    fileTask.run();
+                } catch (JSONException e) {
+                    Log.e(TAG, "Compile failed: " + urlPath, e);
+                }
             }
 
             return true;
@@ -170,6 +188,28 @@ public class NovaLoader {
         }));
     }
 
+    /**
+     * Create a VO from either a compiled Nova or a JSON text
+     * 
+     * @param buffer
+     * @return
+     * @throws JSONException
+     */
+    protected NovaVO createVO(final ByteBuffer buffer) throws JSONException {
+        if (NovaBinary.isBinary(buffer)) {
+            return new NovaVO(buffer);
+        }
+
+        // old text cache or JSON asset
+        final byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        try {
+            return new NovaVO(new String(bytes, "UTF-8"));
+        } catch (UnsupportedEncodingException e) {
+            throw new JSONException(e.getMessage());
+        }
+    }
+
     public Listener getListener() {
         return mListener;
     }
@@ -0,0 +1,216 @@
+/*******************************************************************************
+ * Copyright (C) 2012-2014 GREE, Inc.
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ ******************************************************************************/
+/**
+ * 
+ */
+package com.funzio.pure2D.particles.nova;
+
+import java.util.Arrays;
+
+/**
+ * Particle states in parallel arrays, one entry per particle. Dead particles are swapped with the last one, so the live particles are always packed at the beginning.
+ * 
+ * @author long
+ * @see NovaProgram
+ */
+public class NovaParticleBuffer {
+    public static final int DEFAULT_CAPACITY = 256;
+
+    protected final int mMaxCapacity;
+    protected final int mNumParams;
+    protected int mCapacity = 0;
+    protected int mNumParticles = 0;
+
+    // states
+    protected NovaProgram[] mPrograms;
+    protected float[] mAges;
+    protected float[] mLives;
+    protected float[] mParams;
+
+    // current values
+    protected float[] mX;
+    protected float[] mY;
+    protected float[] mScaleX;
+    protected float[] mScaleY;
+    protected float[] mRotations;
+    protected float[] mAlphas;
+    protected float[] mReds;
+    protected float[] mGreens;
+    protected float[] mBlues;
+    protected float[] mColorAlphas;
+
+    // frames, for rendering
+    protected float[] mFrames;
+    protected float[] mFrameRates; // frames per ms, <= 0 for 1 frame per update
+    protected int[] mFrameLoops;
+    protected int[] mBatchKeys;
+
+    /**
+     * @param capacity the initial capacity
+     * @param maxCapacity the capacity can grow up to this
+     * @param numParams floats per particle, the max {@link NovaProgram#getNumParams()} of the programs being used
+     */
+    public NovaParticleBuffer(final int capacity, final int maxCapacity, final int numParams) {
+        mMaxCapacity = maxCapacity;
+        mNumParams = numParams;
+
+        allocate(Math.min(capacity, maxCapacity));
+    }
+
+    protected void allocate(final int capacity) {
+        mPrograms = mPrograms == null ? new NovaProgram[capacity] : Arrays.copyOf(mPrograms, capacity);
+        mAges = grow(mAges, capacity);
+        mLives = grow(mLives, capacity);
+        mParams = grow(mParams, capacity * mNumParams);
+        mX = grow(mX, capacity);
+        mY = grow(mY, capacity);
+        mScaleX = grow(mScaleX, capacity);
+        mScaleY = grow(mScaleY, capacity);
+        mRotations = grow(mRotations, capacity);
+        mAlphas = grow(mAlphas, capacity);
+        mReds = grow(mReds, capacity);
+        mGreens = grow(mGreens, capacity);
+        mBlues = grow(mBlues, capacity);
+        mColorAlphas = grow(mColorAlphas, capacity);
+        mFrames = grow(mFrames, capacity);
+        mFrameRates = grow(mFrameRates, capacity);
+        mFrameLoops = mFrameLoops == null ? new int[capacity] : Arrays.copyOf(mFrameLoops, capacity);
+        mBatchKeys = mBatchKeys == null ? new int[capacity] : Arrays.copyOf(mBatchKeys, capacity);
+
+        mCapacity = capacity;
+    }
+
+    private static float[] grow(final float[] values, final int length) {
+        return values == null ? new float[length] : Arrays.copyOf(values, length);
+    }
+
+    /**
+     * Add a particle
+     * 
+     * @param program
+     * @param emitIndex
+     * @param x the initial position
+     * @param y the initial position
+     * @return the index of the new particle, or -1 if the buffer is full
+     */
+    public int add(final NovaProgram program, final int emitIndex, final float x, final float y) {
+        if (mNumParticles == mCapacity) {
+            if (mCapacity >= mMaxCapacity) {
+                return -1;
+            }
+            allocate(Math.min(Math.max(mCapacity * 2, DEFAULT_CAPACITY), mMaxCapacity));
+        }
+
+        final int index = mNumParticles++;
+        mPrograms[index] = program;
+        mAges[index] = 0;
+        mLives[index] = program.init(emitIndex, x, y, mParams, index * mNumParams);
+        mFrames[index] = 0;
+        mFrameRates[index] = 0;
+        mFrameLoops[index] = 0;
+        mBatchKeys[index] = 0;
+
+        // initial values
+        program.apply(this, index);
+
+        return index;
+    }
+
+    /**
+     * Remove a particle by moving the last one to its place
+     * 
+     * @param index
+     */
+    public void remove(final int index) {
+        final int last = --mNumParticles;
+        if (index != last) {
+            mPrograms[index] = mPrograms[last];
+            mAges[index] = mAges[last];
+            mLives[index] = mLives[last];
+            System.arraycopy(mParams, last * mNumParams, mParams, index * mNumParams, mNumParams);
+            mX[index] = mX[last];
+            mY[index] = mY[last];
+            mScaleX[index] = mScaleX[last];
+            mScaleY[index] = mScaleY[last];
+            mRotations[index] = mRotations[last];
+            mAlphas[index] = mAlphas[last];
+            mReds[index] = mReds[last];
+            mGreens[index] = mGreens[last];
+            mBlues[index] = mBlues[last];
+            mColorAlphas[index] = mColorAlphas[last];
+            mFrames[index] = mFrames[last];
+            mFrameRates[index] = mFrameRates[last];
+            mFrameLoops[index] = mFrameLoops[last];
+            mBatchKeys[index] = mBatchKeys[last];
+        }
+        mPrograms[last] = null;
+    }
+
+    /**
+     * Age all the particles, remove the dead ones and evaluate the others
+     * 
+     * @param deltaTime
+     */
+    public void step(final int deltaTime) {
+        // backward, so the moved particles are already stepped
+        for (int i = mNumParticles - 1; i >= 0; i--) {
+            final float age = mAges[i] + deltaTime;
+            if (age >= mLives[i]) {
+                remove(i);
+                continue;
+            }
+
+            mAges[i] = age;
+            mFrames[i] += mFrameRates[i] > 0 ? mFrameRates[i] * deltaTime : 1;
+            mPrograms[i].apply(this, i);
+        }
+    }
+
+    public void clear() {
+        Arrays.fill(mPrograms, 0, mNumParticles, null);
+        mNumParticles = 0;
+    }
+
+    public int getNumParticles() {
+        return mNumParticles;
+    }
+
+    public int getCapacity() {
+        return mCapacity;
+    }
+
+    public int getMaxCapacity() {
+        return mMaxCapacity;
+    }
+
+    public float getX(final int index) {
+        return mX[index];
+    }
+
+    public float getY(final int index) {
+        return mY[index];
+    }
+
+    public float getAge(final int index) {
+        return mAges[index];
+    }
+}
@@ -0,0 +1,728 @@
+/*******************************************************************************
+ * Copyright (C) 2012-2014 GREE, Inc.
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ ******************************************************************************/
+/**
+ * 
+ */
+package com.funzio.pure2D.particles.nova;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+
+import android.graphics.PointF;
+
+import com.funzio.pure2D.BaseDisplayObject;
+import com.funzio.pure2D.InvalidateFlags;
+import com.funzio.pure2D.LoopModes;
+import com.funzio.pure2D.atlas.AtlasFrame;
+import com.funzio.pure2D.atlas.AtlasFrameSet;
+import com.funzio.pure2D.gl.GLColor;
+import com.funzio.pure2D.gl.gl10.BlendFunc;
+import com.funzio.pure2D.gl.gl10.BlendModes;
+import com.funzio.pure2D.gl.gl10.GLState;
+import com.funzio.pure2D.gl.gl10.QuadMeshBuffer;
+import com.funzio.pure2D.gl.gl10.QuadMeshColorBuffer;
+import com.funzio.pure2D.gl.gl10.textures.QuadMeshTextureCoordBuffer;
+import com.funzio.pure2D.gl.gl10.textures.Texture;
+import com.funzio.pure2D.particles.nova.vo.NovaEmitterVO;
+import com.funzio.pure2D.particles.nova.vo.NovaParticleVO;
+import com.funzio.pure2D.particles.nova.vo.NovaVO;
+import com.funzio.pure2D.utils.ObjectPool;
+import com.funzio.pure2D.utils.Pure2DUtils;
+import com.funzio.pure2D.utils.Reusable;
+
+/**
+ * An alternative to {@link NovaFactory} for large amounts of particles. Particles are not display objects, their states are kept in a {@link NovaParticleBuffer} and they are drawn
+ * with a single draw call per texture, blend mode and layer.
+ * <p>
+ * It runs the common subset of the Nova definitions, see {@link NovaProgram} for the supported animators. Motion trails, skews, z and {@link NovaDelegator} are not supported.
+ * </p>
+ * 
+ * @author long
+ */
+public class NovaParticleSystem extends BaseDisplayObject {
+    public static final int DEFAULT_MAX_PARTICLES = 50000;
+
+    // indices are unsigned shorts
+    private static final int CHUNK_SHIFT = 14;
+    private static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+    // for the particles without sprite, same as NovaParticle
+    private static final float DUMMY_SIZE = 50;
+
+    protected final NovaVO mNovaVO;
+    protected Delegator mDelegator;
+
+    // particles
+    protected final NovaParticleBuffer mParticles;
+    protected final HashMap<NovaParticleVO, ParticleType> mParticleTypes = new HashMap<NovaParticleVO, ParticleType>();
+
+    // emitters
+    protected final HashMap<NovaEmitterVO, NovaProgram> mEmitterPrograms = new HashMap<NovaEmitterVO, NovaProgram>();
+    protected final ArrayList<Emitter> mEmitters = new ArrayList<Emitter>();
+    protected final ObjectPool<Emitter> mEmitterPool = new ObjectPool<Emitter>(64);
+    private int mNumEmitterParams = 0;
+    private int mMaxParticlesPerEmitter = 0;
+
+    // sprite, blend and layer combinations, and the batches drawing them, sorted by layers
+    protected final ArrayList<BatchKey> mBatchKeys = new ArrayList<BatchKey>();
+    protected final ArrayList<Batch> mBatches = new ArrayList<Batch>();
+    private Batch[] mKeyBatches = new Batch[0];
+
+    public NovaParticleSystem(final NovaVO novaVO, final Delegator delegator) {
+        this(novaVO, delegator, DEFAULT_MAX_PARTICLES);
+    }
+
+    public NovaParticleSystem(final NovaVO novaVO, final Delegator delegator, final int maxParticles) {
+        super();
+
+        mNovaVO = novaVO;
+        mDelegator = delegator;
+
+        // compile everything first, to know the params per particle
+        int numParams = 0;
+        final int size = novaVO.emitters.size();
+        for (int i = 0; i < size; i++) {
+            final NovaEmitterVO emitterVO = novaVO.emitters.get(i);
+            final NovaProgram emitterProgram = new NovaProgram(null, novaVO.getAnimatorVO(emitterVO.animator));
+            mEmitterPrograms.put(emitterVO, emitterProgram);
+            mNumEmitterParams = Math.max(mNumEmitterParams, emitterProgram.getNumParams());
+            mMaxParticlesPerEmitter = Math.max(mMaxParticlesPerEmitter, emitterVO.particles.size());
+
+            for (NovaParticleVO particleVO : emitterVO.particles) {
+                final ParticleType type = new ParticleType(particleVO);
+                mParticleTypes.put(particleVO, type);
+                for (NovaProgram program : type.mPrograms) {
+                    numParams = Math.max(numParams, program.getNumParams());
+                }
+            }
+        }
+
+        mParticles = new NovaParticleBuffer(NovaParticleBuffer.DEFAULT_CAPACITY, maxParticles, numParams);
+
+        // no bounds
+        setBypassCameraClipping(true);
+    }
+
+    /**
+     * Start all the emitters at a position, same as {@link NovaFactory#createEmitters(PointF, Object...)}
+     * 
+     * @param x
+     * @param y
+     */
+    public void emit(final float x, final float y) {
+        final int size = mNovaVO.emitters.size();
+        for (int i = 0; i < size; i++) {
+            final NovaEmitterVO vo = mNovaVO.emitters.get(i);
+            for (int n = 0; n < vo.quantity; n++) {
+                startEmitter(vo, x, y);
+            }
+        }
+    }
+
+    /**
+     * Start an emitter at a position
+     * 
+     * @param name the emitter's name
+     * @param x
+     * @param y
+     * @return false if there is no such emitter
+     */
+    public boolean emit(final String name, final float x, final float y) {
+        final NovaEmitterVO vo = mNovaVO.getEmitterVO(name);
+        if (vo == null) {
+            return false;
+        }
+
+        startEmitter(vo, x, y);
+        return true;
+    }
+
+    protected void startEmitter(final NovaEmitterVO vo, final float x, final float y) {
+        Emitter emitter = mEmitterPool.acquire();
+        if (emitter == null) {
+            emitter = new Emitter();
+        }
+        emitter.start(vo, mEmitterPrograms.get(vo), x + vo.x, y + vo.y);
+        mEmitters.add(emitter);
+    }
+
+    /**
+     * Remove all the emitters and particles
+     */
+    public void clear() {
+        for (int i = mEmitters.size() - 1; i >= 0; i--) {
+            mEmitterPool.release(mEmitters.get(i));
+        }
+        mEmitters.clear();
+        mParticles.clear();
+    }
+
+    @Override
+    public boolean update(final int deltaTime) {
+        super.update(deltaTime);
+
+        // emitters first, so the new particles start from the current positions
+        for (int i = mEmitters.size() - 1; i >= 0; i--) {
+            final Emitter emitter = mEmitters.get(i);
+            if (!emitter.update(deltaTime)) {
+                mEmitters.remove(i);
+                mEmitterPool.release(emitter);
+            }
+        }
+
+        mParticles.step(deltaTime);
+
+        if (mParticles.getNumParticles() > 0 || mEmitters.size() > 0) {
+            invalidate(InvalidateFlags.VISUAL);
+            return true;
+        }
+
+        return false;
+    }
+
+    /**
+     * Emit a particle
+     * 
+     * @return false if the system is full
+     */
+    protected boolean emitParticle(final Emitter emitter, final NovaParticleVO vo, final int emitIndex) {
+        final ParticleType type = mParticleTypes.get(vo);
+
+        // same as RectangularEmitter.getNextPosition(), with origin at center
+        final NovaEmitterVO emitterVO = emitter.mVO;
+        float x = emitter.mX - emitterVO.width * 0.5f + (emitterVO.width > 1 ? NovaConfig.RANDOM.nextInt(emitterVO.width) : 0);
+        float y = emitter.mY - emitterVO.height * 0.5f + (emitterVO.height > 1 ? NovaConfig.RANDOM.nextInt(emitterVO.height) : 0);
+        x += NovaConfig.getInt(vo.x, emitIndex, 0);
+        y += NovaConfig.getInt(vo.y, emitIndex, 0);
+
+        final int index = mParticles.add(type.mPrograms[pick(type.mPrograms.length, emitIndex)], emitIndex, x, y);
+        if (index < 0) {
+            return false;
+        }
+
+        final int key = type.getBatchKey(emitIndex);
+        mParticles.mBatchKeys[index] = key;
+
+        // frames
+        final AtlasFrameSet frameSet = mBatchKeys.get(key).getFrameSet();
+        if (frameSet != null && frameSet.getNumFrames() > 0) {
+            mParticles.mFrames[index] = Math.min(NovaConfig.getInt(vo.start_frame, emitIndex, 0), frameSet.getNumFrames() - 1);
+            mParticles.mFrameRates[index] = frameSet.getFps() / 1000f;
+            mParticles.mFrameLoops[index] = vo.loop_mode != null ? NovaConfig.getLoopMode(NovaConfig.getString(vo.loop_mode, emitIndex)) : LoopModes.LOOP_REPEAT;
+        }
+
+        return true;
+    }
+
+    /**
+     * Same as NovaConfig.getString(), without the String
+     */
+    private static int pick(final int size, final int emitIndex) {
+        return size <= 1 ? 0 : emitIndex < 0 ? NovaConfig.RANDOM.nextInt(size) : emitIndex % size;
+    }
+
+    @Override
+    protected boolean drawChildren(final GLState glState) {
+        final int numParticles = mParticles.getNumParticles();
+        if (numParticles == 0) {
+            return false;
+        }
+
+        // find the batches of the keys
+        final int numKeys = mBatchKeys.size();
+        if (mKeyBatches.length < numKeys) {
+            mKeyBatches = new Batch[numKeys];
+        }
+        final BlendFunc inheritedBlendFunc = getInheritedBlendFunc();
+        for (int i = 0; i < numKeys; i++) {
+            final BatchKey key = mBatchKeys.get(i);
+            final AtlasFrameSet frameSet = key.getFrameSet();
+            mKeyBatches[i] = getBatch(frameSet != null ? frameSet.getTexture() : null, key.mBlendFunc != null ? key.mBlendFunc : inheritedBlendFunc, key.mLayer);
+        }
+
+        // count
+        final int numBatches = mBatches.size();
+        for (int i = 0; i < numBatches; i++) {
+            mBatches.get(i).mNumCells = 0;
+        }
+        final int[] keys = mParticles.mBatchKeys;
+        for (int i = 0; i < numParticles; i++) {
+            mKeyBatches[keys[i]].mNumCells++;
+        }
+        for (int i = 0; i < numBatches; i++) {
+            mBatches.get(i).allocate();
+        }
+
+        // fill
+        final GLColor color = getInheritedColor();
+        for (int i = 0; i < numParticles; i++) {
+            fillCell(i, mBatchKeys.get(keys[i]), mKeyBatches[keys[i]], color);
+        }
+
+        // and flush
+        for (int i = 0; i < numBatches; i++) {
+            mBatches.get(i).draw(glState);
+        }
+
+        // current color is undefined after drawing with a color array, restore it
+        glState.setColorArrayEnabled(false);
+        final GLColor glColor = glState.getColor();
+        glState.mGL.glColor4f(glColor.r, glColor.g, glColor.b, glColor.a);
+
+        return true;
+    }
+
+    private void fillCell(final int index, final BatchKey key, final Batch batch, final GLColor color) {
+        final NovaParticleBuffer particles = mParticles;
+        final int cell = batch.mCursor++;
+        final int chunk = cell >> CHUNK_SHIFT;
+        final int local = cell & CHUNK_MASK;
+
+        // the frame
+        final AtlasFrameSet frameSet = key.mFrameSet;
+        final AtlasFrame frame;
+        float width = DUMMY_SIZE, height = DUMMY_SIZE;
+        if (frameSet != null && frameSet.getNumFrames() > 0) {
+            frame = frameSet.getFrame(getFrameIndex((int) particles.mFrames[index], frameSet.getNumFrames(), particles.mFrameLoops[index]));
+            width = frame.getSize().x;
+            height = frame.getSize().y;
+        } else {
+            frame = null;
+        }
+
+        // vertices, same order as QuadMeshBuffer.setRectAt()
+        final float originX = key.mOriginAtCenter ? width * 0.5f : key.mOriginX;
+        final float originY = key.mOriginAtCenter ? height * 0.5f : key.mOriginY;
+        final float scaleX = particles.mScaleX[index], scaleY = particles.mScaleY[index];
+        final float left = -originX * scaleX, right = (width - originX) * scaleX;
+        final float bottom = -originY * scaleY, top = (height - originY) * scaleY;
+        final float x = particles.mX[index], y = particles.mY[index];
+        final float[] vertices = batch.mMeshes[chunk].getVertices();
+        int v = local * QuadMeshBuffer.NUM_VERTICES_PER_CELL * 2;
+        final float rotation = particles.mRotations[index];
+        if (rotation == 0) {
+            vertices[v++] = x + left;
+            vertices[v++] = y + top;
+            vertices[v++] = x + left;
+            vertices[v++] = y + bottom;
+            vertices[v++] = x + right;
+            vertices[v++] = y + top;
+            vertices[v++] = x + right;
+            vertices[v] = y + bottom;
+        } else {
+            final float radian = rotation * Pure2DUtils.DEGREE_TO_RADIAN;
+            final float cos = (float) Math.cos(radian), sin = (float) Math.sin(radian);
+            vertices[v++] = x + left * cos - top * sin;
+            vertices[v++] = y + left * sin + top * cos;
+            vertices[v++] = x + left * cos - bottom * sin;
+            vertices[v++] = y + left * sin + bottom * cos;
+            vertices[v++] = x + right * cos - top * sin;
+            vertices[v++] = y + right * sin + top * cos;
+            vertices[v++] = x + right * cos - bottom * sin;
+            vertices[v] = y + right * sin + bottom * cos;
+        }
+
+        // colors, premultiplied unless interpolating
+        final float alpha = particles.mColorAlphas[index] * particles.mAlphas[index] * color.a;
+        final float multiplier = batch.mInterpolate ? 1 : particles.mColorAlphas[index] * particles.mAlphas[index];
+        final float red = particles.mReds[index] * multiplier * color.r;
+        final float green = particles.mGreens[index] * multiplier * color.g;
+        final float blue = particles.mBlues[index] * multiplier * color.b;
+        final float[] colors = batch.mColors[chunk].getValues();
+        int c = local * QuadMeshColorBuffer.NUM_COLOR_PER_CELL * QuadMeshColorBuffer.NUM_CHANNEL_PER_COLOR;
+        for (int n = 0; n < QuadMeshColorBuffer.NUM_COLOR_PER_CELL; n++) {
+            colors[c++] = red;
+            colors[c++] = green;
+            colors[c++] = blue;
+            colors[c++] = alpha;
+        }
+
+        // texture coords
+        if (frame != null && batch.mTexture != null) {
+            final float[] srcCoords = frame.getTextureCoords();
+            final float[] coords = batch.mCoords[chunk].getValues();
+            final float scaleU = batch.mTexture.mCoordScaleX, scaleV = batch.mTexture.mCoordScaleY;
+            int t = local * QuadMeshTextureCoordBuffer.NUM_COORD_PER_CELL;
+            for (int n = 0; n < QuadMeshTextureCoordBuffer.NUM_COORD_PER_CELL; n += 2) {
+                coords[t++] = srcCoords[n] * scaleU;
+                coords[t++] = srcCoords[n + 1] * scaleV;
+            }
+        }
+    }
+
+    /**
+     * Same as Clip's looping
+     */
+    private static int getFrameIndex(final int frame, final int numFrames, final int loop) {
+        if (numFrames == 1) {
+            return 0;
+        } else if (loop == LoopModes.LOOP_REPEAT) {
+            return frame % numFrames;
+        } else if (loop == LoopModes.LOOP_REVERSE) {
+            final int cycle = (numFrames - 1) * 2;
+            final int index = frame % cycle;
+            return index >= numFrames ? cycle - index : index;
+        }
+
+        return Math.min(frame, numFrames - 1);
+    }
+
+    /**
+     * Find or create the batch for a texture, blend function and layer
+     */
+    protected Batch getBatch(final Texture texture, final BlendFunc blendFunc, final int layer) {
+        final int size = mBatches.size();
+        int insertAt = size;
+        for (int i = 0; i < size; i++) {
+            final Batch batch = mBatches.get(i);
+            if (batch.mLayer == layer && batch.mTexture == texture && (batch.mBlendFunc == blendFunc || (batch.mBlendFunc != null && blendFunc != null && batch.mBlendFunc.equals(blendFunc)))) {
+                return batch;
+            } else if (batch.mLayer > layer && insertAt == size) {
+                insertAt = i;
+            }
+        }
+
+        // keep the layers in order
+        final Batch batch = new Batch(texture, blendFunc, layer);
+        mBatches.add(insertAt, batch);
+        return batch;
+    }
+
+    protected int addBatchKey(final String sprite, final BlendFunc blendFunc, final NovaParticleVO vo) {
+        mBatchKeys.add(new BatchKey(sprite, blendFunc, vo));
+        return mBatchKeys.size() - 1;
+    }
+
+    public NovaVO getNovaVO() {
+        return mNovaVO;
+    }
+
+    public Delegator getDelegator() {
+        return mDelegator;
+    }
+
+    public void setDelegator(final Delegator delegator) {
+        mDelegator = delegator;
+    }
+
+    public int getNumParticles() {
+        return mParticles.getNumParticles();
+    }
+
+    public int getNumEmitters() {
+        return mEmitters.size();
+    }
+
+    /**
+     * @return number of draw calls of the last frame, without the chunks
+     */
+    public int getNumBatches() {
+        int count = 0;
+        final int size = mBatches.size();
+        for (int i = 0; i < size; i++) {
+            if (mBatches.get(i).mNumCells > 0) {
+                count++;
+            }
+        }
+
+        return count;
+    }
+
+    @Override
+    public void dispose() {
+        super.dispose();
+
+        clear();
+        mEmitterPool.clear();
+
+        final int size = mBatches.size();
+        for (int i = 0; i < size; i++) {
+            mBatches.get(i).dispose();
+        }
+        mBatches.clear();
+        mBatchKeys.clear();
+    }
+
+    /**
+     * Provides the sprites of the particles, instead of {@link NovaDelegator}
+     */
+    public static interface Delegator {
+        /**
+         * @param sprite the sprite defined in the particle
+         * @return the frames, or null for an untextured box
+         */
+        public AtlasFrameSet getFrameSet(String sprite);
+    }
+
+    /**
+     * A particle VO and its programs, one per animator
+     */
+    protected class ParticleType {
+        protected final NovaParticleVO mVO;
+        protected final NovaProgram[] mPrograms;
+        private final int mNumSprites;
+        private final int mNumBlendModes;
+        private final int[] mBatchKeys;
+
+        public ParticleType(final NovaParticleVO vo) {
+            mVO = vo;
+
+            final int numAnimators = vo.animator != null ? vo.animator.size() : 0;
+            mPrograms = new NovaProgram[Math.max(1, numAnimators)];
+            for (int i = 0; i < mPrograms.length; i++) {
+                mPrograms[i] = new NovaProgram(vo, i < numAnimators ? mNovaVO.getAnimatorVO(vo.animator.get(i)) : null);
+            }
+
+            mNumSprites = vo.sprite != null ? Math.max(1, vo.sprite.size()) : 1;
+            mNumBlendModes = vo.blend_mode != null ? Math.max(1, vo.blend_mode.size()) : 1;
+            mBatchKeys = new int[mNumSprites * mNumBlendModes];
+            for (int i = 0; i < mBatchKeys.length; i++) {
+                mBatchKeys[i] = -1;
+            }
+        }
+
+        public int getBatchKey(final int emitIndex) {
+            final int sprite = pick(mNumSprites, emitIndex);
+            final int blendMode = pick(mNumBlendModes, emitIndex);
+            final int index = sprite * mNumBlendModes + blendMode;
+            if (mBatchKeys[index] < 0) {
+                final String spriteName = mVO.sprite != null && mVO.sprite.size() > 0 ? mVO.sprite.get(sprite) : null;
+                final String blendName = mVO.blend_mode != null && mVO.blend_mode.size() > 0 ? mVO.blend_mode.get(blendMode) : null;
+                mBatchKeys[index] = addBatchKey(spriteName, BlendModes.getBlendFunc(blendName), mVO);
+            }
+
+            return mBatchKeys[index];
+        }
+    }
+
+    /**
+     * A sprite, blend function and layer combination
+     */
+    protected class BatchKey {
+        protected final String mSprite;
+        protected final BlendFunc mBlendFunc;
+        protected final int mLayer;
+        protected final boolean mOriginAtCenter;
+        protected final float mOriginX;
+        protected final float mOriginY;
+        protected AtlasFrameSet mFrameSet;
+
+        public BatchKey(final String sprite, final BlendFunc blendFunc, final NovaParticleVO vo) {
+            mSprite = sprite;
+            mBlendFunc = blendFunc;
+            mLayer = vo.layer;
+            mOriginAtCenter = vo.hasOriginAtCenter();
+            mOriginX = vo.origin_x;
+            mOriginY = vo.origin_y;
+        }
+
+        public AtlasFrameSet getFrameSet() {
+            // the sprite might not be available yet
+            if (mFrameSet == null && mSprite != null && mDelegator != null) {
+                mFrameSet = mDelegator.getFrameSet(mSprite);
+            }
+
+            return mFrameSet;
+        }
+    }
+
+    /**
+     * The buffers of a texture, blend function and layer. Split into chunks because of the short indices.
+     */
+    protected static class Batch {
+        protected final Texture mTexture;
+        protected final BlendFunc mBlendFunc;
+        protected final int mLayer;
+        protected final boolean mInterpolate;
+
+        protected QuadMeshBuffer[] mMeshes = new QuadMeshBuffer[0];
+        protected QuadMeshColorBuffer[] mColors = new QuadMeshColorBuffer[0];
+        protected QuadMeshTextureCoordBuffer[] mCoords = new QuadMeshTextureCoordBuffer[0];
+        private int[] mChunkCapacities = new int[0];
+
+        protected int mNumCells = 0;
+        protected int mCursor = 0;
+
+        public Batch(final Texture texture, final BlendFunc blendFunc, final int layer) {
+            mTexture = texture;
+            mBlendFunc = blendFunc;
+            mLayer = layer;
+            mInterpolate = BlendModes.isInterpolate(blendFunc);
+        }
+
+        /**
+         * Make sure there is room for mNumCells, and rewind
+         */
+        protected void allocate() {
+            mCursor = 0;
+
+            final int numChunks = (mNumCells + CHUNK_SIZE - 1) >> CHUNK_SHIFT;
+            if (numChunks > mMeshes.length) {
+                final int oldLength = mMeshes.length;
+                mMeshes = Arrays.copyOf(mMeshes, numChunks);
+                mColors = Arrays.copyOf(mColors, numChunks);
+                mCoords = Arrays.copyOf(mCoords, numChunks);
+                mChunkCapacities = Arrays.copyOf(mChunkCapacities, numChunks);
+                for (int i = oldLength; i < numChunks; i++) {
+                    mMeshes[i] = new QuadMeshBuffer(0);
+                    mColors[i] = new QuadMeshColorBuffer(0);
+                    mCoords[i] = new QuadMeshTextureCoordBuffer(0);
+                }
+            }
+
+            for (int i = 0; i < numChunks; i++) {
+                final int cells = Math.min(CHUNK_SIZE, mNumCells - (i << CHUNK_SHIFT));
+                if (cells > mChunkCapacities[i]) {
+                    // grow only, with some room for the next frames
+                    final int capacity = Math.min(CHUNK_SIZE, Math.max(cells, mChunkCapacities[i] * 2));
+                    mMeshes[i].setNumCells(capacity);
+                    mColors[i].setNumCells(capacity);
+                    mCoords[i].setNumCells(capacity);
+                    mChunkCapacities[i] = capacity;
+                }
+            }
+        }
+
+        protected void draw(final GLState glState) {
+            if (mNumCells == 0) {
+                return;
+            }
+
+            glState.setBlendFunc(mBlendFunc);
+
+            for (int i = 0; i << CHUNK_SHIFT < mNumCells; i++) {
+                final int cells = Math.min(CHUNK_SIZE, mNumCells - (i << CHUNK_SHIFT));
+
+                // upload the used part only
+                final QuadMeshColorBuffer colors = mColors[i];
+                colors.setValues(colors.getValues(), cells * QuadMeshColorBuffer.NUM_COLOR_PER_CELL * QuadMeshColorBuffer.NUM_CHANNEL_PER_COLOR);
+                colors.apply(glState);
+
+                if (mTexture != null) {
+                    mTexture.bind();
+
+                    final QuadMeshTextureCoordBuffer coords = mCoords[i];
+                    coords.setValues(coords.getValues(), cells * QuadMeshTextureCoordBuffer.NUM_COORD_PER_CELL);
+                    coords.apply(glState);
+                } else {
+                    glState.unbindTexture();
+                    glState.setTextureCoordArrayEnabled(false);
+                }
+
+                final QuadMeshBuffer mesh = mMeshes[i];
+                mesh.setValues(mesh.getVertices(), cells * QuadMeshBuffer.NUM_VERTICES_PER_CELL * 2);
+                mesh.setIndicesNumUsed(cells * QuadMeshBuffer.NUM_INDICES_PER_CELL);
+                mesh.draw(glState);
+            }
+        }
+
+        protected void dispose() {
+            for (int i = 0; i < mMeshes.length; i++) {
+                mMeshes[i].dispose();
+                mColors[i].dispose();
+                mCoords[i].dispose();
+            }
+        }
+    }
+
+    /**
+     * A running emitter. The position is animated by a single particle buffer.
+     */
+    protected class Emitter implements Reusable {
+        protected NovaEmitterVO mVO;
+        protected float mX;
+        protected float mY;
+        protected int mElapsedTime;
+
+        private final NovaParticleBuffer mBuffer = new NovaParticleBuffer(1, 1, mNumEmitterParams);
+        private final int[] mNumSteps = new int[mMaxParticlesPerEmitter];
+        private final int[] mEmitIndices = new int[mMaxParticlesPerEmitter];
+
+        public void start(final NovaEmitterVO vo, final NovaProgram program, final float x, final float y) {
+            mVO = vo;
+            mX = x;
+            mY = y;
+            mElapsedTime = 0;
+            for (int i = 0; i < mNumSteps.length; i++) {
+                mNumSteps[i] = mEmitIndices[i] = 0;
+            }
+
+            mBuffer.clear();
+            if (program.getNumTracks() > 0) {
+                mBuffer.add(program, -1, x, y);
+            }
+        }
+
+        @Override
+        public void reset(final Object... params) {
+            mVO = null;
+            mBuffer.clear();
+        }
+
+        /**
+         * @param deltaTime
+         * @return false when it's done
+         */
+        public boolean update(final int deltaTime) {
+            mElapsedTime += deltaTime;
+
+            // move, the emitter stays at the last position when the animator is done
+            if (mBuffer.getNumParticles() > 0) {
+                mBuffer.step(deltaTime);
+                if (mBuffer.getNumParticles() > 0) {
+                    mX = mBuffer.getX(0);
+                    mY = mBuffer.getY(0);
+                }
+            }
+
+            // same as the timeline's actions
+            boolean ended = true;
+            final int size = mVO.particles.size();
+            for (int i = 0; i < size; i++) {
+                final NovaParticleVO vo = mVO.particles.get(i);
+                while (true) {
+                    final int step = mNumSteps[i];
+                    if (mElapsedTime < vo.start_delay + step * vo.step_delay || (step > 0 && (vo.step_delay <= 0 || (vo.duration > 0 && step * vo.step_delay > vo.duration)))) {
+                        break;
+                    }
+
+                    for (int n = 0; n < vo.step_quantity; n++) {
+                        emitParticle(this, vo, mEmitIndices[i]++);
+                    }
+                    mNumSteps[i]++;
+                }
+
+                if (vo.duration <= 0 || mElapsedTime - vo.start_delay < vo.duration) {
+                    ended = false;
+                }
+            }
+
+            if (mVO.lifespan > 0) {
+                return mElapsedTime < mVO.lifespan;
+            }
+
+            return !ended;
+        }
+    }
+}
@@ -0,0 +1,517 @@
+/*******************************************************************************
+ * Copyright (C) 2012-2014 GREE, Inc.
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ ******************************************************************************/
+/**
+ * 
+ */
+package com.funzio.pure2D.particles.nova;
+
+import java.util.ArrayList;
+
+import android.util.Log;
+import android.view.animation.Interpolator;
+
+import com.funzio.pure2D.LoopModes;
+import com.funzio.pure2D.animators.TrajectoryAnimator;
+import com.funzio.pure2D.gl.GLColor;
+import com.funzio.pure2D.particles.nova.vo.AlphaAnimatorVO;
+import com.funzio.pure2D.particles.nova.vo.AnimatorVO;
+import com.funzio.pure2D.particles.nova.vo.ColorAnimatorVO;
+import com.funzio.pure2D.particles.nova.vo.DelayAnimatorVO;
+import com.funzio.pure2D.particles.nova.vo.GroupAnimatorVO;
+import com.funzio.pure2D.particles.nova.vo.MoveAnimatorVO;
+import com.funzio.pure2D.particles.nova.vo.NovaParticleVO;
+import com.funzio.pure2D.particles.nova.vo.RotateAnimatorVO;
+import com.funzio.pure2D.particles.nova.vo.ScaleAnimatorVO;
+import com.funzio.pure2D.particles.nova.vo.SequenceAnimatorVO;
+import com.funzio.pure2D.particles.nova.vo.TrajectoryAnimatorVO;
+import com.funzio.pure2D.particles.nova.vo.TweenAnimatorVO;
+import com.funzio.pure2D.utils.Pure2DUtils;
+
+/**
+ * A particle definition and its animator, flattened into a list of tracks that can be evaluated for many particles in a {@link NovaParticleBuffer}. Each particle keeps its own values
+ * (random ranges resolved, start and end times) in a block of floats, so evaluating is just a loop over the tracks without any object.
+ * <p>
+ * Supported animators: move, alpha, scale, rotate (without pivot), color, trajectory, delay, sequence and parallel. Others are treated as delays.
+ * </p>
+ * 
+ * @author long
+ * @see NovaParticleSystem
+ */
+public class NovaProgram {
+    private static final String TAG = NovaProgram.class.getSimpleName();
+
+    // the initial values, at the beginning of each block
+    public static final int X = 0;
+    public static final int Y = 1;
+    public static final int SCALE_X = 2;
+    public static final int SCALE_Y = 3;
+    public static final int ROTATION = 4;
+    public static final int ALPHA = 5;
+    public static final int RED = 6;
+    public static final int GREEN = 7;
+    public static final int BLUE = 8;
+    public static final int COLOR_ALPHA = 9;
+    protected static final int NUM_HEADER_PARAMS = 10;
+
+    // track types
+    protected static final int TRACK_DELAY = 0;
+    protected static final int TRACK_MOVE = 1;
+    protected static final int TRACK_ALPHA = 2;
+    protected static final int TRACK_SCALE = 3;
+    protected static final int TRACK_ROTATE = 4;
+    protected static final int TRACK_ROTATE_BY = 5;
+    protected static final int TRACK_COLOR = 6;
+    protected static final int TRACK_TRAJECTORY = 7;
+
+    // per track params: start, end and trip duration, then the values
+    private static final int START = 0;
+    private static final int END = 1;
+    private static final int DURATION = 2;
+    private static final int NUM_TRACK_PARAMS = 3;
+    private static final int[] NUM_VALUES = {
+            0, 2, 2, 4, 2, 1, 8, 3
+    };
+
+    protected final NovaParticleVO mParticleVO;
+    protected final AnimatorVO mAnimatorVO;
+
+    // the tracks
+    protected int mNumTracks = 0;
+    protected int[] mTypes;
+    protected int[] mOffsets;
+    protected Interpolator[] mInterpolators;
+    protected int[] mLoopModes;
+    protected boolean[] mReversed;
+    protected int mNumParams = NUM_HEADER_PARAMS;
+
+    // for resolving
+    private int mTrackIndex;
+
+    /**
+     * @param particleVO the particle, for the initial values. Can be null for emitters.
+     * @param animatorVO can be null
+     */
+    public NovaProgram(final NovaParticleVO particleVO, final AnimatorVO animatorVO) {
+        mParticleVO = particleVO;
+        mAnimatorVO = animatorVO;
+
+        // count first
+        mTypes = new int[countTracks(animatorVO)];
+        mOffsets = new int[mTypes.length];
+        mInterpolators = new Interpolator[mTypes.length];
+        mLoopModes = new int[mTypes.length];
+        mReversed = new boolean[mTypes.length];
+
+        // then compile
+        compile(animatorVO);
+    }
+
+    private int countTracks(final AnimatorVO vo) {
+        if (vo instanceof GroupAnimatorVO) {
+            final ArrayList<AnimatorVO> children = ((GroupAnimatorVO) vo).animators;
+            int count = 0;
+            if (children != null) {
+                final int size = children.size();
+                for (int i = 0; i < size; i++) {
+                    count += countTracks(children.get(i));
+                }
+            }
+            return count;
+        }
+
+        return vo == null ? 0 : 1;
+    }
+
+    private void compile(final AnimatorVO vo) {
+        if (vo == null) {
+            return;
+        }
+
+        if (vo instanceof GroupAnimatorVO) {
+            final ArrayList<AnimatorVO> children = ((GroupAnimatorVO) vo).animators;
+            if (children != null) {
+                final int size = children.size();
+                for (int i = 0; i < size; i++) {
+                    compile(children.get(i));
+                }
+            }
+            return;
+        }
+
+        final int type;
+        if (vo instanceof MoveAnimatorVO) {
+            type = TRACK_MOVE;
+        } else if (vo instanceof AlphaAnimatorVO) {
+            type = TRACK_ALPHA;
+        } else if (vo instanceof ScaleAnimatorVO) {
+            type = TRACK_SCALE;
+        } else if (vo instanceof RotateAnimatorVO) {
+            type = ((RotateAnimatorVO) vo).delta != null ? TRACK_ROTATE_BY : TRACK_ROTATE;
+        } else if (vo instanceof ColorAnimatorVO) {
+            type = TRACK_COLOR;
+        } else if (vo instanceof TrajectoryAnimatorVO && vo.getClass() == TrajectoryAnimatorVO.class) {
+            type = TRACK_TRAJECTORY;
+        } else {
+            if (!(vo instanceof DelayAnimatorVO)) {
+                Log.w(TAG, "Animator is not supported, used as a delay: " + vo.type);
+            }
+            type = TRACK_DELAY;
+        }
+
+        final int track = mNumTracks++;
+        mTypes[track] = type;
+        mOffsets[track] = mNumParams;
+        mLoopModes[track] = LoopModes.LOOP_NONE;
+        if (vo instanceof TweenAnimatorVO) {
+            final TweenAnimatorVO tweenVO = (TweenAnimatorVO) vo;
+            mInterpolators[track] = NovaConfig.getInterpolator(tweenVO.interpolation);
+            mLoopModes[track] = NovaConfig.getLoopMode(tweenVO.loop_mode);
+            mReversed[track] = tweenVO.reversed;
+        }
+        mNumParams += NUM_TRACK_PARAMS + NUM_VALUES[type];
+    }
+
+    /**
+     * @return number of floats needed per particle
+     */
+    public int getNumParams() {
+        return mNumParams;
+    }
+
+    public int getNumTracks() {
+        return mNumTracks;
+    }
+
+    public NovaParticleVO getParticleVO() {
+        return mParticleVO;
+    }
+
+    public AnimatorVO getAnimatorVO() {
+        return mAnimatorVO;
+    }
+
+    /**
+     * Resolve the values of a new particle
+     * 
+     * @param emitIndex
+     * @param x the initial position
+     * @param y the initial position
+     * @param params the output
+     * @param offset the start of the block in params
+     * @return the lifetime in ms, can be infinity
+     */
+    public float init(final int emitIndex, final float x, final float y, final float[] params, final int offset) {
+        final NovaParticleVO vo = mParticleVO;
+        params[offset + X] = x;
+        params[offset + Y] = y;
+        if (vo != null) {
+            params[offset + SCALE_X] = NovaConfig.getFloat(vo.scale_x, emitIndex, 1);
+            params[offset + SCALE_Y] = NovaConfig.getFloat(vo.scale_y, emitIndex, 1);
+            params[offset + ROTATION] = NovaConfig.getFloat(vo.rotation, emitIndex, 0);
+            params[offset + ALPHA] = NovaConfig.getFloat(vo.alpha, emitIndex, 1);
+            setColor(params, offset + RED, NovaConfig.getColor(vo.color, emitIndex, GLColor.WHITE));
+        } else {
+            params[offset + SCALE_X] = params[offset + SCALE_Y] = 1;
+            params[offset + ROTATION] = 0;
+            params[offset + ALPHA] = 1;
+            setColor(params, offset + RED, GLColor.WHITE);
+        }
+
+        if (mAnimatorVO == null) {
+            // same as a NovaParticle without animator, never ends
+            return Float.POSITIVE_INFINITY;
+        }
+
+        mTrackIndex = 0;
+        return resolve(mAnimatorVO, 0, Float.POSITIVE_INFINITY, emitIndex, params, offset);
+    }
+
+    /**
+     * Resolve the times and values of a (group) animator
+     * 
+     * @return the end time
+     */
+    private float resolve(final AnimatorVO vo, float start, final float cap, final int emitIndex, final float[] params, final int offset) {
+        start += NovaConfig.getInt(vo.start_delay, emitIndex, 0);
+        final int lifespan = NovaConfig.getInt(vo.lifespan, emitIndex, 0);
+        final float lifeEnd = Math.min(cap, lifespan > 0 ? start + lifespan : Float.POSITIVE_INFINITY);
+
+        if (vo instanceof GroupAnimatorVO) {
+            final ArrayList<AnimatorVO> children = ((GroupAnimatorVO) vo).animators;
+            float end = start;
+            if (children != null) {
+                final int size = children.size();
+                final boolean sequence = vo instanceof SequenceAnimatorVO;
+                for (int i = 0; i < size; i++) {
+                    final float childEnd = resolve(children.get(i), sequence ? end : start, lifeEnd, emitIndex, params, offset);
+                    end = sequence ? childEnd : Math.max(end, childEnd);
+                }
+            }
+
+            return Math.min(end, lifeEnd);
+        }
+
+        final int track = mTrackIndex++;
+        final int p = offset + mOffsets[track];
+        float duration = 0;
+        float end = Float.POSITIVE_INFINITY;
+
+        switch (mTypes[track]) {
+            case TRACK_MOVE: {
+                final MoveAnimatorVO moveVO = (MoveAnimatorVO) vo;
+                if (moveVO.distance != null) {
+                    final float distance = NovaConfig.getInt(moveVO.distance, emitIndex, 0);
+                    final float radian = NovaConfig.getInt(moveVO.degree, emitIndex, 0) * Pure2DUtils.DEGREE_TO_RADIAN;
+                    params[p + NUM_TRACK_PARAMS] = distance * (float) Math.cos(radian);
+                    params[p + NUM_TRACK_PARAMS + 1] = distance * (float) Math.sin(radian);
+                } else {
+                    params[p + NUM_TRACK_PARAMS] = NovaConfig.getInt(moveVO.dx, emitIndex, 0);
+                    params[p + NUM_TRACK_PARAMS + 1] = NovaConfig.getInt(moveVO.dy, emitIndex, 0);
+                }
+                break;
+            }
+
+            case TRACK_ALPHA: {
+                final AlphaAnimatorVO alphaVO = (AlphaAnimatorVO) vo;
+                params[p + NUM_TRACK_PARAMS] = NovaConfig.getFloat(alphaVO.from, emitIndex, 1);
+                params[p + NUM_TRACK_PARAMS + 1] = NovaConfig.getFloat(alphaVO.to, emitIndex, 0);
+                break;
+            }
+
+            case TRACK_SCALE: {
+                final ScaleAnimatorVO scaleVO = (ScaleAnimatorVO) vo;
+                params[p + NUM_TRACK_PARAMS] = NovaConfig.getFloat(scaleVO.x_from, emitIndex, 1);
+                params[p + NUM_TRACK_PARAMS + 1] = NovaConfig.getFloat(scaleVO.y_from, emitIndex, 1);
+                params[p + NUM_TRACK_PARAMS + 2] = NovaConfig.getFloat(scaleVO.x_to, emitIndex, 1);
+                params[p + NUM_TRACK_PARAMS + 3] = NovaConfig.getFloat(scaleVO.y_to, emitIndex, 1);
+                break;
+            }
+
+            case TRACK_ROTATE: {
+                final RotateAnimatorVO rotateVO = (RotateAnimatorVO) vo;
+                params[p + NUM_TRACK_PARAMS] = NovaConfig.getFloat(rotateVO.from, emitIndex, 0);
+                params[p + NUM_TRACK_PARAMS + 1] = NovaConfig.getFloat(rotateVO.to, emitIndex, 0);
+                break;
+            }
+
+            case TRACK_ROTATE_BY:
+                params[p + NUM_TRACK_PARAMS] = NovaConfig.getFloat(((RotateAnimatorVO) vo).delta, emitIndex, 0);
+                break;
+
+            case TRACK_COLOR: {
+                final ColorAnimatorVO colorVO = (ColorAnimatorVO) vo;
+                setColor(params, p + NUM_TRACK_PARAMS, NovaConfig.getColor(colorVO.from, emitIndex, GLColor.WHITE));
+                setColor(params, p + NUM_TRACK_PARAMS + 4, NovaConfig.getColor(colorVO.to, emitIndex, GLColor.WHITE));
+                break;
+            }
+
+            case TRACK_TRAJECTORY: {
+                final TrajectoryAnimatorVO trajectoryVO = (TrajectoryAnimatorVO) vo;
+                final float ground = NovaConfig.getFloat(trajectoryVO.ground, emitIndex, 0);
+                final float gravity = NovaConfig.getFloat(trajectoryVO.gravity, emitIndex, TrajectoryAnimator.DEFAULT_GRAVITY);
+                final float velocity = NovaConfig.getFloat(trajectoryVO.velocity, emitIndex, 0);
+                final float angle = NovaConfig.getFloat(trajectoryVO.angle, emitIndex, 0);
+                final float vcos = velocity * (float) Math.cos(angle);
+                final float vsin = velocity * (float) Math.sin(angle);
+                params[p + NUM_TRACK_PARAMS] = vcos;
+                params[p + NUM_TRACK_PARAMS + 1] = vsin;
+                params[p + NUM_TRACK_PARAMS + 2] = gravity;
+
+                // same flight time as TrajectoryAnimator, bottom-left axis
+                final float absGravity = Math.abs(gravity);
+                final float distance = (vcos / absGravity) * (vsin + (float) Math.sqrt(vsin * vsin + 2 * absGravity * (params[offset + Y] - ground)));
+                duration = TrajectoryAnimator.TIME_FACTOR * distance / (vcos == 0 ? 1 : vcos);
+                end = start + duration;
+                break;
+            }
+
+            default:
+                if (vo instanceof DelayAnimatorVO) {
+                    final int delay = NovaConfig.getInt(((DelayAnimatorVO) vo).duration, emitIndex, 0);
+                    if (delay > 0) {
+                        end = start + delay;
+                    }
+                }
+                break;
+        }
+
+        if (vo instanceof TweenAnimatorVO) {
+            duration = NovaConfig.getInt(((TweenAnimatorVO) vo).duration, emitIndex, 0);
+            // a tween without duration never updates nor ends
+            if (duration > 0) {
+                final int loopCount = vo.loop_count != null ? NovaConfig.getInt(vo.loop_count, emitIndex, 0) : -1;
+                if (mLoopModes[track] == LoopModes.LOOP_NONE) {
+                    end = start + duration;
+                } else if (loopCount >= 0) {
+                    end = start + duration * (loopCount + 1);
+                }
+                // keep the loop count for the final value
+                if (mLoopModes[track] == LoopModes.LOOP_REVERSE && loopCount > 0) {
+                    duration = loopCount % 2 == 0 ? duration : -duration;
+                }
+            }
+        }
+
+        params[p + START] = start;
+        params[p + END] = Math.min(end, lifeEnd);
+        params[p + DURATION] = duration;
+
+        return params[p + END];
+    }
+
+    /**
+     * Evaluate all the tracks of a particle and write the current values into the buffer
+     * 
+     * @param buffer
+     * @param index the particle index
+     */
+    public void apply(final NovaParticleBuffer buffer, final int index) {
+        final float[] params = buffer.mParams;
+        final int offset = index * buffer.mNumParams;
+        final float age = buffer.mAges[index];
+
+        float x = params[offset + X];
+        float y = params[offset + Y];
+        float scaleX = params[offset + SCALE_X];
+        float scaleY = params[offset + SCALE_Y];
+        float rotation = params[offset + ROTATION];
+        float alpha = params[offset + ALPHA];
+        float red = params[offset + RED];
+        float green = params[offset + GREEN];
+        float blue = params[offset + BLUE];
+        float colorAlpha = params[offset + COLOR_ALPHA];
+
+        for (int track = 0; track < mNumTracks; track++) {
+            final int p = offset + mOffsets[track];
+            final float start = params[p + START];
+            if (age < start) {
+                // not started yet
+                continue;
+            }
+
+            final int type = mTypes[track];
+            if (type == TRACK_DELAY) {
+                continue;
+            }
+
+            final float end = params[p + END];
+            final float duration = params[p + DURATION];
+            final int v = p + NUM_TRACK_PARAMS;
+
+            if (type == TRACK_TRAJECTORY) {
+                final float t = Math.min(Math.min(age, end) - start, duration) / TrajectoryAnimator.TIME_FACTOR;
+                x += params[v] * t;
+                y += params[v + 1] * t - 0.5f * params[v + 2] * t * t;
+                continue;
+            }
+
+            if (duration == 0) {
+                // tween without duration
+                continue;
+            }
+
+            final float value = getTweenValue(track, age - start, age >= end, duration);
+            switch (type) {
+                case TRACK_MOVE:
+                    x += params[v] * value;
+                    y += params[v + 1] * value;
+                    break;
+
+                case TRACK_ALPHA:
+                    alpha = params[v] + (params[v + 1] - params[v]) * value;
+                    break;
+
+                case TRACK_SCALE:
+                    scaleX = params[v] + (params[v + 2] - params[v]) * value;
+                    scaleY = params[v + 1] + (params[v + 3] - params[v + 1]) * value;
+                    break;
+
+                case TRACK_ROTATE:
+                    rotation = params[v] + (params[v + 1] - params[v]) * value;
+                    break;
+
+                case TRACK_ROTATE_BY:
+                    rotation += params[v] * value;
+                    break;
+
+                case TRACK_COLOR:
+                    red = params[v] + (params[v + 4] - params[v]) * value;
+                    green = params[v + 1] + (params[v + 5] - params[v + 1]) * value;
+                    blue = params[v + 2] + (params[v + 6] - params[v + 2]) * value;
+                    colorAlpha = params[v + 3] + (params[v + 7] - params[v + 3]) * value;
+                    break;
+            }
+        }
+
+        buffer.mX[index] = x;
+        buffer.mY[index] = y;
+        buffer.mScaleX[index] = scaleX;
+        buffer.mScaleY[index] = scaleY;
+        buffer.mRotations[index] = rotation;
+        buffer.mAlphas[index] = alpha;
+        buffer.mReds[index] = red;
+        buffer.mGreens[index] = green;
+        buffer.mBlues[index] = blue;
+        buffer.mColorAlphas[index] = colorAlpha;
+    }
+
+    /**
+     * Same as {@link com.funzio.pure2D.animators.TweenAnimator}
+     * 
+     * @param track
+     * @param elapsed
+     * @param ended
+     * @param duration negative when it ends reversed
+     * @return
+     */
+    private float getTweenValue(final int track, final float elapsed, final boolean ended, final float duration) {
+        float value;
+        if (ended) {
+            // final value, not interpolated
+            value = duration < 0 ? 0 : 1;
+        } else {
+            final float trip = Math.abs(duration);
+            final int loopMode = mLoopModes[track];
+            value = elapsed / trip;
+            if (loopMode != LoopModes.LOOP_NONE) {
+                final int trips = (int) value;
+                value -= trips;
+                if (loopMode == LoopModes.LOOP_REVERSE && trips % 2 == 1) {
+                    value = 1 - value;
+                }
+            }
+
+            if (mInterpolators[track] != null) {
+                value = mInterpolators[track].getInterpolation(value);
+            }
+        }
+
+        return mReversed[track] ? 1 - value : value;
+    }
+
+    private static void setColor(final float[] params, final int offset, final GLColor color) {
+        params[offset] = color.r;
+        params[offset + 1] = color.g;
+        params[offset + 2] = color.b;
+        params[offset + 3] = color.a;
+    }
+}
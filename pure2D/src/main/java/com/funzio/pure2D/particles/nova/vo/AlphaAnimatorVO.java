@@ -32,6 +32,7 @@ import org.json.JSONObject;
 import com.funzio.pure2D.Manipulatable;
 import com.funzio.pure2D.animators.AlphaAnimator;
 import com.funzio.pure2D.animators.Animator;
+import com.funzio.pure2D.particles.nova.NovaBinary;
 import com.funzio.pure2D.particles.nova.NovaConfig;
 
 /**
@@ -49,6 +50,13 @@ public class AlphaAnimatorVO extends TweenAnimatorVO {
         to = NovaVO.getListFloat(json, "to");
     }
 
+    public AlphaAnimatorVO(final NovaBinary binary, final int offset) {
+        super(binary, offset);
+
+        from = NovaVO.getListFloat(binary, offset, "from");
+        to = NovaVO.getListFloat(binary, offset, "to");
+    }
+
     @Override
     public Animator createAnimator(final int emitIndex, final Manipulatable target, final Animator... animators) {
         return init(emitIndex, target, new AlphaAnimator(NovaConfig.getInterpolator(interpolation)));
@@ -32,6 +32,7 @@ import org.json.JSONObject;
 import com.funzio.pure2D.Manipulatable;
 import com.funzio.pure2D.animators.Animator;
 import com.funzio.pure2D.gl.gl10.textures.TextureOptions;
+import com.funzio.pure2D.particles.nova.NovaBinary;
 import com.funzio.pure2D.particles.nova.NovaConfig;
 
 /**
@@ -97,6 +98,20 @@ public abstract class AnimatorVO extends NovaEntryVO {
         lifespan = NovaVO.getListInt(json, "lifespan");
     }
 
+    public AnimatorVO(final NovaBinary binary, final int offset) {
+        super(binary, offset);
+
+        name = binary.optString(offset, "name");
+        type = binary.optString(offset, "type");
+
+        accumulating = binary.optBoolean(offset, "accumulating", accumulating);
+
+        loop_mode = binary.optString(offset, "loop_mode");
+        loop_count = NovaVO.getListInt(binary, offset, "loop_count");
+        start_delay = NovaVO.getListInt(binary, offset, "start_delay");
+        lifespan = NovaVO.getListInt(binary, offset, "lifespan");
+    }
+
     /**
      * Initialize a newly created animator
      * 
@@ -179,4 +194,49 @@ public abstract class AnimatorVO extends NovaEntryVO {
             return null;
         }
     }
+
+    public static AnimatorVO create(final NovaBinary binary, final int offset) {
+        final String type = binary.optString(offset, "type", null);
+        if (type == null) {
+            return null;
+        }
+
+        if (type.equalsIgnoreCase(SEQUENCE)) {
+            return new SequenceAnimatorVO(binary, offset);
+        } else if (type.equalsIgnoreCase(PARALLEL)) {
+            return new ParallelAnimatorVO(binary, offset);
+        } else if (type.equalsIgnoreCase(TRANSLATE) || type.equalsIgnoreCase(MOVE)) {
+            return new MoveAnimatorVO(binary, offset);
+        } else if (type.equalsIgnoreCase(UNSTABLE_MOVE)) {
+            return new UnstableMoveAnimatorVO(binary, offset);
+        } else if (type.equalsIgnoreCase(ROTATE)) {
+            return new RotateAnimatorVO(binary, offset);
+        } else if (type.equalsIgnoreCase(SCALE)) {
+            return new ScaleAnimatorVO(binary, offset);
+        } else if (type.equalsIgnoreCase(SKEW)) {
+            return new SkewAnimatorVO(binary, offset);
+        } else if (type.equalsIgnoreCase(RESIZE)) {
+            return new ResizeAnimatorVO(binary, offset);
+        } else if (type.equalsIgnoreCase(ALPHA)) {
+            return new AlphaAnimatorVO(binary, offset);
+        } else if (type.equalsIgnoreCase(TRAJECTORY)) {
+            return new TrajectoryAnimatorVO(binary, offset);
+        } else if (type.equalsIgnoreCase(RECURSIVE_TRAJECTORY)) {
+            return new RecursiveTrajectoryAnimatorVO(binary, offset);
+        } else if (type.equalsIgnoreCase(SIN_WAVE)) {
+            return new SinWaveAnimatorVO(binary, offset);
+        } else if (type.equalsIgnoreCase(TORNADO)) {
+            return new TornadoAnimatorVO(binary, offset);
+        } else if (type.equalsIgnoreCase(WHIRL)) {
+            return new WhirlAnimatorVO(binary, offset);
+        } else if (type.equalsIgnoreCase(COLOR)) {
+            return new ColorAnimatorVO(binary, offset);
+        } else if (type.equalsIgnoreCase(DELAY)) {
+            return new DelayAnimatorVO(binary, offset);
+        } else if (type.equalsIgnoreCase(SET)) {
+            return new PropertiesSetterVO(binary, offset);
+        } else {
+            return null;
+        }
+    }
 }
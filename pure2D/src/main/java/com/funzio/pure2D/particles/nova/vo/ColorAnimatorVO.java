@@ -33,6 +33,7 @@ import com.funzio.pure2D.Manipulatable;
 import com.funzio.pure2D.animators.Animator;
 import com.funzio.pure2D.animators.ColorAnimator;
 import com.funzio.pure2D.gl.GLColor;
+import com.funzio.pure2D.particles.nova.NovaBinary;
 import com.funzio.pure2D.particles.nova.NovaConfig;
 
 /**
@@ -50,6 +51,13 @@ public class ColorAnimatorVO extends TweenAnimatorVO {
         to = NovaVO.getListColor(json, "to");
     }
 
+    public ColorAnimatorVO(final NovaBinary binary, final int offset) {
+        super(binary, offset);
+
+        from = NovaVO.getListColor(binary, offset, "from");
+        to = NovaVO.getListColor(binary, offset, "to");
+    }
+
     @Override
     public Animator createAnimator(final int emitIndex, final Manipulatable target, final Animator... animators) {
         return init(emitIndex, target, new ColorAnimator(NovaConfig.getInterpolator(interpolation)));
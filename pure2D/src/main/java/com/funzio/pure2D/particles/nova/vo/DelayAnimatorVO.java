@@ -32,6 +32,7 @@ import org.json.JSONObject;
 import com.funzio.pure2D.Manipulatable;
 import com.funzio.pure2D.animators.Animator;
 import com.funzio.pure2D.animators.DelayAnimator;
+import com.funzio.pure2D.particles.nova.NovaBinary;
 import com.funzio.pure2D.particles.nova.NovaConfig;
 
 /**
@@ -47,6 +48,12 @@ public class DelayAnimatorVO extends AnimatorVO {
         duration = NovaVO.getListInt(json, "duration");
     }
 
+    public DelayAnimatorVO(final NovaBinary binary, final int offset) {
+        super(binary, offset);
+
+        duration = NovaVO.getListInt(binary, offset, "duration");
+    }
+
     @Override
     public Animator createAnimator(final int emitIndex, final Manipulatable target, final Animator... animators) {
         return init(emitIndex, target, new DelayAnimator());
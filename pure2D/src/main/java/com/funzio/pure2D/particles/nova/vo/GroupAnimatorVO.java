@@ -32,6 +32,7 @@ import org.json.JSONObject;
 import com.funzio.pure2D.Manipulatable;
 import com.funzio.pure2D.animators.Animator;
 import com.funzio.pure2D.animators.GroupAnimator;
+import com.funzio.pure2D.particles.nova.NovaBinary;
 import com.funzio.pure2D.particles.nova.NovaConfig;
 
 /**
@@ -47,6 +48,12 @@ public abstract class GroupAnimatorVO extends AnimatorVO {
         animators = NovaVO.getAnimators(json.optJSONArray("animators"));
     }
 
+    public GroupAnimatorVO(final NovaBinary binary, final int offset) {
+        super(binary, offset);
+
+        animators = NovaVO.getAnimators(binary, binary.getArray(offset, "animators"));
+    }
+
     /*
      * (non-Javadoc)
      * @see com.funzio.pure2D.particles.nova.vo.AnimatorVO#resetAnimator(com.funzio.pure2D.animators.Animator)
@@ -33,6 +33,7 @@ import com.funzio.pure2D.DisplayObject;
 import com.funzio.pure2D.effects.trails.MotionTrail;
 import com.funzio.pure2D.effects.trails.MotionTrailShape;
 import com.funzio.pure2D.gl.GLColor;
+import com.funzio.pure2D.particles.nova.NovaBinary;
 import com.funzio.pure2D.particles.nova.NovaConfig;
 
 /**
@@ -72,6 +73,20 @@ public class MotionTrailShapeVO extends MotionTrailVO {
         stroke_interpolation = NovaVO.getListString(json, "stroke_interpolation");
     }
 
+    public MotionTrailShapeVO(final NovaBinary binary, final int offset) {
+        super(binary, offset);
+
+        stroke1 = NovaVO.getListInt(binary, offset, "stroke1");
+        stroke2 = NovaVO.getListInt(binary, offset, "stroke2");
+        color1 = NovaVO.getListColor(binary, offset, "color1");
+        color2 = NovaVO.getListColor(binary, offset, "color2");
+        color3 = NovaVO.getListColor(binary, offset, "color3");
+        color4 = NovaVO.getListColor(binary, offset, "color4");
+        easing_x = NovaVO.getListFloat(binary, offset, "easing_x");
+        easing_y = NovaVO.getListFloat(binary, offset, "easing_y");
+        stroke_interpolation = NovaVO.getListString(binary, offset, "stroke_interpolation");
+    }
+
     /*
      * (non-Javadoc)
      * @see com.funzio.pure2D.particles.nova.vo.TrailVO#createTrail(com.funzio.pure2D.DisplayObject)
@@ -30,6 +30,7 @@ import org.json.JSONObject;
 import com.funzio.pure2D.DisplayObject;
 import com.funzio.pure2D.effects.trails.MotionTrail;
 import com.funzio.pure2D.gl.gl10.textures.TextureOptions;
+import com.funzio.pure2D.particles.nova.NovaBinary;
 
 /**
  * @author long
@@ -54,6 +55,12 @@ public abstract class MotionTrailVO {
         num_points = json.optInt("num_points", 10);
     }
 
+    public MotionTrailVO(final NovaBinary binary, final int offset) {
+        name = binary.optString(offset, "name");
+        type = binary.optString(offset, "type", SHAPE);
+        num_points = binary.optInt(offset, "num_points", 10);
+    }
+
     /**
      * @param target
      * @param trail
@@ -100,4 +107,17 @@ public abstract class MotionTrailVO {
             return null;
         }
     }
+
+    public static MotionTrailVO create(final NovaBinary binary, final int offset) {
+        final String type = binary.optString(offset, "type", null);
+        if (type == null) {
+            return null;
+        }
+
+        if (type.equalsIgnoreCase(SHAPE)) {
+            return new MotionTrailShapeVO(binary, offset);
+        } else {
+            return null;
+        }
+    }
 }
@@ -32,6 +32,7 @@ import org.json.JSONObject;
 import com.funzio.pure2D.Manipulatable;
 import com.funzio.pure2D.animators.Animator;
 import com.funzio.pure2D.animators.MoveAnimator;
+import com.funzio.pure2D.particles.nova.NovaBinary;
 import com.funzio.pure2D.particles.nova.NovaConfig;
 
 /**
@@ -57,6 +58,16 @@ public class MoveAnimatorVO extends TweenAnimatorVO {
         degree = NovaVO.getListInt(json, "degree");
     }
 
+    public MoveAnimatorVO(final NovaBinary binary, final int offset) {
+        super(binary, offset);
+
+        dx = NovaVO.getListInt(binary, offset, "dx");
+        dy = NovaVO.getListInt(binary, offset, "dy");
+        // or
+        distance = NovaVO.getListInt(binary, offset, "distance");
+        degree = NovaVO.getListInt(binary, offset, "degree");
+    }
+
     @Override
     public Animator createAnimator(final int emitIndex, final Manipulatable target, final Animator... animators) {
         return init(emitIndex, target, new MoveAnimator(NovaConfig.getInterpolator(interpolation)));
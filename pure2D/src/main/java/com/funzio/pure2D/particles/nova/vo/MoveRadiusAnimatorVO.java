@@ -32,6 +32,7 @@ import org.json.JSONObject;
 import com.funzio.pure2D.Manipulatable;
 import com.funzio.pure2D.animators.Animator;
 import com.funzio.pure2D.animators.MoveRadiusAnimator;
+import com.funzio.pure2D.particles.nova.NovaBinary;
 import com.funzio.pure2D.particles.nova.NovaConfig;
 
 /**
@@ -50,6 +51,13 @@ public class MoveRadiusAnimatorVO extends TweenAnimatorVO {
         degree = NovaVO.getListInt(json, "degree");
     }
 
+    public MoveRadiusAnimatorVO(final NovaBinary binary, final int offset) {
+        super(binary, offset);
+
+        distance = NovaVO.getListInt(binary, offset, "distance");
+        degree = NovaVO.getListInt(binary, offset, "degree");
+    }
+
     @Override
     public Animator createAnimator(final int emitIndex, final Manipulatable target, final Animator... animators) {
         return init(emitIndex, target, new MoveRadiusAnimator(NovaConfig.getInterpolator(interpolation)));
@@ -32,6 +32,7 @@ import org.json.JSONException;
 import org.json.JSONObject;
 
 import com.funzio.pure2D.gl.gl10.textures.TextureOptions;
+import com.funzio.pure2D.particles.nova.NovaBinary;
 
 /**
  * @author long
@@ -91,6 +92,26 @@ public class NovaEmitterVO extends NovaEntryVO {
         particles = getParticles(json.optJSONArray("particles"));
     }
 
+    public NovaEmitterVO(final NovaBinary binary, final int offset) {
+        super(binary, offset);
+
+        name = binary.optString(offset, "name");
+
+        type = binary.optString(offset, "type", type);
+        width = binary.optInt(offset, "width", width);
+        height = binary.optInt(offset, "height", height);
+        quantity = binary.optInt(offset, "quantity", quantity);
+        lifespan = binary.optInt(offset, "lifespan", lifespan);
+
+        // offset position
+        x = binary.optInt(offset, "x", 0);
+        y = binary.optInt(offset, "y", 0);
+
+        animator = binary.optString(offset, "animator");
+        motion_trail = binary.optString(offset, "motion_trail");
+        particles = getParticles(binary, binary.getArray(offset, "particles"));
+    }
+
     /**
      * Apply scale to the coordinates and sizes
      * 
@@ -122,6 +143,16 @@ public class NovaEmitterVO extends NovaEntryVO {
         return list;
     }
 
+    private ArrayList<NovaParticleVO> getParticles(final NovaBinary binary, final int array) {
+        final ArrayList<NovaParticleVO> list = new ArrayList<NovaParticleVO>();
+        final int size = array >= 0 ? binary.getLength(array) : 0;
+        for (int i = 0; i < size; i++) {
+            list.add(new NovaParticleVO(binary, binary.getValueAt(array, i)));
+        }
+
+        return list;
+    }
+
     /**
      * @return the set of Sprites being used
      */
@@ -27,6 +27,8 @@ package com.funzio.pure2D.particles.nova.vo;
 import org.json.JSONException;
 import org.json.JSONObject;
 
+import com.funzio.pure2D.particles.nova.NovaBinary;
+
 /**
  * @author long
  */
@@ -35,4 +37,7 @@ public abstract class NovaEntryVO {
     public NovaEntryVO(final JSONObject json) throws JSONException {
     }
 
+    public NovaEntryVO(final NovaBinary binary, final int offset) {
+    }
+
 }
@@ -32,6 +32,7 @@ import org.json.JSONObject;
 import com.funzio.pure2D.Scene;
 import com.funzio.pure2D.gl.GLColor;
 import com.funzio.pure2D.gl.gl10.textures.TextureOptions;
+import com.funzio.pure2D.particles.nova.NovaBinary;
 
 /**
  * @author long
@@ -125,6 +126,40 @@ public class NovaParticleVO extends NovaEntryVO {
         motion_trail = NovaVO.getListString(json, "motion_trail");
     }
 
+    public NovaParticleVO(final NovaBinary binary, final int offset) {
+        super(binary, offset);
+
+        name = binary.optString(offset, "name");
+
+        start_delay = binary.optInt(offset, "start_delay", start_delay);
+        step_delay = binary.optInt(offset, "step_delay", step_delay);
+        duration = binary.optInt(offset, "duration", duration);
+        step_quantity = binary.optInt(offset, "step_quantity", step_quantity);
+        layer = binary.optInt(offset, "layer", layer);
+        origin_x = binary.optInt(offset, "origin_x", origin_x);
+        origin_y = binary.optInt(offset, "origin_y", origin_y);
+
+        // optional sprite or clip
+        sprite = NovaVO.getListString(binary, offset, "sprite");
+        start_frame = NovaVO.getListInt(binary, offset, "start_frame");
+        loop_mode = NovaVO.getListString(binary, offset, "loop_mode");
+
+        // basic DisplayObject's properties
+        x = NovaVO.getListInt(binary, offset, "x");
+        y = NovaVO.getListInt(binary, offset, "y");
+        z = NovaVO.getListFloat(binary, offset, "z");
+        animator = NovaVO.getListString(binary, offset, "animator");
+        blend_mode = NovaVO.getListString(binary, offset, "blend_mode");
+        alpha = NovaVO.getListFloat(binary, offset, "alpha");
+        color = NovaVO.getListColor(binary, offset, "color");
+        rotation = NovaVO.getListFloat(binary, offset, "rotation");
+        scale_x = NovaVO.getListFloat(binary, offset, "scale_x");
+        scale_y = NovaVO.getListFloat(binary, offset, "scale_y");
+        skew_x = NovaVO.getListFloat(binary, offset, "skew_x");
+        skew_y = NovaVO.getListFloat(binary, offset, "skew_y");
+        motion_trail = NovaVO.getListString(binary, offset, "motion_trail");
+    }
+
     /**
      * Apply scale to all coordinates and sizes. This is used when you scale the texture.
      * 
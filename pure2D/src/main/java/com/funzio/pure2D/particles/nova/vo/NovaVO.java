@@ -24,6 +24,7 @@
  */
 package com.funzio.pure2D.particles.nova.vo;
 
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -36,6 +37,7 @@ import org.json.JSONObject;
 
 import com.funzio.pure2D.gl.GLColor;
 import com.funzio.pure2D.gl.gl10.textures.TextureOptions;
+import com.funzio.pure2D.particles.nova.NovaBinary;
 
 /**
  * @author long
@@ -56,6 +58,7 @@ public class NovaVO {
 
     private HashSet<String> mUsedSprites;
     private JSONObject mSource;
+    private NovaBinary mBinary;
 
     // @JsonCreator
     // public NovaVO( //
@@ -89,7 +92,28 @@ public class NovaVO {
         animators = getAnimators(json.optJSONArray("animators"));
         motion_trails = getMotionTrails(json.optJSONArray("motion_trails"));
 
-        // make the maps
+        makeMaps();
+    }
+
+    /**
+     * @param binary a compiled Nova
+     * @see NovaBinary
+     */
+    public NovaVO(final NovaBinary binary) {
+        mBinary = binary;
+
+        final int root = binary.getRoot();
+        version = binary.optInt(root, "version", 0);
+        name = binary.optString(root, "name");
+        pool_size = binary.optInt(root, "pool_size", 0);
+        emitters = getEmitters(binary, binary.getArray(root, "emitters"));
+        animators = getAnimators(binary, binary.getArray(root, "animators"));
+        motion_trails = getMotionTrails(binary, binary.getArray(root, "motion_trails"));
+
+        makeMaps();
+    }
+
+    private void makeMaps() {
         if (emitters != null) {
             mEmitterMap = new HashMap<String, NovaEmitterVO>();
             for (final NovaEmitterVO vo : emitters) {
@@ -120,6 +144,14 @@ public class NovaVO {
         this(new JSONObject(json));
     }
 
+    /**
+     * @param buffer a compiled Nova
+     * @see NovaBinary
+     */
+    public NovaVO(final ByteBuffer buffer) throws JSONException {
+        this(new NovaBinary(buffer));
+    }
+
     /**
      * Apply a screen's scale factor to some certain numbers such as x, y, dx, dy. This is used when you scale the texture.
      * 
@@ -209,6 +241,48 @@ public class NovaVO {
         return result;
     }
 
+    protected static ArrayList<NovaEmitterVO> getEmitters(final NovaBinary binary, final int array) {
+        if (array < 0) {
+            return null;
+        }
+
+        final ArrayList<NovaEmitterVO> result = new ArrayList<NovaEmitterVO>();
+        final int size = binary.getLength(array);
+        for (int i = 0; i < size; i++) {
+            result.add(new NovaEmitterVO(binary, binary.getValueAt(array, i)));
+        }
+
+        return result;
+    }
+
+    protected static ArrayList<AnimatorVO> getAnimators(final NovaBinary binary, final int array) {
+        if (array < 0) {
+            return null;
+        }
+
+        final ArrayList<AnimatorVO> result = new ArrayList<AnimatorVO>();
+        final int size = binary.getLength(array);
+        for (int i = 0; i < size; i++) {
+            result.add(AnimatorVO.create(binary, binary.getValueAt(array, i)));
+        }
+
+        return result;
+    }
+
+    protected static ArrayList<MotionTrailVO> getMotionTrails(final NovaBinary binary, final int array) {
+        if (array < 0) {
+            return null;
+        }
+
+        final ArrayList<MotionTrailVO> result = new ArrayList<MotionTrailVO>();
+        final int size = binary.getLength(array);
+        for (int i = 0; i < size; i++) {
+            result.add(MotionTrailVO.create(binary, binary.getValueAt(array, i)));
+        }
+
+        return result;
+    }
+
     protected static ArrayList<Integer> getListInt(final JSONObject json, final String field) throws JSONException {
         // field check
         if (!json.has(field)) {
@@ -309,6 +383,98 @@ public class NovaVO {
         return result;
     }
 
+    protected static ArrayList<Integer> getListInt(final NovaBinary binary, final int object, final String field) {
+        // field check
+        final int value = binary.find(object, field);
+        if (value < 0) {
+            return null;
+        }
+
+        final ArrayList<Integer> result = new ArrayList<Integer>();
+        if (binary.isArray(value)) {
+            final int size = binary.getLength(value);
+            for (int i = 0; i < size; i++) {
+                result.add(binary.getInt(binary.getValueAt(value, i)));
+            }
+        } else {
+            // single value
+            result.add(binary.getInt(value));
+        }
+
+        return result;
+    }
+
+    protected static ArrayList<Float> getListFloat(final NovaBinary binary, final int object, final String field) {
+        // field check
+        final int value = binary.find(object, field);
+        if (value < 0) {
+            return null;
+        }
+
+        final ArrayList<Float> result = new ArrayList<Float>();
+        if (binary.isArray(value)) {
+            final int size = binary.getLength(value);
+            for (int i = 0; i < size; i++) {
+                result.add((float) binary.getDouble(binary.getValueAt(value, i)));
+            }
+        } else {
+            // single value
+            result.add((float) binary.getDouble(value));
+        }
+
+        return result;
+    }
+
+    protected static ArrayList<String> getListString(final NovaBinary binary, final int object, final String field) {
+        // field check
+        final int value = binary.find(object, field);
+        if (value < 0) {
+            return null;
+        }
+
+        final ArrayList<String> result = new ArrayList<String>();
+        if (binary.isArray(value)) {
+            final int size = binary.getLength(value);
+            for (int i = 0; i < size; i++) {
+                result.add(binary.getString(binary.getValueAt(value, i)));
+            }
+        } else {
+            // single value
+            result.add(binary.optString(object, field));
+        }
+
+        return result;
+    }
+
+    protected static ArrayList<GLColor> getListColor(final NovaBinary binary, final int object, final String field) {
+        // field check
+        final int value = binary.find(object, field);
+        if (value < 0) {
+            return null;
+        }
+
+        final ArrayList<GLColor> result = new ArrayList<GLColor>();
+        if (binary.isArray(value)) {
+            final int size = binary.getLength(value);
+            for (int i = 0; i < size; i++) {
+                result.add(getColor(binary, binary.getValueAt(value, i)));
+            }
+        } else {
+            // single value
+            result.add(getColor(binary, value));
+        }
+
+        return result;
+    }
+
+    private static GLColor getColor(final NovaBinary binary, final int value) {
+        if (binary.isString(value)) {
+            return new GLColor(Color.parseColor(binary.getString(value)));
+        } else {
+            return new GLColor(binary.getInt(value));
+        }
+    }
+
     /**
      * @return the set of Sprites being used
      */
@@ -330,9 +496,21 @@ public class NovaVO {
      */
     public void releaseSource() {
         mSource = null;
+        mBinary = null;
     }
 
+    /**
+     * @return the source JSON, decoded on demand when this was read from a compiled Nova
+     */
     public JSONObject getSource() {
+        if (mSource == null && mBinary != null) {
+            try {
+                mSource = mBinary.toJSONObject();
+            } catch (JSONException e) {
+                // corrupted binary
+            }
+        }
+
         return mSource;
     }
 
@@ -30,6 +30,7 @@ import org.json.JSONObject;
 import com.funzio.pure2D.Manipulatable;
 import com.funzio.pure2D.animators.Animator;
 import com.funzio.pure2D.animators.ParallelAnimator;
+import com.funzio.pure2D.particles.nova.NovaBinary;
 
 /**
  * @author long
@@ -40,6 +41,10 @@ public class ParallelAnimatorVO extends GroupAnimatorVO {
         super(json);
     }
 
+    public ParallelAnimatorVO(final NovaBinary binary, final int offset) {
+        super(binary, offset);
+    }
+
     @Override
     public Animator createAnimator(final int emitIndex, final Manipulatable target, final Animator... animators) {
         return init(emitIndex, target, new ParallelAnimator(animators));
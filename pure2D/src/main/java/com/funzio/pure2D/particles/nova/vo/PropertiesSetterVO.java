@@ -36,6 +36,7 @@ import com.funzio.pure2D.animators.PropertiesSetter;
 import com.funzio.pure2D.gl.GLColor;
 import com.funzio.pure2D.gl.gl10.BlendModes;
 import com.funzio.pure2D.gl.gl10.textures.TextureOptions;
+import com.funzio.pure2D.particles.nova.NovaBinary;
 import com.funzio.pure2D.particles.nova.NovaConfig;
 
 /**
@@ -79,6 +80,26 @@ public class PropertiesSetterVO extends AnimatorVO {
         mProperties = new HashMap<String, Object>();
     }
 
+    public PropertiesSetterVO(final NovaBinary binary, final int offset) {
+        super(binary, offset);
+
+        x = NovaVO.getListFloat(binary, offset, "x");
+        y = NovaVO.getListFloat(binary, offset, "y");
+        z = NovaVO.getListFloat(binary, offset, "z");
+        origin_x = NovaVO.getListFloat(binary, offset, "origin_x");
+        origin_y = NovaVO.getListFloat(binary, offset, "origin_y");
+        scale_x = NovaVO.getListFloat(binary, offset, "scale_x");
+        scale_y = NovaVO.getListFloat(binary, offset, "scale_y");
+        rotation = NovaVO.getListFloat(binary, offset, "rotation");
+        alpha = NovaVO.getListFloat(binary, offset, "alpha");
+        color = NovaVO.getListColor(binary, offset, "color");
+        blend_mode = NovaVO.getListString(binary, offset, "blend_mode");
+
+        duration = NovaVO.getListInt(binary, offset, "duration");
+
+        mProperties = new HashMap<String, Object>();
+    }
+
     /**
      * Apply scale to all coordinates and sizes. This is used when you scale the texture.
      * 
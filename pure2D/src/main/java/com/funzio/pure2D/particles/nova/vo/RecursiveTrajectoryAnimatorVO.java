@@ -32,6 +32,7 @@ import org.json.JSONObject;
 import com.funzio.pure2D.Manipulatable;
 import com.funzio.pure2D.animators.Animator;
 import com.funzio.pure2D.animators.RecursiveTrajectoryAnimator;
+import com.funzio.pure2D.particles.nova.NovaBinary;
 import com.funzio.pure2D.particles.nova.NovaConfig;
 
 /**
@@ -47,6 +48,12 @@ public class RecursiveTrajectoryAnimatorVO extends TrajectoryAnimatorVO {
         deceleration_rate = NovaVO.getListFloat(json, "deceleration_rate");
     }
 
+    public RecursiveTrajectoryAnimatorVO(final NovaBinary binary, final int offset) {
+        super(binary, offset);
+
+        deceleration_rate = NovaVO.getListFloat(binary, offset, "deceleration_rate");
+    }
+
     @Override
     public Animator createAnimator(final int emitIndex, final Manipulatable target, final Animator... animators) {
         return init(emitIndex, target, new RecursiveTrajectoryAnimator());
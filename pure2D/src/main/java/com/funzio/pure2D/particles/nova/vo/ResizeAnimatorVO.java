@@ -32,6 +32,7 @@ import org.json.JSONObject;
 import com.funzio.pure2D.Manipulatable;
 import com.funzio.pure2D.animators.Animator;
 import com.funzio.pure2D.animators.ResizeAnimator;
+import com.funzio.pure2D.particles.nova.NovaBinary;
 import com.funzio.pure2D.particles.nova.NovaConfig;
 
 /**
@@ -54,6 +55,16 @@ public class ResizeAnimatorVO extends TweenAnimatorVO {
         height_to = NovaVO.getListFloat(json, "height_to");
     }
 
+    public ResizeAnimatorVO(final NovaBinary binary, final int offset) {
+        super(binary, offset);
+
+        width_from = NovaVO.getListFloat(binary, offset, "width_from");
+        width_to = NovaVO.getListFloat(binary, offset, "width_to");
+
+        height_from = NovaVO.getListFloat(binary, offset, "height_from");
+        height_to = NovaVO.getListFloat(binary, offset, "height_to");
+    }
+
     @Override
     public Animator createAnimator(final int emitIndex, final Manipulatable target, final Animator... animators) {
         return init(emitIndex, target, new ResizeAnimator(NovaConfig.getInterpolator(interpolation)));
@@ -27,6 +27,7 @@ package com.funzio.pure2D.particles.nova.vo;
 import com.funzio.pure2D.Manipulatable;
 import com.funzio.pure2D.animators.Animator;
 import com.funzio.pure2D.animators.RotateAnimator;
+import com.funzio.pure2D.particles.nova.NovaBinary;
 import com.funzio.pure2D.particles.nova.NovaConfig;
 
 import org.json.JSONException;
@@ -57,6 +58,18 @@ public class RotateAnimatorVO extends TweenAnimatorVO {
         radius = NovaVO.getListInt(json, "radius");
     }
 
+    public RotateAnimatorVO(final NovaBinary binary, final int offset) {
+        super(binary, offset);
+
+        from = NovaVO.getListFloat(binary, offset, "from");
+        to = NovaVO.getListFloat(binary, offset, "to");
+        delta = NovaVO.getListFloat(binary, offset, "delta");
+
+        pivot_x = NovaVO.getListInt(binary, offset, "pivot_x");
+        pivot_y = NovaVO.getListInt(binary, offset, "pivot_y");
+        radius = NovaVO.getListInt(binary, offset, "radius");
+    }
+
     @Override
     public Animator createAnimator(final int emitIndex, final Manipulatable target, final Animator... animators) {
         return init(emitIndex, target, new RotateAnimator(NovaConfig.getInterpolator(interpolation)));
@@ -32,6 +32,7 @@ import org.json.JSONObject;
 import com.funzio.pure2D.Manipulatable;
 import com.funzio.pure2D.animators.Animator;
 import com.funzio.pure2D.animators.ScaleAnimator;
+import com.funzio.pure2D.particles.nova.NovaBinary;
 import com.funzio.pure2D.particles.nova.NovaConfig;
 
 /**
@@ -69,6 +70,31 @@ public class ScaleAnimatorVO extends TweenAnimatorVO {
         }
     }
 
+    public ScaleAnimatorVO(final NovaBinary binary, final int offset) {
+        super(binary, offset);
+
+        final ArrayList<Float> from = NovaVO.getListFloat(binary, offset, "from");
+        final ArrayList<Float> to = NovaVO.getListFloat(binary, offset, "to");
+
+        x_from = NovaVO.getListFloat(binary, offset, "x_from");
+        if (x_from == null) {
+            x_from = from;
+        }
+        x_to = NovaVO.getListFloat(binary, offset, "x_to");
+        if (x_to == null) {
+            x_to = to;
+        }
+
+        y_from = NovaVO.getListFloat(binary, offset, "y_from");
+        if (y_from == null) {
+            y_from = from;
+        }
+        y_to = NovaVO.getListFloat(binary, offset, "y_to");
+        if (y_to == null) {
+            y_to = to;
+        }
+    }
+
     @Override
     public Animator createAnimator(final int emitIndex, final Manipulatable target, final Animator... animators) {
         return init(emitIndex, target, new ScaleAnimator(NovaConfig.getInterpolator(interpolation)));
@@ -30,6 +30,7 @@ import org.json.JSONObject;
 import com.funzio.pure2D.Manipulatable;
 import com.funzio.pure2D.animators.Animator;
 import com.funzio.pure2D.animators.SequenceAnimator;
+import com.funzio.pure2D.particles.nova.NovaBinary;
 
 /**
  * @author long
@@ -40,6 +41,10 @@ public class SequenceAnimatorVO extends GroupAnimatorVO {
         super(json);
     }
 
+    public SequenceAnimatorVO(final NovaBinary binary, final int offset) {
+        super(binary, offset);
+    }
+
     @Override
     public Animator createAnimator(final int emitIndex, final Manipulatable target, final Animator... animators) {
         return init(emitIndex, target, new SequenceAnimator(animators));
@@ -32,6 +32,7 @@ import org.json.JSONObject;
 import com.funzio.pure2D.Manipulatable;
 import com.funzio.pure2D.animators.Animator;
 import com.funzio.pure2D.animators.SinWaveAnimator;
+import com.funzio.pure2D.particles.nova.NovaBinary;
 import com.funzio.pure2D.particles.nova.NovaConfig;
 
 /**
@@ -66,6 +67,20 @@ public class SinWaveAnimatorVO extends TweenAnimatorVO {
         wave_num = NovaVO.getListInt(json, "wave_num");
     }
 
+    public SinWaveAnimatorVO(final NovaBinary binary, final int offset) {
+        super(binary, offset);
+
+        dx = NovaVO.getListInt(binary, offset, "dx");
+        dy = NovaVO.getListInt(binary, offset, "dy");
+        // or
+        distance = NovaVO.getListInt(binary, offset, "distance");
+        degree = NovaVO.getListInt(binary, offset, "degree");
+
+        wave_radius1 = NovaVO.getListInt(binary, offset, "wave_radius1");
+        wave_radius2 = NovaVO.getListInt(binary, offset, "wave_radius2");
+        wave_num = NovaVO.getListInt(binary, offset, "wave_num");
+    }
+
     @Override
     public Animator createAnimator(final int emitIndex, final Manipulatable target, final Animator... animators) {
         return init(emitIndex, target, new SinWaveAnimator(NovaConfig.getInterpolator(interpolation)));
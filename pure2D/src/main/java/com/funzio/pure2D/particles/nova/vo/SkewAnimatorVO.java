@@ -32,6 +32,7 @@ import org.json.JSONObject;
 import com.funzio.pure2D.Manipulatable;
 import com.funzio.pure2D.animators.Animator;
 import com.funzio.pure2D.animators.SkewAnimator;
+import com.funzio.pure2D.particles.nova.NovaBinary;
 import com.funzio.pure2D.particles.nova.NovaConfig;
 
 /**
@@ -53,6 +54,15 @@ public class SkewAnimatorVO extends TweenAnimatorVO {
         y_to = NovaVO.getListFloat(json, "y_to");
     }
 
+    public SkewAnimatorVO(final NovaBinary binary, final int offset) {
+        super(binary, offset);
+
+        x_from = NovaVO.getListFloat(binary, offset, "x_from");
+        x_to = NovaVO.getListFloat(binary, offset, "x_to");
+        y_from = NovaVO.getListFloat(binary, offset, "y_from");
+        y_to = NovaVO.getListFloat(binary, offset, "y_to");
+    }
+
     @Override
     public Animator createAnimator(final int emitIndex, final Manipulatable target, final Animator... animators) {
         return init(emitIndex, target, new SkewAnimator(NovaConfig.getInterpolator(interpolation)));
@@ -32,6 +32,7 @@ import org.json.JSONObject;
 import com.funzio.pure2D.Manipulatable;
 import com.funzio.pure2D.animators.Animator;
 import com.funzio.pure2D.animators.TornadoAnimator;
+import com.funzio.pure2D.particles.nova.NovaBinary;
 import com.funzio.pure2D.particles.nova.NovaConfig;
 
 /**
@@ -62,6 +63,20 @@ public class TornadoAnimatorVO extends TweenAnimatorVO {
         z_enabled = json.optInt("z_enabled", 0) > 0;
     }
 
+    public TornadoAnimatorVO(final NovaBinary binary, final int offset) {
+        super(binary, offset);
+
+        dx = NovaVO.getListInt(binary, offset, "dx");
+        dy = NovaVO.getListInt(binary, offset, "dy");
+        circle_radius = NovaVO.getListInt(binary, offset, "circle_radius");
+        circle_num = NovaVO.getListInt(binary, offset, "circle_num");
+        circle_interpolation = NovaVO.getListString(binary, offset, "circle_interpolation");
+        circle_multiplier = NovaVO.getListFloat(binary, offset, "circle_multiplier");
+        circle_ratio = NovaVO.getListFloat(binary, offset, "circle_ratio");
+
+        z_enabled = binary.optInt(offset, "z_enabled", 0) > 0;
+    }
+
     @Override
     public Animator createAnimator(final int emitIndex, final Manipulatable target, final Animator... animators) {
         return init(emitIndex, target, new TornadoAnimator(NovaConfig.getInterpolator(interpolation)));
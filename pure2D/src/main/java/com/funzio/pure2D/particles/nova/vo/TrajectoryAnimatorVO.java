@@ -32,6 +32,7 @@ import org.json.JSONObject;
 import com.funzio.pure2D.Manipulatable;
 import com.funzio.pure2D.animators.Animator;
 import com.funzio.pure2D.animators.TrajectoryAnimator;
+import com.funzio.pure2D.particles.nova.NovaBinary;
 import com.funzio.pure2D.particles.nova.NovaConfig;
 
 /**
@@ -53,6 +54,15 @@ public class TrajectoryAnimatorVO extends AnimatorVO {
         gravity = NovaVO.getListFloat(json, "gravity");
     }
 
+    public TrajectoryAnimatorVO(final NovaBinary binary, final int offset) {
+        super(binary, offset);
+
+        ground = NovaVO.getListFloat(binary, offset, "ground");
+        velocity = NovaVO.getListFloat(binary, offset, "velocity");
+        angle = NovaVO.getListFloat(binary, offset, "angle");
+        gravity = NovaVO.getListFloat(binary, offset, "gravity");
+    }
+
     @Override
     public Animator createAnimator(final int emitIndex, final Manipulatable target, final Animator... animators) {
         return init(emitIndex, target, new TrajectoryAnimator());
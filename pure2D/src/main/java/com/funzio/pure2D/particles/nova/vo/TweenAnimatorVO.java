@@ -32,6 +32,7 @@ import org.json.JSONObject;
 import com.funzio.pure2D.Manipulatable;
 import com.funzio.pure2D.animators.Animator;
 import com.funzio.pure2D.animators.TweenAnimator;
+import com.funzio.pure2D.particles.nova.NovaBinary;
 import com.funzio.pure2D.particles.nova.NovaConfig;
 
 /**
@@ -50,6 +51,14 @@ public abstract class TweenAnimatorVO extends AnimatorVO {
         duration = NovaVO.getListInt(json, "duration");
     }
 
+    public TweenAnimatorVO(final NovaBinary binary, final int offset) {
+        super(binary, offset);
+
+        interpolation = binary.optString(offset, "interpolation");
+        reversed = binary.optBoolean(offset, "reversed", false);
+        duration = NovaVO.getListInt(binary, offset, "duration");
+    }
+
     /*
      * (non-Javadoc)
      * @see com.funzio.pure2D.particles.nova.vo.AnimatorVO#resetAnimator(com.funzio.pure2D.Manipulatable, com.funzio.pure2D.animators.Animator)
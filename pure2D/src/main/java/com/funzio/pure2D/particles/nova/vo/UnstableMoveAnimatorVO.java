@@ -32,6 +32,7 @@ import org.json.JSONObject;
 import com.funzio.pure2D.Manipulatable;
 import com.funzio.pure2D.animators.Animator;
 import com.funzio.pure2D.animators.UnstableMoveAnimator;
+import com.funzio.pure2D.particles.nova.NovaBinary;
 import com.funzio.pure2D.particles.nova.NovaConfig;
 
 /**
@@ -71,6 +72,23 @@ public class UnstableMoveAnimatorVO extends TweenAnimatorVO {
         wind_y2 = NovaVO.getListFloat(json, "wind_y2");
     }
 
+    public UnstableMoveAnimatorVO(final NovaBinary binary, final int offset) {
+        super(binary, offset);
+
+        dx = NovaVO.getListInt(binary, offset, "dx");
+        dy = NovaVO.getListInt(binary, offset, "dy");
+        // or
+        distance = NovaVO.getListInt(binary, offset, "distance");
+        degree = NovaVO.getListInt(binary, offset, "degree");
+
+        // wind atts
+        segment_duration = NovaVO.getListInt(binary, offset, "segment_duration");
+        wind_x1 = NovaVO.getListFloat(binary, offset, "wind_x1");
+        wind_x2 = NovaVO.getListFloat(binary, offset, "wind_x2");
+        wind_y1 = NovaVO.getListFloat(binary, offset, "wind_y1");
+        wind_y2 = NovaVO.getListFloat(binary, offset, "wind_y2");
+    }
+
     @Override
     public Animator createAnimator(final int emitIndex, final Manipulatable target, final Animator... animators) {
         return init(emitIndex, target, new UnstableMoveAnimator(NovaConfig.getInterpolator(interpolation)));
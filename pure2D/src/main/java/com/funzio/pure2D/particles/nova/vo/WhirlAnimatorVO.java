@@ -32,6 +32,7 @@ import org.json.JSONObject;
 import com.funzio.pure2D.Manipulatable;
 import com.funzio.pure2D.animators.Animator;
 import com.funzio.pure2D.animators.WhirlAnimator;
+import com.funzio.pure2D.particles.nova.NovaBinary;
 import com.funzio.pure2D.particles.nova.NovaConfig;
 
 /**
@@ -59,6 +60,18 @@ public class WhirlAnimatorVO extends TweenAnimatorVO {
         circle_multiplier = NovaVO.getListFloat(json, "circle_multiplier");
     }
 
+    public WhirlAnimatorVO(final NovaBinary binary, final int offset) {
+        super(binary, offset);
+
+        radius1 = NovaVO.getListInt(binary, offset, "radius1");
+        radius2 = NovaVO.getListInt(binary, offset, "radius2");
+        degree1 = NovaVO.getListInt(binary, offset, "degree1");
+        degree2 = NovaVO.getListInt(binary, offset, "degree2");
+        circle_interpolation = NovaVO.getListString(binary, offset, "circle_interpolation");
+        circle_ratio = NovaVO.getListFloat(binary, offset, "circle_ratio");
+        circle_multiplier = NovaVO.getListFloat(binary, offset, "circle_multiplier");
+    }
+
     @Override
     public Animator createAnimator(final int emitIndex, final Manipulatable target, final Animator... animators) {
         return init(emitIndex, target, new WhirlAnimator(NovaConfig.getInterpolator(interpolation)));
@@ -0,0 +1,167 @@
+/*******************************************************************************
+ * Copyright (C) 2012-2014 GREE, Inc.
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ ******************************************************************************/
+/**
+ * 
+ */
+package com.funzio.pure2D.profiler;
+
+/**
+ * A fixed-size ring buffer of the last frames recorded by the {@link Profiler}. It can be read from any thread.
+ * 
+ * @author long
+ */
+public class FrameStats {
+    public static final int DEFAULT_CAPACITY = 120;
+
+    private final int mCapacity;
+    private final long[] mUpdateTimes;
+    private final long[] mDrawTimes;
+    private final int[] mCounters; // capacity x NUM_COUNTERS
+    private int mHead = 0; // the next slot to write
+    private int mSize = 0;
+    private long mFrameCount = 0;
+
+    public FrameStats(final int capacity) {
+        mCapacity = capacity;
+        mUpdateTimes = new long[capacity];
+        mDrawTimes = new long[capacity];
+        mCounters = new int[capacity * Profiler.NUM_COUNTERS];
+    }
+
+    synchronized void add(final long updateTime, final long drawTime, final int[] counters) {
+        mUpdateTimes[mHead] = updateTime;
+        mDrawTimes[mHead] = drawTime;
+        System.arraycopy(counters, 0, mCounters, mHead * Profiler.NUM_COUNTERS, Profiler.NUM_COUNTERS);
+
+        mHead = (mHead + 1) % mCapacity;
+        if (mSize < mCapacity) {
+            mSize++;
+        }
+        mFrameCount++;
+    }
+
+    private int slot(final int index) {
+        return (mHead - 1 - index + mCapacity) % mCapacity;
+    }
+
+    /**
+     * @param index 0 = the last frame
+     * @return the update time in ms
+     */
+    public synchronized float getUpdateTime(final int index) {
+        return mUpdateTimes[slot(index)] / 1000000f;
+    }
+
+    /**
+     * @param index 0 = the last frame
+     * @return the draw time in ms
+     */
+    public synchronized float getDrawTime(final int index) {
+        return mDrawTimes[slot(index)] / 1000000f;
+    }
+
+    /**
+     * @param index 0 = the last frame
+     * @param counter such as {@link Profiler#DRAW_CALLS}
+     * @return
+     */
+    public synchronized int getCounter(final int index, final int counter) {
+        return mCounters[slot(index) * Profiler.NUM_COUNTERS + counter];
+    }
+
+    public synchronized float getAverageUpdateTime() {
+        if (mSize == 0) {
+            return 0;
+        }
+
+        long total = 0;
+        for (int i = 0; i < mSize; i++) {
+            total += mUpdateTimes[i];
+        }
+        return total / (float) mSize / 1000000f;
+    }
+
+    public synchronized float getAverageDrawTime() {
+        if (mSize == 0) {
+            return 0;
+        }
+
+        long total = 0;
+        for (int i = 0; i < mSize; i++) {
+            total += mDrawTimes[i];
+        }
+        return total / (float) mSize / 1000000f;
+    }
+
+    public synchronized float getAverageCounter(final int counter) {
+        if (mSize == 0) {
+            return 0;
+        }
+
+        long total = 0;
+        for (int i = 0; i < mSize; i++) {
+            total += mCounters[i * Profiler.NUM_COUNTERS + counter];
+        }
+        return total / (float) mSize;
+    }
+
+    public synchronized int getMaxCounter(final int counter) {
+        int max = 0;
+        for (int i = 0; i < mSize; i++) {
+            max = Math.max(max, mCounters[i * Profiler.NUM_COUNTERS + counter]);
+        }
+        return max;
+    }
+
+    /**
+     * @return number of frames kept
+     */
+    public synchronized int size() {
+        return mSize;
+    }
+
+    public int getCapacity() {
+        return mCapacity;
+    }
+
+    /**
+     * @return number of frames recorded since the start, this can be used to detect new frames
+     */
+    public synchronized long getFrameCount() {
+        return mFrameCount;
+    }
+
+    public synchronized void clear() {
+        mHead = 0;
+        mSize = 0;
+    }
+
+    @Override
+    public synchronized String toString() {
+        final StringBuilder sb = new StringBuilder();
+        sb.append("update: ").append(getAverageUpdateTime()).append("ms, draw: ").append(getAverageDrawTime()).append("ms");
+        for (int i = 0; i < Profiler.NUM_COUNTERS; i++) {
+            sb.append(", ").append(Profiler.COUNTER_NAMES[i]).append(": ").append(getAverageCounter(i));
+        }
+        return sb.toString();
+    }
+}
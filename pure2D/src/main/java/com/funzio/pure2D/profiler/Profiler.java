@@ -0,0 +1,151 @@
+/*******************************************************************************
+ * Copyright (C) 2012-2014 GREE, Inc.
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ ******************************************************************************/
+/**
+ * 
+ */
+package com.funzio.pure2D.profiler;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * A per-frame engine profiler. When enabled, the Scene times its update and draw phases and the engine counts what actually reaches GL. Each frame ends up in a {@link FrameStats}
+ * ring buffer, which can be read from code or drawn with a {@link ProfilerGraph}. Nothing is allocated, and a disabled profiler costs a flag check.
+ * <p>
+ * The counters are atomic, so they can be counted from any thread, such as the pools released into by loader threads. The timings and {@link #endFrame()} are GL thread only.
+ * </p>
+ * 
+ * @author long
+ */
+public class Profiler {
+    // counters
+    public static final int DRAW_CALLS = 0;
+    public static final int TEXTURE_BINDS = 1;
+    public static final int BLEND_CHANGES = 2;
+    public static final int STATE_CHANGES = 3;
+    public static final int CULLED_OBJECTS = 4;
+    public static final int STACKED_CELLS = 5;
+    public static final int POOL_HITS = 6;
+    public static final int POOL_MISSES = 7;
+    public static final int SAVED_CHANGES = 8; // by the render queues
+    public static final int NUM_COUNTERS = 9;
+
+    public static final String[] COUNTER_NAMES = {
+            "draws", "textures", "blends", "states", "culled", "cells", "pool hits", "pool misses", "saved changes"
+    };
+
+    // global switch
+    public static boolean ENABLED = false;
+
+    private static final AtomicIntegerArray sCounters = new AtomicIntegerArray(NUM_COUNTERS);
+    private static final int[] sFrameCounters = new int[NUM_COUNTERS];
+    private static long sUpdateStart = 0;
+    private static long sUpdateTime = 0;
+    private static long sDrawStart = 0;
+    private static long sDrawTime = 0;
+    private static FrameStats sStats = new FrameStats(FrameStats.DEFAULT_CAPACITY);
+
+    public static void count(final int counter) {
+        if (ENABLED) {
+            sCounters.incrementAndGet(counter);
+        }
+    }
+
+    public static void count(final int counter, final int value) {
+        if (ENABLED) {
+            sCounters.addAndGet(counter, value);
+        }
+    }
+
+    public static void beginUpdate() {
+        if (ENABLED) {
+            sUpdateStart = System.nanoTime();
+        }
+    }
+
+    public static void endUpdate() {
+        if (ENABLED && sUpdateStart > 0) {
+            sUpdateTime += System.nanoTime() - sUpdateStart;
+            sUpdateStart = 0;
+        }
+    }
+
+    public static void beginDraw() {
+        if (ENABLED) {
+            sDrawStart = System.nanoTime();
+        }
+    }
+
+    public static void endDraw() {
+        if (ENABLED && sDrawStart > 0) {
+            sDrawTime += System.nanoTime() - sDrawStart;
+            sDrawStart = 0;
+        }
+    }
+
+    /**
+     * Push the current frame into the stats and start a new one
+     */
+    public static void endFrame() {
+        if (!ENABLED) {
+            return;
+        }
+
+        // take and reset the counters
+        for (int i = 0; i < NUM_COUNTERS; i++) {
+            sFrameCounters[i] = sCounters.getAndSet(i, 0);
+        }
+        sStats.add(sUpdateTime, sDrawTime, sFrameCounters);
+
+        // reset
+        sUpdateTime = 0;
+        sDrawTime = 0;
+    }
+
+    /**
+     * @param counter
+     * @return the value of a counter on the current frame, so far
+     */
+    public static int getCounter(final int counter) {
+        return sCounters.get(counter);
+    }
+
+    public static FrameStats getStats() {
+        return sStats;
+    }
+
+    /**
+     * Change the number of frames to keep. The old stats are dropped.
+     * 
+     * @param capacity
+     */
+    public static void setCapacity(final int capacity) {
+        sStats = new FrameStats(capacity);
+    }
+
+    public static boolean isEnabled() {
+        return ENABLED;
+    }
+
+    public static void setEnabled(final boolean value) {
+        ENABLED = value;
+    }
+}
@@ -0,0 +1,131 @@
+/*******************************************************************************
+ * Copyright (C) 2012-2014 GREE, Inc.
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ ******************************************************************************/
+/**
+ * 
+ */
+package com.funzio.pure2D.profiler;
+
+import com.funzio.pure2D.gl.GLColor;
+import com.funzio.pure2D.gl.gl10.GLState;
+import com.funzio.pure2D.gl.gl10.QuadMeshBuffer;
+import com.funzio.pure2D.gl.gl10.QuadMeshColorBuffer;
+import com.funzio.pure2D.shapes.Shape;
+
+/**
+ * An overlay that draws the update and draw times of the last frames in {@link Profiler#getStats()}, as stacked bars. The oldest frame is on the left, the height of the graph is
+ * {@link #getMaxTime()}.
+ * 
+ * @author long
+ */
+public class ProfilerGraph extends Shape {
+    public static final float DEFAULT_MAX_TIME = 1000f / 30; // ms
+
+    protected float mMaxTime = DEFAULT_MAX_TIME;
+
+    private final int mCapacity;
+    private final QuadMeshBuffer mMeshBuffer;
+    private final QuadMeshColorBuffer mMeshColorBuffer;
+    private int mNumBars = 0;
+    private long mFrameCount = -1;
+
+    public ProfilerGraph() {
+        super();
+
+        mCapacity = Profiler.getStats().getCapacity();
+        mVertexBuffer = mMeshBuffer = new QuadMeshBuffer(mCapacity * 2);
+        mColorBuffer = mMeshColorBuffer = new QuadMeshColorBuffer(mCapacity * 2);
+        setColors(new GLColor(0f, 0.75f, 1f, 0.75f), new GLColor(1f, 0.5f, 0f, 0.75f));
+        setSize(mCapacity * 2, 100);
+    }
+
+    @Override
+    public boolean update(final int deltaTime) {
+        // new frames?
+        final FrameStats stats = Profiler.getStats();
+        if (stats.getFrameCount() != mFrameCount) {
+            mFrameCount = stats.getFrameCount();
+            updateBars(stats);
+            invalidate(VERTICES);
+        }
+
+        return super.update(deltaTime);
+    }
+
+    protected void updateBars(final FrameStats stats) {
+        mNumBars = Math.min(stats.size(), mCapacity);
+
+        final float barWidth = mSize.x / mCapacity;
+        final float scale = mSize.y / mMaxTime;
+        for (int i = 0; i < mNumBars; i++) {
+            // oldest on the left
+            final int index = mNumBars - 1 - i;
+            final float update = Math.min(stats.getUpdateTime(index) * scale, mSize.y);
+            final float draw = Math.min(stats.getDrawTime(index) * scale, mSize.y - update);
+            mMeshBuffer.setRectAt(i * 2, i * barWidth, 0, barWidth, update);
+            mMeshBuffer.setRectAt(i * 2 + 1, i * barWidth, update, barWidth, draw);
+        }
+
+        mMeshBuffer.setIndicesNumUsed(mNumBars * 2 * QuadMeshBuffer.NUM_INDICES_PER_CELL);
+    }
+
+    @Override
+    protected boolean drawChildren(final GLState glState) {
+        if (mNumBars == 0) {
+            return false;
+        }
+
+        return super.drawChildren(glState);
+    }
+
+    /**
+     * @param updateColor the color of the update bars
+     * @param drawColor the color of the draw bars
+     */
+    public void setColors(final GLColor updateColor, final GLColor drawColor) {
+        for (int i = 0; i < mCapacity; i++) {
+            mMeshColorBuffer.setColorAt(i * 2, updateColor);
+            mMeshColorBuffer.setColorAt(i * 2 + 1, drawColor);
+        }
+
+        invalidate(COLOR);
+    }
+
+    public float getMaxTime() {
+        return mMaxTime;
+    }
+
+    /**
+     * @param maxTime the frame time at the top of the graph, in ms
+     */
+    public void setMaxTime(final float maxTime) {
+        mMaxTime = maxTime;
+        mFrameCount = -1;
+    }
+
+    @Override
+    public void setSize(final float w, final float h) {
+        super.setSize(w, h);
+
+        // rebuild the bars
+        mFrameCount = -1;
+    }
+}
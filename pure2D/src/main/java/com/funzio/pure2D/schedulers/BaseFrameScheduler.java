@@ -0,0 +1,239 @@
+/*******************************************************************************
+ * Copyright (C) 2012-2014 GREE, Inc.
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ ******************************************************************************/
+/**
+ * 
+ */
+package com.funzio.pure2D.schedulers;
+
+import com.funzio.pure2D.Scene;
+
+/**
+ * The frame pacing, frame rate and histograms that all the schedulers share. The subclasses decide how the time is split into updates.
+ * 
+ * @author long
+ */
+public abstract class BaseFrameScheduler implements FrameScheduler {
+    private static final long MIN_FRAME_DELTA = 1000000; // 1 ms
+
+    // pacing
+    protected int mTargetFps = 0; // 0 = unlimited
+    protected long mTargetDuration;
+    protected long mTargetDurationJitter;
+    private long mDownTime = 0;
+    private VsyncClock mVsyncClock;
+
+    // timing, in ns
+    private long mLastTime = 0;
+    private long mFrameStartTime = 0;
+    protected long mFrameDeltaNanos = 0;
+    protected int mFrameDelta = 0;
+    private long mFrameDeltaCarry = 0;
+
+    // frame rate
+    private int mFrameCount = 0;
+    private long mFrameCountDuration = 0;
+    private volatile int mCurrentFps = 0; // thread independent
+
+    protected final FrameHistogram mFrameHistogram = new FrameHistogram();
+    protected final FrameHistogram mWorkHistogram = new FrameHistogram();
+
+    public BaseFrameScheduler() {
+        setTargetFps(0);
+        reset();
+    }
+
+    /**
+     * Called when a new frame begins
+     * 
+     * @param delta the time since the last frame, in ns
+     */
+    abstract protected void onFrame(long delta);
+
+    @Override
+    public void reset() {
+        mLastTime = System.nanoTime();
+        mFrameStartTime = 0;
+        mFrameDeltaNanos = 0;
+        mFrameDelta = 0;
+        mFrameDeltaCarry = 0;
+        mDownTime = 0;
+
+        mFrameCount = 0;
+        mFrameCountDuration = 0;
+        mCurrentFps = 0;
+    }
+
+    @Override
+    public boolean beginFrame() {
+        final long now = System.nanoTime();
+        final long delta = now - mLastTime;
+        if (delta < MIN_FRAME_DELTA) {
+            // NOTE: delta can be 0 (when nothing draws) on some devices such as S2, S3...
+            mFrameDeltaNanos = 0;
+            mFrameDelta = 0;
+            return false;
+        }
+        mLastTime = now;
+
+        // in ms, keep the fraction for the next frame
+        final long total = delta + mFrameDeltaCarry;
+        mFrameDeltaNanos = delta;
+        mFrameDelta = (int) (total / 1000000);
+        mFrameDeltaCarry = total - mFrameDelta * 1000000L;
+
+        // compensate the framerate around the target fps
+        final long sleepTime = pace(now, delta);
+
+        // calculate frame rate
+        mFrameCountDuration += delta;
+        if (mFrameCountDuration <= 1000000000L) {
+            mFrameCount++;
+        } else {
+            mCurrentFps = mFrameCount;
+            mFrameCount = 0;
+            mFrameCountDuration = 0;
+        }
+
+        mFrameHistogram.record(delta);
+        mFrameStartTime = sleepTime > 0 ? System.nanoTime() : now;
+
+        onFrame(delta);
+
+        return true;
+    }
+
+    @Override
+    public void endFrame() {
+        if (mFrameStartTime > 0) {
+            mWorkHistogram.record(System.nanoTime() - mFrameStartTime);
+            mFrameStartTime = 0;
+        }
+    }
+
+    /**
+     * Sleep if the frames are faster than the target fps. The slow frames are compensated by the next fast ones.
+     * 
+     * @param now
+     * @param delta
+     * @return the time slept, in ns
+     */
+    protected long pace(final long now, final long delta) {
+        if (mTargetFps <= 0) {
+            return 0;
+        }
+
+        final boolean vsync = mVsyncClock != null && mVsyncClock.isRunning();
+        long targetDuration = mTargetDuration;
+        if (vsync) {
+            // a whole number of vsyncs
+            final long period = mVsyncClock.getPeriod();
+            targetDuration = Math.max(1, (targetDuration + (period >> 1)) / period) * period;
+        }
+
+        final long targetDelta = targetDuration - delta;
+        long sleepTime = 0;
+        if (targetDelta > 0) { // too fast?
+            if (mDownTime > targetDelta) {
+                mDownTime -= targetDelta;
+            } else {
+                sleepTime = targetDelta - mDownTime;
+                mDownTime = 0;
+                if (vsync) {
+                    // wake up on a vsync
+                    sleepTime = mVsyncClock.getNearestVsync(now + sleepTime) - now;
+                }
+
+                if (sleepTime > mTargetDurationJitter) {
+                    try {
+                        Thread.sleep(sleepTime / 1000000, (int) (sleepTime % 1000000));
+                    } catch (Exception e) {
+                        // TODO: nothing
+                    }
+                } else {
+                    sleepTime = 0;
+                }
+            }
+        } else if (targetDelta < 0) { // too slow?
+            mDownTime -= targetDelta;
+        }
+
+        return sleepTime;
+    }
+
+    @Override
+    public int getFrameDelta() {
+        return mFrameDelta;
+    }
+
+    @Override
+    public long getFrameDeltaNanos() {
+        return mFrameDeltaNanos;
+    }
+
+    @Override
+    public int getCurrentFps() {
+        return mCurrentFps;
+    }
+
+    @Override
+    public int getTargetFps() {
+        return mTargetFps;
+    }
+
+    @Override
+    public void setTargetFps(final int fps) {
+        mTargetFps = fps;
+
+        mTargetDuration = 1000000000L / (mTargetFps > 0 ? mTargetFps : Scene.DEFAULT_FPS);
+        mTargetDurationJitter = (long) (mTargetDuration * 0.15f);
+    }
+
+    public boolean isVsyncEnabled() {
+        return mVsyncClock != null;
+    }
+
+    /**
+     * Align the paced frames to the display vsync, so they are evenly spaced. This only works on Jelly Bean or later.
+     * 
+     * @param value
+     * @see VsyncClock
+     */
+    public void setVsyncEnabled(final boolean value) {
+        if (value && mVsyncClock == null && VsyncClock.isSupported()) {
+            mVsyncClock = new VsyncClock();
+            mVsyncClock.start();
+        } else if (!value && mVsyncClock != null) {
+            mVsyncClock.stop();
+            mVsyncClock = null;
+        }
+    }
+
+    @Override
+    public FrameHistogram getFrameHistogram() {
+        return mFrameHistogram;
+    }
+
+    @Override
+    public FrameHistogram getWorkHistogram() {
+        return mWorkHistogram;
+    }
+}
@@ -0,0 +1,104 @@
+/*******************************************************************************
+ * Copyright (C) 2012-2014 GREE, Inc.
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ ******************************************************************************/
+/**
+ * 
+ */
+package com.funzio.pure2D.schedulers;
+
+/**
+ * Updates with a fixed time-step, as many times as the frame time allows, the same way Box2DWorld steps the physics. The time that is left is given by {@link #getInterpolation()},
+ * for the objects that want to draw between 2 updates.
+ * 
+ * @author long
+ */
+public class FixedFrameScheduler extends BaseFrameScheduler {
+    public static final int DEFAULT_UPDATE_RATE = 60;
+    public static final long MAX_FRAME_TIME = 250000000L; // max frame time to avoid Spiral of death
+
+    protected long mStep;
+    private long mAccumulatedTime;
+    private long mStepCarry;
+
+    public FixedFrameScheduler() {
+        this(DEFAULT_UPDATE_RATE);
+    }
+
+    /**
+     * @param updateRate number of updates per second
+     */
+    public FixedFrameScheduler(final int updateRate) {
+        super();
+
+        setUpdateRate(updateRate);
+    }
+
+    @Override
+    public void reset() {
+        super.reset();
+
+        mAccumulatedTime = 0;
+        mStepCarry = 0;
+    }
+
+    @Override
+    protected void onFrame(final long delta) {
+        mAccumulatedTime += (delta > MAX_FRAME_TIME) ? MAX_FRAME_TIME : delta;
+    }
+
+    @Override
+    public int nextUpdate() {
+        if (mAccumulatedTime < mStep) {
+            return -1;
+        }
+        mAccumulatedTime -= mStep;
+
+        // in ms, keep the fraction for the next step
+        final long total = mStep + mStepCarry;
+        final int delta = (int) (total / 1000000);
+        mStepCarry = total - delta * 1000000L;
+
+        return delta;
+    }
+
+    @Override
+    public float getInterpolation() {
+        return (float) mAccumulatedTime / mStep;
+    }
+
+    public int getUpdateRate() {
+        return (int) (1000000000L / mStep);
+    }
+
+    /**
+     * @param updateRate number of updates per second
+     */
+    public void setUpdateRate(final int updateRate) {
+        mStep = 1000000000L / updateRate;
+    }
+
+    /**
+     * @return the time-step in ns
+     */
+    public long getStep() {
+        return mStep;
+    }
+}
@@ -0,0 +1,133 @@
+/*******************************************************************************
+ * Copyright (C) 2012-2014 GREE, Inc.
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ ******************************************************************************/
+/**
+ * 
+ */
+package com.funzio.pure2D.schedulers;
+
+/**
+ * A histogram of frame times with fixed buckets, for querying the percentiles at runtime. Recording doesn't allocate. The times above the range are counted in the last bucket.
+ * 
+ * @author long
+ */
+public class FrameHistogram {
+    public static final long DEFAULT_RESOLUTION = 250000; // 0.25 ms
+    public static final int DEFAULT_NUM_BUCKETS = 400; // up to 100 ms
+
+    private final long mResolution;
+    private final int[] mBuckets;
+    private int mCount = 0;
+    private long mTotal = 0;
+    private long mMax = 0;
+
+    public FrameHistogram() {
+        this(DEFAULT_RESOLUTION, DEFAULT_NUM_BUCKETS);
+    }
+
+    /**
+     * @param resolution the size of a bucket, in ns
+     * @param numBuckets
+     */
+    public FrameHistogram(final long resolution, final int numBuckets) {
+        mResolution = resolution;
+        mBuckets = new int[numBuckets];
+    }
+
+    /**
+     * @param nanos a frame time in ns
+     */
+    public synchronized void record(final long nanos) {
+        final int index = (int) Math.min(nanos / mResolution, mBuckets.length - 1);
+        mBuckets[index < 0 ? 0 : index]++;
+        mCount++;
+        mTotal += nanos;
+        if (nanos > mMax) {
+            mMax = nanos;
+        }
+    }
+
+    /**
+     * @param percent from 0 to 100
+     * @return the frame time in ms that the given percent of the frames are below of
+     */
+    public synchronized float getPercentile(final float percent) {
+        if (mCount == 0) {
+            return 0;
+        }
+
+        final int target = (int) Math.ceil(mCount * percent / 100f);
+        int count = 0;
+        for (int i = 0; i < mBuckets.length; i++) {
+            count += mBuckets[i];
+            if (count >= target) {
+                // upper edge of the bucket
+                return Math.min((i + 1) * mResolution, mMax) / 1000000f;
+            }
+        }
+
+        return mMax / 1000000f;
+    }
+
+    public float getP50() {
+        return getPercentile(50);
+    }
+
+    public float getP95() {
+        return getPercentile(95);
+    }
+
+    public float getP99() {
+        return getPercentile(99);
+    }
+
+    /**
+     * @return the average frame time in ms
+     */
+    public synchronized float getMean() {
+        return mCount == 0 ? 0 : mTotal / (float) mCount / 1000000f;
+    }
+
+    /**
+     * @return the longest frame time in ms
+     */
+    public synchronized float getMax() {
+        return mMax / 1000000f;
+    }
+
+    public synchronized int getCount() {
+        return mCount;
+    }
+
+    public synchronized void reset() {
+        for (int i = 0; i < mBuckets.length; i++) {
+            mBuckets[i] = 0;
+        }
+        mCount = 0;
+        mTotal = 0;
+        mMax = 0;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "p50: " + getP50() + "ms, p95: " + getP95() + "ms, p99: " + getP99() + "ms, max: " + getMax() + "ms, frames: " + mCount;
+    }
+}
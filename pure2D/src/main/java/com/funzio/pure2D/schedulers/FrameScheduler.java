@@ -0,0 +1,103 @@
+/*******************************************************************************
+ * Copyright (C) 2012-2014 GREE, Inc.
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ ******************************************************************************/
+/**
+ * 
+ */
+package com.funzio.pure2D.schedulers;
+
+/**
+ * Decides how a Scene steps its time on each frame. The times are measured in nanoseconds, the updates are still given in milliseconds but the fractions are carried over to the next
+ * update, so nothing drifts.
+ * 
+ * <pre>
+ * if (scheduler.beginFrame()) {
+ *     int delta;
+ *     while ((delta = scheduler.nextUpdate()) &gt;= 0) {
+ *         update(delta);
+ *     }
+ * }
+ * draw(scheduler.getInterpolation());
+ * scheduler.endFrame();
+ * </pre>
+ * 
+ * @author long
+ * @see VariableFrameScheduler
+ * @see FixedFrameScheduler
+ */
+public interface FrameScheduler {
+
+    /**
+     * Restart the timing, such as after a pause
+     */
+    public void reset();
+
+    /**
+     * Start a new frame. This might sleep to keep the target fps.
+     * 
+     * @return false if no time has passed since the last frame
+     */
+    public boolean beginFrame();
+
+    /**
+     * @return the delta of the next update in ms, or -1 when there is no more update for this frame
+     */
+    public int nextUpdate();
+
+    /**
+     * End the current frame, after drawing
+     */
+    public void endFrame();
+
+    /**
+     * @return how far the time is between the last update and the next one, from 0 to 1
+     */
+    public float getInterpolation();
+
+    /**
+     * @return the time between the last 2 frames in ms
+     */
+    public int getFrameDelta();
+
+    /**
+     * @return the time between the last 2 frames in ns
+     */
+    public long getFrameDeltaNanos();
+
+    public int getCurrentFps();
+
+    public int getTargetFps();
+
+    /**
+     * @param fps 0 = unlimited
+     */
+    public void setTargetFps(int fps);
+
+    /**
+     * @return the histogram of the time between frames
+     */
+    public FrameHistogram getFrameHistogram();
+
+    /**
+     * @return the histogram of the time spent inside the frames, from {@link #beginFrame()} to {@link #endFrame()}
+     */
+    public FrameHistogram getWorkHistogram();
+}
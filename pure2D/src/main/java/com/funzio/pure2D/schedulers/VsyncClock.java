@@ -0,0 +1,138 @@
+/*******************************************************************************
+ * Copyright (C) 2012-2014 GREE, Inc.
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ ******************************************************************************/
+/**
+ * 
+ */
+package com.funzio.pure2D.schedulers;
+
+import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
+import android.view.Choreographer;
+
+/**
+ * Keeps track of the display vsync with a {@link Choreographer} on the main thread, so the GL thread can align its frames to it. Requires Jelly Bean, it does nothing on older
+ * versions.
+ * 
+ * @author long
+ */
+public class VsyncClock {
+    public static final long DEFAULT_PERIOD = 1000000000L / 60;
+
+    private volatile long mLastVsync = 0;
+    private volatile long mPeriod = DEFAULT_PERIOD;
+    private volatile boolean mRunning = false;
+
+    private final Handler mHandler = new Handler(Looper.getMainLooper());
+    private final Runnable mStartRunnable = new Runnable() {
+        @Override
+        public void run() {
+            // only loaded on Jelly Bean or later
+            Callback.post(VsyncClock.this);
+        }
+    };
+
+    public static boolean isSupported() {
+        return Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN;
+    }
+
+    public void start() {
+        if (mRunning || !isSupported()) {
+            return;
+        }
+
+        mRunning = true;
+        mHandler.post(mStartRunnable);
+    }
+
+    public void stop() {
+        mRunning = false;
+        mLastVsync = 0;
+    }
+
+    public boolean isRunning() {
+        return mRunning && mLastVsync > 0;
+    }
+
+    /**
+     * @return the time of the last vsync, on the same base as {@link System#nanoTime()}
+     */
+    public long getLastVsync() {
+        return mLastVsync;
+    }
+
+    /**
+     * @return the estimated vsync period in ns
+     */
+    public long getPeriod() {
+        return mPeriod;
+    }
+
+    /**
+     * @param nanos
+     * @return the vsync time that is the nearest to the given time
+     */
+    public long getNearestVsync(final long nanos) {
+        final long last = mLastVsync;
+        final long period = mPeriod;
+        if (last == 0) {
+            return nanos;
+        }
+
+        final long periods = (nanos - last + (period >> 1)) / period;
+        return last + periods * period;
+    }
+
+    protected void onVsync(final long frameTimeNanos) {
+        final long last = mLastVsync;
+        if (last > 0) {
+            final long period = frameTimeNanos - last;
+            // smooth it, and skip the missed vsyncs
+            if (period > 0 && period < mPeriod * 3 / 2) {
+                mPeriod = (mPeriod * 7 + period) >> 3;
+            }
+        }
+        mLastVsync = frameTimeNanos;
+    }
+
+    private static class Callback implements Choreographer.FrameCallback {
+        private final VsyncClock mClock;
+
+        private Callback(final VsyncClock clock) {
+            mClock = clock;
+        }
+
+        public static void post(final VsyncClock clock) {
+            Choreographer.getInstance().postFrameCallback(new Callback(clock));
+        }
+
+        @Override
+        public void doFrame(final long frameTimeNanos) {
+            mClock.onVsync(frameTimeNanos);
+
+            // next
+            if (mClock.mRunning) {
+                Choreographer.getInstance().postFrameCallback(this);
+            }
+        }
+    }
+}
@@ -75,4 +75,10 @@ public class DummyDrawer extends Sprite {
 
         return (mTexture != null);
     }
+
+    @Override
+    public boolean isBatchable() {
+        // draws without transformations, not for batching
+        return false;
+    }
 }
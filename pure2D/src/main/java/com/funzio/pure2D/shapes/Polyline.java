@@ -547,6 +547,17 @@ public class Polyline extends Shape implements StackableObject {
         return mNumPointsUsed - 1;
     }
 
+    @Override
+    public int getStackIndex() {
+        return -1;
+    }
+
+    @Override
+    public boolean isStackInvalidated() {
+        // always restacked
+        return true;
+    }
+
     @Override
     public void setStackable(final boolean value) {
         mStackable = value;
@@ -26,17 +26,23 @@
  */
 package com.funzio.pure2D.shapes;
 
+import android.graphics.Matrix;
 import android.graphics.PointF;
 import android.graphics.RectF;
 
+import com.funzio.pure2D.Batchable;
+import com.funzio.pure2D.Pure2D;
 import com.funzio.pure2D.atlas.AtlasFrame;
+import com.funzio.pure2D.gl.gl10.GLState;
+import com.funzio.pure2D.gl.gl10.QuadBuffer;
+import com.funzio.pure2D.gl.gl10.SpriteBatch;
 import com.funzio.pure2D.gl.gl10.textures.Texture;
 import com.funzio.pure2D.gl.gl10.textures.TextureCoordBuffer;
 
 /**
  * @author long
  */
-public class Sprite extends Rectangular {
+public class Sprite extends Rectangular implements Batchable {
     private boolean mSizeToTexture = true;
     private boolean mSizeToFrame = true;
 
@@ -44,6 +50,10 @@ public class Sprite extends Rectangular {
     protected float mOffsetX = 0;
     protected float mOffsetY = 0;
 
+    // for batching, the local matrix without the parent's
+    protected Matrix mMatrixForVertices;
+    private boolean mMatrixForVerticesInvalidated = true;
+
     public Sprite() {
         super();
     }
@@ -151,4 +161,74 @@ public class Sprite extends Rectangular {
         return mAtlasFrame;
     }
 
+    @Override
+    public void invalidate(final int flags) {
+        super.invalidate(flags);
+
+        if ((flags & BOUNDS) != 0) {
+            mMatrixForVerticesInvalidated = true;
+        }
+    }
+
+    @Override
+    protected void onPreConcatParentMatrix() {
+        super.onPreConcatParentMatrix();
+
+        // only when batching is used
+        if (mMatrixForVertices != null) {
+            mMatrixForVertices.set(mMatrix);
+            mMatrixForVerticesInvalidated = false;
+        }
+    }
+
+    // Batchable implementation ///////////////////////////
+
+    /**
+     * @return true if this Sprite can be drawn by a SpriteBatch. 3D transformations, color buffers, alpha-test and debug flags are not supported.
+     */
+    @Override
+    public boolean isBatchable() {
+        return mVertexBuffer instanceof QuadBuffer //
+                && mColorBuffer == null //
+                && (mTexture == null || mTexture.isLoaded()) //
+                && mZ == 0 //
+                && !mPerspectiveEnabled //
+                && !mAlphaTestEnabled //
+                && (mRotation == 0 || (mRotationVectorX == 0 && mRotationVectorY == 0 && mRotationVectorZ == 1)) //
+                && (Pure2D.DEBUG_FLAGS | mDebugFlags) == 0;
+    }
+
+    /**
+     * @hide For internal use
+     */
+    @Override
+    public boolean batch(final GLState glState, final SpriteBatch batch) {
+        // texture coordinates changed?
+        if ((mInvalidateFlags & TEXTURE_COORDS) != 0) {
+            validateTextureCoordBuffer();
+        }
+
+        // local matrix changed?
+        if (mMatrixForVertices == null) {
+            mMatrixForVertices = new Matrix();
+            mMatrixForVerticesInvalidated = true;
+        }
+        if (mMatrixForVerticesInvalidated) {
+            updateBounds();
+
+            // the matrix was cached, nothing to recompose
+            if (mMatrixForVerticesInvalidated) {
+                mMatrixForVertices.set(getLocalMatrix());
+                mMatrixForVerticesInvalidated = false;
+            }
+        }
+
+        batch.add(glState, mMatrixForVertices, ((QuadBuffer) mVertexBuffer).getValues(), (mTexture != null && mTextureCoordBufferScaled != null) ? mTextureCoordBufferScaled.getValues() : null, getInheritedColor());
+
+        // validate visual only
+        mInvalidateFlags &= ~VISUAL;
+
+        return true;
+    }
+
 }
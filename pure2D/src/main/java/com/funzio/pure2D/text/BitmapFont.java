@@ -39,7 +39,8 @@ import com.funzio.pure2D.atlas.AtlasFrame;
 import com.funzio.pure2D.gl.gl10.GLState;
 import com.funzio.pure2D.gl.gl10.textures.Texture;
 import com.funzio.pure2D.gl.gl10.textures.TextureManager;
-import com.funzio.pure2D.utils.RectBinPacker;
+import com.funzio.pure2D.utils.BinPacker;
+import com.funzio.pure2D.utils.MaxRectsPacker;
 
 import java.util.Arrays;
 import java.util.HashMap;
@@ -62,7 +63,7 @@ public class BitmapFont {
     private String mNewCharacters = "";
 
     private HashMap<Character, AtlasFrame> mCharFrames = new HashMap<Character, AtlasFrame>();
-    private RectBinPacker mRectPacker;
+    private BinPacker mRectPacker;
     private float[] mCharPositions;
     private BitmapFontMetrics mFontMetrics;
 
@@ -98,7 +99,7 @@ public class BitmapFont {
         if (textureMaxSize <= 0) {
             textureMaxSize = Pure2D.GL_MAX_TEXTURE_SIZE;
         }
-        mRectPacker = new RectBinPacker(Math.min(textureMaxSize, Pure2D.GL_MAX_TEXTURE_SIZE), mTextOptions.inPo2);
+        mRectPacker = new MaxRectsPacker(Math.min(textureMaxSize, Pure2D.GL_MAX_TEXTURE_SIZE), mTextOptions.inPo2);
         mRectPacker.setRotationEnabled(false);
     }
 
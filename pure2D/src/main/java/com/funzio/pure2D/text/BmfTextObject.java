@@ -79,6 +79,7 @@ public class BmfTextObject extends BaseDisplayObject implements Cacheable {
 
     private int mSceneAxis = -1;
     private QuadMeshTextureCoordBuffer mTextureCoordBuffer;
+    private boolean mStreamingEnabled = false;
     private ArrayList<Float> mLineWidths = new ArrayList<Float>();
 
     // cache
@@ -403,12 +404,14 @@ public class BmfTextObject extends BaseDisplayObject implements Cacheable {
             // init mesh buffer
             if (mMeshBuffer == null) {
                 mMeshBuffer = new QuadMeshBuffer(length);
+                mMeshBuffer.setStreamingEnabled(mStreamingEnabled);
             } else {
                 mMeshBuffer.setNumCells(length);
             }
             // apply the coordinates
             if (mTextureCoordBuffer == null) {
                 mTextureCoordBuffer = new QuadMeshTextureCoordBuffer(length);
+                mTextureCoordBuffer.setStreamingEnabled(mStreamingEnabled);
             } else {
                 mTextureCoordBuffer.setNumCells(length);
             }
@@ -471,6 +474,27 @@ public class BmfTextObject extends BaseDisplayObject implements Cacheable {
         return true;
     }
 
+    public boolean isStreamingEnabled() {
+        return mStreamingEnabled;
+    }
+
+    /**
+     * Upload the text mesh into buffer objects, for texts that change often. This falls back to the client arrays without GL11.
+     *
+     * @param value
+     * @see QuadMeshBuffer#setStreamingEnabled(boolean)
+     */
+    public void setStreamingEnabled(final boolean value) {
+        mStreamingEnabled = value;
+
+        if (mMeshBuffer != null) {
+            mMeshBuffer.setStreamingEnabled(value);
+        }
+        if (mTextureCoordBuffer != null) {
+            mTextureCoordBuffer.setStreamingEnabled(value);
+        }
+    }
+
     @Deprecated
     public boolean isCacheEnabled() {
         return mCacheEnabled;
@@ -60,7 +60,6 @@ public class UITextureManager extends TextureManager {
     protected static final String TAG = UITextureManager.class.getSimpleName();
 
     protected HashMap<String, BitmapFont> mBitmapFonts = new HashMap<String, BitmapFont>();
-    protected final HashMap<String, Texture> mGeneralTextures;
     protected final HashMap<String, JsonAtlas> mAtlases;
     protected final HashMap<String, AtlasFrameSet> mAtlasFrames;
     protected final HashMap<String, NovaFactory> mNovaFactories;
@@ -77,7 +76,6 @@ public class UITextureManager extends TextureManager {
     public UITextureManager(final Scene scene, final Resources res) {
         super(scene, res);
 
-        mGeneralTextures = new HashMap<String, Texture>();
         mAtlases = new HashMap<String, JsonAtlas>();
         mAtlasFrames = new HashMap<String, AtlasFrameSet>();
         mNovaFactories = new HashMap<String, NovaFactory>();
@@ -146,7 +144,8 @@ public class UITextureManager extends TextureManager {
     }
 
     /**
-     * Create and cache a texture from a specified URI. If this texture is already in cache, it simply returns the cache version.
+     * Create and cache a texture from a specified URI. If this texture is already in cache, it simply returns the cache version. Each call holds a reference which can be released with
+     * {@link #releaseTexture(Texture)}.
      *
      * @param textureUri
      * @param async
@@ -168,49 +167,50 @@ public class UITextureManager extends TextureManager {
         if (UIConfig.isUnknownUri(textureUri)) {
             textureUri = Pure2DURI.ASSET + textureUri; // make it asset://
         }
-        final String actualPath = Pure2DURI.getPathFromUri(textureUri);
 
-        if (mGeneralTextures.containsKey(actualPath)) {
-            // use cache
-            return mGeneralTextures.get(actualPath);
-        } else {
-            Texture texture = null;
-            final TextureOptions textureOptions = (options == null) ? mUIManager.getTextureOptions() : options;
-            // create
-            if (textureUri.startsWith(Pure2DURI.DRAWABLE)) {
-                // load from file / sdcard
-                final int drawable = mResources.getIdentifier(actualPath, UIConfig.TYPE_DRAWABLE, mUIManager.getPackageName());
-                if (drawable > 0) {
-                    texture = createDrawableTexture(drawable, textureOptions, async);
-                }
-            } else if (textureUri.startsWith(Pure2DURI.FILE)) {
-                // load from file / sdcard
-                texture = createFileTexture(actualPath, textureOptions, async);
-            } else if (textureUri.startsWith(Pure2DURI.ASSET)) {
-                // load from bundle assets
-                texture = createAssetTexture(actualPath, textureOptions, async);
-            } else if (textureUri.startsWith(Pure2DURI.HTTP) || textureUri.startsWith(Pure2DURI.HTTPS)) {
-                // load from bundle assets
-                texture = createURLTexture(actualPath, textureOptions, async);
-            } else if (textureUri.startsWith(Pure2DURI.CACHE)) {
-                // load from url or cache file
-                texture = createURLCacheTexture(mUIConfigVO.texture_manager.cdn_url + actualPath, mUIConfigVO.texture_manager.cache_dir + actualPath, textureOptions, async);
-            }
+        // shared with the other managers' users
+        return acquireTexture(textureUri, (options == null) ? mUIManager.getTextureOptions() : options, async);
+    }
 
-            // and cache it if created
-            if (texture != null) {
-                // texture expiration
-                texture.setExpirationTime(mUIConfigVO.texture_manager.texture_expiration_time);
-                // set filter
-                final int filter = mUIConfigVO.texture_manager.texture_options.filter;
-                if (filter > 0) {
-                    texture.setFilters(filter, filter);
-                }
-                mGeneralTextures.put(actualPath, texture);
+    /**
+     * Also supports drawable and cache URIs, and applies the texture settings from UI Config file.
+     *
+     * @see TextureManager#createUriTexture(String, TextureOptions, boolean)
+     */
+    @Override
+    protected Texture createUriTexture(final String textureUri, final TextureOptions options, final boolean async) {
+        if (mUIManager == null) {
+            return super.createUriTexture(textureUri, options, async);
+        }
+
+        final String actualPath = Pure2DURI.getPathFromUri(textureUri);
+        Texture texture = null;
+        // create
+        if (textureUri.startsWith(Pure2DURI.DRAWABLE)) {
+            // load from file / sdcard
+            final int drawable = mResources.getIdentifier(actualPath, UIConfig.TYPE_DRAWABLE, mUIManager.getPackageName());
+            if (drawable > 0) {
+                texture = createDrawableTexture(drawable, options, async);
             }
+        } else if (textureUri.startsWith(Pure2DURI.CACHE)) {
+            // load from url or cache file
+            texture = createURLCacheTexture(mUIConfigVO.texture_manager.cdn_url + actualPath, mUIConfigVO.texture_manager.cache_dir + actualPath, options, async);
+        } else {
+            // load from assets, file / sdcard or url
+            texture = super.createUriTexture(textureUri, options, async);
+        }
 
-            return texture;
+        if (texture != null) {
+            // texture expiration
+            texture.setExpirationTime(mUIConfigVO.texture_manager.texture_expiration_time);
+            // set filter
+            final int filter = mUIConfigVO.texture_manager.texture_options.filter;
+            if (filter > 0) {
+                texture.setFilters(filter, filter);
+            }
         }
+
+        return texture;
     }
 
     public JsonAtlas getUriJsonAtlas(final String jsonUri, final boolean async) {
@@ -30,6 +30,7 @@ import android.view.MotionEvent;
 
 import com.funzio.pure2D.BaseDisplayObject;
 import com.funzio.pure2D.Cacheable;
+import com.funzio.pure2D.HitTestIndex;
 import com.funzio.pure2D.Parentable;
 import com.funzio.pure2D.Pure2D;
 import com.funzio.pure2D.Scene;
@@ -38,12 +39,14 @@ import com.funzio.pure2D.Touchable;
 import com.funzio.pure2D.containers.Container;
 import com.funzio.pure2D.exceptions.Pure2DException;
 import com.funzio.pure2D.geom.Rectangle;
+import com.funzio.pure2D.gl.GLColor;
 import com.funzio.pure2D.gl.gl10.ColorBuffer;
 import com.funzio.pure2D.gl.gl10.FrameBuffer;
 import com.funzio.pure2D.gl.gl10.GLState;
 import com.funzio.pure2D.gl.gl10.VertexBuffer;
 import com.funzio.pure2D.gl.gl10.textures.Texture;
 import com.funzio.pure2D.gl.gl10.textures.TextureCoordBuffer;
+import com.funzio.pure2D.profiler.Profiler;
 import com.funzio.pure2D.shapes.DummyDrawer;
 import com.funzio.pure2D.ui.UIManager;
 
@@ -68,7 +71,7 @@ abstract public class AbstractUniGroup extends BaseDisplayObject implements UniC
     protected int mNumDrawingChildren = 0;
 
     // UI
-    protected ArrayList<Touchable> mVisibleTouchables;
+    protected final HitTestIndex mHitTestIndex = new HitTestIndex();
     protected boolean mTouchable = false;
     protected boolean mModal = false;
 
@@ -93,6 +96,13 @@ abstract public class AbstractUniGroup extends BaseDisplayObject implements UniC
     protected UniContainer mUniParent;
     protected Matrix mMatrixForVertices;
 
+    // incremental stacking: only the invalidated children are stacked again
+    protected boolean mRestackAll = true;
+    protected boolean mStackInvalidated = true;
+    private final float[] mStackedColor = new float[4];
+    // the matrix version the children were last hinted with
+    private int mChildrenMatrixVersion = -1;
+
     private VertexBuffer mVertexBuffer;
     private TextureCoordBuffer mTextureCoordBuffer;
     private ColorBuffer mColorBuffer;
@@ -123,6 +133,9 @@ abstract public class AbstractUniGroup extends BaseDisplayObject implements UniC
         super.updateChildren(deltaTime);
 
         final boolean forceChildrenConstraints = ((mInvalidateFlags & (SIZE | PARENT | PARENT_BOUNDS)) != 0);
+        // the children only need to recompose when my matrix actually changed
+        final boolean matrixChanged = mMatrixVersion != mChildrenMatrixVersion;
+        mChildrenMatrixVersion = mMatrixVersion;
 
         int numDrawingChildren = 0;
         StackableObject child;
@@ -136,7 +149,7 @@ abstract public class AbstractUniGroup extends BaseDisplayObject implements UniC
 
             if (child.isAlive()) {
                 // hint child to update bounds
-                if ((mInvalidateFlags & BOUNDS) != 0) {
+                if (matrixChanged) {
                     child.invalidate(PARENT_BOUNDS);
                 }
                 // update child
@@ -154,6 +167,7 @@ abstract public class AbstractUniGroup extends BaseDisplayObject implements UniC
                 }
             } else {
                 child.setStackable(false);
+                Profiler.count(Profiler.CULLED_OBJECTS);
             }
 
             // match content size
@@ -321,15 +335,24 @@ abstract public class AbstractUniGroup extends BaseDisplayObject implements UniC
         }
 
         if (mTouchable) {
-            if (mVisibleTouchables == null) {
-                mVisibleTouchables = new ArrayList<Touchable>();
-            } else {
-                mVisibleTouchables.clear();
-            }
+            mHitTestIndex.begin();
+        }
+
+        // the children's colors are multiplied by mine
+        final GLColor color = getInheritedColor();
+        if (color.r != mStackedColor[0] || color.g != mStackedColor[1] || color.b != mStackedColor[2] || color.a != mStackedColor[3]) {
+            mStackedColor[0] = color.r;
+            mStackedColor[1] = color.g;
+            mStackedColor[2] = color.b;
+            mStackedColor[3] = color.a;
+            mRestackAll = true;
+        }
+        // debug drawing happens during stacking
+        if ((Pure2D.DEBUG_FLAGS | mDebugFlags) != 0) {
+            mRestackAll = true;
         }
 
         // draw the children
-        int numVisibles = 0;
         final boolean uiEnabled = mTouchable && mScene != null && mScene.isUIEnabled();
         StackableObject child;
         final int numChildren = mChildrenDisplayOrder.size();
@@ -340,27 +363,52 @@ abstract public class AbstractUniGroup extends BaseDisplayObject implements UniC
             if (child.isStackable()) {
                 // draw frame, check alpha for optimization
                 if (stackIndex < mNumDrawingChildren) {
-                    stackIndex += child.stack(glState, stackIndex, mVertexBuffer, mColorBuffer, mTexture != null ? mTextureCoordBuffer : null);
+                    if (mRestackAll || child.isStackInvalidated() || child.getStackIndex() != stackIndex) {
+                        final int numCells = child.stack(glState, stackIndex, mVertexBuffer, mColorBuffer, mTexture != null ? mTextureCoordBuffer : null);
+                        Profiler.count(Profiler.STACKED_CELLS, numCells);
+                        stackIndex += numCells;
+                    } else {
+                        // the cells are still valid
+                        stackIndex += child.getNumStackedChildren();
+                    }
                 } else {
                     Log.wtf(TAG, "This should NEVER happen: " + stackIndex + " >= " + mNumDrawingChildren);
                 }
 
                 // stack the visible child
                 if (uiEnabled && child instanceof Touchable && ((Touchable) child).isTouchable()) {
-                    float childZ = child.getZ();
-                    int j = numVisibles;
-                    while (j > 0 && ((StackableObject) mVisibleTouchables.get(j - 1)).getZ() > childZ) {
-                        j--;
-                    }
-                    mVisibleTouchables.add(j, (Touchable) child);
-                    numVisibles++;
+                    mHitTestIndex.add((Touchable) child);
                 }
             }
         }
 
+        if (mTouchable) {
+            mHitTestIndex.end();
+        }
+
+        mRestackAll = false;
+
         return true;
     }
 
+    /**
+     * Stack all the children again on the next draw, instead of the invalidated ones only. This is needed when the children get reordered, added or removed.
+     */
+    public void invalidateStack() {
+        mRestackAll = true;
+        mStackInvalidated = true;
+    }
+
+    @Override
+    public void invalidate(final int flags) {
+        super.invalidate(flags);
+
+        // my cells are local to my parent, its bounds don't change them
+        if ((flags & ~(PARENT_BOUNDS | CACHE)) != 0) {
+            mStackInvalidated = true;
+        }
+    }
+
     @Override
     protected void onPreConcatParentMatrix() {
         super.onPreConcatParentMatrix();
@@ -490,6 +538,7 @@ abstract public class AbstractUniGroup extends BaseDisplayObject implements UniC
             // child callback
             child.onAdded(this);
             invalidate(CHILDREN);
+            invalidateStack();
 
             // internal callback
             onAddedChild(child);
@@ -517,6 +566,7 @@ abstract public class AbstractUniGroup extends BaseDisplayObject implements UniC
             // child callback
             child.onAdded(this);
             invalidate(CHILDREN);
+            invalidateStack();
 
             onAddedChild(child);
             return true;
@@ -537,6 +587,7 @@ abstract public class AbstractUniGroup extends BaseDisplayObject implements UniC
             // child callback
             child.onRemoved();
             invalidate(CHILDREN);
+            invalidateStack();
 
             onRemovedChild(child);
             return true;
@@ -559,6 +610,7 @@ abstract public class AbstractUniGroup extends BaseDisplayObject implements UniC
             // child callback
             child.onRemoved();
             invalidate(CHILDREN);
+            invalidateStack();
 
             onRemovedChild(child);
             return true;
@@ -587,6 +639,7 @@ abstract public class AbstractUniGroup extends BaseDisplayObject implements UniC
         mChildren.clear();
         mNumChildren = 0;
         invalidate(CHILDREN);
+        invalidateStack();
     }
 
     public StackableObject getChildAt(final int index) {
@@ -628,6 +681,7 @@ abstract public class AbstractUniGroup extends BaseDisplayObject implements UniC
         mChildren.set(index1, child2);
         mChildren.set(index2, child1);
         invalidate(CHILDREN);
+        invalidateStack();
 
         return true;
     }
@@ -654,6 +708,7 @@ abstract public class AbstractUniGroup extends BaseDisplayObject implements UniC
         mChildren.set(index1, child2);
         mChildren.set(index2, child1);
         invalidate(CHILDREN);
+        invalidateStack();
 
         return true;
     }
@@ -674,6 +729,7 @@ abstract public class AbstractUniGroup extends BaseDisplayObject implements UniC
         }
         mChildren.set(mNumChildren - 1, child);
         invalidate(CHILDREN);
+        invalidateStack();
 
         return true;
     }
@@ -694,6 +750,7 @@ abstract public class AbstractUniGroup extends BaseDisplayObject implements UniC
         }
         mChildren.set(0, child);
         invalidate(CHILDREN);
+        invalidateStack();
 
         return true;
     }
@@ -731,6 +788,9 @@ abstract public class AbstractUniGroup extends BaseDisplayObject implements UniC
 
     protected void setNumDrawingChildren(final int num) {
         mNumDrawingChildren = num;
+
+        // the cells are shifted
+        invalidateStack();
     }
 
     /**
@@ -739,14 +799,10 @@ abstract public class AbstractUniGroup extends BaseDisplayObject implements UniC
     @Override
     public boolean onTouchEvent(final MotionEvent event) {
 
-        if (mNumChildren > 0 && mVisibleTouchables != null) {
-            // start from front to back
-            for (int i = mVisibleTouchables.size() - 1; i >= 0; i--) {
-                if (mVisibleTouchables.get(i).onTouchEvent(event)) {
-                    // break here
-                    return true;
-                }
-            }
+        // start from front to back
+        if (mNumChildren > 0 && mHitTestIndex.dispatch(event, mScene)) {
+            // break here
+            return true;
         }
 
         // also take control if this is modal
@@ -857,6 +913,7 @@ abstract public class AbstractUniGroup extends BaseDisplayObject implements UniC
         mChildrenDisplayOrder = childrenDisplayOrder;
 
         invalidate(CHILDREN);
+        invalidateStack();
     }
 
     public void setChildrenVisible(boolean value) {
@@ -994,8 +1051,8 @@ abstract public class AbstractUniGroup extends BaseDisplayObject implements UniC
      * @param texture
      */
     protected void onTextureLoaded(final Texture texture) {
-        // TODO Auto-generated method stub
-
+        // the texture coordinates need to be scaled again
+        invalidateStack();
     }
 
     /**
@@ -53,6 +53,9 @@ public class UniGroup extends AbstractUniGroup implements StackableObject {
     protected QuadMeshColorBuffer mColorBuffer;
 
     protected boolean mStackable;
+    protected int mStackIndex = -1;
+    // my vertices, mapped to the parent
+    private float[] mStackedVertices;
 
     public UniGroup() {
         super();
@@ -98,6 +101,30 @@ public class UniGroup extends AbstractUniGroup implements StackableObject {
         return mColorBuffer = new QuadMeshColorBuffer(0);
     }
 
+    public boolean isStreamingEnabled() {
+        return mMeshBuffer.isStreamingEnabled();
+    }
+
+    /**
+     * Upload the stacked buffers into buffer objects, for groups that change often. This falls back to the client arrays without GL11.
+     *
+     * @param value
+     * @see QuadMeshBuffer#setStreamingEnabled(boolean)
+     */
+    public void setStreamingEnabled(final boolean value) {
+        mMeshBuffer.setStreamingEnabled(value);
+        mColorBuffer.setStreamingEnabled(value);
+        mTextureCoordBuffer.setStreamingEnabled(value);
+    }
+
+    @Override
+    public void dispose() {
+        super.dispose();
+
+        // release the buffer objects
+        setStreamingEnabled(false);
+    }
+
     @Override
     protected void onTextureLoaded(final Texture texture) {
         super.onTextureLoaded(texture);
@@ -164,12 +191,17 @@ public class UniGroup extends AbstractUniGroup implements StackableObject {
             return 0;
         }
 
+        // map to a copy, the mesh keeps the unchanged cells for the next stack
         final float[] vertices = mMeshBuffer.getVertices();
         if (mMatrixForVertices != null) {
-            mMatrixForVertices.mapPoints(vertices);
+            if (mStackedVertices == null || mStackedVertices.length < vertices.length) {
+                mStackedVertices = new float[vertices.length];
+            }
+            mMatrixForVertices.mapPoints(mStackedVertices, 0, vertices, 0, mNumDrawingChildren * QuadMeshBuffer.NUM_VERTICES_PER_CELL);
+            ((QuadMeshBuffer) vertexBuffer).setValuesAt(index, mNumDrawingChildren, mStackedVertices);
+        } else {
+            ((QuadMeshBuffer) vertexBuffer).setValuesAt(index, mNumDrawingChildren, vertices);
         }
-
-        ((QuadMeshBuffer) vertexBuffer).setValuesAt(index, mNumDrawingChildren, vertices);
         ((QuadMeshColorBuffer) colorBuffer).setValuesAt(index, mNumDrawingChildren, mColorBuffer.getValues());
 
         // optional
@@ -186,6 +218,8 @@ public class UniGroup extends AbstractUniGroup implements StackableObject {
 
         // validate visual only
         mInvalidateFlags &= ~VISUAL;
+        mStackIndex = index;
+        mStackInvalidated = false;
 
         return mNumDrawingChildren;
     }
@@ -206,6 +240,22 @@ public class UniGroup extends AbstractUniGroup implements StackableObject {
         return mStackable;
     }
 
+    /**
+     * @hide for internal use
+     */
+    @Override
+    public int getStackIndex() {
+        return mStackIndex;
+    }
+
+    /**
+     * @hide for internal use
+     */
+    @Override
+    public boolean isStackInvalidated() {
+        return mStackInvalidated;
+    }
+
     @Override
     public void setXMLAttributes(final XmlPullParser xmlParser, final UIManager manager) {
         super.setXMLAttributes(xmlParser, manager);
@@ -26,7 +26,6 @@ import android.graphics.PointF;
 import android.graphics.RectF;
 import android.view.MotionEvent;
 
-import com.funzio.pure2D.DisplayObject;
 import com.funzio.pure2D.Scene;
 import com.funzio.pure2D.StackableObject;
 import com.funzio.pure2D.Touchable;
@@ -37,8 +36,6 @@ import com.funzio.pure2D.ui.UIObject;
 
 import org.xmlpull.v1.XmlPullParser;
 
-import java.util.ArrayList;
-
 /**
  * @author long
  */
@@ -156,11 +153,7 @@ public class UniHGroup extends UniLinearGroup implements UIObject {
     @Override
     protected boolean drawChildren(final GLState glState) {
         if (mTouchable) {
-            if (mVisibleTouchables == null) {
-                mVisibleTouchables = new ArrayList<Touchable>();
-            } else {
-                mVisibleTouchables.clear();
-            }
+            mHitTestIndex.begin();
         }
 
         // draw the children
@@ -180,12 +173,7 @@ public class UniHGroup extends UniLinearGroup implements UIObject {
 
                 // stack the visible child
                 if (mTouchable && child instanceof Touchable && ((Touchable) child).isTouchable()) {
-                    float childZ = child.getZ();
-                    int j = mVisibleTouchables.size();
-                    while (j > 0 && ((DisplayObject) mVisibleTouchables.get(j - 1)).getZ() > childZ) {
-                        j--;
-                    }
-                    mVisibleTouchables.add(j, (Touchable) child);
+                    mHitTestIndex.add((Touchable) child);
                 }
             } else {
                 if (mAutoSleepChildren) {
@@ -195,6 +183,10 @@ public class UniHGroup extends UniLinearGroup implements UIObject {
             }
         }
 
+        if (mTouchable) {
+            mHitTestIndex.end();
+        }
+
         // if there's an empty space at the beginning
         // if (mRepeating && mStartX > mGap) {
         // // draw the first item to fill the space
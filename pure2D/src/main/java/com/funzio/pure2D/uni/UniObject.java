@@ -104,6 +104,8 @@ public abstract class UniObject implements StackableObject, InvalidateFlags {
     // interface
     protected float[] mVertices;
     protected boolean mStackable;
+    protected int mStackIndex = -1;
+    protected boolean mStackInvalidated = true;
 
     abstract protected void resetVertices();
 
@@ -190,6 +192,11 @@ public abstract class UniObject implements StackableObject, InvalidateFlags {
     final public void invalidate(final int flags) {
         mInvalidateFlags |= flags;
 
+        // the parent's bounds don't change my cells, they are local to the parent
+        if ((flags & ~(PARENT | PARENT_BOUNDS)) != 0) {
+            mStackInvalidated = true;
+        }
+
         if (mParent != null) {
             mParent.invalidate(CHILDREN);
         }
@@ -245,6 +252,22 @@ public abstract class UniObject implements StackableObject, InvalidateFlags {
         return mStackable;
     }
 
+    /**
+     * @hide for internal use
+     */
+    @Override
+    public int getStackIndex() {
+        return mStackIndex;
+    }
+
+    /**
+     * @hide for internal use
+     */
+    @Override
+    public boolean isStackInvalidated() {
+        return mStackInvalidated;
+    }
+
     /**
      * @return the position
      */
@@ -100,6 +100,8 @@ public class UniRect extends UniObject {
 
         // validate visual only
         mInvalidateFlags &= ~VISUAL;
+        mStackIndex = index;
+        mStackInvalidated = false;
 
         return 1; // just me
     }
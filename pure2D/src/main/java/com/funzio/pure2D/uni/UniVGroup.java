@@ -38,8 +38,6 @@ import com.funzio.pure2D.ui.UIObject;
 
 import org.xmlpull.v1.XmlPullParser;
 
-import java.util.ArrayList;
-
 /**
  * @author long
  */
@@ -162,11 +160,7 @@ public class UniVGroup extends UniLinearGroup implements UIObject {
     @Override
     protected boolean drawChildren(final GLState glState) {
         if (mTouchable) {
-            if (mVisibleTouchables == null) {
-                mVisibleTouchables = new ArrayList<Touchable>();
-            } else {
-                mVisibleTouchables.clear();
-            }
+            mHitTestIndex.begin();
         }
 
         // draw the children
@@ -186,12 +180,7 @@ public class UniVGroup extends UniLinearGroup implements UIObject {
 
                 // stack the visible child
                 if (mTouchable && child instanceof Touchable && ((Touchable) child).isTouchable()) {
-                    float childZ = child.getZ();
-                    int j = mVisibleTouchables.size();
-                    while (j > 0 && ((StackableObject) mVisibleTouchables.get(j - 1)).getZ() > childZ) {
-                        j--;
-                    }
-                    mVisibleTouchables.add(j, (Touchable) child);
+                    mHitTestIndex.add((Touchable) child);
                 }
             } else {
                 if (mAutoSleepChildren) {
@@ -201,6 +190,10 @@ public class UniVGroup extends UniLinearGroup implements UIObject {
             }
         }
 
+        if (mTouchable) {
+            mHitTestIndex.end();
+        }
+
         // if there's an empty space at the beginning
         // if (mRepeating && mStartY > mGap) {
         // // draw the first item to fill the space
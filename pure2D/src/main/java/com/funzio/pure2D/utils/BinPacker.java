@@ -0,0 +1,79 @@
+/**
+ * ****************************************************************************
+ * Copyright (C) 2012-2014 GREE, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * ****************************************************************************
+ */
+/**
+ *
+ */
+package com.funzio.pure2D.utils;
+
+import android.graphics.Rect;
+
+/**
+ * A rectangle packer for atlases. The rects are placed in a bin of a max size and get their indices in the order they are occupied.
+ *
+ * @author long
+ * @see MaxRectsPacker
+ * @see SkylinePacker
+ * @see RectBinPacker
+ */
+public interface BinPacker {
+
+    /**
+     * Place a rect. If rotation is enabled, the returned rect can have the width and height swapped.
+     *
+     * @param w
+     * @param h
+     * @return the placed rect, or null if it doesn't fit
+     */
+    public Rect occupy(final int w, final int h);
+
+    /**
+     * @return true if there is space for the rect
+     */
+    public boolean canOccupy(final int w, final int h);
+
+    public Rect getRect(final int index);
+
+    public int getNumRects();
+
+    /**
+     * @return the width of the occupied area, power of 2 if forced
+     */
+    public int getWidth();
+
+    /**
+     * @return the height of the occupied area, power of 2 if forced
+     */
+    public int getHeight();
+
+    /**
+     * @return the ratio of the occupied pixels in the {@link #getWidth()} x {@link #getHeight()} area, from 0 to 1
+     */
+    public float getOccupancy();
+
+    public boolean isRotationEnabled();
+
+    public void setRotationEnabled(final boolean rotationEnabled);
+
+    public void reset();
+}
@@ -0,0 +1,216 @@
+/*******************************************************************************
+ * Copyright (C) 2012-2014 GREE, Inc.
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ ******************************************************************************/
+/**
+ * 
+ */
+package com.funzio.pure2D.utils;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import com.funzio.pure2D.profiler.Profiler;
+
+/**
+ * A lock-free {@link ObjectPool} that can be acquired from and released into by multiple threads, such as objects created on the GL thread and released by a loader thread. It is a
+ * bounded ring buffer where each slot has a sequence number, so producers and consumers only compete on one CAS each. The ring is allocated once, with the max size rounded up to a
+ * power of 2; {@link #setMaxSize(int)} can lower the limit but not raise it above that capacity.
+ * 
+ * @author long
+ */
+public class ConcurrentObjectPool<T extends Reusable> extends ObjectPool<T> {
+    private final AtomicReferenceArray<T> mSlots;
+    private final AtomicLongArray mSequences;
+    private final int mMask;
+
+    private final AtomicLong mHead = new AtomicLong(); // next to acquire
+    private final AtomicLong mTail = new AtomicLong(); // next to release into
+
+    // stats
+    private final AtomicInteger mNumHits = new AtomicInteger();
+    private final AtomicInteger mNumMisses = new AtomicInteger();
+    private final AtomicInteger mNumOverflows = new AtomicInteger();
+    private final AtomicInteger mPeakSize = new AtomicInteger();
+
+    public ConcurrentObjectPool(final int maxSize) {
+        super(0);
+
+        int capacity = 2;
+        while (capacity < maxSize) {
+            capacity <<= 1;
+        }
+        mSlots = new AtomicReferenceArray<T>(capacity);
+        mSequences = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            mSequences.set(i, i);
+        }
+        mMask = capacity - 1;
+
+        super.setMaxSize(maxSize);
+    }
+
+    /**
+     * @return the size of the ring
+     */
+    public int getCapacity() {
+        return mMask + 1;
+    }
+
+    @Override
+    public void setMaxSize(final int maxSize) {
+        super.setMaxSize(Math.min(maxSize, mMask + 1));
+
+        // drop the extra objects
+        while (size() > getMaxSize() && poll() != null) {
+            // nothing
+        }
+    }
+
+    @Override
+    public T acquire() {
+        final T reusable = poll();
+        if (reusable != null) {
+            mNumHits.incrementAndGet();
+            Profiler.count(Profiler.POOL_HITS);
+        } else {
+            mNumMisses.incrementAndGet();
+            Profiler.count(Profiler.POOL_MISSES);
+        }
+
+        return reusable;
+    }
+
+    @Override
+    public boolean release(final T reusable) {
+        // the size is only a snapshot here, the max size is a soft limit under contention
+        if (size() < getMaxSize() && offer(reusable)) {
+            // update the peak
+            final int size = size();
+            int peak;
+            while (size > (peak = mPeakSize.get()) && !mPeakSize.compareAndSet(peak, size)) {
+                // retry
+            }
+            return true;
+        }
+
+        mNumOverflows.incrementAndGet();
+        return false;
+    }
+
+    @Override
+    public void clear() {
+        while (poll() != null) {
+            // nothing
+        }
+    }
+
+    @Override
+    public int size() {
+        // read the head first so the result is never negative
+        final long head = mHead.get();
+        return (int) Math.max(0, mTail.get() - head);
+    }
+
+    @Override
+    public int getNumHits() {
+        return mNumHits.get();
+    }
+
+    @Override
+    public int getNumMisses() {
+        return mNumMisses.get();
+    }
+
+    @Override
+    public int getNumOverflows() {
+        return mNumOverflows.get();
+    }
+
+    @Override
+    public int getPeakSize() {
+        return mPeakSize.get();
+    }
+
+    @Override
+    public void resetStats() {
+        mNumHits.set(0);
+        mNumMisses.set(0);
+        mNumOverflows.set(0);
+        mPeakSize.set(size());
+    }
+
+    private boolean offer(final T reusable) {
+        long pos = mTail.get();
+        int index;
+        while (true) {
+            index = (int) (pos & mMask);
+            final long diff = mSequences.get(index) - pos;
+            if (diff == 0) {
+                // the slot is free, claim it
+                if (mTail.compareAndSet(pos, pos + 1)) {
+                    break;
+                }
+                pos = mTail.get();
+            } else if (diff < 0) {
+                // full
+                return false;
+            } else {
+                // another thread got it first
+                pos = mTail.get();
+            }
+        }
+
+        mSlots.set(index, reusable);
+        // publish
+        mSequences.set(index, pos + 1);
+        return true;
+    }
+
+    private T poll() {
+        long pos = mHead.get();
+        int index;
+        while (true) {
+            index = (int) (pos & mMask);
+            final long diff = mSequences.get(index) - (pos + 1);
+            if (diff == 0) {
+                // the slot is filled, claim it
+                if (mHead.compareAndSet(pos, pos + 1)) {
+                    break;
+                }
+                pos = mHead.get();
+            } else if (diff < 0) {
+                // empty
+                return null;
+            } else {
+                // another thread got it first
+                pos = mHead.get();
+            }
+        }
+
+        final T reusable = mSlots.get(index);
+        mSlots.set(index, null);
+        // free the slot for the next round
+        mSequences.set(index, pos + mMask + 1);
+        return reusable;
+    }
+}
@@ -0,0 +1,332 @@
+/**
+ * ****************************************************************************
+ * Copyright (C) 2012-2014 GREE, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * ****************************************************************************
+ */
+/**
+ *
+ */
+package com.funzio.pure2D.utils;
+
+import android.graphics.Rect;
+
+/**
+ * A MaxRects packer with the best-short-side-fit rule. It keeps all the maximal free rects, which may overlap, and places each rect in the one that leaves the shortest side. Placements that
+ * don't grow the occupied area are preferred, to keep the texture small.
+ * <p>
+ * The free and placed rects are kept in int arrays, nothing is allocated per rect except the returned {@link Rect}.
+ * </p>
+ * <p>
+ * It trades speed for density: every placement scans all the free rects, which add up as the bin fills, so a couple of thousand rects take tens of ms (40-60 ms for 2000 on a desktop
+ * JVM). {@link SkylinePacker} is the fast path, a few ms for the same rects with a little more waste. Use this one for the textures that are packed once and where the memory matters,
+ * and {@link RectBinPacker} for the ones that are packed again and again at runtime.
+ * </p>
+ *
+ * @author long
+ */
+public class MaxRectsPacker implements BinPacker {
+
+    private final int mMaxWidth;
+    private final int mMaxHeight;
+    private final boolean mForcePO2;
+    private boolean mRotationEnabled = false;
+
+    // free rects: x, y, w, h
+    private int[] mFree = new int[64];
+    private int mNumFree = 0;
+    // the parts split in the current placement
+    private int[] mNew = new int[64];
+    private int mNumNew = 0;
+
+    // placed rects: x, y, w, h
+    private int[] mPlaced = new int[64];
+    private int mNumPlaced = 0;
+    private long mUsedArea = 0;
+    private int mRight = 0;
+    private int mBottom = 0;
+
+    // the best position found by findPosition()
+    private int mBestX;
+    private int mBestY;
+    private int mBestW;
+    private int mBestH;
+
+    public MaxRectsPacker(final int maxWidth, final boolean forcePO2) {
+        this(maxWidth, maxWidth, forcePO2);
+    }
+
+    public MaxRectsPacker(final int maxWidth, final int maxHeight, final boolean forcePO2) {
+        mMaxWidth = maxWidth;
+        mMaxHeight = maxHeight;
+        mForcePO2 = forcePO2;
+
+        reset();
+    }
+
+    @Override
+    public boolean isRotationEnabled() {
+        return mRotationEnabled;
+    }
+
+    @Override
+    public void setRotationEnabled(final boolean rotationEnabled) {
+        mRotationEnabled = rotationEnabled;
+    }
+
+    @Override
+    public Rect occupy(final int w, final int h) {
+        if (!findPosition(w, h)) {
+            return null;
+        }
+
+        // split the free rects
+        final int x = mBestX, y = mBestY, bw = mBestW, bh = mBestH;
+        mNumNew = 0;
+        for (int i = 0; i < mNumFree;) {
+            if (!splitFree(i, x, y, bw, bh)) {
+                i++;
+            }
+        }
+        addNewFree();
+
+        // add it
+        if (mNumPlaced * 4 == mPlaced.length) {
+            mPlaced = grow(mPlaced);
+        }
+        final int index = mNumPlaced * 4;
+        mPlaced[index] = x;
+        mPlaced[index + 1] = y;
+        mPlaced[index + 2] = bw;
+        mPlaced[index + 3] = bh;
+        mNumPlaced++;
+        mUsedArea += bw * bh;
+        mRight = Math.max(mRight, x + bw);
+        mBottom = Math.max(mBottom, y + bh);
+
+        return new Rect(x, y, x + bw, y + bh);
+    }
+
+    @Override
+    public boolean canOccupy(final int w, final int h) {
+        return findPosition(w, h);
+    }
+
+    private boolean findPosition(final int w, final int h) {
+        long bestBounds = Long.MAX_VALUE;
+        int bestShort = Integer.MAX_VALUE, bestLong = Integer.MAX_VALUE;
+        boolean found = false;
+
+        for (int i = 0; i < mNumFree; i++) {
+            final int index = i * 4;
+            final int fx = mFree[index], fy = mFree[index + 1], fw = mFree[index + 2], fh = mFree[index + 3];
+
+            for (int r = 0; r < (mRotationEnabled && w != h ? 2 : 1); r++) {
+                final int rw = r == 0 ? w : h;
+                final int rh = r == 0 ? h : w;
+                if (rw > fw || rh > fh) {
+                    continue;
+                }
+
+                final long bounds = getBoundsCost(fx + rw, fy + rh);
+                final int leftW = fw - rw, leftH = fh - rh;
+                final int shortSide = Math.min(leftW, leftH);
+                final int longSide = Math.max(leftW, leftH);
+                if (bounds < bestBounds || (bounds == bestBounds && (shortSide < bestShort || (shortSide == bestShort && longSide < bestLong)))) {
+                    bestBounds = bounds;
+                    bestShort = shortSide;
+                    bestLong = longSide;
+                    mBestX = fx;
+                    mBestY = fy;
+                    mBestW = rw;
+                    mBestH = rh;
+                    found = true;
+                }
+            }
+        }
+
+        return found;
+    }
+
+    /**
+     * @return how big the occupied area would be, squared sizes to keep it square-ish
+     */
+    private long getBoundsCost(final int right, final int bottom) {
+        int w = Math.max(mRight, right);
+        int h = Math.max(mBottom, bottom);
+        if (mForcePO2) {
+            w = Pure2DUtils.getNextPO2(w);
+            h = Pure2DUtils.getNextPO2(h);
+        }
+
+        return (long) w * w + (long) h * h;
+    }
+
+    /**
+     * Split a free rect by the used one, if they intersect
+     *
+     * @return true if the free rect is removed
+     */
+    private boolean splitFree(final int i, final int x, final int y, final int w, final int h) {
+        final int index = i * 4;
+        final int fx = mFree[index], fy = mFree[index + 1], fw = mFree[index + 2], fh = mFree[index + 3];
+        if (x >= fx + fw || x + w <= fx || y >= fy + fh || y + h <= fy) {
+            return false;
+        }
+
+        // remove it, by moving the last one here
+        removeFree(i);
+
+        // the parts around the used rect
+        if (x > fx) {
+            addNew(fx, fy, x - fx, fh);
+        }
+        if (x + w < fx + fw) {
+            addNew(x + w, fy, fx + fw - x - w, fh);
+        }
+        if (y > fy) {
+            addNew(fx, fy, fw, y - fy);
+        }
+        if (y + h < fy + fh) {
+            addNew(fx, y + h, fw, fy + fh - y - h);
+        }
+
+        return true;
+    }
+
+    private void addNew(final int x, final int y, final int w, final int h) {
+        if (mNumNew * 4 == mNew.length) {
+            mNew = grow(mNew);
+        }
+
+        final int index = mNumNew * 4;
+        mNew[index] = x;
+        mNew[index + 1] = y;
+        mNew[index + 2] = w;
+        mNew[index + 3] = h;
+        mNumNew++;
+    }
+
+    /**
+     * Add the split parts to the free list, except the ones contained in the others. A new part can't contain an old free rect since it's inside the split one, and the old ones never
+     * contain each other, so only the new parts need to be checked.
+     */
+    private void addNewFree() {
+        for (int n = 0; n < mNumNew; n++) {
+            final int ni = n * 4;
+            if (mNew[ni + 2] < 0) {
+                // already dropped
+                continue;
+            }
+
+            boolean contained = false;
+            // against the other new ones
+            for (int m = 0; m < mNumNew && !contained; m++) {
+                if (m != n && mNew[m * 4 + 2] >= 0 && contains(mNew, m * 4, mNew, ni)) {
+                    // drop one of the duplicates
+                    contained = !contains(mNew, ni, mNew, m * 4) || m < n;
+                }
+            }
+            // against the old ones
+            for (int i = 0; i < mNumFree && !contained; i++) {
+                contained = contains(mFree, i * 4, mNew, ni);
+            }
+
+            if (contained) {
+                mNew[ni + 2] = -1;
+            }
+        }
+
+        for (int n = 0; n < mNumNew; n++) {
+            final int ni = n * 4;
+            if (mNew[ni + 2] >= 0) {
+                addFree(mNew[ni], mNew[ni + 1], mNew[ni + 2], mNew[ni + 3]);
+            }
+        }
+    }
+
+    private static boolean contains(final int[] outer, final int o, final int[] inner, final int n) {
+        return inner[n] >= outer[o] && inner[n + 1] >= outer[o + 1] && inner[n] + inner[n + 2] <= outer[o] + outer[o + 2] && inner[n + 1] + inner[n + 3] <= outer[o + 1] + outer[o + 3];
+    }
+
+    private void addFree(final int x, final int y, final int w, final int h) {
+        if (mNumFree * 4 == mFree.length) {
+            mFree = grow(mFree);
+        }
+
+        final int index = mNumFree * 4;
+        mFree[index] = x;
+        mFree[index + 1] = y;
+        mFree[index + 2] = w;
+        mFree[index + 3] = h;
+        mNumFree++;
+    }
+
+    private void removeFree(final int i) {
+        mNumFree--;
+        if (i != mNumFree) {
+            System.arraycopy(mFree, mNumFree * 4, mFree, i * 4, 4);
+        }
+    }
+
+    private static int[] grow(final int[] array) {
+        final int[] newArray = new int[array.length * 2];
+        System.arraycopy(array, 0, newArray, 0, array.length);
+        return newArray;
+    }
+
+    @Override
+    public Rect getRect(final int index) {
+        final int i = index * 4;
+        return new Rect(mPlaced[i], mPlaced[i + 1], mPlaced[i] + mPlaced[i + 2], mPlaced[i + 1] + mPlaced[i + 3]);
+    }
+
+    @Override
+    public int getNumRects() {
+        return mNumPlaced;
+    }
+
+    @Override
+    public int getWidth() {
+        return mForcePO2 ? Pure2DUtils.getNextPO2(mRight) : mRight;
+    }
+
+    @Override
+    public int getHeight() {
+        return mForcePO2 ? Pure2DUtils.getNextPO2(mBottom) : mBottom;
+    }
+
+    @Override
+    public float getOccupancy() {
+        final long area = (long) getWidth() * getHeight();
+        return area > 0 ? (float) mUsedArea / area : 0;
+    }
+
+    @Override
+    public void reset() {
+        mNumFree = 0;
+        mNumPlaced = 0;
+        mUsedArea = 0;
+        mRight = mBottom = 0;
+
+        // the whole bin is free
+        addFree(0, 0, mMaxWidth, mMaxHeight);
+    }
+}
@@ -24,49 +24,155 @@
  */
 package com.funzio.pure2D.utils;
 
-import java.util.Vector;
+import java.util.Arrays;
+
+import com.funzio.pure2D.profiler.Profiler;
 
 /**
+ * A pool of {@link Reusable} objects, backed by an array used as a stack: the last released object is the first one to be acquired, so neither acquire() nor release() shifts
+ * anything. The array grows on demand, up to the max size.
+ * <p>
+ * The methods are synchronized, for a pool that is released into from other threads use {@link ConcurrentObjectPool} instead.
+ * </p>
+ * 
  * @author long
  */
 public class ObjectPool<T extends Reusable> {
-    private Vector<T> mReusables = new Vector<T>();
+    private static final int INITIAL_CAPACITY = 16;
+
+    private Object[] mReusables;
+    private int mSize = 0;
     private int mMaxSize;
 
+    // stats
+    private int mNumHits = 0;
+    private int mNumMisses = 0;
+    private int mNumOverflows = 0;
+    private int mPeakSize = 0;
+
     public ObjectPool(final int maxSize) {
         mMaxSize = maxSize;
+        mReusables = new Object[Math.max(0, Math.min(maxSize, INITIAL_CAPACITY))];
     }
 
     public int getMaxSize() {
         return mMaxSize;
     }
 
-    public void setMaxSize(final int maxSize) {
+    public synchronized void setMaxSize(final int maxSize) {
         mMaxSize = maxSize;
+
+        // drop the extra objects
+        if (mSize > maxSize) {
+            final int size = Math.max(0, maxSize);
+            Arrays.fill(mReusables, size, mSize, null);
+            mSize = size;
+        }
     }
 
-    public T acquire() {
-        if (mReusables.size() > 0) {
-            return mReusables.remove(0);
+    @SuppressWarnings("unchecked")
+    public synchronized T acquire() {
+        if (mSize > 0) {
+            final T reusable = (T) mReusables[--mSize];
+            mReusables[mSize] = null;
+
+            mNumHits++;
+            Profiler.count(Profiler.POOL_HITS);
+            return reusable;
         }
 
+        mNumMisses++;
+        Profiler.count(Profiler.POOL_MISSES);
         return null;
     }
 
-    public boolean release(final T reusable) {
-        if (mReusables.size() < mMaxSize) {
-            mReusables.add(reusable);
+    public synchronized boolean release(final T reusable) {
+        if (mSize < mMaxSize) {
+            if (mSize == mReusables.length) {
+                // grow
+                final Object[] reusables = new Object[Math.min(mMaxSize, Math.max(INITIAL_CAPACITY, mSize * 2))];
+                System.arraycopy(mReusables, 0, reusables, 0, mSize);
+                mReusables = reusables;
+            }
+            mReusables[mSize++] = reusable;
+            if (mSize > mPeakSize) {
+                mPeakSize = mSize;
+            }
             return true;
         }
 
+        mNumOverflows++;
         return false;
     }
 
-    public void clear() {
-        mReusables.clear();
+    /**
+     * Fill the pool up to a specific size, so the first acquires don't miss.
+     * 
+     * @param size the target size, capped by the max size
+     * @param factory to create the objects
+     * @return number of objects created
+     */
+    public int prewarm(final int size, final Factory<? extends T> factory) {
+        int count = 0;
+        while (size() < Math.min(size, mMaxSize)) {
+            if (!release(factory.create())) {
+                break;
+            }
+            count++;
+        }
+
+        return count;
+    }
+
+    public synchronized void clear() {
+        Arrays.fill(mReusables, 0, mSize, null);
+        mSize = 0;
+    }
+
+    public synchronized int size() {
+        return mSize;
+    }
+
+    /**
+     * @return number of acquires that returned an object
+     */
+    public int getNumHits() {
+        return mNumHits;
+    }
+
+    /**
+     * @return number of acquires that returned null
+     */
+    public int getNumMisses() {
+        return mNumMisses;
+    }
+
+    /**
+     * @return number of releases that were dropped because the pool was full
+     */
+    public int getNumOverflows() {
+        return mNumOverflows;
+    }
+
+    /**
+     * @return the max number of objects the pool has held
+     */
+    public int getPeakSize() {
+        return mPeakSize;
+    }
+
+    public synchronized void resetStats() {
+        mNumHits = mNumMisses = mNumOverflows = 0;
+        mPeakSize = mSize;
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "[size: " + size() + "/" + mMaxSize + ", hits: " + getNumHits() + ", misses: " + getNumMisses() + ", overflows: " + getNumOverflows() + ", peak: "
+                + getPeakSize() + "]";
     }
 
-    public int size() {
-        return mReusables.size();
+    public static interface Factory<T> {
+        public T create();
     }
 }
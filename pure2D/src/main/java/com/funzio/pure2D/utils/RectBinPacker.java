@@ -33,9 +33,11 @@ import java.util.ArrayList;
 import java.util.List;
 
 /**
+ * A growing binary tree packer. It wastes more space than {@link MaxRectsPacker} but is much faster, for the atlases that are packed at runtime.
+ *
  * @author long
  */
-public class RectBinPacker {
+public class RectBinPacker implements BinPacker {
     private static final String TAG = RectBinPacker.class.getSimpleName();
 
     private final List<Rect> mRects = new ArrayList<Rect>();
@@ -43,6 +45,7 @@ public class RectBinPacker {
     private final int mMaxWidth;
     private final boolean mForcePO2;
     private boolean mRotationEnabled = false;
+    private long mUsedArea = 0;
 
     private Node mRoot;
 
@@ -58,14 +61,17 @@ public class RectBinPacker {
         mRoot = new Node(0, 0, minWidth, minWidth);
     }
 
+    @Override
     public boolean isRotationEnabled() {
         return mRotationEnabled;
     }
 
+    @Override
     public void setRotationEnabled(final boolean rotationEnabled) {
         mRotationEnabled = rotationEnabled;
     }
 
+    @Override
     public Rect occupy(final int w, final int h) {
         final Node node = mRoot.findNode(w, h);
         if (node != null) {
@@ -75,6 +81,7 @@ public class RectBinPacker {
             mBounds.union(newRect);
             // add to list
             mRects.add(newRect);
+            mUsedArea += w * h;
 
             return newRect;
         } else {
@@ -90,6 +97,7 @@ public class RectBinPacker {
                 mBounds.union(newRect);
                 // add to list
                 mRects.add(newRect);
+                mUsedArea += w * h;
 
                 return newRect;
             }
@@ -98,6 +106,14 @@ public class RectBinPacker {
         return null;
     }
 
+    /**
+     * @return true if there is space for the rect, without growing
+     */
+    @Override
+    public boolean canOccupy(final int w, final int h) {
+        return mRoot.findNode(w, h) != null;
+    }
+
     protected Rect growAndOccupy(final int w, final int h) {
         final boolean canGrowDown = (w <= mRoot.width) && (mRoot.height + h <= mMaxWidth);
         final boolean canGrowRight = (h <= mRoot.height) && (mRoot.width + w <= mMaxWidth);
@@ -141,19 +157,34 @@ public class RectBinPacker {
         return down.occupy(w, h);
     }
 
+    @Override
     public void reset() {
         mRoot.reset();
         mRects.clear();
         mBounds.setEmpty();
+        mUsedArea = 0;
     }
 
+    @Override
     public Rect getRect(final int index) {
         return mRects.get(index);
     }
 
+    @Override
+    public int getNumRects() {
+        return mRects.size();
+    }
+
+    @Override
+    public float getOccupancy() {
+        final long area = (long) getWidth() * getHeight();
+        return area > 0 ? (float) mUsedArea / area : 0;
+    }
+
     /**
      * @return the width
      */
+    @Override
     public int getWidth() {
         return mForcePO2 ? Pure2DUtils.getNextPO2(mBounds.width()) : mBounds.width();
     }
@@ -161,6 +192,7 @@ public class RectBinPacker {
     /**
      * @return the height
      */
+    @Override
     public int getHeight() {
         return mForcePO2 ? Pure2DUtils.getNextPO2(mBounds.height()) : mBounds.height();
     }
@@ -0,0 +1,278 @@
+/**
+ * ****************************************************************************
+ * Copyright (C) 2012-2014 GREE, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * ****************************************************************************
+ */
+/**
+ *
+ */
+package com.funzio.pure2D.utils;
+
+import android.graphics.Rect;
+
+/**
+ * A Skyline packer with the bottom-left rule. It only keeps the top edge of the placed rects as a list of segments, so it's faster than {@link MaxRectsPacker} but can't fill the holes
+ * under the skyline. It works best for rects of similar heights, such as glyphs. This is the fast path, it packs a couple of thousand rects in a few ms.
+ * <p>
+ * The rows fill up the max width before growing down, so the max width should be the width of the texture wanted.
+ * </p>
+ *
+ * @author long
+ */
+public class SkylinePacker implements BinPacker {
+
+    private final int mMaxWidth;
+    private final int mMaxHeight;
+    private final boolean mForcePO2;
+    private boolean mRotationEnabled = false;
+
+    // skyline segments from left to right: x, y, w
+    private int[] mSkyline = new int[96];
+    private int mNumSegments = 0;
+
+    // placed rects: x, y, w, h
+    private int[] mPlaced = new int[64];
+    private int mNumPlaced = 0;
+    private long mUsedArea = 0;
+    private int mRight = 0;
+    private int mBottom = 0;
+
+    // the best position found by findPosition()
+    private int mBestSegment;
+    private int mBestX;
+    private int mBestY;
+    private int mBestW;
+    private int mBestH;
+
+    public SkylinePacker(final int maxWidth, final boolean forcePO2) {
+        this(maxWidth, maxWidth, forcePO2);
+    }
+
+    public SkylinePacker(final int maxWidth, final int maxHeight, final boolean forcePO2) {
+        mMaxWidth = maxWidth;
+        mMaxHeight = maxHeight;
+        mForcePO2 = forcePO2;
+
+        reset();
+    }
+
+    @Override
+    public boolean isRotationEnabled() {
+        return mRotationEnabled;
+    }
+
+    @Override
+    public void setRotationEnabled(final boolean rotationEnabled) {
+        mRotationEnabled = rotationEnabled;
+    }
+
+    @Override
+    public Rect occupy(final int w, final int h) {
+        if (!findPosition(w, h)) {
+            return null;
+        }
+
+        final int x = mBestX, y = mBestY, bw = mBestW, bh = mBestH;
+        addSegment(mBestSegment, x, y + bh, bw);
+
+        // add it
+        if (mNumPlaced * 4 == mPlaced.length) {
+            mPlaced = grow(mPlaced);
+        }
+        final int index = mNumPlaced * 4;
+        mPlaced[index] = x;
+        mPlaced[index + 1] = y;
+        mPlaced[index + 2] = bw;
+        mPlaced[index + 3] = bh;
+        mNumPlaced++;
+        mUsedArea += bw * bh;
+        mRight = Math.max(mRight, x + bw);
+        mBottom = Math.max(mBottom, y + bh);
+
+        return new Rect(x, y, x + bw, y + bh);
+    }
+
+    @Override
+    public boolean canOccupy(final int w, final int h) {
+        return findPosition(w, h);
+    }
+
+    private boolean findPosition(final int w, final int h) {
+        int bestTop = Integer.MAX_VALUE, bestWidth = Integer.MAX_VALUE;
+        boolean found = false;
+
+        for (int i = 0; i < mNumSegments; i++) {
+            for (int r = 0; r < (mRotationEnabled && w != h ? 2 : 1); r++) {
+                final int rw = r == 0 ? w : h;
+                final int rh = r == 0 ? h : w;
+                final int y = fit(i, rw, rh);
+                if (y < 0) {
+                    continue;
+                }
+
+                final int x = mSkyline[i * 3];
+                final int top = y + rh;
+                final int segmentWidth = mSkyline[i * 3 + 2];
+                // lowest top first, then the tightest segment
+                if (top < bestTop || (top == bestTop && segmentWidth < bestWidth)) {
+                    bestTop = top;
+                    bestWidth = segmentWidth;
+                    mBestSegment = i;
+                    mBestX = x;
+                    mBestY = y;
+                    mBestW = rw;
+                    mBestH = rh;
+                    found = true;
+                }
+            }
+        }
+
+        return found;
+    }
+
+    /**
+     * @return the y where a rect can be placed at the start of a segment, or -1 if it doesn't fit
+     */
+    private int fit(final int segment, final int w, final int h) {
+        final int x = mSkyline[segment * 3];
+        if (x + w > mMaxWidth) {
+            return -1;
+        }
+
+        int y = 0;
+        int widthLeft = w;
+        // the segments cover the whole width
+        for (int i = segment; widthLeft > 0; i++) {
+            final int index = i * 3;
+            y = Math.max(y, mSkyline[index + 1]);
+            if (y + h > mMaxHeight) {
+                return -1;
+            }
+            widthLeft -= mSkyline[index + 2];
+        }
+
+        return y;
+    }
+
+    /**
+     * Insert a new segment and cut the ones under it
+     */
+    private void addSegment(final int segment, final int x, final int y, final int w) {
+        insertSegment(segment, x, y, w);
+
+        // cut the next segments
+        final int right = x + w;
+        final int next = segment + 1;
+        while (next < mNumSegments) {
+            final int index = next * 3;
+            final int overlap = right - mSkyline[index];
+            if (overlap <= 0) {
+                break;
+            }
+
+            if (mSkyline[index + 2] <= overlap) {
+                // fully covered
+                removeSegment(next);
+            } else {
+                mSkyline[index] += overlap;
+                mSkyline[index + 2] -= overlap;
+                break;
+            }
+        }
+
+        // merge the same levels
+        for (int i = Math.max(0, segment - 1); i < mNumSegments - 1 && i <= segment + 1;) {
+            final int index = i * 3;
+            if (mSkyline[index + 1] == mSkyline[index + 4]) {
+                mSkyline[index + 2] += mSkyline[index + 5];
+                removeSegment(i + 1);
+            } else {
+                i++;
+            }
+        }
+    }
+
+    private void insertSegment(final int segment, final int x, final int y, final int w) {
+        if (mNumSegments * 3 == mSkyline.length) {
+            final int[] skyline = new int[mSkyline.length * 2];
+            System.arraycopy(mSkyline, 0, skyline, 0, mSkyline.length);
+            mSkyline = skyline;
+        }
+
+        final int index = segment * 3;
+        System.arraycopy(mSkyline, index, mSkyline, index + 3, (mNumSegments - segment) * 3);
+        mSkyline[index] = x;
+        mSkyline[index + 1] = y;
+        mSkyline[index + 2] = w;
+        mNumSegments++;
+    }
+
+    private void removeSegment(final int segment) {
+        mNumSegments--;
+        System.arraycopy(mSkyline, (segment + 1) * 3, mSkyline, segment * 3, (mNumSegments - segment) * 3);
+    }
+
+    private static int[] grow(final int[] array) {
+        final int[] newArray = new int[array.length * 2];
+        System.arraycopy(array, 0, newArray, 0, array.length);
+        return newArray;
+    }
+
+    @Override
+    public Rect getRect(final int index) {
+        final int i = index * 4;
+        return new Rect(mPlaced[i], mPlaced[i + 1], mPlaced[i] + mPlaced[i + 2], mPlaced[i + 1] + mPlaced[i + 3]);
+    }
+
+    @Override
+    public int getNumRects() {
+        return mNumPlaced;
+    }
+
+    @Override
+    public int getWidth() {
+        return mForcePO2 ? Pure2DUtils.getNextPO2(mRight) : mRight;
+    }
+
+    @Override
+    public int getHeight() {
+        return mForcePO2 ? Pure2DUtils.getNextPO2(mBottom) : mBottom;
+    }
+
+    @Override
+    public float getOccupancy() {
+        final long area = (long) getWidth() * getHeight();
+        return area > 0 ? (float) mUsedArea / area : 0;
+    }
+
+    @Override
+    public void reset() {
+        mNumPlaced = 0;
+        mUsedArea = 0;
+        mRight = mBottom = 0;
+
+        // one flat segment
+        mNumSegments = 1;
+        mSkyline[0] = 0;
+        mSkyline[1] = 0;
+        mSkyline[2] = mMaxWidth;
+    }
+}
@@ -0,0 +1,108 @@
+/**
+ * Copyright (C) 2012-2014 GREE, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+/**
+ * 
+ */
+package com.funzio.pure2D.containers;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import android.graphics.RectF;
+
+import com.funzio.pure2D.shapes.Rectangular;
+
+/**
+ * Camera culling of the frozen groups, with the default bounds settings
+ *
+ * @author long
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(manifest = Config.NONE)
+public class DisplayGroupTest {
+    private static final RectF ON_SCREEN = new RectF(0, 0, 200, 200);
+    private static final RectF OFF_SCREEN = new RectF(1000, 1000, 1200, 1200);
+
+    private static Rectangular createChild() {
+        final Rectangular child = new Rectangular();
+        child.setSize(100, 100);
+        child.setPosition(50, 50);
+        return child;
+    }
+
+    @Test
+    public void testFrozenIsDrawn() {
+        final DisplayGroup group = new DisplayGroup();
+        group.addChild(createChild());
+        group.freeze();
+        group.update(16);
+
+        assertTrue(group.shouldDraw(ON_SCREEN));
+        assertFalse(group.shouldDraw(OFF_SCREEN));
+    }
+
+    @Test
+    public void testFrozenFollowsMove() {
+        final DisplayGroup group = new DisplayGroup();
+        group.addChild(createChild());
+        group.freeze();
+        group.update(16);
+
+        group.setPosition(1000, 1000);
+        group.update(16);
+
+        assertFalse(group.shouldDraw(ON_SCREEN));
+        assertTrue(group.shouldDraw(OFF_SCREEN));
+    }
+
+    @Test
+    public void testFrozenNestedGroup() {
+        final DisplayGroup inner = new DisplayGroup();
+        inner.addChild(createChild());
+        final DisplayGroup group = new DisplayGroup();
+        group.addChild(inner);
+        group.freeze();
+        group.update(16);
+
+        assertTrue(group.shouldDraw(ON_SCREEN));
+        assertFalse(group.shouldDraw(OFF_SCREEN));
+    }
+
+    @Test
+    public void testFrozenBypassingChild() {
+        final Rectangular child = createChild();
+        child.setBypassCameraClipping(true);
+        final DisplayGroup group = new DisplayGroup();
+        group.addChild(child);
+        group.freeze();
+        group.update(16);
+
+        // the child can draw anywhere
+        assertTrue(group.shouldDraw(ON_SCREEN));
+        assertTrue(group.shouldDraw(OFF_SCREEN));
+    }
+}
@@ -0,0 +1,242 @@
+/*******************************************************************************
+ * Copyright (C) 2012-2014 GREE, Inc.
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ ******************************************************************************/
+/**
+ * 
+ */
+package com.funzio.pure2D.gl.gl10.textures;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import org.junit.Test;
+
+/**
+ * Parses hand-made PKM and KTX headers, no device needed
+ *
+ * @author long
+ */
+public class CompressedTextureFileTest {
+    private static final byte[] KTX_IDENTIFIER = {
+            (byte) 0xAB, 'K', 'T', 'X', ' ', '1', '1', (byte) 0xBB, '\r', '\n', 0x1A, '\n'
+    };
+    private static final int GL_RGBA = 0x1908;
+
+    @Test
+    public void testPKM() throws IOException {
+        // 6x6 is extended to 8x8 = 4 blocks
+        final ByteBuffer buffer = ByteBuffer.allocate(CompressedTextureFile.PKM_HEADER_SIZE + 32);
+        putPKM(buffer, 8, 8, 6, 6, (byte) 1);
+        buffer.flip();
+
+        final CompressedTextureFile file = CompressedTextureFile.parse(buffer);
+        assertTrue(file.isETC1());
+        assertEquals(6, file.getWidth());
+        assertEquals(6, file.getHeight());
+        assertEquals(1, file.getNumLevels());
+        assertEquals(32, file.getLevelData(0).remaining());
+        assertEquals(1, file.getLevelData(0).get(0));
+    }
+
+    @Test
+    public void testPKMChain() throws IOException {
+        final ByteBuffer buffer = ByteBuffer.allocate(CompressedTextureFile.PKM_HEADER_SIZE * 2 + 32 + 8);
+        putPKM(buffer, 8, 8, 8, 8, (byte) 1);
+        putPKM(buffer, 4, 4, 4, 4, (byte) 2);
+        buffer.flip();
+
+        final CompressedTextureFile file = CompressedTextureFile.parse(buffer);
+        assertEquals(2, file.getNumLevels());
+        assertEquals(4, file.getLevelWidth(1));
+        assertEquals(8, file.getLevelData(1).remaining());
+        assertEquals(2, file.getLevelData(1).get(0));
+        assertEquals(40, file.getDataSize());
+    }
+
+    @Test(expected = IOException.class)
+    public void testTruncatedPKM() throws IOException {
+        final ByteBuffer buffer = ByteBuffer.allocate(CompressedTextureFile.PKM_HEADER_SIZE + 32);
+        putPKM(buffer, 8, 8, 8, 8, (byte) 1);
+        buffer.flip();
+        // half of the data is missing
+        buffer.limit(CompressedTextureFile.PKM_HEADER_SIZE + 16);
+
+        CompressedTextureFile.parse(buffer);
+    }
+
+    @Test
+    public void testKTX() throws IOException {
+        testKTX(ByteOrder.LITTLE_ENDIAN);
+        testKTX(ByteOrder.BIG_ENDIAN);
+    }
+
+    private void testKTX(final ByteOrder order) throws IOException {
+        // 8x8 and 4x4 levels, with 4 bytes of key/value data
+        final ByteBuffer buffer = ByteBuffer.allocate(CompressedTextureFile.KTX_HEADER_SIZE + 4 + 4 + 32 + 4 + 8).order(order);
+        putKTXHeader(buffer, CompressedTextureFile.GL_ETC1_RGB8_OES, 8, 8, 0, 1, 2, 4);
+        buffer.putInt(0);
+        putLevel(buffer, 32, (byte) 1);
+        putLevel(buffer, 8, (byte) 2);
+        buffer.flip();
+
+        final CompressedTextureFile file = CompressedTextureFile.parse(buffer);
+        assertTrue(file.isETC1());
+        assertEquals(8, file.getWidth());
+        assertEquals(8, file.getHeight());
+        assertEquals(2, file.getNumLevels());
+        assertEquals(4, file.getLevelWidth(1));
+        assertEquals(4, file.getLevelHeight(1));
+        assertEquals(32, file.getLevelData(0).remaining());
+        assertEquals(1, file.getLevelData(0).get(0));
+        assertEquals(8, file.getLevelData(1).remaining());
+        assertEquals(2, file.getLevelData(1).get(0));
+    }
+
+    @Test
+    public void testKTXCubemap() throws IOException {
+        // a non-array cubemap: imageSize is one face, then the 6 faces
+        final ByteBuffer buffer = ByteBuffer.allocate(CompressedTextureFile.KTX_HEADER_SIZE + (4 + 6 * 32) + (4 + 6 * 8)).order(ByteOrder.LITTLE_ENDIAN);
+        putKTXHeader(buffer, CompressedTextureFile.GL_ETC1_RGB8_OES, 8, 8, 0, 6, 2, 0);
+        buffer.putInt(32);
+        for (int face = 0; face < 6; face++) {
+            fill(buffer, 32, (byte) (face + 1));
+        }
+        buffer.putInt(8);
+        for (int face = 0; face < 6; face++) {
+            fill(buffer, 8, (byte) (face + 11));
+        }
+        buffer.flip();
+
+        final CompressedTextureFile file = CompressedTextureFile.parse(buffer);
+        assertEquals(2, file.getNumLevels());
+        // the first face of each level, whole
+        assertEquals(32, file.getLevelData(0).remaining());
+        assertEquals(1, file.getLevelData(0).get(31));
+        assertEquals(8, file.getLevelData(1).remaining());
+        assertEquals(11, file.getLevelData(1).get(0));
+    }
+
+    @Test
+    public void testKTXArray() throws IOException {
+        // 2 elements: imageSize covers both
+        final ByteBuffer buffer = ByteBuffer.allocate(CompressedTextureFile.KTX_HEADER_SIZE + 4 + 64).order(ByteOrder.LITTLE_ENDIAN);
+        putKTXHeader(buffer, CompressedTextureFile.GL_ETC1_RGB8_OES, 8, 8, 2, 1, 1, 0);
+        buffer.putInt(64);
+        fill(buffer, 32, (byte) 1);
+        fill(buffer, 32, (byte) 2);
+        buffer.flip();
+
+        final CompressedTextureFile file = CompressedTextureFile.parse(buffer);
+        assertEquals(32, file.getLevelData(0).remaining());
+        assertEquals(1, file.getLevelData(0).get(31));
+    }
+
+    @Test
+    public void testUncompressedKTX() {
+        final ByteBuffer buffer = ByteBuffer.allocate(CompressedTextureFile.KTX_HEADER_SIZE + 4 + 256).order(ByteOrder.LITTLE_ENDIAN);
+        putKTXHeader(buffer, GL_RGBA, 8, 8, 0, 1, 1, 0);
+        // glType = GL_UNSIGNED_BYTE
+        buffer.putInt(16, 0x1401);
+        putLevel(buffer, 256, (byte) 0);
+        buffer.flip();
+
+        try {
+            CompressedTextureFile.parse(buffer);
+            fail();
+        } catch (IOException e) {
+            // expected
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void testTruncatedKTX() throws IOException {
+        final ByteBuffer buffer = ByteBuffer.allocate(CompressedTextureFile.KTX_HEADER_SIZE + 4 + 16).order(ByteOrder.LITTLE_ENDIAN);
+        putKTXHeader(buffer, CompressedTextureFile.GL_ETC1_RGB8_OES, 8, 8, 0, 1, 1, 0);
+        buffer.putInt(32);
+        fill(buffer, 16, (byte) 0);
+        buffer.flip();
+
+        CompressedTextureFile.parse(buffer);
+    }
+
+    @Test
+    public void testUnknown() {
+        final ByteBuffer buffer = ByteBuffer.wrap("not a texture".getBytes());
+        assertFalse(CompressedTextureFile.isPKM(buffer));
+        assertFalse(CompressedTextureFile.isKTX(buffer));
+
+        try {
+            CompressedTextureFile.parse(buffer);
+            fail();
+        } catch (IOException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testIsCompressedFile() {
+        assertTrue(CompressedTextureFile.isCompressedFile("textures/bg.PKM"));
+        assertTrue(CompressedTextureFile.isCompressedFile("/sdcard/bg.ktx"));
+        assertFalse(CompressedTextureFile.isCompressedFile("bg.png"));
+    }
+
+    private static void putPKM(final ByteBuffer buffer, final int extendedWidth, final int extendedHeight, final int width, final int height, final byte value) {
+        // big endian, version 1.0, type ETC1_RGB_NO_MIPMAPS
+        buffer.put(new byte[] {
+                'P', 'K', 'M', ' ', '1', '0', 0, 0
+        });
+        buffer.put((byte) (extendedWidth >> 8)).put((byte) extendedWidth);
+        buffer.put((byte) (extendedHeight >> 8)).put((byte) extendedHeight);
+        buffer.put((byte) (width >> 8)).put((byte) width);
+        buffer.put((byte) (height >> 8)).put((byte) height);
+        fill(buffer, CompressedTextureFile.getETC1DataSize(extendedWidth, extendedHeight), value);
+    }
+
+    private static void putKTXHeader(final ByteBuffer buffer, final int internalFormat, final int width, final int height, final int numElements, final int numFaces, final int numLevels,
+            final int keyValueSize) {
+        buffer.put(KTX_IDENTIFIER);
+        buffer.putInt(0x04030201);
+        // glType, glTypeSize, glFormat
+        buffer.putInt(0).putInt(1).putInt(0);
+        buffer.putInt(internalFormat);
+        // glBaseInternalFormat = GL_RGB
+        buffer.putInt(0x1907);
+        buffer.putInt(width).putInt(height).putInt(0);
+        buffer.putInt(numElements).putInt(numFaces).putInt(numLevels).putInt(keyValueSize);
+    }
+
+    private static void putLevel(final ByteBuffer buffer, final int size, final byte value) {
+        buffer.putInt(size);
+        fill(buffer, size, value);
+    }
+
+    private static void fill(final ByteBuffer buffer, final int size, final byte value) {
+        for (int i = 0; i < size; i++) {
+            buffer.put(value);
+        }
+    }
+}
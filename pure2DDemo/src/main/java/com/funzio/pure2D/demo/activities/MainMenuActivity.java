@@ -23,6 +23,7 @@ package com.funzio.pure2D.demo.activities;
 
 import com.funzio.pure2D.demo.animations.AnimationMenuActivity;
 import com.funzio.pure2D.demo.astar.AstarMenuActivity;
+import com.funzio.pure2D.demo.benchmarks.BenchmarkActivity;
 import com.funzio.pure2D.demo.buffers.BufferMenuActivity;
 import com.funzio.pure2D.demo.camera.CameraMenuActivity;
 import com.funzio.pure2D.demo.containers.ContainerMenuActivity;
@@ -63,6 +64,7 @@ public class MainMenuActivity extends MenuActivity {
         addMenu(R.id.btn_loaders, LoaderMenuActivity.class);
         addMenu(R.id.btn_ui, UIMenuActivity.class);
         addMenu(R.id.btn_pui_layouts, PUIMenuActivity.class);
+        addMenu(R.id.btn_benchmarks, BenchmarkActivity.class);
     }
 
 }
@@ -0,0 +1,96 @@
+/*******************************************************************************
+ * Copyright (C) 2012-2014 GREE, Inc.
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ ******************************************************************************/
+package com.funzio.pure2D.demo.benchmarks;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import android.content.res.AssetManager;
+import android.util.Log;
+
+import com.funzio.pure2D.animation.skeleton.AniBinary;
+import com.funzio.pure2D.animation.skeleton.AniFile;
+import com.funzio.pure2D.gl.gl10.VertexBuffer;
+import com.funzio.pure2D.loaders.tasks.ReadBinaryFileTask;
+
+/**
+ * Loading the demo .ani file and getting the vertices of all its frames, from the XML or from the same file compiled with {@link AniBinary}
+ *
+ * @author long
+ */
+public class AniLoadBenchmark extends MicroBenchmark {
+    private static final String TAG = AniLoadBenchmark.class.getSimpleName();
+    private static final String ANI_FILE = "ani/Avatar_Walk_SE_Male_Caucasian_ArmoredGreenCamo_Top_FARC_Green_Bottom_GrayCamo.ani";
+
+    private final AssetManager mAssets;
+    private final boolean mBinary;
+
+    private byte[] mXml;
+    private byte[] mCompiled;
+    private VertexBuffer[] mBuffers;
+
+    public AniLoadBenchmark(final AssetManager assets, final boolean binary) {
+        mAssets = assets;
+        mBinary = binary;
+    }
+
+    @Override
+    public String getName() {
+        return mBinary ? "AniFile from binary" : "AniFile from XML";
+    }
+
+    @Override
+    protected void setup() {
+        final ReadBinaryFileTask readTask = new ReadBinaryFileTask(mAssets, ANI_FILE);
+        if (readTask.run()) {
+            mXml = readTask.getContent();
+            final AniFile file = new AniFile(new ByteArrayInputStream(mXml));
+            try {
+                mCompiled = AniBinary.compile(file);
+            } catch (IOException e) {
+                Log.e(TAG, "Compile failed!", e);
+            }
+            mBuffers = new VertexBuffer[file.getNumParts()];
+        }
+    }
+
+    @Override
+    protected void runOp(final int op) {
+        if (mXml == null || mCompiled == null) {
+            return;
+        }
+
+        final AniFile file = mBinary ? new AniFile(ByteBuffer.wrap(mCompiled)) : new AniFile(new ByteArrayInputStream(mXml));
+        final int numFrames = file.getNumFrames();
+        for (int i = 0; i < numFrames; i++) {
+            file.getFrameVertexBuffers(i, 0, mBuffers, null);
+        }
+    }
+
+    @Override
+    protected void tearDown() {
+        mXml = null;
+        mCompiled = null;
+        mBuffers = null;
+    }
+}
@@ -0,0 +1,135 @@
+/*******************************************************************************
+ * Copyright (C) 2012-2014 GREE, Inc.
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ ******************************************************************************/
+package com.funzio.pure2D.demo.benchmarks;
+
+import java.util.List;
+import java.util.Random;
+
+import com.funzio.pure2D.astar.Astar;
+import com.funzio.pure2D.astar.AstarAdapter;
+import com.funzio.pure2D.astar.AstarNode;
+import com.funzio.pure2D.astar.AstarNodeSet;
+import com.funzio.pure2D.astar.GridAstar;
+
+/**
+ * Path finding on a square map with random walls, comparing {@link Astar} and {@link GridAstar} with the same adapter, map and routes
+ *
+ * @author long
+ */
+public class AstarBenchmark extends MicroBenchmark {
+    private static final int NUM_ROUTES = 64;
+
+    private final int mSize;
+    private final boolean mGridAstar;
+
+    private boolean[] mWalls;
+    private int[] mRoutes;
+    private Astar mAstar;
+    private boolean mLogEnabled;
+
+    public AstarBenchmark(final int size, final boolean gridAstar) {
+        mSize = size;
+        mGridAstar = gridAstar;
+    }
+
+    @Override
+    public String getName() {
+        return String.format("%s %dx%d", mGridAstar ? "GridAstar" : "Astar", mSize, mSize);
+    }
+
+    @Override
+    protected void setup() {
+        mLogEnabled = Astar.LOG_ENABLED;
+        Astar.LOG_ENABLED = false;
+
+        // same map and routes for both engines
+        final Random random = new Random(0);
+        mWalls = new boolean[mSize * mSize];
+        for (int i = 0; i < mWalls.length; i++) {
+            mWalls[i] = random.nextInt(5) == 0;
+        }
+        mRoutes = new int[NUM_ROUTES * 2];
+        for (int i = 0; i < mRoutes.length; i++) {
+            int cell;
+            do {
+                cell = random.nextInt(mWalls.length);
+            } while (mWalls[cell]);
+            mRoutes[i] = cell;
+        }
+
+        final AstarAdapter adapter = new AstarAdapter() {
+            @Override
+            public int getNodeMaxNeighbors() {
+                return 4;
+            }
+
+            @Override
+            public void getNodeNeighbors(final AstarNode node, final AstarNodeSet openNodes, final AstarNodeSet closedNodes, final AstarNode[] neighbors) {
+                int index = 0;
+                if (isWalkable(node.x - 1, node.y, openNodes, closedNodes)) {
+                    neighbors[index++] = mAstar.createNode(node.x - 1, node.y);
+                }
+                if (isWalkable(node.x + 1, node.y, openNodes, closedNodes)) {
+                    neighbors[index++] = mAstar.createNode(node.x + 1, node.y);
+                }
+                if (isWalkable(node.x, node.y - 1, openNodes, closedNodes)) {
+                    neighbors[index++] = mAstar.createNode(node.x, node.y - 1);
+                }
+                if (isWalkable(node.x, node.y + 1, openNodes, closedNodes)) {
+                    neighbors[index++] = mAstar.createNode(node.x, node.y + 1);
+                }
+            }
+
+            @Override
+            public int getHeuristic(final AstarNode node1, final AstarNode node2) {
+                return Math.abs(node2.x - node1.x) + Math.abs(node2.y - node1.y);
+            }
+        };
+
+        mAstar = mGridAstar ? new GridAstar(adapter, mSize, mSize) : new Astar(adapter, mSize * mSize, false);
+    }
+
+    private boolean isWalkable(final int x, final int y, final AstarNodeSet openNodes, final AstarNodeSet closedNodes) {
+        return x >= 0 && x < mSize && y >= 0 && y < mSize && !mWalls[y * mSize + x] && !openNodes.containsXY(x, y) && !closedNodes.containsXY(x, y);
+    }
+
+    @Override
+    protected void runOp(final int op) {
+        final int route = (op % NUM_ROUTES) * 2;
+        final int start = mRoutes[route];
+        final int end = mRoutes[route + 1];
+
+        if (mGridAstar) {
+            ((GridAstar) mAstar).findPath(start % mSize, start / mSize, end % mSize, end / mSize, 0, true);
+        } else {
+            final List<AstarNode> path = mAstar.findPath(mAstar.createNode(start % mSize, start / mSize), mAstar.createNode(end % mSize, end / mSize), 0, true);
+            // recycle nodes
+            mAstar.recycleNodes(path);
+        }
+    }
+
+    @Override
+    protected void tearDown() {
+        Astar.LOG_ENABLED = mLogEnabled;
+        mAstar = null;
+    }
+}
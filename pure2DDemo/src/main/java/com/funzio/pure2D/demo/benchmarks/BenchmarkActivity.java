@@ -0,0 +1,137 @@
+/*******************************************************************************
+ * Copyright (C) 2012-2014 GREE, Inc.
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ ******************************************************************************/
+package com.funzio.pure2D.demo.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import android.app.Activity;
+import android.os.Bundle;
+import android.util.Log;
+import android.widget.TextView;
+
+import com.funzio.pure2D.particles.nova.NovaParticleSystem;
+import com.longo.pure2D.demo.R;
+
+/**
+ * Runs all the frame benchmarks against a RecordingGL, then the micro benchmarks, on a background thread and prints the results
+ *
+ * @author long
+ */
+public class BenchmarkActivity extends Activity {
+    private static final String TAG = BenchmarkActivity.class.getSimpleName();
+
+    private TextView mTextView;
+    private Thread mThread;
+
+    @Override
+    public void onCreate(final Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+
+        setContentView(R.layout.benchmark);
+        mTextView = (TextView) findViewById(R.id.tv_results);
+
+        final List<FrameBenchmark> benchmarks = createBenchmarks();
+        final List<MicroBenchmark> microBenchmarks = createMicroBenchmarks();
+        mThread = new Thread(new Runnable() {
+
+            @Override
+            public void run() {
+                for (FrameBenchmark benchmark : benchmarks) {
+                    if (Thread.interrupted()) {
+                        return;
+                    }
+
+                    print("Running: " + benchmark.getName());
+                    print(benchmark.run(getResources()).toString() + "\n");
+                }
+                for (MicroBenchmark benchmark : microBenchmarks) {
+                    if (Thread.interrupted()) {
+                        return;
+                    }
+
+                    print("Running: " + benchmark.getName());
+                    print(benchmark.run().toString() + "\n");
+                }
+                print("Done!");
+            }
+        });
+        mThread.start();
+    }
+
+    protected List<FrameBenchmark> createBenchmarks() {
+        final List<FrameBenchmark> benchmarks = new ArrayList<FrameBenchmark>();
+        benchmarks.add(new SpritesBenchmark(10000, 1, false));
+        benchmarks.add(new SpritesBenchmark(10000, 1, true));
+        benchmarks.add(new SpritesBenchmark(10000, 4, true));
+        benchmarks.add(new DisplayGroupTreeBenchmark(6, 3, 10));
+        benchmarks.add(new UniGroupBenchmark(10, 1000));
+        benchmarks.add(new NovaBurstBenchmark(getAssets(), "nova/fireworks.json", 10, 500));
+        benchmarks.add(new NovaSystemBenchmark(getAssets(), "nova/fireworks.json", 10, NovaParticleSystem.DEFAULT_MAX_PARTICLES));
+        benchmarks.add(new BmfTextBenchmark(200));
+
+        return benchmarks;
+    }
+
+    protected List<MicroBenchmark> createMicroBenchmarks() {
+        final List<MicroBenchmark> benchmarks = new ArrayList<MicroBenchmark>();
+        benchmarks.add(new AstarBenchmark(512, false));
+        benchmarks.add(new AstarBenchmark(512, true));
+        benchmarks.add(new GridPathBenchmark(512, GridPathBenchmark.TYPE_ASTAR));
+        benchmarks.add(new GridPathBenchmark(512, GridPathBenchmark.TYPE_JPS));
+        benchmarks.add(new GridPathBenchmark(512, GridPathBenchmark.TYPE_HPA));
+        benchmarks.add(new NovaLoadBenchmark(getAssets(), false));
+        benchmarks.add(new NovaLoadBenchmark(getAssets(), true));
+        benchmarks.add(new AniLoadBenchmark(getAssets(), false));
+        benchmarks.add(new AniLoadBenchmark(getAssets(), true));
+        benchmarks.add(new PackerBenchmark(getAssets(), PackerBenchmark.TYPE_BIN_TREE, PackerBenchmark.SET_GLYPHS, 2000, 2048));
+        benchmarks.add(new PackerBenchmark(getAssets(), PackerBenchmark.TYPE_MAX_RECTS, PackerBenchmark.SET_GLYPHS, 2000, 2048));
+        benchmarks.add(new PackerBenchmark(getAssets(), PackerBenchmark.TYPE_SKYLINE, PackerBenchmark.SET_GLYPHS, 2000, 2048));
+        benchmarks.add(new PackerBenchmark(getAssets(), PackerBenchmark.TYPE_BIN_TREE, PackerBenchmark.SET_SPRITES, 2000, 4096));
+        benchmarks.add(new PackerBenchmark(getAssets(), PackerBenchmark.TYPE_MAX_RECTS, PackerBenchmark.SET_SPRITES, 2000, 4096));
+        benchmarks.add(new PackerBenchmark(getAssets(), PackerBenchmark.TYPE_SKYLINE, PackerBenchmark.SET_SPRITES, 2000, 4096));
+        benchmarks.add(new TimelineBenchmark(1000, false));
+        benchmarks.add(new TimelineBenchmark(10000, false));
+        benchmarks.add(new TimelineBenchmark(10000, true));
+
+        return benchmarks;
+    }
+
+    private void print(final String text) {
+        Log.i(TAG, text);
+
+        runOnUiThread(new Runnable() {
+
+            @Override
+            public void run() {
+                mTextView.append(text + "\n");
+            }
+        });
+    }
+
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+
+        mThread.interrupt();
+    }
+}
@@ -0,0 +1,53 @@
+/*******************************************************************************
+ * Copyright (C) 2012-2014 GREE, Inc.
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ ******************************************************************************/
+package com.funzio.pure2D.demo.benchmarks;
+
+import android.content.res.Resources;
+
+import com.funzio.pure2D.BaseScene;
+import com.funzio.pure2D.gl.gl10.textures.TextureManager;
+
+/**
+ * A Scene that runs without a Stage, to be driven by {@link FrameBenchmark} with a {@link com.funzio.pure2D.gl.gl10.RecordingGL}
+ *
+ * @author long
+ */
+public class BenchmarkScene extends BaseScene {
+    private final Resources mResources;
+
+    public BenchmarkScene(final Resources res) {
+        super();
+
+        mResources = res;
+        setRenderContinueously(true);
+    }
+
+    @Override
+    protected TextureManager createDefaultTextureManager() {
+        // no Stage here
+        return new TextureManager(this, mResources);
+    }
+
+    public Resources getResources() {
+        return mResources;
+    }
+}
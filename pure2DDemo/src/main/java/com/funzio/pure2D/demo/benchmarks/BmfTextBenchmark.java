@@ -0,0 +1,84 @@
+/*******************************************************************************
+ * Copyright (C) 2012-2014 GREE, Inc.
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ ******************************************************************************/
+package com.funzio.pure2D.demo.benchmarks;
+
+import java.util.Random;
+
+import android.graphics.Color;
+
+import com.funzio.pure2D.text.BitmapFont;
+import com.funzio.pure2D.text.BmfTextObject;
+import com.funzio.pure2D.text.TextOptions;
+
+/**
+ * Score-like counters rendered with BmfTextObject, all of them changing every frame. Cache is not used since RecordingGL has no framebuffer support.
+ *
+ * @author long
+ */
+public class BmfTextBenchmark extends FrameBenchmark {
+    private static final String DIGITS = "0123456789";
+
+    private final int mNumCounters;
+
+    private BmfTextObject[] mCounters;
+    private int[] mValues;
+
+    public BmfTextBenchmark(final int numCounters) {
+        mNumCounters = numCounters;
+    }
+
+    @Override
+    public String getName() {
+        return String.format("%d BmfTextObject counters", mNumCounters);
+    }
+
+    @Override
+    protected void setup(final BenchmarkScene scene) {
+        final TextOptions options = TextOptions.getDefault();
+        options.inTextPaint.setColor(Color.WHITE);
+        options.inTextPaint.setTextSize(24f);
+
+        final BitmapFont font = new BitmapFont(DIGITS, options);
+        font.load(scene.getGLState());
+
+        final Random random = new Random(0);
+        mCounters = new BmfTextObject[mNumCounters];
+        mValues = new int[mNumCounters];
+        for (int i = 0; i < mNumCounters; i++) {
+            final BmfTextObject counter = new BmfTextObject();
+            counter.setBitmapFont(font);
+            counter.setPosition(random.nextInt(DEFAULT_WIDTH - 100), random.nextInt(DEFAULT_HEIGHT - 30));
+            mValues[i] = random.nextInt(100000);
+            counter.setText(String.valueOf(mValues[i]));
+            scene.addChild(counter);
+
+            mCounters[i] = counter;
+        }
+    }
+
+    @Override
+    protected void onFrame(final BenchmarkScene scene, final int frame) {
+        for (int i = 0; i < mNumCounters; i++) {
+            mCounters[i].setText(String.valueOf(++mValues[i]));
+        }
+    }
+}
@@ -0,0 +1,89 @@
+/*******************************************************************************
+ * Copyright (C) 2012-2014 GREE, Inc.
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ ******************************************************************************/
+package com.funzio.pure2D.demo.benchmarks;
+
+import java.util.Random;
+
+import com.funzio.pure2D.containers.DisplayGroup;
+import com.funzio.pure2D.gl.gl10.textures.Texture;
+import com.funzio.pure2D.shapes.Sprite;
+
+/**
+ * A deep tree of DisplayGroups with Sprites at the leaves. The root keeps rotating so all the bounds get invalidated every frame.
+ *
+ * @author long
+ */
+public class DisplayGroupTreeBenchmark extends FrameBenchmark {
+    private final int mDepth;
+    private final int mBranches;
+    private final int mLeaves;
+
+    private final Random mRandom = new Random(0);
+    private Texture mTexture;
+    private DisplayGroup mRoot;
+
+    public DisplayGroupTreeBenchmark(final int depth, final int branches, final int leaves) {
+        mDepth = depth;
+        mBranches = branches;
+        mLeaves = leaves;
+    }
+
+    @Override
+    public String getName() {
+        return String.format("DisplayGroup tree, depth %d x %d branches x %d leaves", mDepth, mBranches, mLeaves);
+    }
+
+    @Override
+    protected void setup(final BenchmarkScene scene) {
+        mTexture = scene.getTextureManager().createBufferTexture(16, 16, false);
+
+        mRoot = createGroup(0);
+        mRoot.setPosition(DEFAULT_WIDTH / 2, DEFAULT_HEIGHT / 2);
+        scene.addChild(mRoot);
+    }
+
+    private DisplayGroup createGroup(final int level) {
+        final DisplayGroup group = new DisplayGroup();
+        group.setSize(DEFAULT_WIDTH / 4, DEFAULT_HEIGHT / 4);
+        group.setPosition(mRandom.nextInt(64) - 32, mRandom.nextInt(64) - 32);
+
+        if (level < mDepth - 1) {
+            for (int i = 0; i < mBranches; i++) {
+                group.addChild(createGroup(level + 1));
+            }
+        } else {
+            for (int i = 0; i < mLeaves; i++) {
+                final Sprite sprite = new Sprite();
+                sprite.setTexture(mTexture);
+                sprite.setPosition(mRandom.nextInt(128), mRandom.nextInt(128));
+                group.addChild(sprite);
+            }
+        }
+
+        return group;
+    }
+
+    @Override
+    protected void onFrame(final BenchmarkScene scene, final int frame) {
+        mRoot.rotate(1);
+    }
+}
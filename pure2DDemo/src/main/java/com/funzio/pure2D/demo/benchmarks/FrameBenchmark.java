@@ -0,0 +1,184 @@
+/*******************************************************************************
+ * Copyright (C) 2012-2014 GREE, Inc.
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ ******************************************************************************/
+package com.funzio.pure2D.demo.benchmarks;
+
+import java.util.Arrays;
+
+import android.content.res.Resources;
+import android.os.Debug;
+import android.os.SystemClock;
+
+import com.funzio.pure2D.gl.gl10.RecordingGL;
+
+/**
+ * A synthetic scene that gets rendered against a {@link RecordingGL}, measuring time, allocations and GL calls per frame.
+ *
+ * @author long
+ */
+public abstract class FrameBenchmark {
+    public static final int DEFAULT_WIDTH = 1280;
+    public static final int DEFAULT_HEIGHT = 720;
+    public static final int DEFAULT_WARMUP_FRAMES = 60;
+    public static final int DEFAULT_FRAMES = 300;
+
+    abstract public String getName();
+
+    /**
+     * Create the objects, called once after the surface is created
+     *
+     * @param scene
+     */
+    abstract protected void setup(BenchmarkScene scene);
+
+    /**
+     * Called before every frame, for benchmarks that change the scene over time
+     *
+     * @param scene
+     * @param frame
+     */
+    protected void onFrame(final BenchmarkScene scene, final int frame) {
+        // TODO override
+    }
+
+    protected void tearDown(final BenchmarkScene scene) {
+        scene.dispose();
+    }
+
+    public Result run(final Resources res) {
+        return run(res, DEFAULT_WIDTH, DEFAULT_HEIGHT, DEFAULT_WARMUP_FRAMES, DEFAULT_FRAMES);
+    }
+
+    public Result run(final Resources res, final int width, final int height, final int warmupFrames, final int frames) {
+        final RecordingGL gl = new RecordingGL();
+        final BenchmarkScene scene = new BenchmarkScene(res);
+        scene.onSurfaceCreated(gl, null);
+        scene.onSurfaceChanged(gl, width, height);
+        setup(scene);
+
+        // warm up
+        for (int i = 0; i < warmupFrames; i++) {
+            drawFrame(scene, gl, i);
+        }
+
+        final Result result = new Result(getName(), frames);
+        Debug.startAllocCounting();
+        try {
+            for (int i = 0; i < frames; i++) {
+                gl.reset();
+                Debug.resetThreadAllocCount();
+
+                final long start = System.nanoTime();
+                drawFrame(scene, gl, warmupFrames + i);
+                result.mFrameTimes[i] = System.nanoTime() - start;
+
+                result.mAllocations += Debug.getThreadAllocCount();
+                result.mGLCalls += gl.getNumCalls();
+                result.mDrawCalls += gl.getNumDrawCalls();
+                result.mTextureBinds += gl.getNumTextureBinds();
+                result.mMatrixOps += gl.getNumMatrixOps() + gl.getNumPushMatrix() + gl.getNumPopMatrix();
+                result.mStateChanges += gl.getNumStateChanges();
+            }
+        } finally {
+            Debug.stopAllocCounting();
+        }
+
+        tearDown(scene);
+
+        return result;
+    }
+
+    private void drawFrame(final BenchmarkScene scene, final RecordingGL gl, final int frame) {
+        // the scene skips updating when no time has passed, wait for the clock to tick
+        final long now = SystemClock.elapsedRealtime();
+        while (SystemClock.elapsedRealtime() == now) {
+            Thread.yield();
+        }
+
+        onFrame(scene, frame);
+        scene.onDrawFrame(gl);
+    }
+
+    public static class Result {
+        public final String name;
+
+        private final long[] mFrameTimes;
+        private long mAllocations = 0;
+        private long mGLCalls = 0;
+        private long mDrawCalls = 0;
+        private long mTextureBinds = 0;
+        private long mMatrixOps = 0;
+        private long mStateChanges = 0;
+
+        public Result(final String name, final int frames) {
+            this.name = name;
+            mFrameTimes = new long[frames];
+        }
+
+        public int getNumFrames() {
+            return mFrameTimes.length;
+        }
+
+        public long getAverageNanos() {
+            long total = 0;
+            for (long time : mFrameTimes) {
+                total += time;
+            }
+            return total / mFrameTimes.length;
+        }
+
+        public long getMedianNanos() {
+            final long[] sorted = mFrameTimes.clone();
+            Arrays.sort(sorted);
+            return sorted[sorted.length / 2];
+        }
+
+        public float getAllocationsPerFrame() {
+            return (float) mAllocations / mFrameTimes.length;
+        }
+
+        public float getGLCallsPerFrame() {
+            return (float) mGLCalls / mFrameTimes.length;
+        }
+
+        public float getDrawCallsPerFrame() {
+            return (float) mDrawCalls / mFrameTimes.length;
+        }
+
+        public float getTextureBindsPerFrame() {
+            return (float) mTextureBinds / mFrameTimes.length;
+        }
+
+        public float getMatrixOpsPerFrame() {
+            return (float) mMatrixOps / mFrameTimes.length;
+        }
+
+        public float getStateChangesPerFrame() {
+            return (float) mStateChanges / mFrameTimes.length;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s: avg %d ns/frame, median %d ns/frame, %.1f allocs/frame, %.1f GL calls/frame (draws: %.1f, binds: %.1f, matrix: %.1f, states: %.1f)", //
+                    name, getAverageNanos(), getMedianNanos(), getAllocationsPerFrame(), getGLCallsPerFrame(), getDrawCallsPerFrame(), getTextureBindsPerFrame(), getMatrixOpsPerFrame(), getStateChangesPerFrame());
+        }
+    }
+}
@@ -0,0 +1,154 @@
+/*******************************************************************************
+ * Copyright (C) 2012-2014 GREE, Inc.
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ ******************************************************************************/
+package com.funzio.pure2D.demo.benchmarks;
+
+import java.util.Random;
+
+import com.funzio.pure2D.astar.Astar;
+import com.funzio.pure2D.astar.AstarAdapter;
+import com.funzio.pure2D.astar.AstarNode;
+import com.funzio.pure2D.astar.AstarNodeSet;
+import com.funzio.pure2D.astar.GridAstar;
+import com.funzio.pure2D.astar.GridPathFinder;
+import com.funzio.pure2D.astar.HierarchicalPathfinder;
+import com.funzio.pure2D.astar.JumpPointSearch;
+import com.funzio.pure2D.astar.RectGridMap;
+import com.funzio.pure2D.grid.RectGrid;
+
+/**
+ * Long routes on an 8-connected map with random buildings, comparing {@link GridAstar}, {@link JumpPointSearch} and {@link HierarchicalPathfinder} on the same map and routes
+ *
+ * @author long
+ */
+public class GridPathBenchmark extends MicroBenchmark {
+    public static final int TYPE_ASTAR = 0;
+    public static final int TYPE_JPS = 1;
+    public static final int TYPE_HPA = 2;
+    private static final String[] TYPE_NAMES = {
+            "GridAstar", "JPS", "HPA*"
+    };
+
+    private static final int NUM_ROUTES = 64;
+
+    private final int mSize;
+    private final int mType;
+
+    private RectGridMap<Object> mMap;
+    private int[] mRoutes;
+    private GridAstar mAstar;
+    private GridPathFinder mFinder;
+    private boolean mLogEnabled;
+
+    public GridPathBenchmark(final int size, final int type) {
+        mSize = size;
+        mType = type;
+    }
+
+    @Override
+    public String getName() {
+        return String.format("%s 8-way %dx%d", TYPE_NAMES[mType], mSize, mSize);
+    }
+
+    @Override
+    protected void setup() {
+        mLogEnabled = Astar.LOG_ENABLED;
+        Astar.LOG_ENABLED = false;
+
+        // same map and routes for all the types
+        final Random random = new Random(0);
+        final Object wall = new Object();
+        final RectGrid<Object> grid = new RectGrid<Object>(mSize, mSize);
+        // buildings, about a quarter of the map
+        for (int i = 0; i < mSize * mSize / 320; i++) {
+            final int w = 2 + random.nextInt(16), h = 2 + random.nextInt(16);
+            final int left = random.nextInt(mSize - w), top = random.nextInt(mSize - h);
+            for (int y = top; y < top + h; y++) {
+                for (int x = left; x < left + w; x++) {
+                    grid.setDataAt(x, y, wall);
+                }
+            }
+        }
+        mMap = new RectGridMap<Object>(grid, true);
+
+        // from one side to the other
+        mRoutes = new int[NUM_ROUTES * 2];
+        for (int i = 0; i < mRoutes.length; i++) {
+            int cell;
+            do {
+                cell = random.nextInt(mSize) * mSize + (i % 2 == 0 ? random.nextInt(mSize / 4) : mSize - 1 - random.nextInt(mSize / 4));
+            } while (!mMap.isWalkable(cell));
+            mRoutes[i] = cell;
+        }
+
+        if (mType == TYPE_JPS) {
+            mFinder = new JumpPointSearch(mMap);
+        } else if (mType == TYPE_HPA) {
+            mFinder = new HierarchicalPathfinder(mMap);
+        } else {
+            final int[] cells = new int[mMap.getMaxNeighbors()];
+            final int[] costs = new int[mMap.getMaxNeighbors()];
+            mFinder = mAstar = new GridAstar(new AstarAdapter() {
+                @Override
+                public int getNodeMaxNeighbors() {
+                    return cells.length;
+                }
+
+                @Override
+                public void getNodeNeighbors(final AstarNode node, final AstarNodeSet openNodes, final AstarNodeSet closedNodes, final AstarNode[] neighbors) {
+                    final int num = mMap.getNeighbors(node.y * mSize + node.x, cells, costs);
+                    int index = 0;
+                    for (int i = 0; i < num; i++) {
+                        final int x = cells[i] % mSize, y = cells[i] / mSize;
+                        if (!closedNodes.containsXY(x, y)) {
+                            final AstarNode neighbor = mAstar.createNode(x, y);
+                            neighbor.g = costs[i];
+                            neighbors[index++] = neighbor;
+                        }
+                    }
+                }
+
+                @Override
+                public int getHeuristic(final AstarNode node1, final AstarNode node2) {
+                    return mMap.getHeuristic(node1.y * mSize + node1.x, node2.y * mSize + node2.x);
+                }
+            }, mSize, mSize);
+        }
+    }
+
+    @Override
+    protected void runOp(final int op) {
+        final int route = (op % NUM_ROUTES) * 2;
+        final int start = mRoutes[route];
+        final int end = mRoutes[route + 1];
+
+        mFinder.findPath(start % mSize, start / mSize, end % mSize, end / mSize, 0, true);
+    }
+
+    @Override
+    protected void tearDown() {
+        Astar.LOG_ENABLED = mLogEnabled;
+        mMap.dispose();
+        mMap = null;
+        mFinder = null;
+        mAstar = null;
+    }
+}
@@ -0,0 +1,140 @@
+/*******************************************************************************
+ * Copyright (C) 2012-2014 GREE, Inc.
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ ******************************************************************************/
+package com.funzio.pure2D.demo.benchmarks;
+
+import java.util.Arrays;
+
+import android.os.Debug;
+
+/**
+ * A benchmark for non-rendering code, measuring time and allocations per operation.
+ *
+ * @author long
+ */
+public abstract class MicroBenchmark {
+    public static final int DEFAULT_WARMUP_OPS = 20;
+    public static final int DEFAULT_OPS = 100;
+
+    abstract public String getName();
+
+    /**
+     * Create the data, called once before warming up
+     */
+    abstract protected void setup();
+
+    /**
+     * Do one operation
+     *
+     * @param op the operation index, including the warm-up ones
+     */
+    abstract protected void runOp(int op);
+
+    protected void tearDown() {
+        // TODO override
+    }
+
+    /**
+     * @return extra results to print, such as the quality of the output, or null
+     */
+    protected String getNotes() {
+        return null;
+    }
+
+    public Result run() {
+        return run(DEFAULT_WARMUP_OPS, DEFAULT_OPS);
+    }
+
+    public Result run(final int warmupOps, final int ops) {
+        setup();
+
+        // warm up
+        for (int i = 0; i < warmupOps; i++) {
+            runOp(i);
+        }
+
+        final Result result = new Result(getName(), ops);
+        Debug.startAllocCounting();
+        try {
+            for (int i = 0; i < ops; i++) {
+                Debug.resetThreadAllocCount();
+
+                final long start = System.nanoTime();
+                runOp(warmupOps + i);
+                result.mOpTimes[i] = System.nanoTime() - start;
+
+                result.mAllocations += Debug.getThreadAllocCount();
+            }
+        } finally {
+            Debug.stopAllocCounting();
+        }
+
+        result.mNotes = getNotes();
+        tearDown();
+
+        return result;
+    }
+
+    public static class Result {
+        public final String name;
+
+        private final long[] mOpTimes;
+        private long mAllocations = 0;
+        private String mNotes;
+
+        public Result(final String name, final int ops) {
+            this.name = name;
+            mOpTimes = new long[ops];
+        }
+
+        public int getNumOps() {
+            return mOpTimes.length;
+        }
+
+        public long getAverageNanos() {
+            long total = 0;
+            for (long time : mOpTimes) {
+                total += time;
+            }
+            return total / mOpTimes.length;
+        }
+
+        public long getMedianNanos() {
+            final long[] sorted = mOpTimes.clone();
+            Arrays.sort(sorted);
+            return sorted[sorted.length / 2];
+        }
+
+        public float getAllocationsPerOp() {
+            return (float) mAllocations / mOpTimes.length;
+        }
+
+        public String getNotes() {
+            return mNotes;
+        }
+
+        @Override
+        public String toString() {
+            final String text = String.format("%s: avg %d ns/op, median %d ns/op, %.1f allocs/op", name, getAverageNanos(), getMedianNanos(), getAllocationsPerOp());
+            return mNotes == null ? text : text + ", " + mNotes;
+        }
+    }
+}
@@ -0,0 +1,112 @@
+/*******************************************************************************
+ * Copyright (C) 2012-2014 GREE, Inc.
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ ******************************************************************************/
+package com.funzio.pure2D.demo.benchmarks;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+
+import android.content.res.AssetManager;
+import android.util.Log;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import com.funzio.pure2D.loaders.tasks.ReadTextFileTask;
+import com.funzio.pure2D.particles.nova.NovaBinary;
+import com.funzio.pure2D.particles.nova.vo.NovaVO;
+
+/**
+ * Creating the {@link NovaVO}s of the demo Nova files, from the JSON texts or from the same files compiled with {@link NovaBinary}
+ *
+ * @author long
+ */
+public class NovaLoadBenchmark extends MicroBenchmark {
+    private static final String TAG = NovaLoadBenchmark.class.getSimpleName();
+    private static final String NOVA_DIR = "nova";
+
+    private final AssetManager mAssets;
+    private final boolean mBinary;
+
+    private ArrayList<String> mTexts;
+    private ArrayList<byte[]> mBinaries;
+
+    public NovaLoadBenchmark(final AssetManager assets, final boolean binary) {
+        mAssets = assets;
+        mBinary = binary;
+    }
+
+    @Override
+    public String getName() {
+        return mBinary ? "NovaVO from binary" : "NovaVO from JSON";
+    }
+
+    @Override
+    protected void setup() {
+        mTexts = new ArrayList<String>();
+        mBinaries = new ArrayList<byte[]>();
+
+        try {
+            final String[] files = mAssets.list(NOVA_DIR);
+            for (final String file : files) {
+                if (!file.endsWith(".json")) {
+                    continue;
+                }
+
+                final ReadTextFileTask readTask = new ReadTextFileTask(mAssets, NOVA_DIR + "/" + file);
+                if (readTask.run()) {
+                    final String text = readTask.getContent();
+                    mTexts.add(text);
+                    mBinaries.add(NovaBinary.compile(new JSONObject(text)));
+                }
+            }
+        } catch (IOException e) {
+            Log.e(TAG, "List failed!", e);
+        } catch (JSONException e) {
+            Log.e(TAG, "Compile failed!", e);
+        }
+    }
+
+    @Override
+    protected void runOp(final int op) {
+        if (mTexts.isEmpty()) {
+            return;
+        }
+
+        final int index = op % mTexts.size();
+        try {
+            if (mBinary) {
+                new NovaVO(ByteBuffer.wrap(mBinaries.get(index)));
+            } else {
+                new NovaVO(mTexts.get(index));
+            }
+        } catch (JSONException e) {
+            Log.e(TAG, "Load failed!", e);
+        }
+    }
+
+    @Override
+    protected void tearDown() {
+        mTexts = null;
+        mBinaries = null;
+    }
+}
@@ -0,0 +1,96 @@
+/*******************************************************************************
+ * Copyright (C) 2012-2014 GREE, Inc.
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ ******************************************************************************/
+package com.funzio.pure2D.demo.benchmarks;
+
+import java.util.Random;
+
+import android.content.res.AssetManager;
+
+import com.funzio.pure2D.particles.nova.NovaLoader;
+import com.funzio.pure2D.particles.nova.NovaParticleSystem;
+import com.funzio.pure2D.particles.nova.vo.NovaVO;
+
+/**
+ * Same bursts as {@link NovaBurstBenchmark}, run by a {@link NovaParticleSystem} instead of display objects.
+ *
+ * @author long
+ */
+public class NovaSystemBenchmark extends FrameBenchmark {
+    private final AssetManager mAssets;
+    private final String mFilePath;
+    private final int mBurstInterval;
+    private final int mMaxParticles;
+
+    private final Random mRandom = new Random(0);
+    private NovaParticleSystem mSystem;
+
+    public NovaSystemBenchmark(final AssetManager assets, final String filePath, final int burstInterval, final int maxParticles) {
+        mAssets = assets;
+        mFilePath = filePath;
+        mBurstInterval = burstInterval;
+        mMaxParticles = maxParticles;
+    }
+
+    @Override
+    public String getName() {
+        return String.format("Nova system: %s every %d frames, %d max", mFilePath, mBurstInterval, mMaxParticles);
+    }
+
+    @Override
+    protected void setup(final BenchmarkScene scene) {
+        // load synchronously
+        final NovaLoader loader = new NovaLoader(new NovaLoader.Listener() {
+
+            @Override
+            public void onLoad(final NovaLoader loader, final String filePath, final NovaVO vo) {
+                mSystem = new NovaParticleSystem(vo, null, mMaxParticles);
+            }
+
+            @Override
+            public void onError(final NovaLoader loader, final String filePath) {
+                // nothing to burst
+            }
+        });
+        loader.load(mAssets, mFilePath);
+
+        if (mSystem != null) {
+            scene.addChild(mSystem);
+        }
+    }
+
+    @Override
+    protected void onFrame(final BenchmarkScene scene, final int frame) {
+        if (mSystem == null || frame % mBurstInterval != 0) {
+            return;
+        }
+
+        mSystem.emit(mRandom.nextInt(DEFAULT_WIDTH), mRandom.nextInt(DEFAULT_HEIGHT));
+    }
+
+    @Override
+    protected void tearDown(final BenchmarkScene scene) {
+        // the system is disposed with the scene
+        super.tearDown(scene);
+
+        mSystem = null;
+    }
+}
@@ -0,0 +1,179 @@
+/*******************************************************************************
+ * Copyright (C) 2012-2014 GREE, Inc.
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ ******************************************************************************/
+package com.funzio.pure2D.demo.benchmarks;
+
+import java.io.IOException;
+import java.util.ArrayList;
+
+import android.content.res.AssetManager;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.graphics.Typeface;
+import android.util.Log;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import com.funzio.pure2D.loaders.tasks.ReadTextFileTask;
+import com.funzio.pure2D.utils.BinPacker;
+import com.funzio.pure2D.utils.MaxRectsPacker;
+import com.funzio.pure2D.utils.RectBinPacker;
+import com.funzio.pure2D.utils.SkylinePacker;
+
+/**
+ * Packing real sprite sets: the glyphs of a demo font in several sizes, or the frames of the demo atlases. The occupancy and the texture size are printed with the time.
+ *
+ * @author long
+ */
+public class PackerBenchmark extends MicroBenchmark {
+    private static final String TAG = PackerBenchmark.class.getSimpleName();
+    private static final String ATLAS_DIR = "atlas";
+    private static final String FONT_FILE = "fonts/pusab.ttf";
+
+    public static final int TYPE_BIN_TREE = 0;
+    public static final int TYPE_MAX_RECTS = 1;
+    public static final int TYPE_SKYLINE = 2;
+
+    public static final int SET_GLYPHS = 0;
+    public static final int SET_SPRITES = 1;
+
+    private static final String[] TYPE_NAMES = {
+            "RectBinPacker", "MaxRectsPacker", "SkylinePacker"
+    };
+
+    private final AssetManager mAssets;
+    private final int mType;
+    private final int mSet;
+    private final int mNumRects;
+    private final int mMaxWidth;
+
+    private int[] mWidths;
+    private int[] mHeights;
+    private BinPacker mPacker;
+
+    public PackerBenchmark(final AssetManager assets, final int type, final int set, final int numRects, final int maxWidth) {
+        mAssets = assets;
+        mType = type;
+        mSet = set;
+        mNumRects = numRects;
+        mMaxWidth = maxWidth;
+    }
+
+    @Override
+    public String getName() {
+        return String.format("%s, %d %s", TYPE_NAMES[mType], mNumRects, mSet == SET_GLYPHS ? "glyphs" : "sprites");
+    }
+
+    @Override
+    protected void setup() {
+        mWidths = new int[mNumRects];
+        mHeights = new int[mNumRects];
+
+        if (mSet == SET_GLYPHS) {
+            setupGlyphs();
+        } else {
+            setupSprites();
+        }
+    }
+
+    private void setupGlyphs() {
+        final Paint paint = new Paint(Paint.ANTI_ALIAS_FLAG);
+        paint.setTypeface(Typeface.createFromAsset(mAssets, FONT_FILE));
+
+        final Rect bounds = new Rect();
+        final char[] chars = new char[1];
+        int count = 0;
+        // the printable ascii chars, bigger and bigger
+        for (int size = 12; count < mNumRects; size += 2) {
+            paint.setTextSize(size);
+            for (char c = '!'; c <= '~' && count < mNumRects; c++) {
+                chars[0] = c;
+                paint.getTextBounds(chars, 0, 1, bounds);
+                mWidths[count] = Math.max(1, bounds.width());
+                mHeights[count] = Math.max(1, bounds.height());
+                count++;
+            }
+        }
+    }
+
+    private void setupSprites() {
+        final ArrayList<Rect> frames = new ArrayList<Rect>();
+        try {
+            final String[] files = mAssets.list(ATLAS_DIR);
+            for (final String file : files) {
+                if (!file.endsWith(".json")) {
+                    continue;
+                }
+
+                final ReadTextFileTask readTask = new ReadTextFileTask(mAssets, ATLAS_DIR + "/" + file);
+                if (readTask.run()) {
+                    final JSONArray jsonFrames = new JSONObject(readTask.getContent()).getJSONArray("frames");
+                    for (int i = 0; i < jsonFrames.length(); i++) {
+                        final JSONObject frame = jsonFrames.getJSONObject(i).getJSONObject("frame");
+                        frames.add(new Rect(0, 0, frame.getInt("w"), frame.getInt("h")));
+                    }
+                }
+            }
+        } catch (IOException e) {
+            Log.e(TAG, "List failed!", e);
+        } catch (JSONException e) {
+            Log.e(TAG, "Parse failed!", e);
+        }
+
+        // repeat the frames
+        for (int i = 0; i < mNumRects; i++) {
+            final Rect frame = frames.isEmpty() ? null : frames.get(i % frames.size());
+            mWidths[i] = frame != null ? frame.width() : 1;
+            mHeights[i] = frame != null ? frame.height() : 1;
+        }
+    }
+
+    @Override
+    protected void runOp(final int op) {
+        if (mType == TYPE_MAX_RECTS) {
+            mPacker = new MaxRectsPacker(mMaxWidth, false);
+        } else if (mType == TYPE_SKYLINE) {
+            mPacker = new SkylinePacker(mMaxWidth, false);
+        } else {
+            mPacker = new RectBinPacker(mMaxWidth, false);
+        }
+
+        for (int i = 0; i < mNumRects; i++) {
+            if (mPacker.occupy(mWidths[i], mHeights[i]) == null) {
+                break;
+            }
+        }
+    }
+
+    @Override
+    protected String getNotes() {
+        return String.format("%d/%d rects in %d x %d, occupancy %.1f%%", mPacker.getNumRects(), mNumRects, mPacker.getWidth(), mPacker.getHeight(), mPacker.getOccupancy() * 100);
+    }
+
+    @Override
+    protected void tearDown() {
+        mWidths = null;
+        mHeights = null;
+        mPacker = null;
+    }
+}
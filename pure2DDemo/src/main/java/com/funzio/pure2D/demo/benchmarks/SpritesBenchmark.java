@@ -0,0 +1,68 @@
+/*******************************************************************************
+ * Copyright (C) 2012-2014 GREE, Inc.
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ ******************************************************************************/
+package com.funzio.pure2D.demo.benchmarks;
+
+import java.util.Random;
+
+import com.funzio.pure2D.demo.objects.Bouncer;
+import com.funzio.pure2D.gl.gl10.textures.Texture;
+
+/**
+ * Lots of moving Sprites directly on the Scene, optionally batched
+ *
+ * @author long
+ */
+public class SpritesBenchmark extends FrameBenchmark {
+    private final int mNumSprites;
+    private final int mNumTextures;
+    private final boolean mBatchEnabled;
+
+    public SpritesBenchmark(final int numSprites, final int numTextures, final boolean batchEnabled) {
+        mNumSprites = numSprites;
+        mNumTextures = numTextures;
+        mBatchEnabled = batchEnabled;
+    }
+
+    @Override
+    public String getName() {
+        return String.format("%d Sprites, %d textures%s", mNumSprites, mNumTextures, mBatchEnabled ? ", batched" : "");
+    }
+
+    @Override
+    protected void setup(final BenchmarkScene scene) {
+        final Random random = new Random(0);
+        final Texture[] textures = new Texture[mNumTextures];
+        for (int i = 0; i < mNumTextures; i++) {
+            textures[i] = scene.getTextureManager().createBufferTexture(32, 32, false);
+        }
+
+        scene.setBatchEnabled(mBatchEnabled);
+        for (int i = 0; i < mNumSprites; i++) {
+            final Bouncer sprite = new Bouncer();
+            sprite.setTexture(textures[random.nextInt(mNumTextures)]);
+            sprite.setBoundary(DEFAULT_WIDTH, DEFAULT_HEIGHT);
+            sprite.setPosition(random.nextInt(DEFAULT_WIDTH - 32), random.nextInt(DEFAULT_HEIGHT - 32));
+            sprite.setRotation(random.nextInt(360));
+            scene.addChild(sprite);
+        }
+    }
+}
@@ -0,0 +1,91 @@
+/*******************************************************************************
+ * Copyright (C) 2012-2014 GREE, Inc.
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ ******************************************************************************/
+package com.funzio.pure2D.demo.benchmarks;
+
+import com.funzio.pure2D.animators.Timeline;
+
+/**
+ * A Timeline with many repeating actions, like a big Nova emitter. Each op is either one 16ms frame update or a seek to another time. The number of runs is printed with the time.
+ *
+ * @author long
+ */
+public class TimelineBenchmark extends MicroBenchmark {
+    private static final int FRAME_TIME = 16;
+    // the start delays are spread over this
+    private static final int SPREAD = 10000;
+
+    private final int mNumActions;
+    private final boolean mSeeking;
+
+    private Timeline mTimeline;
+    private int mNumRuns = 0;
+
+    public TimelineBenchmark(final int numActions, final boolean seeking) {
+        mNumActions = numActions;
+        mSeeking = seeking;
+    }
+
+    @Override
+    public String getName() {
+        return String.format("Timeline, %d actions, %s", mNumActions, mSeeking ? "seek" : "update");
+    }
+
+    @Override
+    protected void setup() {
+        mTimeline = new Timeline(0, null);
+        for (int i = 0; i < mNumActions; i++) {
+            // deterministic, but not ordered
+            final int startDelay = (int) ((i * 7919L) % SPREAD);
+            final int stepDelay = 250 + (i * 31) % 1000;
+            final int duration = (i % 3 == 0) ? 0 : 2000 + (i * 13) % 3000;
+            mTimeline.addAction(new Timeline.Action(startDelay, stepDelay, duration) {
+                @Override
+                public void run() {
+                    mNumRuns++;
+                }
+            });
+        }
+        mTimeline.start();
+        mNumRuns = 0;
+    }
+
+    @Override
+    protected void runOp(final int op) {
+        if (mSeeking) {
+            // back and forth
+            mTimeline.setElapsedTime((int) ((op * 104729L) % (SPREAD * 2)));
+        } else {
+            mTimeline.update(FRAME_TIME);
+        }
+    }
+
+    @Override
+    protected String getNotes() {
+        return String.format("%d runs, %d scheduled", mNumRuns, mTimeline.getNumScheduledActions());
+    }
+
+    @Override
+    protected void tearDown() {
+        mTimeline.clearActions();
+        mTimeline = null;
+    }
+}
@@ -0,0 +1,69 @@
+/*******************************************************************************
+ * Copyright (C) 2012-2014 GREE, Inc.
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ ******************************************************************************/
+package com.funzio.pure2D.demo.benchmarks;
+
+import java.util.Random;
+
+import com.funzio.pure2D.demo.objects.UniBouncer;
+import com.funzio.pure2D.gl.gl10.textures.Texture;
+import com.funzio.pure2D.uni.UniGroup;
+
+/**
+ * Several UniGroups, each stacking many moving UniSprites into a single draw call
+ *
+ * @author long
+ */
+public class UniGroupBenchmark extends FrameBenchmark {
+    private final int mNumGroups;
+    private final int mNumChildren;
+
+    public UniGroupBenchmark(final int numGroups, final int numChildren) {
+        mNumGroups = numGroups;
+        mNumChildren = numChildren;
+    }
+
+    @Override
+    public String getName() {
+        return String.format("%d UniGroups x %d UniSprites", mNumGroups, mNumChildren);
+    }
+
+    @Override
+    protected void setup(final BenchmarkScene scene) {
+        final Random random = new Random(0);
+        final Texture texture = scene.getTextureManager().createBufferTexture(32, 32, false);
+
+        for (int n = 0; n < mNumGroups; n++) {
+            final UniGroup group = new UniGroup();
+            group.setTexture(texture);
+            group.setSize(DEFAULT_WIDTH, DEFAULT_HEIGHT);
+            group.allocateBuffers(mNumChildren);
+
+            for (int i = 0; i < mNumChildren; i++) {
+                final UniBouncer child = new UniBouncer();
+                child.setPosition(random.nextInt(DEFAULT_WIDTH), random.nextInt(DEFAULT_HEIGHT));
+                group.addChild(child);
+            }
+
+            scene.addChild(group);
+        }
+    }
+}